@@ -0,0 +1,159 @@
+package dailyMarketAggregates.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dailyMarketAggregates.Aggregator;
+import dailyMarketAggregates.ColumnarTradeDay;
+import dailyMarketAggregates.DayAggregates;
+import dailyMarketAggregates.TickerAccumulator;
+import dailyMarketAggregates.TickerDictionary;
+import dailyMarketAggregates.Trade;
+import dailyMarketAggregates.TradeDay;
+
+/**
+ * Benchmarks the per-ticker and market index aggregates of {@link Aggregator}
+ * for a day of trades.
+ *
+ * @author sara.derakhshani
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AggregatorBenchmark {
+
+	@Param({ "4", "500" })
+	int nrOfTickers;
+
+	@Param({ "100000", "1000000" })
+	int tradesPerDay;
+
+	Aggregator aggregator;
+	TradeDay tradeDay;
+	ColumnarTradeDay columnarTradeDay;
+	List<List<Trade>> tradesPerTicker;
+
+	@Setup
+	public void setUp() {
+		LocalDate date = LocalDate.parse("2023-06-01");
+		tradeDay = new TradeDay(date);
+		columnarTradeDay = new ColumnarTradeDay(date, new TickerDictionary());
+		for (Trade trade : new SyntheticMarketLog(1, nrOfTickers, tradesPerDay, 42).generateTrades()) {
+			tradeDay.addTrade(trade);
+			columnarTradeDay.addTrade(trade);
+		}
+		tradesPerTicker = new ArrayList<>(tradeDay.getTradesPerTicker().values());
+		aggregator = new Aggregator();
+		// fill the last known aggregates for the market index benchmarks
+		aggregator.calculateAggregatesOfDay(tradeDay);
+	}
+
+	@Benchmark
+	public double calculateOpenPriceOfTicker() {
+		double sum = 0.0;
+		for (List<Trade> trades : tradesPerTicker) {
+			sum += aggregator.calculateOpenPriceOfTicker(trades);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double calculateClosePriceOfTicker() {
+		double sum = 0.0;
+		for (List<Trade> trades : tradesPerTicker) {
+			sum += aggregator.calculateClosePriceOfTicker(trades);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double calculateHighestPriceOfTicker() {
+		double sum = 0.0;
+		for (List<Trade> trades : tradesPerTicker) {
+			sum += aggregator.calculateHighestPriceOfTicker(trades);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double calculateLowestPriceOfTicker() {
+		double sum = 0.0;
+		for (List<Trade> trades : tradesPerTicker) {
+			sum += aggregator.calculateLowestPriceOfTicker(trades);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double calculateDailyTradedVolumeOfTicker() {
+		double sum = 0.0;
+		for (List<Trade> trades : tradesPerTicker) {
+			sum += aggregator.calculateDailyTradedVolumeOfTicker(trades);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double calculateAggregatesOfTicker() {
+		double sum = 0.0;
+		for (List<Trade> trades : tradesPerTicker) {
+			TickerAccumulator tickerAggregates = aggregator.calculateAggregatesOfTicker(trades);
+			sum += tickerAggregates.getOpenPrice() + tickerAggregates.getDailyTradedVolume();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public DayAggregates calculateAggregatesOfTradeDay() {
+		return aggregator.calculateAggregatesOfDay(tradeDay);
+	}
+
+	@Benchmark
+	public DayAggregates calculateAggregatesOfColumnarTradeDay() {
+		return aggregator.calculateAggregatesOfDay(columnarTradeDay);
+	}
+
+	@Benchmark
+	public double calculateOpenPriceOfMarket() {
+		return aggregator.calculateOpenPriceOfMarket();
+	}
+
+	@Benchmark
+	public double calculateClosePriceOfMarket() {
+		return aggregator.calculateClosePriceOfMarket();
+	}
+
+	@Benchmark
+	public double calculateHighestPriceOfMarket() {
+		return aggregator.calculateHighestPriceOfMarket();
+	}
+
+	@Benchmark
+	public double calculateLowestPriceOfMarket() {
+		return aggregator.calculateLowestPriceOfMarket();
+	}
+
+	@Benchmark
+	public double calculateDailyTradedVolumeOfMarket() {
+		return aggregator.calculateDailyTradedVolumeOfMarket();
+	}
+
+}
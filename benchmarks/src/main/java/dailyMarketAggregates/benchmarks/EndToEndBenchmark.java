@@ -0,0 +1,87 @@
+package dailyMarketAggregates.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dailyMarketAggregates.Main;
+
+/**
+ * Benchmarks a whole run of {@link Main} over a generated log file, from
+ * reading the file to printing the aggregates. The console output is
+ * discarded.
+ *
+ * @author sara.derakhshani
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EndToEndBenchmark {
+
+	@Param({ "--sequential", "--parallel", "--columnar" })
+	String mode;
+
+	@Param({ "4", "500" })
+	int nrOfTickers;
+
+	@Param({ "20" })
+	int nrOfDays;
+
+	@Param({ "100000" })
+	int tradesPerDay;
+
+	Path logFile;
+	PrintStream console;
+
+	@Setup
+	public void setUp() throws IOException {
+		logFile = Files.createTempFile("synthetic-market", ".csv");
+		new SyntheticMarketLog(nrOfDays, nrOfTickers, tradesPerDay, 42).writeTo(logFile);
+		console = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		}));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		System.setOut(console);
+		Files.deleteIfExists(logFile);
+	}
+
+	@Benchmark
+	public void runMain() {
+		if (mode.equals("--sequential")) {
+			Main.main(new String[] { logFile.toString() });
+		} else {
+			Main.main(new String[] { mode, logFile.toString() });
+		}
+	}
+
+}
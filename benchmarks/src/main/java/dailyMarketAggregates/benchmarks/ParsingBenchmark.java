@@ -0,0 +1,99 @@
+package dailyMarketAggregates.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dailyMarketAggregates.Trade;
+import dailyMarketAggregates.TradeLogReader;
+import dailyMarketAggregates.TradeParser;
+
+/**
+ * Benchmarks parsing the lines of a market historical log, with the String
+ * splitting Main used before and with {@link TradeParser}.
+ *
+ * @author sara.derakhshani
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParsingBenchmark {
+
+	@Param({ "4", "500" })
+	int nrOfTickers;
+
+	@Param({ "100000", "1000000" })
+	int tradesPerDay;
+
+	List<String> lines;
+	byte[] log;
+	ByteBuffer logBuffer;
+
+	@Setup
+	public void setUp() {
+		SyntheticMarketLog marketLog = new SyntheticMarketLog(1, nrOfTickers, tradesPerDay, 42);
+		lines = marketLog.generateLines();
+		log = marketLog.generateBytes();
+		logBuffer = ByteBuffer.wrap(log);
+	}
+
+	@Benchmark
+	public void splitLinesIntoTrades(Blackhole blackhole) {
+		for (String line : lines) {
+			String[] tradeInfo = line.split(";");
+			String[] dateTime = tradeInfo[0].split(" ");
+			blackhole.consume(new Trade(tradeInfo[1], LocalDate.parse(dateTime[0]), LocalTime.parse(dateTime[1]),
+					Double.parseDouble(tradeInfo[2].replace(',', '.')), Integer.parseInt(tradeInfo[3])));
+		}
+	}
+
+	@Benchmark
+	public void parseLinesIntoPrimitives(Blackhole blackhole) {
+		TradeParser parser = new TradeParser();
+		int lineStart = 0;
+		int limit = logBuffer.limit();
+		while (lineStart < limit) {
+			int lineEnd = TradeParser.indexOfLineEnd(logBuffer, lineStart, limit);
+			if (lineEnd < 0) {
+				lineEnd = limit;
+			}
+			if (parser.parseLine(logBuffer, lineStart, lineEnd)) {
+				blackhole.consume(parser.getPrice());
+				blackhole.consume(parser.getNrOfSecuritiesTraded());
+			}
+			lineStart = lineEnd + 1;
+		}
+	}
+
+	@Benchmark
+	public void readLogWithTradeLogReader(Blackhole blackhole) throws IOException {
+		try (TradeLogReader reader = new TradeLogReader(Channels.newChannel(new ByteArrayInputStream(log)))) {
+			while (reader.nextTrade()) {
+				blackhole.consume(reader.getParser().getPrice());
+			}
+		}
+	}
+
+}
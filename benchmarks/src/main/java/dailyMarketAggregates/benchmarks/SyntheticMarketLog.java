@@ -0,0 +1,175 @@
+package dailyMarketAggregates.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import dailyMarketAggregates.Trade;
+import dailyMarketAggregates.TradeLogReader;
+
+/**
+ * SyntheticMarketLog generates market historical logs in the format of
+ * test-market.csv with any number of days, tickers and trades per day. Prices
+ * follow a random walk per ticker and trade times are spread evenly over the
+ * trading hours, so the logs are sorted by date and time like the real log. The
+ * same seed always generates the same log.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class SyntheticMarketLog {
+
+	// 09:00:00 to 17:30:00
+	private static final int OPENING_SECOND = 9 * 3600;
+	private static final int TRADING_SECONDS = 8 * 3600 + 30 * 60;
+
+	private final int nrOfDays;
+	private final int nrOfTickers;
+	private final int tradesPerDay;
+	private final long seed;
+
+	public SyntheticMarketLog(int nrOfDays, int nrOfTickers, int tradesPerDay, long seed) {
+		this.nrOfDays = nrOfDays;
+		this.nrOfTickers = nrOfTickers;
+		this.tradesPerDay = tradesPerDay;
+		this.seed = seed;
+	}
+
+	/**
+	 * @return ticker names T0, T1, ... of the log.
+	 */
+	public String[] getTickers() {
+		String[] tickers = new String[nrOfTickers];
+		for (int i = 0; i < nrOfTickers; i++) {
+			tickers[i] = "T" + i;
+		}
+		return tickers;
+	}
+
+	/**
+	 * @return lines of the log without line feeds.
+	 */
+	public List<String> generateLines() {
+		List<String> lines = new ArrayList<>(nrOfDays * tradesPerDay);
+		generate(line -> lines.add(line));
+		return lines;
+	}
+
+	/**
+	 * @return the whole log as bytes.
+	 */
+	public byte[] generateBytes() {
+		StringBuilder log = new StringBuilder(nrOfDays * tradesPerDay * 36);
+		generate(line -> log.append(line).append('\n'));
+		return log.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * @return trades of the log.
+	 */
+	public List<Trade> generateTrades() {
+		List<Trade> trades = new ArrayList<>(nrOfDays * tradesPerDay);
+		byte[] log = generateBytes();
+		try (TradeLogReader reader = new TradeLogReader(Channels.newChannel(new ByteArrayInputStream(log)))) {
+			while (reader.nextTrade()) {
+				trades.add(reader.getParser().toTrade(LocalDate.ofEpochDay(reader.getParser().getEpochDay())));
+			}
+		} catch (IOException e) {
+			// reading from memory does not fail
+			throw new IllegalStateException(e);
+		}
+		return trades;
+	}
+
+	/**
+	 * Writes the log to a file.
+	 *
+	 * @param file Path of the file.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void writeTo(Path file) throws IOException {
+		try (OutputStream out = Files.newOutputStream(file)) {
+			StringBuilder batch = new StringBuilder(1 << 17);
+			IOException[] failure = new IOException[1];
+			generate(line -> {
+				batch.append(line).append('\n');
+				if (batch.length() >= 1 << 16 && failure[0] == null) {
+					try {
+						out.write(batch.toString().getBytes(StandardCharsets.US_ASCII));
+					} catch (IOException e) {
+						failure[0] = e;
+					}
+					batch.setLength(0);
+				}
+			});
+			if (failure[0] != null) {
+				throw failure[0];
+			}
+			out.write(batch.toString().getBytes(StandardCharsets.US_ASCII));
+		}
+	}
+
+	private void generate(LineSink sink) {
+		String[] tickers = getTickers();
+		Random random = new Random(seed);
+		double[] prices = initialPrices(random);
+		LocalDate date = LocalDate.parse("2023-06-01");
+		StringBuilder line = new StringBuilder(48);
+		for (int day = 0; day < nrOfDays; day++, date = date.plusDays(1)) {
+			String datePrefix = date.toString() + " ";
+			for (int i = 0; i < tradesPerDay; i++) {
+				int tickerId = random.nextInt(nrOfTickers);
+				double price = nextPrice(random, prices, tickerId);
+				int second = timeOfTrade(i);
+				line.setLength(0);
+				line.append(datePrefix);
+				appendTwoDigits(line, second / 3600).append(':');
+				appendTwoDigits(line, second / 60 % 60).append(':');
+				appendTwoDigits(line, second % 60).append(';');
+				line.append(tickers[tickerId]).append(';');
+				long cents = Math.round(price * 100);
+				line.append(cents / 100).append(',');
+				appendTwoDigits(line, (int) (cents % 100)).append(';');
+				line.append(1 + random.nextInt(999));
+				sink.accept(line.toString());
+			}
+		}
+	}
+
+	private double[] initialPrices(Random random) {
+		double[] prices = new double[nrOfTickers];
+		for (int i = 0; i < nrOfTickers; i++) {
+			prices[i] = 100 + random.nextInt(5000);
+		}
+		return prices;
+	}
+
+	private static double nextPrice(Random random, double[] prices, int tickerId) {
+		prices[tickerId] = Math.max(1.0, prices[tickerId] * (1 + (random.nextDouble() - 0.5) * 0.002));
+		return Math.round(prices[tickerId] * 100) / 100.0;
+	}
+
+	private int timeOfTrade(int indexOfDay) {
+		return OPENING_SECOND + (int) ((long) indexOfDay * TRADING_SECONDS / tradesPerDay);
+	}
+
+	private static StringBuilder appendTwoDigits(StringBuilder builder, int value) {
+		if (value < 10) {
+			builder.append('0');
+		}
+		return builder.append(value);
+	}
+
+	private interface LineSink {
+		void accept(String line);
+	}
+
+}
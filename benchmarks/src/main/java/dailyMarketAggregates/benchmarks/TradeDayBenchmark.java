@@ -0,0 +1,95 @@
+package dailyMarketAggregates.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dailyMarketAggregates.ColumnarTradeDay;
+import dailyMarketAggregates.TickerDictionary;
+import dailyMarketAggregates.Trade;
+import dailyMarketAggregates.TradeDay;
+import dailyMarketAggregates.TradeParser;
+
+/**
+ * Benchmarks buffering the trades of a day in {@link TradeDay} and in
+ * {@link ColumnarTradeDay}.
+ *
+ * @author sara.derakhshani
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TradeDayBenchmark {
+
+	@Param({ "4", "500" })
+	int nrOfTickers;
+
+	@Param({ "100000", "1000000" })
+	int tradesPerDay;
+
+	LocalDate date = LocalDate.parse("2023-06-01");
+	List<Trade> trades;
+	ByteBuffer logBuffer;
+
+	@Setup
+	public void setUp() {
+		SyntheticMarketLog marketLog = new SyntheticMarketLog(1, nrOfTickers, tradesPerDay, 42);
+		trades = marketLog.generateTrades();
+		logBuffer = ByteBuffer.wrap(marketLog.generateBytes());
+	}
+
+	@Benchmark
+	public TradeDay addTradesToTradeDay() {
+		TradeDay tradeDay = new TradeDay(date);
+		for (Trade trade : trades) {
+			tradeDay.addTrade(trade);
+		}
+		return tradeDay;
+	}
+
+	@Benchmark
+	public ColumnarTradeDay addTradesToColumnarTradeDay() {
+		ColumnarTradeDay tradeDay = new ColumnarTradeDay(date, new TickerDictionary());
+		for (Trade trade : trades) {
+			tradeDay.addTrade(trade);
+		}
+		return tradeDay;
+	}
+
+	@Benchmark
+	public ColumnarTradeDay addParsedLinesToColumnarTradeDay() {
+		ColumnarTradeDay tradeDay = new ColumnarTradeDay(date, new TickerDictionary());
+		TradeParser parser = new TradeParser();
+		int lineStart = 0;
+		int limit = logBuffer.limit();
+		while (lineStart < limit) {
+			int lineEnd = TradeParser.indexOfLineEnd(logBuffer, lineStart, limit);
+			if (lineEnd < 0) {
+				lineEnd = limit;
+			}
+			if (parser.parseLine(logBuffer, lineStart, lineEnd)) {
+				tradeDay.addTrade(parser);
+			}
+			lineStart = lineEnd + 1;
+		}
+		return tradeDay;
+	}
+
+}
@@ -0,0 +1,177 @@
+package dailyMarketAggregates;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * AggregateServer serves the snapshots of a {@link SnapshotPublisher} as JSON
+ * over HTTP on the loopback interface, using the HTTP server of the JDK. Every
+ * request reads the published immutable snapshots on a thread of the server,
+ * so requests never block the thread that aggregates the trades.
+ * <ul>
+ * <li>{@code GET /aggregates} returns the snapshot of the latest day,
+ * {@code GET /aggregates?date=yyyy-MM-dd} the snapshot of a day.</li>
+ * <li>{@code GET /tickers/TICKER} and {@code GET /indices/INDEX} return the
+ * aggregates of a ticker or market index of the latest day, or of a day with
+ * {@code ?date=yyyy-MM-dd}.</li>
+ * <li>{@code GET /dates} returns the dates of the retained snapshots.</li>
+ * </ul>
+ * Unknown dates, tickers and market indices are answered with status 404 and a
+ * JSON object with an error message.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class AggregateServer implements Closeable {
+
+	private static final int NR_OF_THREADS = 2;
+
+	private final SnapshotPublisher publisher;
+	private final HttpServer server;
+	private final ExecutorService executor;
+
+	/**
+	 * Starts a server on the loopback interface.
+	 *
+	 * @param publisher Publisher of the snapshots.
+	 * @param port      Port of the server, 0 for any free port.
+	 * @throws IOException if the port cannot be bound.
+	 */
+	public AggregateServer(SnapshotPublisher publisher, int port) throws IOException {
+		this.publisher = publisher;
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		this.executor = Executors.newFixedThreadPool(NR_OF_THREADS, runnable -> {
+			Thread thread = new Thread(runnable, "aggregate-server");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executor);
+		server.createContext("/aggregates", exchange -> handle(exchange, "/aggregates"));
+		server.createContext("/tickers/", exchange -> handle(exchange, "/tickers/"));
+		server.createContext("/indices/", exchange -> handle(exchange, "/indices/"));
+		server.createContext("/dates", exchange -> handle(exchange, "/dates"));
+		server.start();
+	}
+
+	/**
+	 * @return port the server listens on.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Stops the server, requests that are being answered get one second to
+	 * complete.
+	 */
+	@Override
+	public void close() {
+		server.stop(1);
+		executor.shutdown();
+	}
+
+	private void handle(HttpExchange exchange, String context) throws IOException {
+		try {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				sendError(exchange, 405, "Only GET is supported");
+				return;
+			}
+			String path = exchange.getRequestURI().getPath();
+			String name = path.length() > context.length() ? path.substring(context.length()) : "";
+			if (name.isEmpty() == context.endsWith("/")) {
+				sendError(exchange, 404, "Unknown path: " + path);
+				return;
+			}
+			StringBuilder json = new StringBuilder(256);
+			if (context.equals("/dates")) {
+				appendDates(json, publisher.getDates());
+				send(exchange, 200, json);
+				return;
+			}
+			AggregateSnapshot snapshot;
+			try {
+				snapshot = snapshotOf(exchange.getRequestURI().getQuery());
+			} catch (DateTimeParseException e) {
+				sendError(exchange, 400, "Invalid date: " + e.getParsedString());
+				return;
+			}
+			if (snapshot == null) {
+				sendError(exchange, 404, "No aggregates of the date");
+				return;
+			}
+			if (context.equals("/aggregates")) {
+				snapshot.appendJson(json);
+				send(exchange, 200, json);
+				return;
+			}
+			AggregateSnapshot.Aggregates aggregates = context.equals("/tickers/")
+					? snapshot.getAggregatesOfTicker(name)
+					: snapshot.getAggregatesOfIndex(name);
+			if (aggregates == null) {
+				sendError(exchange, 404, "No aggregates of " + name + " on " + snapshot.getDate());
+				return;
+			}
+			json.append("{\"date\":\"").append(snapshot.getDate()).append("\",\"complete\":")
+					.append(snapshot.isComplete()).append(",\"aggregates\":");
+			aggregates.appendJson(json);
+			json.append('}');
+			send(exchange, 200, json);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/*
+	 * Returns the snapshot of the date of a query like date=2023-06-01 or the
+	 * latest snapshot if the query has no date.
+	 */
+	private AggregateSnapshot snapshotOf(String query) {
+		if (query != null) {
+			for (String parameter : query.split("&")) {
+				if (parameter.startsWith("date=")) {
+					return publisher.getSnapshot(LocalDate.parse(parameter.substring("date=".length())));
+				}
+			}
+		}
+		return publisher.getLatestSnapshot();
+	}
+
+	private static void appendDates(StringBuilder json, List<LocalDate> dates) {
+		json.append('[');
+		for (int i = 0; i < dates.size(); i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append('"').append(dates.get(i)).append('"');
+		}
+		json.append(']');
+	}
+
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		StringBuilder json = new StringBuilder("{\"error\":\"");
+		JsonLinesReportSink.appendEscaped(json, message);
+		send(exchange, status, json.append("\"}"));
+	}
+
+	private static void send(HttpExchange exchange, int status, CharSequence json) throws IOException {
+		byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+}
@@ -0,0 +1,271 @@
+package dailyMarketAggregates;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * AggregateSnapshot is an immutable copy of the daily aggregates of every
+ * ticker and market index of a day, e.g. to be read by other threads while the
+ * aggregates of later trades are calculated. A snapshot of a day that is still
+ * open contains the tickers traded so far and no market indices.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public final class AggregateSnapshot {
+
+	/**
+	 * Aggregates and trade statistics of a ticker or market index. Values that
+	 * are not positive are not available, except for the price variance which is
+	 * not available if it is NaN.
+	 */
+	public static final class Aggregates {
+
+		private final String name;
+		private final double openPrice;
+		private final double closePrice;
+		private final double highestPrice;
+		private final double lowestPrice;
+		private final double dailyTradedVolume;
+		private final double volumeWeightedAveragePrice;
+		private final double timeWeightedAveragePrice;
+		private final long tradeCount;
+		private final long nrOfSecuritiesTraded;
+		private final double priceVariance;
+		// estimated values of ReportSink.QUANTILES, 0.0 if not available
+		private final double[] priceQuantiles;
+		private final double[] sizeQuantiles;
+
+		private Aggregates(String name, double openPrice, double closePrice, double highestPrice, double lowestPrice,
+				double dailyTradedVolume, double volumeWeightedAveragePrice, double timeWeightedAveragePrice,
+				long tradeCount, long nrOfSecuritiesTraded, double priceVariance, QuantileSketch priceSketch,
+				QuantileSketch sizeSketch) {
+			this.name = name;
+			this.openPrice = openPrice;
+			this.closePrice = closePrice;
+			this.highestPrice = highestPrice;
+			this.lowestPrice = lowestPrice;
+			this.dailyTradedVolume = dailyTradedVolume;
+			this.volumeWeightedAveragePrice = volumeWeightedAveragePrice;
+			this.timeWeightedAveragePrice = timeWeightedAveragePrice;
+			this.tradeCount = tradeCount;
+			this.nrOfSecuritiesTraded = nrOfSecuritiesTraded;
+			this.priceVariance = priceVariance;
+			this.priceQuantiles = quantilesOf(priceSketch);
+			this.sizeQuantiles = quantilesOf(sizeSketch);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public double getOpenPrice() {
+			return openPrice;
+		}
+
+		public double getClosePrice() {
+			return closePrice;
+		}
+
+		public double getHighestPrice() {
+			return highestPrice;
+		}
+
+		public double getLowestPrice() {
+			return lowestPrice;
+		}
+
+		public double getDailyTradedVolume() {
+			return dailyTradedVolume;
+		}
+
+		public long getTradeCount() {
+			return tradeCount;
+		}
+
+		/**
+		 * Appends the aggregates as JSON object with the keys of
+		 * {@link JsonLinesReportSink}.
+		 *
+		 * @param json Text of the JSON document.
+		 */
+		public void appendJson(StringBuilder json) {
+			json.append("{\"name\":\"");
+			JsonLinesReportSink.appendEscaped(json, name);
+			json.append('"');
+			appendValue(json, "open", openPrice);
+			appendValue(json, "close", closePrice);
+			appendValue(json, "highest", highestPrice);
+			appendValue(json, "lowest", lowestPrice);
+			appendValue(json, "volume", dailyTradedVolume);
+			appendValue(json, "vwap", volumeWeightedAveragePrice);
+			appendValue(json, "twap", timeWeightedAveragePrice);
+			appendValue(json, "trades", tradeCount);
+			appendValue(json, "shares", nrOfSecuritiesTraded);
+			json.append(",\"variance\":");
+			if (Double.isNaN(priceVariance)) {
+				json.append("null");
+			} else {
+				json.append(priceVariance);
+			}
+			for (int i = 0; i < ReportSink.QUANTILES.length; i++) {
+				appendValue(json, "price_p" + Math.round(ReportSink.QUANTILES[i] * 100), priceQuantiles[i]);
+			}
+			for (int i = 0; i < ReportSink.QUANTILES.length; i++) {
+				appendValue(json, "size_p" + Math.round(ReportSink.QUANTILES[i] * 100), sizeQuantiles[i]);
+			}
+			json.append('}');
+		}
+
+		private static double[] quantilesOf(QuantileSketch sketch) {
+			double[] quantiles = new double[ReportSink.QUANTILES.length];
+			if (sketch != null) {
+				for (int i = 0; i < quantiles.length; i++) {
+					quantiles[i] = sketch.getQuantile(ReportSink.QUANTILES[i]);
+				}
+			}
+			return quantiles;
+		}
+
+		private static void appendValue(StringBuilder json, String key, double value) {
+			json.append(",\"").append(key).append("\":");
+			if (value > 0.0) {
+				json.append(value);
+			} else {
+				json.append("null");
+			}
+		}
+
+		private static void appendValue(StringBuilder json, String key, long value) {
+			json.append(",\"").append(key).append("\":");
+			if (value > 0) {
+				json.append(value);
+			} else {
+				json.append("null");
+			}
+		}
+
+	}
+
+	private final LocalDate date;
+	private final boolean complete;
+	private final Map<String, Aggregates> aggregatesPerTicker;
+	private final Map<String, Aggregates> aggregatesPerIndex;
+
+	private AggregateSnapshot(LocalDate date, boolean complete, Map<String, Aggregates> aggregatesPerTicker,
+			Map<String, Aggregates> aggregatesPerIndex) {
+		this.date = date;
+		this.complete = complete;
+		this.aggregatesPerTicker = Collections.unmodifiableMap(aggregatesPerTicker);
+		this.aggregatesPerIndex = Collections.unmodifiableMap(aggregatesPerIndex);
+	}
+
+	/**
+	 * Copies the aggregates of a completed day. The aggregates must already be
+	 * stored as last known aggregates of the aggregator.
+	 *
+	 * @param aggregator    Aggregator with the last known aggregates of the
+	 *                      indices.
+	 * @param dayAggregates Daily aggregates of the day.
+	 * @return snapshot of the day.
+	 */
+	public static AggregateSnapshot ofCompletedDay(Aggregator aggregator, DayAggregates dayAggregates) {
+		Map<String, Aggregates> aggregatesPerIndex = new TreeMap<>();
+		for (MarketIndex marketIndex : aggregator.getMarketIndices()) {
+			aggregatesPerIndex.put(marketIndex.getName(), new Aggregates(marketIndex.getName(),
+					aggregator.calculateOpenPriceOfMarket(marketIndex),
+					aggregator.calculateClosePriceOfMarket(marketIndex),
+					aggregator.calculateHighestPriceOfMarket(marketIndex),
+					aggregator.calculateLowestPriceOfMarket(marketIndex),
+					aggregator.calculateDailyTradedVolumeOfMarket(marketIndex),
+					aggregator.calculateVolumeWeightedAveragePriceOfMarket(marketIndex),
+					aggregator.calculateTimeWeightedAveragePriceOfMarket(marketIndex),
+					aggregator.calculateTradeCountOfMarket(marketIndex),
+					aggregator.calculateNrOfSecuritiesTradedOfMarket(marketIndex), Double.NaN, null, null));
+		}
+		return new AggregateSnapshot(dayAggregates.getDate(), true, copyTickers(dayAggregates), aggregatesPerIndex);
+	}
+
+	/**
+	 * Copies the aggregates of the tickers traded so far on a day that is still
+	 * open.
+	 *
+	 * @param dayAggregates Running aggregates of the day.
+	 * @return snapshot of the day without market indices.
+	 */
+	public static AggregateSnapshot ofOpenDay(DayAggregates dayAggregates) {
+		return new AggregateSnapshot(dayAggregates.getDate(), false, copyTickers(dayAggregates),
+				Collections.<String, Aggregates>emptyMap());
+	}
+
+	public LocalDate getDate() {
+		return date;
+	}
+
+	/**
+	 * @return true if all trades of the day have been aggregated.
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * @param ticker Ticker of the market.
+	 * @return aggregates of the ticker or null if it has not been traded.
+	 */
+	public Aggregates getAggregatesOfTicker(String ticker) {
+		return aggregatesPerTicker.get(ticker);
+	}
+
+	/**
+	 * @param name Name of the market index.
+	 * @return aggregates of the market index or null if the snapshot has none.
+	 */
+	public Aggregates getAggregatesOfIndex(String name) {
+		return aggregatesPerIndex.get(name);
+	}
+
+	/**
+	 * Appends the snapshot as JSON object with the date, whether the day is
+	 * complete and the aggregates of the tickers and market indices sorted by
+	 * name.
+	 *
+	 * @param json Text of the JSON document.
+	 */
+	public void appendJson(StringBuilder json) {
+		json.append("{\"date\":\"").append(date).append("\",\"complete\":").append(complete)
+				.append(",\"tickers\":[");
+		appendAll(json, aggregatesPerTicker);
+		json.append("],\"indices\":[");
+		appendAll(json, aggregatesPerIndex);
+		json.append("]}");
+	}
+
+	private static Map<String, Aggregates> copyTickers(DayAggregates dayAggregates) {
+		Map<String, Aggregates> aggregatesPerTicker = new TreeMap<>();
+		for (TickerAccumulator tickerAggregates : dayAggregates.getAggregatesPerTicker().values()) {
+			aggregatesPerTicker.put(tickerAggregates.getTicker(), new Aggregates(tickerAggregates.getTicker(),
+					tickerAggregates.getOpenPrice(), tickerAggregates.getClosePrice(),
+					tickerAggregates.getHighestPrice(), tickerAggregates.getLowestPrice(),
+					tickerAggregates.getDailyTradedVolume(), tickerAggregates.getVolumeWeightedAveragePrice(),
+					tickerAggregates.getTimeWeightedAveragePrice(), tickerAggregates.getTradeCount(),
+					tickerAggregates.getNrOfSecuritiesTraded(), tickerAggregates.getPriceVariance(),
+					tickerAggregates.getPriceSketch(), tickerAggregates.getSizeSketch()));
+		}
+		return aggregatesPerTicker;
+	}
+
+	private static void appendAll(StringBuilder json, Map<String, Aggregates> aggregatesPerName) {
+		boolean first = true;
+		for (Aggregates aggregates : aggregatesPerName.values()) {
+			if (!first) {
+				json.append(',');
+			}
+			aggregates.appendJson(json);
+			first = false;
+		}
+	}
+
+}
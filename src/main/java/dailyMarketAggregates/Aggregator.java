@@ -1,45 +1,151 @@
 package dailyMarketAggregates;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Aggregator contains methods to calculate daily aggregates for the market.
+ * The last known aggregates of the tickers and the weights of the market
+ * indices are kept as fixed-point longs, so the market aggregates are exact
+ * sums of the decimal values, rounded to double once. Besides the prices and
+ * volumes, the trade statistics of the tickers are kept: volume and time
+ * weighted average prices, rounded to fixed point, as well as numbers of
+ * trades and securities traded.
  * 
  * @author sara.derakhshani
  *
  */
 public class Aggregator {
 
-	private Map<String, Double> lastKnownOpenPrices = new HashMap<>();
-	private Map<String, Double> lastKnownClosePrices = new HashMap<>();
-	private Map<String, Double> lastKnownHighestPrices = new HashMap<>();
-	private Map<String, Double> lastKnownLowestPrices = new HashMap<>();
-	private Map<String, Double> lastKnownDailyTradedVolume = new HashMap<>();
+	// marks a last known aggregate that is unknown
+	private static final long UNKNOWN = Long.MIN_VALUE;
+	private static final int WEIGHTED_SUM_DECIMALS = TradeParser.PRICE_DECIMALS + IndexWeights.WEIGHT_DECIMALS;
 
+	// last known aggregates per ticker id of the ticker dictionary as fixed-point
+	// longs scaled by TradeParser.PRICE_SCALE, UNKNOWN if unknown
+	private long[] lastKnownOpenPrices = new long[0];
+	private long[] lastKnownClosePrices = new long[0];
+	private long[] lastKnownHighestPrices = new long[0];
+	private long[] lastKnownLowestPrices = new long[0];
+	private long[] lastKnownDailyTradedVolume = new long[0];
+	private long[] lastKnownVolumeWeightedAveragePrices = new long[0];
+	private long[] lastKnownTimeWeightedAveragePrices = new long[0];
+	private long[] lastKnownTradeCounts = new long[0];
+	private long[] lastKnownNrsOfSecuritiesTraded = new long[0];
+	private TickerDictionary tickerDictionary = new TickerDictionary();
+	private List<ResolvedMarketIndex> marketIndices = new ArrayList<>();
+
+	/**
+	 * Creates an aggregator for the default market index.
+	 */
 	public Aggregator() {
+		this(Collections.singletonList(MarketIndex.defaultIndex()));
+	}
+
+	/**
+	 * Creates an aggregator for several market indices.
+	 * 
+	 * @param marketIndices Market indices, the first one is used by the
+	 *                      calculate*OfMarket methods without index argument.
+	 */
+	public Aggregator(List<MarketIndex> marketIndices) {
+		if (marketIndices.isEmpty()) {
+			throw new IllegalArgumentException("At least one market index is required");
+		}
+		for (MarketIndex marketIndex : marketIndices) {
+			this.marketIndices.add(new ResolvedMarketIndex(marketIndex));
+		}
+	}
+
+	/**
+	 * @return market indices of this aggregator.
+	 */
+	public List<MarketIndex> getMarketIndices() {
+		List<MarketIndex> indices = new ArrayList<>();
+		for (ResolvedMarketIndex resolvedMarketIndex : this.marketIndices) {
+			indices.add(resolvedMarketIndex.marketIndex);
+		}
+		return indices;
+	}
+
+	/**
+	 * Returns the dictionary of the ticker ids the last known aggregates and
+	 * index weights of this aggregator are stored by. Components that run on the
+	 * same thread as the aggregator can share it, so a ticker is interned once.
+	 * 
+	 * @return ticker dictionary of this aggregator.
+	 */
+	public TickerDictionary getTickerDictionary() {
+		return this.tickerDictionary;
 	}
 
 	private void addLastKnownOpenPriceOfTicker(String ticker, double price) {
-		this.lastKnownOpenPrices.put(ticker, price);
+		if (ticker != null) {
+			int tickerId = this.lastKnownIdOf(ticker);
+			this.lastKnownOpenPrices[tickerId] = TradeParser.toFixedPoint(price);
+		}
 	}
 
 	private void addLastKnownClosePriceOfTicker(String ticker, double price) {
-		this.lastKnownClosePrices.put(ticker, price);
+		if (ticker != null) {
+			int tickerId = this.lastKnownIdOf(ticker);
+			this.lastKnownClosePrices[tickerId] = TradeParser.toFixedPoint(price);
+		}
 	}
 
 	private void addLastKnownHighestPriceOfTicker(String ticker, double price) {
-		this.lastKnownHighestPrices.put(ticker, price);
+		if (ticker != null) {
+			int tickerId = this.lastKnownIdOf(ticker);
+			this.lastKnownHighestPrices[tickerId] = TradeParser.toFixedPoint(price);
+		}
 	}
 
 	private void addLastKnownLowestPriceOfTicker(String ticker, double price) {
-		this.lastKnownLowestPrices.put(ticker, price);
+		if (ticker != null) {
+			int tickerId = this.lastKnownIdOf(ticker);
+			this.lastKnownLowestPrices[tickerId] = TradeParser.toFixedPoint(price);
+		}
 	}
 
-	private void addLastKnownDailyTradedVolumeOfTicker(String ticker, double tradedVolume) {
-		this.lastKnownDailyTradedVolume.put(ticker, tradedVolume);
+	private void addLastKnownDailyTradedVolumeOfTicker(String ticker, long tradedVolume) {
+		if (ticker != null) {
+			int tickerId = this.lastKnownIdOf(ticker);
+			this.lastKnownDailyTradedVolume[tickerId] = tradedVolume;
+		}
+	}
+
+	/*
+	 * Returns the id of a ticker and grows the last known aggregates to hold it.
+	 */
+	private int lastKnownIdOf(String ticker) {
+		int tickerId = this.tickerDictionary.idOf(ticker);
+		if (tickerId >= this.lastKnownOpenPrices.length) {
+			int length = Math.max(tickerId + 1, Math.max(this.tickerDictionary.size(),
+					this.lastKnownOpenPrices.length * 2));
+			this.lastKnownOpenPrices = growUnknown(this.lastKnownOpenPrices, length);
+			this.lastKnownClosePrices = growUnknown(this.lastKnownClosePrices, length);
+			this.lastKnownHighestPrices = growUnknown(this.lastKnownHighestPrices, length);
+			this.lastKnownLowestPrices = growUnknown(this.lastKnownLowestPrices, length);
+			this.lastKnownDailyTradedVolume = growUnknown(this.lastKnownDailyTradedVolume, length);
+			this.lastKnownVolumeWeightedAveragePrices = growUnknown(this.lastKnownVolumeWeightedAveragePrices, length);
+			this.lastKnownTimeWeightedAveragePrices = growUnknown(this.lastKnownTimeWeightedAveragePrices, length);
+			this.lastKnownTradeCounts = growUnknown(this.lastKnownTradeCounts, length);
+			this.lastKnownNrsOfSecuritiesTraded = growUnknown(this.lastKnownNrsOfSecuritiesTraded, length);
+		}
+		return tickerId;
+	}
+
+	private static long[] growUnknown(long[] values, int length) {
+		int oldLength = values.length;
+		long[] grownValues = Arrays.copyOf(values, length);
+		Arrays.fill(grownValues, oldLength, length, UNKNOWN);
+		return grownValues;
 	}
 
 	/**
@@ -51,11 +157,15 @@ public class Aggregator {
 	 */
 	public double calculateOpenPriceOfTicker(List<Trade> trades) {
 		if (trades.size() > 0) {
-			// sort trades by time from earliest to latest time, so first list position
-			// contains trade with open price
-			Collections.sort(trades, (t1, t2) -> t1.getTime().compareTo(t2.getTime()));
-			double openPrice = trades.get(0).getPrice();
-			this.addLastKnownOpenPriceOfTicker(trades.get(0).getTicker(), openPrice);
+			// earliest trade wins, on equal times the first one in the list
+			Trade openTrade = trades.get(0);
+			for (int i = 1; i < trades.size(); i++) {
+				if (trades.get(i).getTime().isBefore(openTrade.getTime())) {
+					openTrade = trades.get(i);
+				}
+			}
+			double openPrice = openTrade.getPrice();
+			this.addLastKnownOpenPriceOfTicker(openTrade.getTicker(), openPrice);
 			return openPrice;
 		} else {
 			return 0.0;
@@ -71,11 +181,15 @@ public class Aggregator {
 	 */
 	public double calculateClosePriceOfTicker(List<Trade> trades) {
 		if (trades.size() > 0) {
-			Collections.sort(trades, (t1, t2) -> t1.getTime().compareTo(t2.getTime()));
-			// sort trades by time from earliest to latest time, so last list position
-			// contains trade with close price
-			double closePrice = trades.get(trades.size() - 1).getPrice();
-			this.addLastKnownClosePriceOfTicker(trades.get(trades.size() - 1).getTicker(), closePrice);
+			// latest trade wins, on equal times the last one in the list
+			Trade closeTrade = trades.get(0);
+			for (int i = 1; i < trades.size(); i++) {
+				if (!trades.get(i).getTime().isBefore(closeTrade.getTime())) {
+					closeTrade = trades.get(i);
+				}
+			}
+			double closePrice = closeTrade.getPrice();
+			this.addLastKnownClosePriceOfTicker(closeTrade.getTicker(), closePrice);
 			return closePrice;
 		} else {
 			return 0.0;
@@ -91,11 +205,11 @@ public class Aggregator {
 	 */
 	public double calculateHighestPriceOfTicker(List<Trade> trades) {
 		if (trades.size() > 0) {
-			// sort trades by price in ascending order, so last list position
-			// contains trade with highest price
-			Collections.sort(trades, (t1, t2) -> Double.compare(t1.getPrice(), t2.getPrice()));
-			double highestPrice = trades.get(trades.size() - 1).getPrice();
-			this.addLastKnownHighestPriceOfTicker(trades.get(trades.size() - 1).getTicker(), highestPrice);
+			double highestPrice = trades.get(0).getPrice();
+			for (int i = 1; i < trades.size(); i++) {
+				highestPrice = Math.max(highestPrice, trades.get(i).getPrice());
+			}
+			this.addLastKnownHighestPriceOfTicker(trades.get(0).getTicker(), highestPrice);
 			return highestPrice;
 		} else {
 			return 0.0;
@@ -111,10 +225,10 @@ public class Aggregator {
 	 */
 	public double calculateLowestPriceOfTicker(List<Trade> trades) {
 		if (trades.size() > 0) {
-			// sort trades by price in ascending order, so first list position
-			// contains trade with lowest price
-			Collections.sort(trades, (t1, t2) -> Double.compare(t1.getPrice(), t2.getPrice()));
 			double lowestPrice = trades.get(0).getPrice();
+			for (int i = 1; i < trades.size(); i++) {
+				lowestPrice = Math.min(lowestPrice, trades.get(i).getPrice());
+			}
 			this.addLastKnownLowestPriceOfTicker(trades.get(0).getTicker(), lowestPrice);
 			return lowestPrice;
 		} else {
@@ -125,22 +239,204 @@ public class Aggregator {
 	/**
 	 * Returns the daily traded volume of a day for a market ticker if trades of the
 	 * day exist and 0.0 otherwise. Daily traded volume is calculated by sum of
-	 * products of price and number of securities traded.
+	 * products of price and number of securities traded, summed exactly with the
+	 * prices rounded to {@link TradeParser#PRICE_DECIMALS} decimal places.
 	 * 
 	 * @param trades A list of all trades of a day of a ticker.
 	 * @return daily traded volume of the trading day of the ticker.
 	 */
 	public double calculateDailyTradedVolumeOfTicker(List<Trade> trades) {
 		if (trades.size() > 0) {
-			double dailyTradedVolume = trades.stream()
-					.mapToDouble(trade -> trade.getPrice() * (double) trade.getNrOfSecuritiesTraded()).sum();
+			long dailyTradedVolume = 0;
+			for (Trade trade : trades) {
+				long price = TradeParser.toFixedPoint(trade.getPrice());
+				dailyTradedVolume = Math.addExact(dailyTradedVolume,
+						Math.multiplyExact(price, trade.getNrOfSecuritiesTraded()));
+			}
 			this.addLastKnownDailyTradedVolumeOfTicker(trades.get(0).getTicker(), dailyTradedVolume);
-			return dailyTradedVolume;
+			return dailyTradedVolume / (double) TradeParser.PRICE_SCALE;
 		} else {
 			return 0.0;
 		}
 	}
 
+	/**
+	 * Returns open price, close price, highest price, lowest price and daily
+	 * traded volume of a day for a market ticker, calculated in a single pass over
+	 * its trades. The aggregates are 0.0 if no trades of the day exist.
+	 * 
+	 * @param trades A list of all trades of a day of a ticker.
+	 * @return daily aggregates of the trading day of the ticker.
+	 */
+	public TickerAccumulator calculateAggregatesOfTicker(List<Trade> trades) {
+		TickerAccumulator tickerAggregates = new TickerAccumulator(trades.size() > 0 ? trades.get(0).getTicker() : null);
+		for (Trade trade : trades) {
+			tickerAggregates.addTrade(trade);
+		}
+		this.addLastKnownAggregatesOfTicker(tickerAggregates);
+		return tickerAggregates;
+	}
+
+	/**
+	 * Returns the daily aggregates of every ticker of a trade day, calculated in a
+	 * single pass over the trades of each ticker.
+	 * 
+	 * @param tradeDay Trade day with all trades of a day.
+	 * @return daily aggregates of the trade day.
+	 */
+	public DayAggregates calculateAggregatesOfDay(TradeDay tradeDay) {
+		DayAggregates dayAggregates = new DayAggregates(tradeDay.getDate());
+		for (Map.Entry<String, List<Trade>> tickerEntry : tradeDay.getTradesPerTicker().entrySet()) {
+			TickerAccumulator tickerAggregates = dayAggregates.getAggregatesOfTicker(tickerEntry.getKey());
+			for (Trade trade : tickerEntry.getValue()) {
+				tickerAggregates.addTrade(trade);
+			}
+		}
+		this.addLastKnownAggregatesOfDay(dayAggregates);
+		return dayAggregates;
+	}
+
+	/**
+	 * Returns the daily aggregates of every ticker of a columnar trade day,
+	 * calculated in a single pass over its trade columns.
+	 * 
+	 * @param tradeDay Columnar trade day with all trades of a day.
+	 * @return daily aggregates of the trade day.
+	 */
+	public DayAggregates calculateAggregatesOfDay(ColumnarTradeDay tradeDay) {
+		DayAggregates dayAggregates = new DayAggregates(tradeDay.getDate());
+		TickerDictionary tickerDictionary = tradeDay.getTickerDictionary();
+		for (int i = 0; i < tradeDay.size(); i++) {
+			TickerAccumulator tickerAggregates = dayAggregates.getAggregatesOfTicker(tradeDay.getTickerId(i),
+					tickerDictionary);
+			tickerAggregates.addFixedPointTrade(tradeDay.getTime(i), tradeDay.getPrice(i),
+					tradeDay.getNrOfSecuritiesTraded(i));
+		}
+		this.addLastKnownAggregatesOfDay(dayAggregates);
+		return dayAggregates;
+	}
+
+	/**
+	 * Stores the daily aggregates of every ticker of a day as their last known
+	 * aggregates, so they are used for the market index.
+	 * 
+	 * @param dayAggregates Daily aggregates of a day.
+	 */
+	public void addLastKnownAggregatesOfDay(DayAggregates dayAggregates) {
+		for (TickerAccumulator tickerAggregates : dayAggregates.getAggregatesPerTicker().values()) {
+			this.addLastKnownAggregatesOfTicker(tickerAggregates);
+		}
+	}
+
+	/**
+	 * Stores the daily aggregates of a ticker as its last known aggregates, so
+	 * they are used for the market index. Aggregates without trades are ignored.
+	 * 
+	 * @param tickerAggregates Daily aggregates of a ticker.
+	 */
+	public void addLastKnownAggregatesOfTicker(TickerAccumulator tickerAggregates) {
+		if (tickerAggregates.getTradeCount() > 0 && tickerAggregates.getTicker() != null) {
+			int tickerId = this.lastKnownIdOf(tickerAggregates.getTicker());
+			this.lastKnownOpenPrices[tickerId] = TradeParser.toFixedPoint(tickerAggregates.getOpenPrice());
+			this.lastKnownClosePrices[tickerId] = TradeParser.toFixedPoint(tickerAggregates.getClosePrice());
+			this.lastKnownHighestPrices[tickerId] = TradeParser.toFixedPoint(tickerAggregates.getHighestPrice());
+			this.lastKnownLowestPrices[tickerId] = TradeParser.toFixedPoint(tickerAggregates.getLowestPrice());
+			this.lastKnownDailyTradedVolume[tickerId] = tickerAggregates.getFixedPointDailyTradedVolume();
+			this.lastKnownVolumeWeightedAveragePrices[tickerId] = TradeParser
+					.toFixedPoint(tickerAggregates.getVolumeWeightedAveragePrice());
+			this.lastKnownTimeWeightedAveragePrices[tickerId] = TradeParser
+					.toFixedPoint(tickerAggregates.getTimeWeightedAveragePrice());
+			this.lastKnownTradeCounts[tickerId] = tickerAggregates.getTradeCount();
+			this.lastKnownNrsOfSecuritiesTraded[tickerId] = tickerAggregates.getNrOfSecuritiesTraded();
+		}
+	}
+
+	/**
+	 * Writes the last known aggregates of every ticker of the ticker dictionary
+	 * in the order of their ids as fixed-point longs, e.g. into a checkpoint.
+	 * Unknown aggregates are written as {@link Long#MIN_VALUE}.
+	 * 
+	 * @param out Output of the last known aggregates.
+	 * @throws IOException if the output cannot be written.
+	 */
+	public void writeLastKnownAggregatesTo(DataOutput out) throws IOException {
+		int nrOfTickers = this.tickerDictionary.size();
+		out.writeInt(nrOfTickers);
+		for (int tickerId = 0; tickerId < nrOfTickers; tickerId++) {
+			out.writeUTF(this.tickerDictionary.getTicker(tickerId));
+			out.writeLong(lastKnownValue(this.lastKnownOpenPrices, tickerId));
+			out.writeLong(lastKnownValue(this.lastKnownClosePrices, tickerId));
+			out.writeLong(lastKnownValue(this.lastKnownHighestPrices, tickerId));
+			out.writeLong(lastKnownValue(this.lastKnownLowestPrices, tickerId));
+			out.writeLong(lastKnownValue(this.lastKnownDailyTradedVolume, tickerId));
+			out.writeLong(lastKnownValue(this.lastKnownVolumeWeightedAveragePrices, tickerId));
+			out.writeLong(lastKnownValue(this.lastKnownTimeWeightedAveragePrices, tickerId));
+			out.writeLong(lastKnownValue(this.lastKnownTradeCounts, tickerId));
+			out.writeLong(lastKnownValue(this.lastKnownNrsOfSecuritiesTraded, tickerId));
+		}
+	}
+
+	/**
+	 * Replaces the last known aggregates by aggregates written with
+	 * {@link #writeLastKnownAggregatesTo(DataOutput)}. Read into a new aggregator,
+	 * the tickers get the same ids as before, so the market index values are
+	 * summed in the same order.
+	 * 
+	 * @param in Input of the last known aggregates.
+	 * @throws IOException if the input cannot be read.
+	 */
+	public void readLastKnownAggregatesFrom(DataInput in) throws IOException {
+		Arrays.fill(this.lastKnownOpenPrices, UNKNOWN);
+		Arrays.fill(this.lastKnownClosePrices, UNKNOWN);
+		Arrays.fill(this.lastKnownHighestPrices, UNKNOWN);
+		Arrays.fill(this.lastKnownLowestPrices, UNKNOWN);
+		Arrays.fill(this.lastKnownDailyTradedVolume, UNKNOWN);
+		Arrays.fill(this.lastKnownVolumeWeightedAveragePrices, UNKNOWN);
+		Arrays.fill(this.lastKnownTimeWeightedAveragePrices, UNKNOWN);
+		Arrays.fill(this.lastKnownTradeCounts, UNKNOWN);
+		Arrays.fill(this.lastKnownNrsOfSecuritiesTraded, UNKNOWN);
+		int nrOfTickers = in.readInt();
+		for (int i = 0; i < nrOfTickers; i++) {
+			int tickerId = this.lastKnownIdOf(in.readUTF());
+			this.lastKnownOpenPrices[tickerId] = in.readLong();
+			this.lastKnownClosePrices[tickerId] = in.readLong();
+			this.lastKnownHighestPrices[tickerId] = in.readLong();
+			this.lastKnownLowestPrices[tickerId] = in.readLong();
+			this.lastKnownDailyTradedVolume[tickerId] = in.readLong();
+			this.lastKnownVolumeWeightedAveragePrices[tickerId] = in.readLong();
+			this.lastKnownTimeWeightedAveragePrices[tickerId] = in.readLong();
+			this.lastKnownTradeCounts[tickerId] = in.readLong();
+			this.lastKnownNrsOfSecuritiesTraded[tickerId] = in.readLong();
+		}
+	}
+
+	private static long lastKnownValue(long[] lastKnownValues, int tickerId) {
+		return tickerId < lastKnownValues.length ? lastKnownValues[tickerId] : UNKNOWN;
+	}
+
+	/**
+	 * Returns a copy of this aggregator with the same market indices and last
+	 * known aggregates, e.g. to keep the state the market index values of a
+	 * reported day were calculated with. The copy shares the ticker dictionary of
+	 * this aggregator, so it must be used on the same thread.
+	 * 
+	 * @return copy of this aggregator.
+	 */
+	public Aggregator copy() {
+		Aggregator copy = new Aggregator(this.getMarketIndices());
+		copy.tickerDictionary = this.tickerDictionary;
+		copy.lastKnownOpenPrices = this.lastKnownOpenPrices.clone();
+		copy.lastKnownClosePrices = this.lastKnownClosePrices.clone();
+		copy.lastKnownHighestPrices = this.lastKnownHighestPrices.clone();
+		copy.lastKnownLowestPrices = this.lastKnownLowestPrices.clone();
+		copy.lastKnownDailyTradedVolume = this.lastKnownDailyTradedVolume.clone();
+		copy.lastKnownVolumeWeightedAveragePrices = this.lastKnownVolumeWeightedAveragePrices.clone();
+		copy.lastKnownTimeWeightedAveragePrices = this.lastKnownTimeWeightedAveragePrices.clone();
+		copy.lastKnownTradeCounts = this.lastKnownTradeCounts.clone();
+		copy.lastKnownNrsOfSecuritiesTraded = this.lastKnownNrsOfSecuritiesTraded.clone();
+		return copy;
+	}
+
 	/**
 	 * Returns the open price for market index if trades of the day exist. Open
 	 * price for market index is a weighted sum of ticker prices at an instant. Uses
@@ -150,11 +446,18 @@ public class Aggregator {
 	 * @return open price of the trading day of the market.
 	 */
 	public double calculateOpenPriceOfMarket() {
-		double openPrice = 0.0;
-		for (Map.Entry<String, Double> entry : this.lastKnownOpenPrices.entrySet()) {
-			openPrice += this.multiplyIndexWeight(entry.getKey(), entry.getValue());
-		}
-		return openPrice;
+		return this.calculateOpenPriceOfMarket(this.marketIndices.get(0).marketIndex);
+	}
+
+	/**
+	 * Returns the open price for a market index of this aggregator, calculated from
+	 * the last known open prices of each ticker like {@link #calculateOpenPriceOfMarket()}.
+	 * 
+	 * @param marketIndex Market index of this aggregator.
+	 * @return open price of the trading day of the market index.
+	 */
+	public double calculateOpenPriceOfMarket(MarketIndex marketIndex) {
+		return this.calculateWeightedSum(this.lastKnownOpenPrices, marketIndex);
 	}
 
 	/**
@@ -166,11 +469,18 @@ public class Aggregator {
 	 * @return close price of the trading day of the market.
 	 */
 	public double calculateClosePriceOfMarket() {
-		double closePrice = 0.0;
-		for (Map.Entry<String, Double> entry : this.lastKnownClosePrices.entrySet()) {
-			closePrice += this.multiplyIndexWeight(entry.getKey(), entry.getValue());
-		}
-		return closePrice;
+		return this.calculateClosePriceOfMarket(this.marketIndices.get(0).marketIndex);
+	}
+
+	/**
+	 * Returns the close price for a market index of this aggregator, calculated from
+	 * the last known close prices of each ticker like {@link #calculateClosePriceOfMarket()}.
+	 * 
+	 * @param marketIndex Market index of this aggregator.
+	 * @return close price of the trading day of the market index.
+	 */
+	public double calculateClosePriceOfMarket(MarketIndex marketIndex) {
+		return this.calculateWeightedSum(this.lastKnownClosePrices, marketIndex);
 	}
 
 	/**
@@ -182,11 +492,18 @@ public class Aggregator {
 	 * @return highest price of the trading day of the market.
 	 */
 	public double calculateHighestPriceOfMarket() {
-		double highestPrice = 0.0;
-		for (Map.Entry<String, Double> entry : this.lastKnownHighestPrices.entrySet()) {
-			highestPrice += this.multiplyIndexWeight(entry.getKey(), entry.getValue());
-		}
-		return highestPrice;
+		return this.calculateHighestPriceOfMarket(this.marketIndices.get(0).marketIndex);
+	}
+
+	/**
+	 * Returns the highest price for a market index of this aggregator, calculated from
+	 * the last known highest prices of each ticker like {@link #calculateHighestPriceOfMarket()}.
+	 * 
+	 * @param marketIndex Market index of this aggregator.
+	 * @return highest price of the trading day of the market index.
+	 */
+	public double calculateHighestPriceOfMarket(MarketIndex marketIndex) {
+		return this.calculateWeightedSum(this.lastKnownHighestPrices, marketIndex);
 	}
 
 	/**
@@ -198,11 +515,18 @@ public class Aggregator {
 	 * @return lowest price of the trading day of the market.
 	 */
 	public double calculateLowestPriceOfMarket() {
-		double lowestPrice = 0.0;
-		for (Map.Entry<String, Double> entry : this.lastKnownLowestPrices.entrySet()) {
-			lowestPrice += this.multiplyIndexWeight(entry.getKey(), entry.getValue());
-		}
-		return lowestPrice;
+		return this.calculateLowestPriceOfMarket(this.marketIndices.get(0).marketIndex);
+	}
+
+	/**
+	 * Returns the lowest price for a market index of this aggregator, calculated from
+	 * the last known lowest prices of each ticker like {@link #calculateLowestPriceOfMarket()}.
+	 * 
+	 * @param marketIndex Market index of this aggregator.
+	 * @return lowest price of the trading day of the market index.
+	 */
+	public double calculateLowestPriceOfMarket(MarketIndex marketIndex) {
+		return this.calculateWeightedSum(this.lastKnownLowestPrices, marketIndex);
 	}
 
 	/**
@@ -214,25 +538,171 @@ public class Aggregator {
 	 * @return daily traded volume of the trading day of the market.
 	 */
 	public double calculateDailyTradedVolumeOfMarket() {
-		double dailyTradedVolume = 0.0;
-		for (Map.Entry<String, Double> entry : this.lastKnownDailyTradedVolume.entrySet()) {
-			dailyTradedVolume += this.multiplyIndexWeight(entry.getKey(), entry.getValue());
+		return this.calculateDailyTradedVolumeOfMarket(this.marketIndices.get(0).marketIndex);
+	}
+
+	/**
+	 * Returns the daily traded volume for a market index of this aggregator, calculated from
+	 * the last known daily traded volume of each ticker like {@link #calculateDailyTradedVolumeOfMarket()}.
+	 * 
+	 * @param marketIndex Market index of this aggregator.
+	 * @return daily traded volume of the trading day of the market index.
+	 */
+	public double calculateDailyTradedVolumeOfMarket(MarketIndex marketIndex) {
+		return this.calculateWeightedSum(this.lastKnownDailyTradedVolume, marketIndex);
+	}
+
+	/**
+	 * Returns the volume weighted average price for market index, a weighted sum
+	 * of the last known volume weighted average prices of each ticker like
+	 * {@link #calculateOpenPriceOfMarket()}. Returns 0.0 if no last known prices
+	 * exist.
+	 * 
+	 * @return volume weighted average price of the trading day of the market.
+	 */
+	public double calculateVolumeWeightedAveragePriceOfMarket() {
+		return this.calculateVolumeWeightedAveragePriceOfMarket(this.marketIndices.get(0).marketIndex);
+	}
+
+	/**
+	 * Returns the volume weighted average price for a market index of this
+	 * aggregator like {@link #calculateVolumeWeightedAveragePriceOfMarket()}.
+	 * 
+	 * @param marketIndex Market index of this aggregator.
+	 * @return volume weighted average price of the trading day of the market index.
+	 */
+	public double calculateVolumeWeightedAveragePriceOfMarket(MarketIndex marketIndex) {
+		return this.calculateWeightedSum(this.lastKnownVolumeWeightedAveragePrices, marketIndex);
+	}
+
+	/**
+	 * Returns the time weighted average price for market index, a weighted sum of
+	 * the last known time weighted average prices of each ticker like
+	 * {@link #calculateOpenPriceOfMarket()}. Returns 0.0 if no last known prices
+	 * exist.
+	 * 
+	 * @return time weighted average price of the trading day of the market.
+	 */
+	public double calculateTimeWeightedAveragePriceOfMarket() {
+		return this.calculateTimeWeightedAveragePriceOfMarket(this.marketIndices.get(0).marketIndex);
+	}
+
+	/**
+	 * Returns the time weighted average price for a market index of this
+	 * aggregator like {@link #calculateTimeWeightedAveragePriceOfMarket()}.
+	 * 
+	 * @param marketIndex Market index of this aggregator.
+	 * @return time weighted average price of the trading day of the market index.
+	 */
+	public double calculateTimeWeightedAveragePriceOfMarket(MarketIndex marketIndex) {
+		return this.calculateWeightedSum(this.lastKnownTimeWeightedAveragePrices, marketIndex);
+	}
+
+	/**
+	 * Returns the number of trades for market index, the sum of the last known
+	 * numbers of trades of its constituents. Returns 0 if no last known numbers
+	 * exist.
+	 * 
+	 * @return number of trades of the trading day of the market.
+	 */
+	public long calculateTradeCountOfMarket() {
+		return this.calculateTradeCountOfMarket(this.marketIndices.get(0).marketIndex);
+	}
+
+	/**
+	 * Returns the number of trades for a market index of this aggregator like
+	 * {@link #calculateTradeCountOfMarket()}.
+	 * 
+	 * @param marketIndex Market index of this aggregator.
+	 * @return number of trades of the trading day of the market index.
+	 */
+	public long calculateTradeCountOfMarket(MarketIndex marketIndex) {
+		return this.calculateConstituentSum(this.lastKnownTradeCounts, marketIndex);
+	}
+
+	/**
+	 * Returns the number of securities traded for market index, the sum of the
+	 * last known numbers of securities traded of its constituents. Returns 0 if
+	 * no last known numbers exist.
+	 * 
+	 * @return number of securities traded of the trading day of the market.
+	 */
+	public long calculateNrOfSecuritiesTradedOfMarket() {
+		return this.calculateNrOfSecuritiesTradedOfMarket(this.marketIndices.get(0).marketIndex);
+	}
+
+	/**
+	 * Returns the number of securities traded for a market index of this
+	 * aggregator like {@link #calculateNrOfSecuritiesTradedOfMarket()}.
+	 * 
+	 * @param marketIndex Market index of this aggregator.
+	 * @return number of securities traded of the trading day of the market index.
+	 */
+	public long calculateNrOfSecuritiesTradedOfMarket(MarketIndex marketIndex) {
+		return this.calculateConstituentSum(this.lastKnownNrsOfSecuritiesTraded, marketIndex);
+	}
+
+	private long calculateConstituentSum(long[] lastKnownValues, MarketIndex marketIndex) {
+		long[] weightsPerTickerId = this.resolveMarketIndex(marketIndex);
+		int nrOfTickers = Math.min(lastKnownValues.length, weightsPerTickerId.length);
+		long sum = 0;
+		for (int tickerId = 0; tickerId < nrOfTickers; tickerId++) {
+			if (weightsPerTickerId[tickerId] != 0 && lastKnownValues[tickerId] != UNKNOWN) {
+				sum = Math.addExact(sum, lastKnownValues[tickerId]);
+			}
+		}
+		return sum;
+	}
+
+	/*
+	 * Sums the products of the fixed-point values and weights exactly in 128 bits,
+	 * the products of traded volumes and weights pass the range of a long.
+	 */
+	private double calculateWeightedSum(long[] lastKnownValues, MarketIndex marketIndex) {
+		long[] weightsPerTickerId = this.resolveMarketIndex(marketIndex);
+		int nrOfTickers = Math.min(lastKnownValues.length, weightsPerTickerId.length);
+		FixedPointSum weightedSum = new FixedPointSum();
+		for (int tickerId = 0; tickerId < nrOfTickers; tickerId++) {
+			// tickers outside the index have no weight
+			if (weightsPerTickerId[tickerId] != 0 && lastKnownValues[tickerId] != UNKNOWN) {
+				weightedSum.addProduct(lastKnownValues[tickerId], weightsPerTickerId[tickerId]);
+			}
 		}
-		return dailyTradedVolume;
+		return weightedSum.toDouble(WEIGHTED_SUM_DECIMALS);
 	}
 
-	private double multiplyIndexWeight(String ticker, double value) {
-		switch (ticker) {
-		case "ABC":
-			return value * 0.1;
-		case "MEGA":
-			return value * 0.3;
-		case "NGL":
-			return value * 0.4;
-		case "TRX":
-			return value * 0.2;
+	private long[] resolveMarketIndex(MarketIndex marketIndex) {
+		for (ResolvedMarketIndex resolvedMarketIndex : this.marketIndices) {
+			if (resolvedMarketIndex.marketIndex == marketIndex) {
+				return resolvedMarketIndex.getWeightsPerTickerId(this.tickerDictionary);
+			}
+		}
+		throw new IllegalArgumentException("Unknown market index: " + marketIndex.getName());
+	}
+
+	/*
+	 * Market index with its weights resolved to the ticker ids of the aggregator.
+	 * The weights are resolved again after they have been replaced.
+	 */
+	private static class ResolvedMarketIndex {
+
+		private final MarketIndex marketIndex;
+		private IndexWeights resolvedWeights;
+		private long[] weightsPerTickerId;
+
+		ResolvedMarketIndex(MarketIndex marketIndex) {
+			this.marketIndex = marketIndex;
 		}
-		return 0.0;
+
+		long[] getWeightsPerTickerId(TickerDictionary tickerDictionary) {
+			IndexWeights currentWeights = this.marketIndex.getWeights();
+			if (currentWeights != this.resolvedWeights) {
+				this.weightsPerTickerId = currentWeights.resolveFixedPoint(tickerDictionary);
+				this.resolvedWeights = currentWeights;
+			}
+			return this.weightsPerTickerId;
+		}
+
 	}
 
 }
@@ -0,0 +1,216 @@
+package dailyMarketAggregates;
+
+import java.util.Arrays;
+
+/**
+ * BarBuilder builds intraday OHLCV bars of every ticker for several intervals
+ * in one pass over the trades, e.g. 1 second, 1 minute, 5 minute and 1 hour
+ * bars. A trade falls into the bar that starts at its seconds of the day
+ * rounded down to a multiple of the interval. A bar is passed to a
+ * {@link BarSink} as soon as a trade of a later bar of the same interval is
+ * added, or the day ends, so only the open bars are kept in memory.
+ * <p>
+ * Index levels can be added as trades without securities, so a BarBuilder that
+ * listens to an {@link IntradayIndexEngine} also builds bars of the market
+ * indices. Trades are expected in time order within a day; a late trade of an
+ * already closed bar opens a second bar for the same interval start.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class BarBuilder implements IntradayIndexEngine.IndexLevelListener {
+
+	/**
+	 * BarSink receives the closed bars of a {@link BarBuilder}.
+	 */
+	public interface BarSink {
+
+		/**
+		 * Called when a bar has closed. The bar is not changed by the builder
+		 * afterwards.
+		 *
+		 * @param symbol          Ticker or market index name of the bar.
+		 * @param intervalSeconds Interval of the bar in seconds.
+		 * @param epochDay        Date of the bar as epoch day.
+		 * @param startSecond     Start of the bar as seconds of the day.
+		 * @param bar             Open, close, highest, lowest price and traded
+		 *                        volume of the bar.
+		 */
+		void onBar(String symbol, int intervalSeconds, int epochDay, int startSecond, TickerAccumulator bar);
+
+	}
+
+	private static final int NO_BAR = -1;
+
+	private final int[] intervals;
+	private final TickerDictionary symbolDictionary;
+	private final BarSink sink;
+	private int epochDay = Integer.MIN_VALUE;
+	// per interval: start of the latest bar, open bar per symbol id, start of the
+	// open bar per symbol id and the ids of the symbols with an open bar
+	private final int[] latestBarStarts;
+	private final TickerAccumulator[][] openBars;
+	private final int[][] openBarStarts;
+	private final int[][] openSymbolIds;
+	private final int[] nrsOfOpenSymbols;
+
+	/**
+	 * @param intervals        Bar intervals in seconds, each dividing a day.
+	 * @param symbolDictionary Dictionary of the ticker ids of the trades.
+	 * @param sink             Sink of the closed bars.
+	 */
+	public BarBuilder(int[] intervals, TickerDictionary symbolDictionary, BarSink sink) {
+		for (int interval : intervals) {
+			if (interval <= 0 || 86400 % interval != 0) {
+				throw new IllegalArgumentException("Bar interval must divide a day: " + interval);
+			}
+		}
+		this.intervals = intervals.clone();
+		this.symbolDictionary = symbolDictionary;
+		this.sink = sink;
+		this.latestBarStarts = new int[intervals.length];
+		this.openBars = new TickerAccumulator[intervals.length][0];
+		this.openBarStarts = new int[intervals.length][0];
+		this.openSymbolIds = new int[intervals.length][0];
+		this.nrsOfOpenSymbols = new int[intervals.length];
+	}
+
+	/**
+	 * Parses bar intervals like {@code 1s,1m,5m,1h} or {@code 1,60,300,3600}.
+	 *
+	 * @param intervals Comma separated intervals, in seconds without unit.
+	 * @return intervals in seconds.
+	 */
+	public static int[] parseIntervals(String intervals) {
+		String[] parts = intervals.split(",");
+		int[] seconds = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			String part = parts[i].trim();
+			int factor = 1;
+			if (part.endsWith("s")) {
+				part = part.substring(0, part.length() - 1);
+			} else if (part.endsWith("m")) {
+				factor = 60;
+				part = part.substring(0, part.length() - 1);
+			} else if (part.endsWith("h")) {
+				factor = 3600;
+				part = part.substring(0, part.length() - 1);
+			}
+			try {
+				seconds[i] = Integer.parseInt(part) * factor;
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid bar interval: " + parts[i], e);
+			}
+		}
+		return seconds;
+	}
+
+	/**
+	 * Adds the trade of the last line parsed by a parser.
+	 *
+	 * @param parser Parser of the current trade line.
+	 */
+	public void addTrade(TradeParser parser) {
+		addTrade(symbolDictionary.idOf(parser), parser.getEpochDay(), parser.getSecondOfDay(),
+				parser.getPriceAsDouble(), parser.getNrOfSecuritiesTraded());
+	}
+
+	/**
+	 * Adds a trade.
+	 *
+	 * @param trade Trade object.
+	 */
+	public void addTrade(Trade trade) {
+		addTrade(symbolDictionary.idOf(trade.getTicker()), (int) trade.getDate().toEpochDay(),
+				trade.getTime().toSecondOfDay(), trade.getPrice(), trade.getNrOfSecuritiesTraded());
+	}
+
+	/**
+	 * Adds an index level as trade without securities to the bars of the index.
+	 */
+	@Override
+	public void onIndexLevel(MarketIndex marketIndex, int epochDay, int secondOfDay, double level) {
+		addTrade(symbolDictionary.idOf(marketIndex.getName()), epochDay, secondOfDay, level, 0);
+	}
+
+	/**
+	 * Adds the values of a trade to the open bars of its symbol.
+	 *
+	 * @param symbolId             Id of the ticker or index in the dictionary.
+	 * @param epochDay             Date of the trade as epoch day.
+	 * @param secondOfDay          Time of the trade as seconds of the day.
+	 * @param price                Price of the trade.
+	 * @param nrOfSecuritiesTraded Number of securities traded.
+	 */
+	public void addTrade(int symbolId, int epochDay, int secondOfDay, double price, int nrOfSecuritiesTraded) {
+		if (epochDay != this.epochDay) {
+			flush();
+			this.epochDay = epochDay;
+		}
+		for (int i = 0; i < intervals.length; i++) {
+			int barStart = secondOfDay - secondOfDay % intervals[i];
+			if (barStart > latestBarStarts[i]) {
+				closeBars(i, barStart);
+				latestBarStarts[i] = barStart;
+			}
+			if (symbolId >= openBars[i].length) {
+				grow(i, symbolId);
+			}
+			if (openBarStarts[i][symbolId] != barStart) {
+				if (openBarStarts[i][symbolId] != NO_BAR) {
+					// late trade of an already closed bar or trade after a late trade
+					closeBar(i, symbolId);
+				} else {
+					openSymbolIds[i][nrsOfOpenSymbols[i]++] = symbolId;
+				}
+				openBars[i][symbolId] = new TickerAccumulator(symbolDictionary.getTicker(symbolId), false);
+				openBarStarts[i][symbolId] = barStart;
+			}
+			openBars[i][symbolId].addTrade(secondOfDay, price, nrOfSecuritiesTraded);
+		}
+	}
+
+	/**
+	 * Passes all open bars to the sink, e.g. at the end of the log.
+	 */
+	public void flush() {
+		for (int i = 0; i < intervals.length; i++) {
+			closeBars(i, Integer.MAX_VALUE);
+			latestBarStarts[i] = 0;
+		}
+	}
+
+	/*
+	 * Closes the open bars of an interval that start before a bar start.
+	 */
+	private void closeBars(int intervalIndex, int barStart) {
+		int[] symbolIds = openSymbolIds[intervalIndex];
+		int remaining = 0;
+		for (int i = 0; i < nrsOfOpenSymbols[intervalIndex]; i++) {
+			int symbolId = symbolIds[i];
+			if (openBarStarts[intervalIndex][symbolId] < barStart) {
+				closeBar(intervalIndex, symbolId);
+				openBarStarts[intervalIndex][symbolId] = NO_BAR;
+			} else {
+				symbolIds[remaining++] = symbolId;
+			}
+		}
+		nrsOfOpenSymbols[intervalIndex] = remaining;
+	}
+
+	private void closeBar(int intervalIndex, int symbolId) {
+		TickerAccumulator bar = openBars[intervalIndex][symbolId];
+		openBars[intervalIndex][symbolId] = null;
+		sink.onBar(bar.getTicker(), intervals[intervalIndex], epochDay, openBarStarts[intervalIndex][symbolId], bar);
+	}
+
+	private void grow(int intervalIndex, int symbolId) {
+		int oldLength = openBars[intervalIndex].length;
+		int length = Math.max(symbolId + 1, Math.max(symbolDictionary.size(), oldLength * 2));
+		openBars[intervalIndex] = Arrays.copyOf(openBars[intervalIndex], length);
+		openBarStarts[intervalIndex] = Arrays.copyOf(openBarStarts[intervalIndex], length);
+		openSymbolIds[intervalIndex] = Arrays.copyOf(openSymbolIds[intervalIndex], length);
+		Arrays.fill(openBarStarts[intervalIndex], oldLength, length, NO_BAR);
+	}
+
+}
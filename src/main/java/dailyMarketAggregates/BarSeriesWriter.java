@@ -0,0 +1,95 @@
+package dailyMarketAggregates;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * BarSeriesWriter writes the bars closed by a {@link BarBuilder} as one line
+ * per bar:
+ * {@code yyyy-MM-dd HH:mm:ss;SYMBOL;interval;open;high;low;close;volume;trades},
+ * where the time is the start of the bar and the interval is given in seconds.
+ * Lines are buffered and written when the buffer is full, when a new day starts
+ * or when the writer is flushed.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class BarSeriesWriter implements BarBuilder.BarSink, Closeable, Flushable {
+
+	private final Writer writer;
+	private final StringBuilder line = new StringBuilder(128);
+	private int lastEpochDay = Integer.MIN_VALUE;
+	private String lastDate;
+
+	public BarSeriesWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Opens a file for the bars, replacing an existing file.
+	 *
+	 * @param file Path of the bar file.
+	 * @return writer of the file.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public static BarSeriesWriter open(Path file) throws IOException {
+		return new BarSeriesWriter(Files.newBufferedWriter(file, StandardCharsets.US_ASCII));
+	}
+
+	@Override
+	public void onBar(String symbol, int intervalSeconds, int epochDay, int startSecond, TickerAccumulator bar) {
+		try {
+			if (epochDay != lastEpochDay) {
+				writer.flush();
+				lastEpochDay = epochDay;
+				lastDate = LocalDate.ofEpochDay(epochDay).toString();
+			}
+			line.setLength(0);
+			line.append(lastDate).append(' ');
+			appendTwoDigits(startSecond / 3600).append(':');
+			appendTwoDigits(startSecond / 60 % 60).append(':');
+			appendTwoDigits(startSecond % 60).append(';');
+			line.append(symbol).append(';');
+			line.append(intervalSeconds).append(';');
+			line.append(bar.getOpenPrice()).append(';');
+			line.append(bar.getHighestPrice()).append(';');
+			line.append(bar.getLowestPrice()).append(';');
+			line.append(bar.getClosePrice()).append(';');
+			line.append(bar.getDailyTradedVolume()).append(';');
+			line.append(bar.getTradeCount()).append('\n');
+			writer.append(line);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the buffered lines to the file.
+	 *
+	 * @throws IOException if the file cannot be written.
+	 */
+	@Override
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	private StringBuilder appendTwoDigits(int value) {
+		if (value < 10) {
+			line.append('0');
+		}
+		return line.append(value);
+	}
+
+}
@@ -0,0 +1,123 @@
+package dailyMarketAggregates;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Checkpoint is the state of a streaming run over a market historical log from
+ * which the run can be resumed: the byte offset of the next line of the log,
+ * the number of bytes of the report written so far, the last known aggregates
+ * of the {@link Aggregator} and the running aggregates of the current day of a
+ * {@link StreamingDayAggregator}. A resumed run reads the log from the offset
+ * and appends to the report from its length, so the report is the same as the
+ * report of a run without interruption.
+ * <p>
+ * A checkpoint is written in a compact binary format of a few dozen bytes per
+ * ticker. It is written to a temporary file first and moved over the previous
+ * checkpoint, so a crash while writing leaves the previous checkpoint intact.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class Checkpoint {
+
+	private static final int MAGIC = 0x43484B50;
+	private static final int VERSION = 4;
+
+	private final long logOffset;
+	private final long reportOffset;
+	private final byte[] state;
+
+	private Checkpoint(long logOffset, long reportOffset, byte[] state) {
+		this.logOffset = logOffset;
+		this.reportOffset = reportOffset;
+		this.state = state;
+	}
+
+	/**
+	 * @return byte offset of the first line of the log not covered by the
+	 *         checkpoint.
+	 */
+	public long getLogOffset() {
+		return logOffset;
+	}
+
+	/**
+	 * @return number of bytes of the report written before the checkpoint.
+	 */
+	public long getReportOffset() {
+		return reportOffset;
+	}
+
+	/**
+	 * Writes a checkpoint. The report must have been flushed up to the report
+	 * offset.
+	 *
+	 * @param file          Path of the checkpoint.
+	 * @param logOffset     Byte offset of the first line of the log not added to
+	 *                      the aggregators yet.
+	 * @param reportOffset  Number of bytes of the report written so far.
+	 * @param aggregator    Aggregator with the last known aggregates of the
+	 *                      completed days.
+	 * @param dayAggregator Aggregator of the current day.
+	 * @throws IOException if the checkpoint cannot be written.
+	 */
+	public static void write(Path file, long logOffset, long reportOffset, Aggregator aggregator,
+			StreamingDayAggregator dayAggregator) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeLong(logOffset);
+		out.writeLong(reportOffset);
+		aggregator.writeLastKnownAggregatesTo(out);
+		dayAggregator.writeOpenDayTo(out);
+		out.flush();
+		Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.write(temporaryFile, bytes.toByteArray());
+		Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a checkpoint.
+	 *
+	 * @param file Path of the checkpoint.
+	 * @return checkpoint of the file.
+	 * @throws IOException if the file cannot be read or is not a checkpoint.
+	 */
+	public static Checkpoint read(Path file) throws IOException {
+		byte[] bytes = Files.readAllBytes(file);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		if (bytes.length < 24 || in.readInt() != MAGIC) {
+			throw new IOException("Not a checkpoint: " + file);
+		}
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported checkpoint version " + version + ": " + file);
+		}
+		long logOffset = in.readLong();
+		long reportOffset = in.readLong();
+		return new Checkpoint(logOffset, reportOffset, Arrays.copyOfRange(bytes, 24, bytes.length));
+	}
+
+	/**
+	 * Restores the aggregates of the checkpoint.
+	 *
+	 * @param aggregator    Aggregator to restore the last known aggregates of.
+	 * @param dayAggregator Aggregator to restore the current day of.
+	 * @throws IOException if the checkpoint is corrupt.
+	 */
+	public void restore(Aggregator aggregator, StreamingDayAggregator dayAggregator) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+		aggregator.readLastKnownAggregatesFrom(in);
+		dayAggregator.readOpenDayFrom(in);
+	}
+
+}
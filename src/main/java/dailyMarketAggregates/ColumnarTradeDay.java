@@ -0,0 +1,113 @@
+package dailyMarketAggregates;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * ColumnarTradeDay contains the market trades of a day like {@link TradeDay},
+ * but stores them column by column in growable primitive arrays instead of
+ * Trade objects: times as seconds of the day, prices as fixed-point longs
+ * scaled by {@link TradeParser#PRICE_SCALE}, numbers of securities traded and
+ * ticker ids of a {@link TickerDictionary}. A trade takes 20 bytes and the
+ * trades of a day lie next to each other in memory.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class ColumnarTradeDay {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private LocalDate date;
+	private TickerDictionary tickerDictionary;
+	private int size;
+	private int[] tickerIds = new int[INITIAL_CAPACITY];
+	private int[] times = new int[INITIAL_CAPACITY];
+	private long[] prices = new long[INITIAL_CAPACITY];
+	private int[] nrsOfSecuritiesTraded = new int[INITIAL_CAPACITY];
+
+	/**
+	 * @param date             Date of the trade day.
+	 * @param tickerDictionary Dictionary of the ticker ids, may be shared by
+	 *                         several trade days.
+	 */
+	public ColumnarTradeDay(LocalDate date, TickerDictionary tickerDictionary) {
+		this.date = date;
+		this.tickerDictionary = tickerDictionary;
+	}
+
+	public LocalDate getDate() {
+		return date;
+	}
+
+	public TickerDictionary getTickerDictionary() {
+		return tickerDictionary;
+	}
+
+	/**
+	 * @return number of trades of this trade day.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getTickerId(int index) {
+		return tickerIds[index];
+	}
+
+	/**
+	 * @return time of a trade as seconds of the day.
+	 */
+	public int getTime(int index) {
+		return times[index];
+	}
+
+	/**
+	 * @return price of a trade as fixed-point long scaled by
+	 *         {@link TradeParser#PRICE_SCALE}.
+	 */
+	public long getPrice(int index) {
+		return prices[index];
+	}
+
+	public int getNrOfSecuritiesTraded(int index) {
+		return nrsOfSecuritiesTraded[index];
+	}
+
+	/**
+	 * Adds the trade of the last line parsed by a parser.
+	 *
+	 * @param parser Parser of the current trade line.
+	 */
+	public void addTrade(TradeParser parser) {
+		addTrade(tickerDictionary.idOf(parser), parser.getSecondOfDay(), parser.getPrice(),
+				parser.getNrOfSecuritiesTraded());
+	}
+
+	/**
+	 * Adds a trade object. The price is rounded to {@link TradeParser#PRICE_DECIMALS}
+	 * decimal places.
+	 *
+	 * @param trade Trade object.
+	 */
+	public void addTrade(Trade trade) {
+		addTrade(tickerDictionary.idOf(trade.getTicker()), trade.getTime().toSecondOfDay(),
+				TradeParser.toFixedPoint(trade.getPrice()), trade.getNrOfSecuritiesTraded());
+	}
+
+	private void addTrade(int tickerId, int time, long price, int nrOfSecuritiesTraded) {
+		if (size == times.length) {
+			int capacity = size * 2;
+			tickerIds = Arrays.copyOf(tickerIds, capacity);
+			times = Arrays.copyOf(times, capacity);
+			prices = Arrays.copyOf(prices, capacity);
+			nrsOfSecuritiesTraded = Arrays.copyOf(nrsOfSecuritiesTraded, capacity);
+		}
+		tickerIds[size] = tickerId;
+		times[size] = time;
+		prices[size] = price;
+		nrsOfSecuritiesTraded[size] = nrOfSecuritiesTraded;
+		size++;
+	}
+
+}
@@ -0,0 +1,477 @@
+package dailyMarketAggregates;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConcurrentAggregator calculates daily aggregates of trades added by several
+ * threads at the same time, e.g. by one reader per venue. Every ticker has its
+ * own slot with a lock that guards the {@link TickerAccumulator}s of the ticker,
+ * so trades of different tickers never wait for each other. A slot keeps the
+ * accumulators of its days in an array indexed by the epoch day.
+ * <p>
+ * Every reading thread adds its trades through its own {@link TradeFeed}, which
+ * finds the slot of a trade by the ticker id of its parser in an array. The
+ * shared map of the slots by ticker is only used the first time a feed sees a
+ * ticker, so adding a trade of a known ticker and day allocates nothing.
+ * <p>
+ * After a trade, the aggregates of its ticker become its last known aggregates
+ * if they belong to the latest day the ticker has been traded on, and the
+ * version of its slot is increased. Adding a trade does nothing for the market
+ * indices: an {@link IndexSnapshot} is only calculated when it is read. The
+ * reader copies the last known aggregates of the constituents one slot at a
+ * time and then checks that no version has changed since, so the copies show
+ * all constituents at one instant without blocking the trades of other
+ * tickers. Only if the constituents keep being traded during several attempts,
+ * the slots of the constituents are locked together for one copy.
+ * <p>
+ * The accumulators are created for out-of-order trades, so their aggregates do
+ * not depend on how the threads interleave. Trades of a ticker with equal times
+ * are resolved in the order the threads add them.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class ConcurrentAggregator {
+
+	/**
+	 * IndexSnapshot contains the values of a market index calculated from the
+	 * last known aggregates of its constituents at one instant. The values are
+	 * exact sums of the fixed-point aggregates times the fixed-point weights,
+	 * rounded to double once. A snapshot is immutable.
+	 */
+	public static final class IndexSnapshot {
+
+		private static final int WEIGHTED_SUM_DECIMALS = TradeParser.PRICE_DECIMALS + IndexWeights.WEIGHT_DECIMALS;
+
+		private final double openPrice;
+		private final double closePrice;
+		private final double highestPrice;
+		private final double lowestPrice;
+		private final double dailyTradedVolume;
+
+		// constituents are the last known aggregates per constituent, null if not
+		// traded yet
+		private IndexSnapshot(IndexWeights weights, TickerSnapshot[] constituents) {
+			FixedPointSum open = new FixedPointSum();
+			FixedPointSum close = new FixedPointSum();
+			FixedPointSum highest = new FixedPointSum();
+			FixedPointSum lowest = new FixedPointSum();
+			FixedPointSum volume = new FixedPointSum();
+			for (int i = 0; i < constituents.length; i++) {
+				if (constituents[i] != null) {
+					long weight = weights.getFixedPointWeight(i);
+					open.addProduct(constituents[i].openPrice, weight);
+					close.addProduct(constituents[i].closePrice, weight);
+					highest.addProduct(constituents[i].highestPrice, weight);
+					lowest.addProduct(constituents[i].lowestPrice, weight);
+					volume.addProduct(constituents[i].dailyTradedVolume, weight);
+				}
+			}
+			this.openPrice = open.toDouble(WEIGHTED_SUM_DECIMALS);
+			this.closePrice = close.toDouble(WEIGHTED_SUM_DECIMALS);
+			this.highestPrice = highest.toDouble(WEIGHTED_SUM_DECIMALS);
+			this.lowestPrice = lowest.toDouble(WEIGHTED_SUM_DECIMALS);
+			this.dailyTradedVolume = volume.toDouble(WEIGHTED_SUM_DECIMALS);
+		}
+
+		public double getOpenPrice() {
+			return openPrice;
+		}
+
+		public double getClosePrice() {
+			return closePrice;
+		}
+
+		public double getHighestPrice() {
+			return highestPrice;
+		}
+
+		public double getLowestPrice() {
+			return lowestPrice;
+		}
+
+		public double getDailyTradedVolume() {
+			return dailyTradedVolume;
+		}
+
+	}
+
+	/*
+	 * Immutable copy of the last known aggregates of a ticker, as fixed-point
+	 * longs scaled by TradeParser.PRICE_SCALE.
+	 */
+	private static final class TickerSnapshot {
+
+		private final long version;
+		private final long openPrice;
+		private final long closePrice;
+		private final long highestPrice;
+		private final long lowestPrice;
+		private final long dailyTradedVolume;
+
+		TickerSnapshot(long version, TickerAccumulator tickerAggregates) {
+			this.version = version;
+			this.openPrice = TradeParser.toFixedPoint(tickerAggregates.getOpenPrice());
+			this.closePrice = TradeParser.toFixedPoint(tickerAggregates.getClosePrice());
+			this.highestPrice = TradeParser.toFixedPoint(tickerAggregates.getHighestPrice());
+			this.lowestPrice = TradeParser.toFixedPoint(tickerAggregates.getLowestPrice());
+			this.dailyTradedVolume = tickerAggregates.getFixedPointDailyTradedVolume();
+		}
+
+	}
+
+	/*
+	 * Lock and last known aggregates of a ticker. The version counts the changes
+	 * of the last known aggregates, slots are locked together in the order they
+	 * have been created.
+	 */
+	private static final class TickerSlot {
+
+		private final int order;
+		private final ReentrantLock lock = new ReentrantLock();
+		private volatile long version;
+		private final String ticker;
+		// guarded by the lock
+		private int lastKnownEpochDay = Integer.MIN_VALUE;
+		private TickerAccumulator lastKnownAggregates;
+		// accumulators per epoch day from the first epoch day on, null for days
+		// without trades or removed days
+		private int firstEpochDay;
+		private TickerAccumulator[] aggregatesPerDay = new TickerAccumulator[0];
+
+		TickerSlot(int order, String ticker) {
+			this.order = order;
+			this.ticker = ticker;
+		}
+
+		// called with the lock held
+		TickerAccumulator getAggregatesOfDay(int epochDay) {
+			int index = epochDay - firstEpochDay;
+			if (index < 0 || index >= aggregatesPerDay.length) {
+				if (aggregatesPerDay.length == 0) {
+					firstEpochDay = epochDay;
+					aggregatesPerDay = new TickerAccumulator[1];
+				} else if (index < 0) {
+					TickerAccumulator[] grownAggregates = new TickerAccumulator[aggregatesPerDay.length - index];
+					System.arraycopy(aggregatesPerDay, 0, grownAggregates, -index, aggregatesPerDay.length);
+					aggregatesPerDay = grownAggregates;
+					firstEpochDay = epochDay;
+				} else {
+					aggregatesPerDay = Arrays.copyOf(aggregatesPerDay,
+							Math.max(index + 1, aggregatesPerDay.length * 2));
+				}
+				index = epochDay - firstEpochDay;
+			}
+			TickerAccumulator tickerAggregates = aggregatesPerDay[index];
+			if (tickerAggregates == null) {
+				tickerAggregates = new TickerAccumulator(ticker, true, true);
+				aggregatesPerDay[index] = tickerAggregates;
+			}
+			return tickerAggregates;
+		}
+
+		// called with the lock held, returns null if the day has no trades
+		TickerAccumulator findAggregatesOfDay(int epochDay) {
+			int index = epochDay - firstEpochDay;
+			return index >= 0 && index < aggregatesPerDay.length ? aggregatesPerDay[index] : null;
+		}
+
+		// called with the lock held
+		TickerSnapshot copy() {
+			return lastKnownAggregates != null ? new TickerSnapshot(version, lastKnownAggregates) : null;
+		}
+
+	}
+
+	private static final int NR_OF_OPTIMISTIC_READS = 4;
+
+	private final ConcurrentMap<String, TickerSlot> tickerSlots = new ConcurrentHashMap<>();
+	private final AtomicInteger nrOfTickerSlots = new AtomicInteger();
+	private final List<MarketIndex> marketIndices;
+
+	/**
+	 * Creates a concurrent aggregator for the default market index.
+	 */
+	public ConcurrentAggregator() {
+		this(Collections.singletonList(MarketIndex.defaultIndex()));
+	}
+
+	/**
+	 * @param marketIndices Market indices to calculate.
+	 */
+	public ConcurrentAggregator(List<MarketIndex> marketIndices) {
+		this.marketIndices = new ArrayList<>(marketIndices);
+	}
+
+	/**
+	 * TradeFeed adds the trades of one thread, e.g. of one log, to its
+	 * concurrent aggregator. The slots of the tickers are cached by the ticker
+	 * ids of the dictionary of the parser, so a feed must only be used by one
+	 * thread and with the parsers of one dictionary.
+	 */
+	public final class TradeFeed {
+
+		private TickerDictionary tickerDictionary;
+		private TickerSlot[] slotsPerTickerId = new TickerSlot[0];
+
+		private TradeFeed() {
+		}
+
+		/**
+		 * Adds the trade of the last line parsed by a parser with its fixed-point
+		 * price.
+		 *
+		 * @param parser Parser of the current trade line.
+		 */
+		public void addTrade(TradeParser parser) {
+			if (parser.getTickerDictionary() != tickerDictionary) {
+				if (tickerDictionary != null) {
+					throw new IllegalArgumentException("Ticker ids of another dictionary");
+				}
+				tickerDictionary = parser.getTickerDictionary();
+			}
+			int tickerId = parser.getTickerId();
+			if (tickerId >= slotsPerTickerId.length) {
+				slotsPerTickerId = Arrays.copyOf(slotsPerTickerId, Math.max(tickerDictionary.size(), tickerId + 1));
+			}
+			TickerSlot tickerSlot = slotsPerTickerId[tickerId];
+			if (tickerSlot == null) {
+				tickerSlot = getTickerSlot(tickerDictionary.getTicker(tickerId));
+				slotsPerTickerId[tickerId] = tickerSlot;
+			}
+			ConcurrentAggregator.addTrade(tickerSlot, parser.getEpochDay(), parser.getSecondOfDay(), parser.getPrice(),
+					parser.getNrOfSecuritiesTraded());
+		}
+
+	}
+
+	/**
+	 * Returns a new feed for the trades of one thread.
+	 *
+	 * @return feed of this aggregator.
+	 */
+	public TradeFeed newTradeFeed() {
+		return new TradeFeed();
+	}
+
+	/**
+	 * Adds a trade. May be called by several threads at the same time.
+	 *
+	 * @param trade Trade object.
+	 */
+	public void addTrade(Trade trade) {
+		addTrade(trade.getTicker(), (int) trade.getDate().toEpochDay(), trade.getTime().toSecondOfDay(),
+				trade.getPrice(), trade.getNrOfSecuritiesTraded());
+	}
+
+	/**
+	 * Adds the values of a trade. May be called by several threads at the same
+	 * time. The slot of the ticker is looked up in a map, threads that read
+	 * many trades use a {@link TradeFeed} instead.
+	 *
+	 * @param ticker               Ticker of the trade.
+	 * @param epochDay             Date of the trade as epoch day.
+	 * @param secondOfDay          Time of the trade as seconds of the day.
+	 * @param price                Price of the trade.
+	 * @param nrOfSecuritiesTraded Number of securities traded.
+	 */
+	public void addTrade(String ticker, int epochDay, int secondOfDay, double price, int nrOfSecuritiesTraded) {
+		addTrade(getTickerSlot(ticker), epochDay, secondOfDay, TradeParser.toFixedPoint(price), nrOfSecuritiesTraded);
+	}
+
+	private TickerSlot getTickerSlot(String ticker) {
+		TickerSlot tickerSlot = tickerSlots.get(ticker);
+		if (tickerSlot == null) {
+			tickerSlot = tickerSlots.computeIfAbsent(ticker,
+					t -> new TickerSlot(nrOfTickerSlots.getAndIncrement(), t));
+		}
+		return tickerSlot;
+	}
+
+	private static void addTrade(TickerSlot tickerSlot, int epochDay, int secondOfDay, long price,
+			int nrOfSecuritiesTraded) {
+		tickerSlot.lock.lock();
+		try {
+			TickerAccumulator tickerAggregates = tickerSlot.getAggregatesOfDay(epochDay);
+			tickerAggregates.addFixedPointTrade(secondOfDay, price, nrOfSecuritiesTraded);
+			if (epochDay >= tickerSlot.lastKnownEpochDay) {
+				tickerSlot.lastKnownEpochDay = epochDay;
+				tickerSlot.lastKnownAggregates = tickerAggregates;
+				tickerSlot.version++;
+			}
+		} finally {
+			tickerSlot.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns a consistent snapshot of a market index, calculated from the last
+	 * known aggregates of its constituents at one instant.
+	 *
+	 * @param marketIndex Market index of this aggregator.
+	 * @return values of the market index from the last known aggregates of its
+	 *         constituents.
+	 */
+	public IndexSnapshot getIndexSnapshot(MarketIndex marketIndex) {
+		if (!marketIndices.contains(marketIndex)) {
+			throw new IllegalArgumentException("Unknown market index: " + marketIndex.getName());
+		}
+		IndexWeights weights = marketIndex.getWeights();
+		TickerSlot[] constituentSlots = new TickerSlot[weights.size()];
+		TickerSnapshot[] constituents = new TickerSnapshot[weights.size()];
+		for (int attempt = 0; attempt < NR_OF_OPTIMISTIC_READS; attempt++) {
+			for (int i = 0; i < constituents.length; i++) {
+				constituentSlots[i] = tickerSlots.get(weights.getTicker(i));
+				constituents[i] = copy(constituentSlots[i]);
+			}
+			if (isUnchanged(weights, constituentSlots, constituents)) {
+				return new IndexSnapshot(weights, constituents);
+			}
+		}
+		return new IndexSnapshot(weights, copyLocked(weights, constituentSlots));
+	}
+
+	/**
+	 * @return dates of all days with trades in ascending order.
+	 */
+	public List<LocalDate> getDates() {
+		TreeSet<LocalDate> dates = new TreeSet<>();
+		for (TickerSlot tickerSlot : tickerSlots.values()) {
+			tickerSlot.lock.lock();
+			try {
+				for (int i = 0; i < tickerSlot.aggregatesPerDay.length; i++) {
+					if (tickerSlot.aggregatesPerDay[i] != null) {
+						dates.add(LocalDate.ofEpochDay(tickerSlot.firstEpochDay + (long) i));
+					}
+				}
+			} finally {
+				tickerSlot.lock.unlock();
+			}
+		}
+		return new ArrayList<>(dates);
+	}
+
+	/**
+	 * Returns a copy of the current aggregates of every ticker of a day.
+	 *
+	 * @param date Date of the day.
+	 * @return daily aggregates of the day, without tickers if there are no trades.
+	 */
+	public DayAggregates getAggregatesOfDay(LocalDate date) {
+		DayAggregates dayAggregates = new DayAggregates(date);
+		int epochDay = (int) date.toEpochDay();
+		for (TickerSlot tickerSlot : tickerSlots.values()) {
+			tickerSlot.lock.lock();
+			try {
+				TickerAccumulator tickerAggregates = tickerSlot.findAggregatesOfDay(epochDay);
+				if (tickerAggregates != null) {
+					dayAggregates.getAggregatesOfTicker(tickerSlot.ticker).merge(tickerAggregates);
+				}
+			} finally {
+				tickerSlot.lock.unlock();
+			}
+		}
+		return dayAggregates;
+	}
+
+	/**
+	 * Removes the aggregates of a day that is no longer needed. The last known
+	 * aggregates of its tickers are kept.
+	 *
+	 * @param date Date of the day.
+	 */
+	public void removeDay(LocalDate date) {
+		int epochDay = (int) date.toEpochDay();
+		for (TickerSlot tickerSlot : tickerSlots.values()) {
+			tickerSlot.lock.lock();
+			try {
+				int index = epochDay - tickerSlot.firstEpochDay;
+				if (index >= 0 && index < tickerSlot.aggregatesPerDay.length) {
+					tickerSlot.aggregatesPerDay[index] = null;
+				}
+			} finally {
+				tickerSlot.lock.unlock();
+			}
+		}
+	}
+
+	private static TickerSnapshot copy(TickerSlot tickerSlot) {
+		if (tickerSlot == null) {
+			return null;
+		}
+		tickerSlot.lock.lock();
+		try {
+			return tickerSlot.copy();
+		} finally {
+			tickerSlot.lock.unlock();
+		}
+	}
+
+	/*
+	 * Returns true if no constituent has been traded since it has been copied, so
+	 * all copies show the constituents at the instant the last one was copied.
+	 */
+	private boolean isUnchanged(IndexWeights weights, TickerSlot[] constituentSlots,
+			TickerSnapshot[] constituents) {
+		for (int i = 0; i < constituents.length; i++) {
+			if (constituentSlots[i] == null) {
+				if (tickerSlots.containsKey(weights.getTicker(i))) {
+					return false;
+				}
+			} else if (constituents[i] == null || constituentSlots[i].version != constituents[i].version) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Copies the last known aggregates of the constituents while the slots of all
+	 * traded constituents are locked. The slots are locked in the order they have
+	 * been created, so readers of different indices cannot deadlock.
+	 */
+	private TickerSnapshot[] copyLocked(IndexWeights weights, TickerSlot[] constituentSlots) {
+		while (true) {
+			for (int i = 0; i < constituentSlots.length; i++) {
+				constituentSlots[i] = tickerSlots.get(weights.getTicker(i));
+			}
+			TickerSlot[] lockOrder = Arrays.stream(constituentSlots).filter(slot -> slot != null)
+					.sorted((slot, otherSlot) -> Integer.compare(slot.order, otherSlot.order))
+					.toArray(TickerSlot[]::new);
+			int nrOfLocked = 0;
+			try {
+				for (TickerSlot tickerSlot : lockOrder) {
+					tickerSlot.lock.lock();
+					nrOfLocked++;
+				}
+				TickerSnapshot[] constituents = new TickerSnapshot[constituentSlots.length];
+				boolean complete = true;
+				for (int i = 0; i < constituents.length; i++) {
+					if (constituentSlots[i] != null) {
+						constituents[i] = constituentSlots[i].copy();
+					} else if (tickerSlots.containsKey(weights.getTicker(i))) {
+						// a constituent has been traded for the first time, lock it as well
+						complete = false;
+					}
+				}
+				if (complete) {
+					return constituents;
+				}
+			} finally {
+				for (int i = 0; i < nrOfLocked; i++) {
+					lockOrder[i].lock.unlock();
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package dailyMarketAggregates;
+
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+
+/**
+ * CsvReportSink writes the daily aggregates as comma separated values with a
+ * header line and one line per ticker or market index of a day:
+ * {@code date,name,type,open,close,highest,lowest,volume,vwap,twap,trades,shares,variance,}
+ * followed by the estimated quantiles
+ * {@code price_p50,price_p95,price_p99,size_p50,size_p95,size_p99} of the trade
+ * prices and sizes. The type is {@code ticker}, {@code index} or {@code correction}. Values are
+ * written unformatted with a decimal point and left empty if they are not
+ * available.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class CsvReportSink extends ReportSink {
+
+	public CsvReportSink(WritableByteChannel channel) {
+		super(channel);
+	}
+
+	@Override
+	protected void writeHeader() {
+		text.append("date,name,type,open,close,highest,lowest,volume,vwap,twap,trades,shares,variance,"
+				+ "price_p50,price_p95,price_p99,size_p50,size_p95,size_p99\n");
+	}
+
+	@Override
+	protected void beginDay(LocalDate date, boolean correction) {
+	}
+
+	@Override
+	protected void writeAggregates(LocalDate date, String name, boolean marketIndex, boolean correction,
+			double openPrice, double closePrice, double highestPrice, double lowestPrice, double dailyTradedVolume,
+			double volumeWeightedAveragePrice, double timeWeightedAveragePrice, long tradeCount,
+			long nrOfSecuritiesTraded, double priceVariance, QuantileSketch priceSketch, QuantileSketch sizeSketch) {
+		text.append(date).append(',').append(name).append(',')
+				.append(correction ? "correction" : marketIndex ? "index" : "ticker");
+		appendValue(openPrice);
+		appendValue(closePrice);
+		appendValue(highestPrice);
+		appendValue(lowestPrice);
+		appendValue(dailyTradedVolume);
+		appendValue(volumeWeightedAveragePrice);
+		appendValue(timeWeightedAveragePrice);
+		appendCount(tradeCount);
+		appendCount(nrOfSecuritiesTraded);
+		text.append(',');
+		if (!Double.isNaN(priceVariance)) {
+			text.append(priceVariance);
+		}
+		appendQuantiles(priceSketch);
+		appendQuantiles(sizeSketch);
+		text.append('\n');
+	}
+
+	@Override
+	protected void endDay(boolean correction) {
+	}
+
+	private void appendCount(long count) {
+		text.append(',');
+		if (count > 0) {
+			text.append(count);
+		}
+	}
+
+	private void appendQuantiles(QuantileSketch sketch) {
+		for (double quantile : QUANTILES) {
+			appendValue(sketch != null ? sketch.getQuantile(quantile) : 0.0);
+		}
+	}
+
+	private void appendValue(double value) {
+		text.append(',');
+		if (value > 0.0) {
+			text.append(value);
+		}
+	}
+
+}
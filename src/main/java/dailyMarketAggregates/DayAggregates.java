@@ -0,0 +1,120 @@
+package dailyMarketAggregates;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DayAggregates contains the daily aggregates of every ticker traded on a day.
+ * Unlike {@link TradeDay} it does not keep the trades, every trade only updates
+ * the {@link TickerAccumulator} of its ticker. Trades are added by the ids of
+ * their tickers in a {@link TickerDictionary}, which index an array of the
+ * accumulators; the map by ticker keeps the order of the tickers in the report.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class DayAggregates {
+
+	private LocalDate date;
+	private Map<String, TickerAccumulator> aggregatesPerTicker = new HashMap<>();
+	// accumulators per ticker id of the dictionary the ids belong to
+	private TickerAccumulator[] aggregatesPerTickerId = new TickerAccumulator[0];
+	private TickerDictionary tickerDictionary;
+	private final boolean outOfOrder;
+
+	public DayAggregates(LocalDate date) {
+		this(date, false);
+	}
+
+	/**
+	 * @param date       Date of the day.
+	 * @param outOfOrder true if the trades of a ticker may be added out of time
+	 *                   order, see {@link TickerAccumulator}.
+	 */
+	public DayAggregates(LocalDate date, boolean outOfOrder) {
+		this.date = date;
+		this.outOfOrder = outOfOrder;
+	}
+
+	public LocalDate getDate() {
+		return date;
+	}
+
+	/**
+	 * @return HashMap that maps the daily aggregates of this day to the tickers
+	 *         they belong to.
+	 */
+	public Map<String, TickerAccumulator> getAggregatesPerTicker() {
+		return aggregatesPerTicker;
+	}
+
+	/**
+	 * Returns the aggregates of a ticker, which are created if the ticker has not
+	 * been traded on this day yet.
+	 *
+	 * @param ticker Ticker of the market.
+	 * @return aggregates of the ticker.
+	 */
+	public TickerAccumulator getAggregatesOfTicker(String ticker) {
+		TickerAccumulator aggregates = aggregatesPerTicker.get(ticker);
+		if (aggregates == null) {
+			aggregates = new TickerAccumulator(ticker, true, outOfOrder);
+			aggregatesPerTicker.put(ticker, aggregates);
+		}
+		return aggregates;
+	}
+
+	/**
+	 * Returns the aggregates of a ticker by its id, which are created if the
+	 * ticker has not been traded on this day yet. All ids of a day must belong to
+	 * the same dictionary.
+	 *
+	 * @param tickerId         Id of the ticker in the ticker dictionary.
+	 * @param tickerDictionary Dictionary of the ticker ids.
+	 * @return aggregates of the ticker.
+	 */
+	public TickerAccumulator getAggregatesOfTicker(int tickerId, TickerDictionary tickerDictionary) {
+		if (tickerDictionary != this.tickerDictionary) {
+			if (this.tickerDictionary != null) {
+				throw new IllegalArgumentException("Ticker ids of another dictionary");
+			}
+			this.tickerDictionary = tickerDictionary;
+		}
+		if (tickerId >= aggregatesPerTickerId.length) {
+			aggregatesPerTickerId = Arrays.copyOf(aggregatesPerTickerId,
+					Math.max(tickerDictionary.size(), tickerId + 1));
+		}
+		TickerAccumulator aggregates = aggregatesPerTickerId[tickerId];
+		if (aggregates == null) {
+			aggregates = getAggregatesOfTicker(tickerDictionary.getTicker(tickerId));
+			aggregatesPerTickerId[tickerId] = aggregates;
+		}
+		return aggregates;
+	}
+
+	/**
+	 * Adds the trade of the last line parsed by a parser. The ticker is looked up
+	 * by the id the parser has interned it as.
+	 *
+	 * @param parser Parser of the current trade line.
+	 */
+	public void addTrade(TradeParser parser) {
+		getAggregatesOfTicker(parser.getTickerId(), parser.getTickerDictionary())
+				.addFixedPointTrade(parser.getSecondOfDay(), parser.getPrice(), parser.getNrOfSecuritiesTraded());
+	}
+
+	/**
+	 * Adds the aggregates of a later part of the same day, e.g. of the next chunk
+	 * of the market log.
+	 *
+	 * @param laterDayAggregates Aggregates of later trades of this day.
+	 */
+	public void merge(DayAggregates laterDayAggregates) {
+		for (TickerAccumulator laterAggregates : laterDayAggregates.aggregatesPerTicker.values()) {
+			getAggregatesOfTicker(laterAggregates.getTicker()).merge(laterAggregates);
+		}
+	}
+
+}
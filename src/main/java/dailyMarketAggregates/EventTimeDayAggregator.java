@@ -0,0 +1,219 @@
+package dailyMarketAggregates;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * EventTimeDayAggregator calculates the daily aggregates of trades that may
+ * arrive out of order, e.g. from several venues. The days are aggregated by the
+ * date of the trades instead of their position in the log. A day is published
+ * once the watermark, the latest trade time seen minus the allowed lateness, has
+ * passed the end of the day. Days are published in date order.
+ * <p>
+ * Trades are not buffered: the aggregates of a ticker only depend on the times
+ * of its trades and not on the order they are added in, so every open day just
+ * keeps one {@link TickerAccumulator} per ticker, created for out-of-order
+ * trades so that its time weighted average price is order independent as well. A trade of a day that has
+ * already been published updates the retained aggregates of that day, which are
+ * then passed to the listener as correction, also if the day had no trades
+ * when the watermark passed it. Only a limited number of the latest published
+ * days is retained; late trades of older days are dropped and counted.
+ * <p>
+ * An aggregator is meant to be fed by a single thread.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class EventTimeDayAggregator {
+
+	/**
+	 * EventTimeListener receives the published days and the corrections of an
+	 * {@link EventTimeDayAggregator}.
+	 */
+	public interface EventTimeListener {
+
+		/**
+		 * Called when the watermark has passed the end of a day.
+		 *
+		 * @param dayAggregates Daily aggregates of the day.
+		 */
+		void onDay(DayAggregates dayAggregates);
+
+		/**
+		 * Called when a late trade has changed the aggregates of a ticker of an
+		 * already published day.
+		 *
+		 * @param dayAggregates    Corrected daily aggregates of the day.
+		 * @param tickerAggregates Corrected aggregates of the ticker of the trade.
+		 */
+		void onCorrection(DayAggregates dayAggregates, TickerAccumulator tickerAggregates);
+
+	}
+
+	private static final long SECONDS_PER_DAY = 86400L;
+
+	private final TickerDictionary tickerDictionary;
+	private final EventTimeListener listener;
+	private final long allowedLatenessSeconds;
+	private final int retainedDays;
+	private long latestEventTime = Long.MIN_VALUE;
+	private long nrOfDroppedTrades;
+	private final TreeMap<Integer, TrackedDay> openDays = new TreeMap<>();
+	private final TreeMap<Integer, TrackedDay> publishedDays = new TreeMap<>();
+
+	/**
+	 * @param tickerDictionary       Dictionary of the ticker ids of the trades.
+	 * @param allowedLatenessSeconds Seconds a trade may arrive after a later trade
+	 *                               and still be part of the first publication of
+	 *                               its day.
+	 * @param retainedDays           Number of published days that are kept for
+	 *                               corrections.
+	 * @param listener               Listener of the published days and
+	 *                               corrections.
+	 */
+	public EventTimeDayAggregator(TickerDictionary tickerDictionary, long allowedLatenessSeconds, int retainedDays,
+			EventTimeListener listener) {
+		if (allowedLatenessSeconds < 0 || retainedDays < 0) {
+			throw new IllegalArgumentException("Lateness and retained days must not be negative");
+		}
+		this.tickerDictionary = tickerDictionary;
+		this.allowedLatenessSeconds = allowedLatenessSeconds;
+		this.retainedDays = retainedDays;
+		this.listener = listener;
+	}
+
+	/**
+	 * @return number of late trades of days that were not retained.
+	 */
+	public long getNrOfDroppedTrades() {
+		return nrOfDroppedTrades;
+	}
+
+	/**
+	 * Adds the trade of the last line parsed by a parser with its fixed-point
+	 * price, so the aggregates equal those of an ordered log.
+	 *
+	 * @param parser Parser of the current trade line.
+	 */
+	public void addTrade(TradeParser parser) {
+		addFixedPointTrade(tickerDictionary.idOf(parser), parser.getEpochDay(), parser.getSecondOfDay(),
+				parser.getPrice(), parser.getNrOfSecuritiesTraded());
+	}
+
+	/**
+	 * Adds the values of a trade and publishes the days the watermark has passed.
+	 *
+	 * @param tickerId             Id of the ticker in the ticker dictionary.
+	 * @param epochDay             Date of the trade as epoch day.
+	 * @param secondOfDay          Time of the trade as seconds of the day.
+	 * @param price                Price of the trade.
+	 * @param nrOfSecuritiesTraded Number of securities traded.
+	 */
+	public void addTrade(int tickerId, int epochDay, int secondOfDay, double price, int nrOfSecuritiesTraded) {
+		addFixedPointTrade(tickerId, epochDay, secondOfDay, TradeParser.toFixedPoint(price), nrOfSecuritiesTraded);
+	}
+
+	private void addFixedPointTrade(int tickerId, int epochDay, int secondOfDay, long price,
+			int nrOfSecuritiesTraded) {
+		if (isPublished(epochDay)) {
+			TrackedDay publishedDay = getPublishedDay(epochDay);
+			if (publishedDay == null) {
+				nrOfDroppedTrades++;
+				return;
+			}
+			TickerAccumulator tickerAggregates = publishedDay.addTrade(tickerId, secondOfDay, price,
+					nrOfSecuritiesTraded);
+			listener.onCorrection(publishedDay.dayAggregates, tickerAggregates);
+			return;
+		}
+		TrackedDay openDay = openDays.get(epochDay);
+		if (openDay == null) {
+			openDay = new TrackedDay(epochDay);
+			openDays.put(epochDay, openDay);
+		}
+		openDay.addTrade(tickerId, secondOfDay, price, nrOfSecuritiesTraded);
+		long eventTime = epochDay * SECONDS_PER_DAY + secondOfDay;
+		if (eventTime > latestEventTime) {
+			latestEventTime = eventTime;
+			publishUpTo(latestEventTime - allowedLatenessSeconds);
+		}
+	}
+
+	/**
+	 * Publishes all open days, e.g. at the end of the log. Later trades of these
+	 * days are passed as corrections while the days are retained.
+	 */
+	public void finish() {
+		publishUpTo(Long.MAX_VALUE);
+	}
+
+	/*
+	 * A day is published, or has been dropped after publication, if the watermark
+	 * has passed its end.
+	 */
+	private boolean isPublished(int epochDay) {
+		return latestEventTime != Long.MIN_VALUE
+				&& (epochDay + 1) * SECONDS_PER_DAY <= latestEventTime - allowedLatenessSeconds;
+	}
+
+	/*
+	 * Returns the retained aggregates of a published day. A day without trades
+	 * before the watermark passed it is retained from its first late trade on if it
+	 * is not older than all retained days. Returns null if the day is not retained.
+	 */
+	private TrackedDay getPublishedDay(int epochDay) {
+		TrackedDay publishedDay = publishedDays.get(epochDay);
+		if (publishedDay == null && retainedDays > 0
+				&& (publishedDays.size() < retainedDays || epochDay > publishedDays.firstKey())) {
+			publishedDay = new TrackedDay(epochDay);
+			retain(publishedDay);
+		}
+		return publishedDay;
+	}
+
+	private void retain(TrackedDay publishedDay) {
+		publishedDays.put(publishedDay.epochDay, publishedDay);
+		if (publishedDays.size() > retainedDays) {
+			publishedDays.pollFirstEntry();
+		}
+	}
+
+	private void publishUpTo(long watermark) {
+		Iterator<Map.Entry<Integer, TrackedDay>> openDayIterator = openDays.entrySet().iterator();
+		while (openDayIterator.hasNext()) {
+			TrackedDay openDay = openDayIterator.next().getValue();
+			if (watermark != Long.MAX_VALUE && (openDay.epochDay + 1) * SECONDS_PER_DAY > watermark) {
+				break;
+			}
+			openDayIterator.remove();
+			listener.onDay(openDay.dayAggregates);
+			if (retainedDays > 0) {
+				retain(openDay);
+			}
+		}
+	}
+
+	/*
+	 * Aggregates of an open or published day with lookups by ticker id.
+	 */
+	private class TrackedDay {
+
+		private final int epochDay;
+		private final DayAggregates dayAggregates;
+
+		TrackedDay(int epochDay) {
+			this.epochDay = epochDay;
+			this.dayAggregates = new DayAggregates(LocalDate.ofEpochDay(epochDay), true);
+		}
+
+		TickerAccumulator addTrade(int tickerId, int secondOfDay, long price, int nrOfSecuritiesTraded) {
+			TickerAccumulator tickerAggregates = dayAggregates.getAggregatesOfTicker(tickerId, tickerDictionary);
+			tickerAggregates.addFixedPointTrade(secondOfDay, price, nrOfSecuritiesTraded);
+			return tickerAggregates;
+		}
+
+	}
+
+}
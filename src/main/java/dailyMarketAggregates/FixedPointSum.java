@@ -0,0 +1,127 @@
+package dailyMarketAggregates;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * FixedPointSum sums products of fixed-point longs exactly in 128 bits, e.g.
+ * prices scaled by {@link TradeParser#PRICE_SCALE} times weights scaled by
+ * {@link IndexWeights#WEIGHT_SCALE}, whose products pass the range of a long
+ * for ordinary traded volumes. Every product is split into a high and a low
+ * long and added with carry, so adding allocates nothing and never throws.
+ * The rare sums beyond 128 bits are kept exact by counting the wraps of the
+ * high long.
+ * <p>
+ * The sum is rounded to double only when it is read. Sums below 2^53 are
+ * divided by the scale in double arithmetic, which is exact for the operands
+ * and rounded once, larger sums are rounded through {@link BigDecimal}; both
+ * give the nearest double of the exact sum.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class FixedPointSum {
+
+	private static final long MAX_EXACT_DOUBLE = 1L << 53;
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private long high;
+	private long low;
+	// multiples of 2^128 the 128 bit sum has wrapped around
+	private long nrOfWraps;
+
+	/**
+	 * Resets the sum to 0.
+	 */
+	public void clear() {
+		high = 0L;
+		low = 0L;
+		nrOfWraps = 0L;
+	}
+
+	/**
+	 * Adds the exact product of two longs.
+	 *
+	 * @param factor      First factor.
+	 * @param otherFactor Second factor.
+	 */
+	public void addProduct(long factor, long otherFactor) {
+		add(multiplyHigh(factor, otherFactor), factor * otherFactor);
+	}
+
+	/**
+	 * Adds a long.
+	 *
+	 * @param value Value to add.
+	 */
+	public void add(long value) {
+		add(value >> 63, value);
+	}
+
+	/**
+	 * @return true if the sum is 0.
+	 */
+	public boolean isZero() {
+		return high == 0L && low == 0L && nrOfWraps == 0L;
+	}
+
+	/**
+	 * Returns the sum as double.
+	 *
+	 * @param decimals Number of decimal places of the fixed-point sum, at most 22.
+	 * @return sum divided by 10 to the power of the decimals, rounded to the
+	 *         nearest double.
+	 */
+	public double toDouble(int decimals) {
+		if (nrOfWraps == 0L && high == low >> 63 && low > -MAX_EXACT_DOUBLE && low < MAX_EXACT_DOUBLE) {
+			return low / POWERS_OF_TEN[decimals];
+		}
+		return new BigDecimal(toBigInteger(), decimals).doubleValue();
+	}
+
+	/**
+	 * @return exact sum.
+	 */
+	public BigInteger toBigInteger() {
+		BigInteger sum = BigInteger.valueOf(high).shiftLeft(64).add(BigInteger.valueOf(low & Long.MAX_VALUE));
+		if (low < 0) {
+			sum = sum.setBit(63);
+		}
+		return nrOfWraps == 0L ? sum : sum.add(BigInteger.valueOf(nrOfWraps).shiftLeft(128));
+	}
+
+	private void add(long valueHigh, long valueLow) {
+		long sumLow = low + valueLow;
+		long carry = Long.compareUnsigned(sumLow, low) < 0 ? 1L : 0L;
+		long partialHigh = high + valueHigh;
+		// the signed high long wraps if its sign differs from both summands
+		if (((high ^ partialHigh) & (valueHigh ^ partialHigh)) < 0) {
+			nrOfWraps += high < 0 ? -1L : 1L;
+		}
+		long sumHigh = partialHigh + carry;
+		if (carry != 0L && sumHigh == Long.MIN_VALUE) {
+			nrOfWraps++;
+		}
+		high = sumHigh;
+		low = sumLow;
+	}
+
+	/*
+	 * Returns the high long of the signed 128 bit product of two longs, like
+	 * Math.multiplyHigh of later Java versions.
+	 */
+	static long multiplyHigh(long x, long y) {
+		long x1 = x >> 32;
+		long x2 = x & 0xFFFFFFFFL;
+		long y1 = y >> 32;
+		long y2 = y & 0xFFFFFFFFL;
+		long z2 = x2 * y2;
+		long t = x1 * y2 + (z2 >>> 32);
+		long z1 = t & 0xFFFFFFFFL;
+		long z0 = t >> 32;
+		z1 += x2 * y1;
+		return x1 * y1 + z0 + (z1 >> 32);
+	}
+
+}
@@ -0,0 +1,117 @@
+package dailyMarketAggregates;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * IndexCorrector corrects the market index values of reported days when a late
+ * trade changes the aggregates of a ticker of such a day, e.g. for the
+ * corrections of an {@link EventTimeDayAggregator}. The last known aggregates
+ * the index values of a day were calculated with are retained per day as a copy
+ * of the aggregator.
+ * <p>
+ * A corrected ticker is stored in the retained copy of its day and of the
+ * following days that carried its aggregates forward, i.e. up to the next day
+ * the ticker was traded on, and the index values of these days are written
+ * again as corrections. If no later day has traded the ticker, the aggregator
+ * itself is corrected too, so the days still to come use the corrected
+ * aggregates. A corrected day that was not reported because it had no trades
+ * starts from the retained copy of the day before.
+ * <p>
+ * A corrector is meant to be used on the thread of the aggregator.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class IndexCorrector {
+
+	private final Aggregator aggregator;
+	private final ReportSink report;
+	private final int retainedDays;
+	private final TreeMap<LocalDate, RetainedDay> retainedDaysPerDate = new TreeMap<>();
+
+	/**
+	 * @param aggregator   Aggregator with the last known aggregates of the reported
+	 *                     days.
+	 * @param report       Report the corrected index values are written to.
+	 * @param retainedDays Number of reported days that are kept for corrections.
+	 */
+	public IndexCorrector(Aggregator aggregator, ReportSink report, int retainedDays) {
+		if (retainedDays < 0) {
+			throw new IllegalArgumentException("Retained days must not be negative");
+		}
+		this.aggregator = aggregator;
+		this.report = report;
+		this.retainedDays = retainedDays;
+	}
+
+	/**
+	 * Retains the last known aggregates of a reported day. Must be called after
+	 * the aggregates of the day have been stored in the aggregator.
+	 *
+	 * @param dayAggregates Daily aggregates of the reported day.
+	 */
+	public void addDay(DayAggregates dayAggregates) {
+		if (retainedDays > 0) {
+			retain(new RetainedDay(dayAggregates, aggregator.copy()));
+		}
+	}
+
+	/**
+	 * Stores the corrected aggregates of a ticker as last known aggregates of its
+	 * day and of the following days that carried them forward, and writes the
+	 * corrected index values of these days. Days older than all retained days are
+	 * not corrected.
+	 *
+	 * @param dayAggregates    Corrected daily aggregates of the day.
+	 * @param tickerAggregates Corrected aggregates of the ticker.
+	 */
+	public void correct(DayAggregates dayAggregates, TickerAccumulator tickerAggregates) {
+		LocalDate date = dayAggregates.getDate();
+		if (!retainedDaysPerDate.containsKey(date)) {
+			Map.Entry<LocalDate, RetainedDay> dayBefore = retainedDaysPerDate.lowerEntry(date);
+			if (dayBefore == null) {
+				return;
+			}
+			retain(new RetainedDay(dayAggregates, dayBefore.getValue().aggregator.copy()));
+		}
+		for (RetainedDay retainedDay : retainedDaysPerDate.tailMap(date, true).values()) {
+			if (retainedDay.dayAggregates != dayAggregates && isTraded(retainedDay.dayAggregates, tickerAggregates)) {
+				// the later days carry the aggregates of this day forward
+				return;
+			}
+			retainedDay.aggregator.addLastKnownAggregatesOfTicker(tickerAggregates);
+			report.writeIndexCorrection(retainedDay.dayAggregates.getDate(), retainedDay.aggregator);
+		}
+		aggregator.addLastKnownAggregatesOfTicker(tickerAggregates);
+	}
+
+	private static boolean isTraded(DayAggregates dayAggregates, TickerAccumulator tickerAggregates) {
+		TickerAccumulator aggregatesOfDay = dayAggregates.getAggregatesPerTicker().get(tickerAggregates.getTicker());
+		return aggregatesOfDay != null && aggregatesOfDay.getTradeCount() > 0;
+	}
+
+	private void retain(RetainedDay retainedDay) {
+		retainedDaysPerDate.put(retainedDay.dayAggregates.getDate(), retainedDay);
+		if (retainedDaysPerDate.size() > retainedDays) {
+			retainedDaysPerDate.pollFirstEntry();
+		}
+	}
+
+	/*
+	 * Reported day with a copy of the last known aggregates after the day.
+	 */
+	private static class RetainedDay {
+
+		private final DayAggregates dayAggregates;
+		private final Aggregator aggregator;
+
+		RetainedDay(DayAggregates dayAggregates, Aggregator aggregator) {
+			this.dayAggregates = dayAggregates;
+			this.aggregator = aggregator;
+		}
+
+	}
+
+}
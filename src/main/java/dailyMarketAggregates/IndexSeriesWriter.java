@@ -0,0 +1,89 @@
+package dailyMarketAggregates;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * IndexSeriesWriter writes the index levels published by an
+ * {@link IntradayIndexEngine} as timestamped series in the format of the market
+ * historical log: {@code yyyy-MM-dd HH:mm:ss;INDEX;level}, one line per change
+ * of a level. Lines are buffered and written when the buffer is full, when a
+ * new day starts or when the writer is flushed, so a reader can follow the file
+ * while it is written.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class IndexSeriesWriter implements IntradayIndexEngine.IndexLevelListener, Closeable, Flushable {
+
+	private final Writer writer;
+	private final StringBuilder line = new StringBuilder(64);
+	private int lastEpochDay = Integer.MIN_VALUE;
+	private String lastDate;
+
+	public IndexSeriesWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Opens a file for the index series, replacing an existing file.
+	 *
+	 * @param file Path of the series file.
+	 * @return writer of the file.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public static IndexSeriesWriter open(Path file) throws IOException {
+		return new IndexSeriesWriter(Files.newBufferedWriter(file, StandardCharsets.US_ASCII));
+	}
+
+	@Override
+	public void onIndexLevel(MarketIndex marketIndex, int epochDay, int secondOfDay, double level) {
+		try {
+			if (epochDay != lastEpochDay) {
+				writer.flush();
+				lastEpochDay = epochDay;
+				lastDate = LocalDate.ofEpochDay(epochDay).toString();
+			}
+			line.setLength(0);
+			line.append(lastDate).append(' ');
+			appendTwoDigits(secondOfDay / 3600).append(':');
+			appendTwoDigits(secondOfDay / 60 % 60).append(':');
+			appendTwoDigits(secondOfDay % 60).append(';');
+			line.append(marketIndex.getName()).append(';');
+			line.append(level).append('\n');
+			writer.append(line);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the buffered lines to the file.
+	 *
+	 * @throws IOException if the file cannot be written.
+	 */
+	@Override
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	private StringBuilder appendTwoDigits(int value) {
+		if (value < 10) {
+			line.append('0');
+		}
+		return line.append(value);
+	}
+
+}
@@ -0,0 +1,211 @@
+package dailyMarketAggregates;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * IndexWeights contains the constituents of a market index and their weights.
+ * Instances are immutable, so a set of weights can be shared between threads
+ * and replaced as a whole. Besides its double value, every weight is kept as
+ * fixed-point long scaled by {@link #WEIGHT_SCALE}, rounded to
+ * {@link #WEIGHT_DECIMALS} decimal places, for the exact market index sums of
+ * the {@link Aggregator}.
+ * <p>
+ * Weight files have one constituent per line in the format
+ * {@code TICKER;weight}, with a decimal comma or point in the weight. Blank
+ * lines and lines starting with {@code #} are ignored.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class IndexWeights {
+
+	/**
+	 * Number of decimal places of fixed-point weights.
+	 */
+	public static final int WEIGHT_DECIMALS = 6;
+
+	/**
+	 * Factor between a fixed-point weight and its decimal value.
+	 */
+	public static final long WEIGHT_SCALE = 1_000_000L;
+
+	private final String[] tickers;
+	private final double[] weights;
+	private final long[] fixedPointWeights;
+
+	/**
+	 * @param tickers Tickers of the constituents.
+	 * @param weights Weights of the constituents in the same order.
+	 */
+	public IndexWeights(String[] tickers, double[] weights) {
+		if (tickers.length != weights.length) {
+			throw new IllegalArgumentException(
+					"Got " + tickers.length + " tickers but " + weights.length + " weights");
+		}
+		Set<String> uniqueTickers = new HashSet<>();
+		for (String ticker : tickers) {
+			if (!uniqueTickers.add(ticker)) {
+				throw new IllegalArgumentException("Duplicate index constituent: " + ticker);
+			}
+		}
+		this.tickers = tickers.clone();
+		this.weights = weights.clone();
+		this.fixedPointWeights = new long[weights.length];
+		for (int i = 0; i < weights.length; i++) {
+			this.fixedPointWeights[i] = Math.round(weights[i] * WEIGHT_SCALE);
+		}
+	}
+
+	/**
+	 * Loads index weights from a weight file.
+	 *
+	 * @param file Path of the weight file.
+	 * @return index weights of the file.
+	 * @throws IOException              if the file cannot be read.
+	 * @throws IllegalArgumentException if a line is not a valid constituent.
+	 */
+	public static IndexWeights load(Path file) throws IOException {
+		try (BufferedReader bufferedReader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+			return read(bufferedReader, file);
+		}
+	}
+
+	/**
+	 * Loads index weights in the format of a weight file from a stream, e.g. of a
+	 * classpath resource. The stream is not closed.
+	 *
+	 * @param in     Stream of the weights.
+	 * @param source Name of the stream in error messages.
+	 * @return index weights of the stream.
+	 * @throws IOException              if the stream cannot be read.
+	 * @throws IllegalArgumentException if a line is not a valid constituent.
+	 */
+	public static IndexWeights load(InputStream in, String source) throws IOException {
+		return read(new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII)), source);
+	}
+
+	private static IndexWeights read(BufferedReader bufferedReader, Object file) throws IOException {
+		List<String> tickers = new ArrayList<>();
+		List<Double> weights = new ArrayList<>();
+		String currentLine;
+		while ((currentLine = bufferedReader.readLine()) != null) {
+			currentLine = currentLine.trim();
+			if (currentLine.isEmpty() || currentLine.startsWith("#")) {
+				continue;
+			}
+			String[] constituent = currentLine.split(";");
+			if (constituent.length != 2 || constituent[0].isEmpty()) {
+				throw new IllegalArgumentException("Invalid index constituent in " + file + ": " + currentLine);
+			}
+			try {
+				weights.add(Double.parseDouble(constituent[1].replace(',', '.')));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid index weight in " + file + ": " + currentLine, e);
+			}
+			tickers.add(constituent[0]);
+		}
+		double[] weightArray = new double[weights.size()];
+		for (int i = 0; i < weightArray.length; i++) {
+			weightArray[i] = weights.get(i);
+		}
+		return new IndexWeights(tickers.toArray(new String[0]), weightArray);
+	}
+
+	/**
+	 * @return number of constituents.
+	 */
+	public int size() {
+		return tickers.length;
+	}
+
+	public String getTicker(int index) {
+		return tickers[index];
+	}
+
+	public double getWeight(int index) {
+		return weights[index];
+	}
+
+	/**
+	 * @param index Index of the constituent.
+	 * @return weight of the constituent as fixed-point long scaled by
+	 *         {@link #WEIGHT_SCALE}.
+	 */
+	public long getFixedPointWeight(int index) {
+		return fixedPointWeights[index];
+	}
+
+	/**
+	 * Returns the weights as array indexed by the ticker ids of a dictionary.
+	 * Constituents missing in the dictionary are added to it, tickers that are no
+	 * constituents have weight 0.0.
+	 *
+	 * @param tickerDictionary Dictionary of the ticker ids.
+	 * @return weight per ticker id.
+	 */
+	public double[] resolve(TickerDictionary tickerDictionary) {
+		int[] tickerIds = new int[tickers.length];
+		for (int i = 0; i < tickers.length; i++) {
+			tickerIds[i] = tickerDictionary.idOf(tickers[i]);
+		}
+		double[] weightsPerTickerId = new double[tickerDictionary.size()];
+		for (int i = 0; i < tickers.length; i++) {
+			weightsPerTickerId[tickerIds[i]] = weights[i];
+		}
+		return weightsPerTickerId;
+	}
+
+	/**
+	 * Returns the fixed-point weights as array indexed by the ticker ids of a
+	 * dictionary like {@link #resolve(TickerDictionary)}.
+	 *
+	 * @param tickerDictionary Dictionary of the ticker ids.
+	 * @return fixed-point weight per ticker id, scaled by {@link #WEIGHT_SCALE}.
+	 */
+	public long[] resolveFixedPoint(TickerDictionary tickerDictionary) {
+		int[] tickerIds = new int[tickers.length];
+		for (int i = 0; i < tickers.length; i++) {
+			tickerIds[i] = tickerDictionary.idOf(tickers[i]);
+		}
+		long[] weightsPerTickerId = new long[tickerDictionary.size()];
+		for (int i = 0; i < tickers.length; i++) {
+			weightsPerTickerId[tickerIds[i]] = fixedPointWeights[i];
+		}
+		return weightsPerTickerId;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder constituents = new StringBuilder();
+		for (int i = 0; i < tickers.length; i++) {
+			constituents.append(i == 0 ? "" : ", ").append(tickers[i]).append('=').append(weights[i]);
+		}
+		return "IndexWeights[" + constituents + "]";
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof IndexWeights)) {
+			return false;
+		}
+		IndexWeights otherWeights = (IndexWeights) other;
+		return Arrays.equals(tickers, otherWeights.tickers) && Arrays.equals(weights, otherWeights.weights);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(tickers) + Arrays.hashCode(weights);
+	}
+
+}
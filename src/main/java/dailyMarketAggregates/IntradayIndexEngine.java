@@ -0,0 +1,197 @@
+package dailyMarketAggregates;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IntradayIndexEngine calculates the level of market indices after every trade.
+ * Each index keeps a running weighted sum of the last known prices of its
+ * constituents. A trade of a constituent adds the weighted change of the price
+ * of its ticker to the sum, so updating an index costs O(1) regardless of the
+ * number of constituents. Prices and weights are fixed-point longs and the sum
+ * is a {@link FixedPointSum}, so replacing prices all day long stays exact and
+ * the level is the exact weighted sum rounded to double once. Every change of a level is published to an
+ * {@link IndexLevelListener} together with the time of the trade, so the index
+ * series can be consumed while the log is still being read.
+ * <p>
+ * When the weights of a {@link MarketIndex} are replaced, the running sum of
+ * the index is recalculated once from the last known prices. An engine is meant
+ * to be fed by a single thread.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class IntradayIndexEngine {
+
+	/**
+	 * IndexLevelListener receives the index levels published by an
+	 * {@link IntradayIndexEngine}.
+	 */
+	public interface IndexLevelListener {
+
+		/**
+		 * Called after a trade has changed the level of a market index.
+		 *
+		 * @param marketIndex Market index whose level changed.
+		 * @param epochDay    Date of the trade as epoch day.
+		 * @param secondOfDay Time of the trade as seconds of the day.
+		 * @param level       New level of the market index.
+		 */
+		void onIndexLevel(MarketIndex marketIndex, int epochDay, int secondOfDay, double level);
+
+	}
+
+	private final IndexLevelListener listener;
+	private final IndexState[] indexStates;
+	// last known fixed-point price per ticker id, UNKNOWN if the ticker has not
+	// been traded
+	private long[] lastPrices = new long[0];
+	// marks a last known price that is unknown
+	private static final long UNKNOWN = Long.MIN_VALUE;
+	private static final int LEVEL_DECIMALS = TradeParser.PRICE_DECIMALS + IndexWeights.WEIGHT_DECIMALS;
+
+	private final TickerDictionary tickerDictionary;
+
+	/**
+	 * @param marketIndices    Market indices to calculate.
+	 * @param tickerDictionary Dictionary of the ticker ids of the trades.
+	 * @param listener         Listener of the index levels.
+	 */
+	public IntradayIndexEngine(List<MarketIndex> marketIndices, TickerDictionary tickerDictionary,
+			IndexLevelListener listener) {
+		this.tickerDictionary = tickerDictionary;
+		this.listener = listener;
+		this.indexStates = new IndexState[marketIndices.size()];
+		for (int i = 0; i < indexStates.length; i++) {
+			indexStates[i] = new IndexState(marketIndices.get(i));
+		}
+	}
+
+	/**
+	 * Returns the current level of a market index.
+	 *
+	 * @param marketIndex Market index of this engine.
+	 * @return weighted sum of the last known prices of the constituents, 0.0 if
+	 *         none has been traded.
+	 */
+	public double getLevel(MarketIndex marketIndex) {
+		for (IndexState indexState : indexStates) {
+			if (indexState.marketIndex == marketIndex) {
+				indexState.refreshWeights();
+				return indexState.getLevel();
+			}
+		}
+		throw new IllegalArgumentException("Unknown market index: " + marketIndex.getName());
+	}
+
+	/**
+	 * Updates the index levels with the trade of the last line parsed by a parser.
+	 *
+	 * @param parser Parser of the current trade line.
+	 */
+	public void addTrade(TradeParser parser) {
+		addFixedPointTrade(tickerDictionary.idOf(parser), parser.getEpochDay(), parser.getSecondOfDay(),
+				parser.getPrice());
+	}
+
+	/**
+	 * Updates the index levels with a trade.
+	 *
+	 * @param trade Trade object.
+	 */
+	public void addTrade(Trade trade) {
+		addTrade(tickerDictionary.idOf(trade.getTicker()), (int) trade.getDate().toEpochDay(),
+				trade.getTime().toSecondOfDay(), trade.getPrice());
+	}
+
+	/**
+	 * Updates the index levels with the values of a trade.
+	 *
+	 * @param tickerId    Id of the ticker in the ticker dictionary.
+	 * @param epochDay    Date of the trade as epoch day.
+	 * @param secondOfDay Time of the trade as seconds of the day.
+	 * @param price       Price of the trade.
+	 */
+	public void addTrade(int tickerId, int epochDay, int secondOfDay, double price) {
+		addFixedPointTrade(tickerId, epochDay, secondOfDay, TradeParser.toFixedPoint(price));
+	}
+
+	/**
+	 * Updates the index levels with the values of a trade with a fixed-point
+	 * price.
+	 *
+	 * @param tickerId    Id of the ticker in the ticker dictionary.
+	 * @param epochDay    Date of the trade as epoch day.
+	 * @param secondOfDay Time of the trade as seconds of the day.
+	 * @param price       Price of the trade as fixed-point long scaled by
+	 *                    {@link TradeParser#PRICE_SCALE}.
+	 */
+	public void addFixedPointTrade(int tickerId, int epochDay, int secondOfDay, long price) {
+		if (tickerId >= lastPrices.length) {
+			int oldLength = lastPrices.length;
+			lastPrices = Arrays.copyOf(lastPrices, Math.max(tickerDictionary.size(), tickerId + 1));
+			Arrays.fill(lastPrices, oldLength, lastPrices.length, UNKNOWN);
+		}
+		long lastPrice = lastPrices[tickerId];
+		lastPrices[tickerId] = price;
+		for (IndexState indexState : indexStates) {
+			if (indexState.refreshWeights() || indexState.updatePrice(tickerId, lastPrice, price)) {
+				listener.onIndexLevel(indexState.marketIndex, epochDay, secondOfDay, indexState.getLevel());
+			}
+		}
+	}
+
+	/*
+	 * Running weighted sum of one market index.
+	 */
+	private class IndexState {
+
+		private final MarketIndex marketIndex;
+		private IndexWeights resolvedWeights;
+		private long[] weightsPerTickerId;
+		// sum of the fixed-point last known prices times the fixed-point weights
+		private final FixedPointSum level = new FixedPointSum();
+
+		IndexState(MarketIndex marketIndex) {
+			this.marketIndex = marketIndex;
+		}
+
+		double getLevel() {
+			return level.toDouble(LEVEL_DECIMALS);
+		}
+
+		/*
+		 * Resolves the weights again after they have been replaced and recalculates
+		 * the level from the last known prices. Returns true if the weights changed.
+		 */
+		boolean refreshWeights() {
+			IndexWeights currentWeights = marketIndex.getWeights();
+			if (currentWeights == resolvedWeights) {
+				return false;
+			}
+			resolvedWeights = currentWeights;
+			weightsPerTickerId = currentWeights.resolveFixedPoint(tickerDictionary);
+			level.clear();
+			for (int tickerId = 0; tickerId < weightsPerTickerId.length && tickerId < lastPrices.length; tickerId++) {
+				if (weightsPerTickerId[tickerId] != 0 && lastPrices[tickerId] != UNKNOWN) {
+					level.addProduct(lastPrices[tickerId], weightsPerTickerId[tickerId]);
+				}
+			}
+			return true;
+		}
+
+		/*
+		 * Adds the weighted change from the last known price of a ticker to its new
+		 * price. Returns true if the ticker is a constituent.
+		 */
+		boolean updatePrice(int tickerId, long lastPrice, long price) {
+			if (tickerId >= weightsPerTickerId.length || weightsPerTickerId[tickerId] == 0) {
+				return false;
+			}
+			level.addProduct(lastPrice == UNKNOWN ? price : price - lastPrice, weightsPerTickerId[tickerId]);
+			return true;
+		}
+
+	}
+
+}
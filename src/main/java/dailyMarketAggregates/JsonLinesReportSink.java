@@ -0,0 +1,113 @@
+package dailyMarketAggregates;
+
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+
+/**
+ * JsonLinesReportSink writes the daily aggregates as one JSON object per line
+ * and ticker or market index of a day, e.g.
+ * {@code {"date":"2023-06-01","name":"ABC","type":"ticker","open":999.71,...}}.
+ * The type is {@code ticker}, {@code index} or {@code correction}. The
+ * aggregates are followed by the trade statistics {@code vwap}, {@code twap},
+ * {@code trades}, {@code shares} and {@code variance} and the estimated
+ * quantiles {@code price_p50}, {@code price_p95}, {@code price_p99},
+ * {@code size_p50}, {@code size_p95} and {@code size_p99} of the trade prices
+ * and sizes. Values that are not available are written as {@code null}.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class JsonLinesReportSink extends ReportSink {
+
+	public JsonLinesReportSink(WritableByteChannel channel) {
+		super(channel);
+	}
+
+	@Override
+	protected void beginDay(LocalDate date, boolean correction) {
+	}
+
+	@Override
+	protected void writeAggregates(LocalDate date, String name, boolean marketIndex, boolean correction,
+			double openPrice, double closePrice, double highestPrice, double lowestPrice, double dailyTradedVolume,
+			double volumeWeightedAveragePrice, double timeWeightedAveragePrice, long tradeCount,
+			long nrOfSecuritiesTraded, double priceVariance, QuantileSketch priceSketch, QuantileSketch sizeSketch) {
+		text.append("{\"date\":\"").append(date).append("\",\"name\":\"");
+		appendEscaped(text, name);
+		text.append("\",\"type\":\"").append(correction ? "correction" : marketIndex ? "index" : "ticker")
+				.append('"');
+		appendValue("open", openPrice);
+		appendValue("close", closePrice);
+		appendValue("highest", highestPrice);
+		appendValue("lowest", lowestPrice);
+		appendValue("volume", dailyTradedVolume);
+		appendValue("vwap", volumeWeightedAveragePrice);
+		appendValue("twap", timeWeightedAveragePrice);
+		appendCount("trades", tradeCount);
+		appendCount("shares", nrOfSecuritiesTraded);
+		text.append(",\"variance\":");
+		if (Double.isNaN(priceVariance)) {
+			text.append("null");
+		} else {
+			text.append(priceVariance);
+		}
+		appendQuantiles("price", priceSketch);
+		appendQuantiles("size", sizeSketch);
+		text.append("}\n");
+	}
+
+	@Override
+	protected void endDay(boolean correction) {
+	}
+
+	private void appendCount(String key, long count) {
+		text.append(",\"").append(key).append("\":");
+		if (count > 0) {
+			text.append(count);
+		} else {
+			text.append("null");
+		}
+	}
+
+	private void appendQuantiles(String key, QuantileSketch sketch) {
+		for (double quantile : QUANTILES) {
+			text.append(",\"").append(key).append("_p").append(Math.round(quantile * 100)).append("\":");
+			double value = sketch != null ? sketch.getQuantile(quantile) : 0.0;
+			if (value > 0.0) {
+				text.append(value);
+			} else {
+				text.append("null");
+			}
+		}
+	}
+
+	private void appendValue(String key, double value) {
+		text.append(",\"").append(key).append("\":");
+		if (value > 0.0) {
+			text.append(value);
+		} else {
+			text.append("null");
+		}
+	}
+
+	/**
+	 * Appends a value to a JSON string, escaping quotes, backslashes and control
+	 * characters.
+	 *
+	 * @param text  Text of the JSON string.
+	 * @param value Value to append.
+	 */
+	static void appendEscaped(StringBuilder text, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				text.append('\\').append(c);
+			} else if (c < 0x20) {
+				text.append(String.format("\\u%04x", (int) c));
+			} else {
+				text.append(c);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+package dailyMarketAggregates;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram counts durations in nanoseconds in a fixed set of buckets.
+ * Every power of two is split into four buckets, so a bucket is at most 25%
+ * wider than its lower bound and durations up to about 36 minutes are counted
+ * in 160 buckets; longer durations fall into the last bucket. The buckets are
+ * striped counters, so recording a duration allocates nothing once the
+ * counters have grown to the number of recording threads, and does not block.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKETS = 4;
+	static final int NR_OF_BUCKETS = 160;
+
+	private final LongAdder[] buckets = new LongAdder[NR_OF_BUCKETS];
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+	public LatencyHistogram() {
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Counts a duration.
+	 *
+	 * @param nanos Duration in nanoseconds, negative durations are counted as 0.
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		buckets[bucketOf(nanos)].increment();
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	/**
+	 * @return mean of the recorded durations in nanoseconds, 0.0 if none has
+	 *         been recorded.
+	 */
+	public double getMeanNanos() {
+		long n = count.sum();
+		return n == 0 ? 0.0 : (double) totalNanos.sum() / n;
+	}
+
+	/**
+	 * Returns the upper bound of the bucket of a percentile, which is at most 25%
+	 * above the exact percentile and never above the longest duration.
+	 *
+	 * @param percentile Percentile between 0 and 100.
+	 * @return duration in nanoseconds, 0 if no duration has been recorded.
+	 */
+	public long getPercentileNanos(double percentile) {
+		long n = count.sum();
+		if (n == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+		long seen = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			seen += buckets[i].sum();
+			if (seen >= rank) {
+				return Math.min(upperBoundOf(i), getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+	static int bucketOf(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) nanos;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int subBucket = (int) (nanos >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+		return Math.min((exponent - 1) * SUB_BUCKETS + subBucket, NR_OF_BUCKETS - 1);
+	}
+
+	static long upperBoundOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		if (bucket == NR_OF_BUCKETS - 1) {
+			return Long.MAX_VALUE;
+		}
+		int exponent = bucket / SUB_BUCKETS + 1;
+		long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - 2);
+		return lowerBound + (1L << (exponent - 2)) - 1;
+	}
+
+}
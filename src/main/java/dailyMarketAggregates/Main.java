@@ -1,97 +1,692 @@
 package dailyMarketAggregates;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.Closeable;
+import java.io.Flushable;
 import java.io.IOException;
-import java.text.NumberFormat;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
-import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import javax.management.JMException;
 
 public class Main {
 
+	private static final int RETAINED_DAYS_FOR_CORRECTIONS = 7;
+	private static final int RETAINED_DAYS_FOR_SNAPSHOTS = 366;
+
 	/*
 	 * Iterates market historical log. While trades belong to the same day, the
 	 * trades are accumulated in trade day object. When all trades of a day are
-	 * gathered, the daily aggregates are calculated and printed.
+	 * gathered, the daily aggregates are calculated and printed. An optional
+	 * argument names the log file. The options are parsed by RunOptions:
+	 * 
+	 * --parallel: the log is read on all cores.
+	 * --parallel-days: complete trade days are aggregated on a fork/join pool
+	 * while the log is read.
+	 * --concurrent: every log file argument is read on its own thread into one
+	 * concurrent aggregator.
+	 * --columnar: the trades of a day are stored in primitive columns.
+	 * --streaming: every trade only updates the aggregates of its ticker, so
+	 * memory stays flat however many trades a day has.
+	 * --lateness SECONDS: the trades are aggregated by their date even if the log
+	 * is out of order; a day is printed once trades later than its end by these
+	 * seconds have been read, late trades of printed days are printed as
+	 * corrections of their ticker and of the market indices.
+	 * --convert FILE: the log is converted into a binary trade store instead.
+	 * --store: the log argument is a trade store, aggregated without parsing.
+	 * --from DATE, --to DATE, --tickers TICKERS: only the selected trades of the
+	 * log or store are aggregated, other lines are skipped without parsing.
+	 * --index FILE: adds a market index instead of the default one, repeatable.
+	 * --live-index FILE: the index levels after every trade are written to the
+	 * file while the log is read sequentially.
+	 * --bars FILE: intraday bars of every ticker and market index are written to
+	 * the file for the intervals of --bar-intervals, 1s,1m,5m,1h by default.
+	 * --format text|csv|jsonl: format of the aggregates, written in batches.
+	 * --output FILE: the aggregates are written to the file, not the console.
+	 * --checkpoint FILE: the log is aggregated like with --streaming and the
+	 * state of the run is saved to the file every 1,000,000 trades or the number
+	 * after --checkpoint-every; a run with an existing checkpoint resumes from it
+	 * and continues the report of --output.
+	 * --follow: the log is read like with --streaming and then followed while it
+	 * is appended, polling every 10 milliseconds or the number after
+	 * --follow-poll, until the program is terminated.
+	 * --metrics SECONDS: counters and latencies of the hot paths are registered as
+	 * MBean and logged to the error stream every period, 0 only logs them at the
+	 * end.
+	 * --window FILE: the rolling aggregates of every ticker and market index over
+	 * the last 20 days, or the number after --window-days, are written to the
+	 * file after every day.
+	 * --serve PORT: snapshots of the aggregates of every day are served as JSON
+	 * over HTTP on localhost while the log is read and afterwards until the
+	 * program is terminated.
+	 * --pipeline: the log is read, parsed, aggregated and written by four stages
+	 * on threads of their own, which pass the trades in batches of 256 or the
+	 * number after --pipeline-batch; with --metrics the throughput and waits of
+	 * every stage are logged at the end.
 	 */
 	public static void main(String[] args) {
-		String file = "src/main/data/test-market.csv";
-		String currentLine = null;
-		try (FileReader fileReader = new FileReader(file);
-				BufferedReader bufferedReader = new BufferedReader(fileReader);) {
-			Aggregator aggregator = new Aggregator();
+		RunOptions options = RunOptions.parse(args);
+		String conflict = options.findConflict();
+		if (conflict != null) {
+			System.err.println(conflict);
+			return;
+		}
+		Path file = Paths.get(options.getFile());
+		if (options.getConvertFile() != null) {
+			try {
+				TradeStoreWriter.convert(file, Paths.get(options.getConvertFile()));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			return;
+		}
+		IndexSeriesWriter indexSeriesWriter = null;
+		BarSeriesWriter barSeriesWriter = null;
+		RollingWindowWriter rollingWindowWriter = null;
+		AggregateServer server = null;
+		SnapshotPublisher publisher = null;
+		boolean completed = false;
+		ReportSink report = null;
+		PipelineMetrics metrics = options.getMetricsPeriodSeconds() >= 0 ? new PipelineMetrics() : null;
+		try {
+			if (metrics != null) {
+				metrics.register();
+				if (options.getMetricsPeriodSeconds() > 0) {
+					metrics.startLogging(options.getMetricsPeriodSeconds(), System.err);
+				}
+			}
+			String checkpointFile = options.getCheckpointFile();
+			Checkpoint checkpoint = checkpointFile != null && Files.exists(Paths.get(checkpointFile))
+					? Checkpoint.read(Paths.get(checkpointFile))
+					: null;
+			report = openReport(options.getFormat(), options.getOutputFile(), checkpoint);
+			report.setMetrics(metrics);
+			Aggregator aggregator = createAggregator(options.getIndexFiles());
+			BarBuilder barBuilder = null;
+			if (options.getBarFile() != null) {
+				barSeriesWriter = BarSeriesWriter.open(Paths.get(options.getBarFile()));
+				barBuilder = new BarBuilder(BarBuilder.parseIntervals(options.getBarIntervals()),
+						aggregator.getTickerDictionary(), barSeriesWriter);
+			}
+			if (options.getLiveIndexFile() != null) {
+				indexSeriesWriter = IndexSeriesWriter.open(Paths.get(options.getLiveIndexFile()));
+			}
+			IntradayIndexEngine indexEngine = createIndexEngine(aggregator, indexSeriesWriter, barBuilder);
+			if (options.getWindowFile() != null) {
+				rollingWindowWriter = RollingWindowWriter.open(Paths.get(options.getWindowFile()));
+				report.addDayListener(
+						new RollingWindowAggregator(options.getWindowDays(), aggregator, rollingWindowWriter));
+			}
+			if (options.getServePort() >= 0) {
+				publisher = new SnapshotPublisher(RETAINED_DAYS_FOR_SNAPSHOTS);
+				report.addDayListener(publisher);
+				server = new AggregateServer(publisher, options.getServePort());
+				System.err.println("Serving aggregates on http://localhost:" + server.getPort() + "/");
+			}
+			switch (options.getMode()) {
+			case QUERY:
+				printQuery(file, options.isStore(), aggregator, report, options.getFrom(), options.getTo(),
+						options.getTickers());
+				break;
+			case PARALLEL:
+				printParallel(file, aggregator, report);
+				break;
+			case CONCURRENT:
+				printConcurrent(options.getLogFiles(), aggregator, report, metrics);
+				break;
+			case PARALLEL_DAYS:
+				printParallelDays(file, aggregator, report, metrics);
+				break;
+			case EVENT_TIME:
+				printEventTime(file, aggregator, report, metrics, options.getAllowedLatenessSeconds());
+				break;
+			case FOLLOW:
+				List<Flushable> outputs = new ArrayList<>();
+				outputs.add(report);
+				if (indexSeriesWriter != null) {
+					outputs.add(indexSeriesWriter);
+				}
+				if (barSeriesWriter != null) {
+					outputs.add(barSeriesWriter);
+				}
+				if (rollingWindowWriter != null) {
+					outputs.add(rollingWindowWriter);
+				}
+				printFollowing(file, aggregator, report, metrics, indexEngine, barBuilder, outputs, publisher,
+						options.getFollowPollMillis());
+				break;
+			case CHECKPOINT:
+				printCheckpointed(file, aggregator, report, metrics, Paths.get(checkpointFile), checkpoint,
+						options.getCheckpointTrades());
+				break;
+			case PIPELINE:
+				printPipeline(file, aggregator, report, metrics, options.getPipelineBatchSize());
+				break;
+			case STREAMING:
+				printStreaming(file, aggregator, report, metrics, indexEngine, barBuilder);
+				break;
+			case COLUMNAR:
+				printColumnar(file, aggregator, report, metrics, indexEngine, barBuilder);
+				break;
+			default:
+				printSequential(file, aggregator, report, metrics, indexEngine, barBuilder);
+			}
+			completed = true;
+		} catch (IOException | UncheckedIOException | JMException e) {
+			e.printStackTrace();
+		} finally {
+			if (options.getOutputFile() != null) {
+				closeQuietly(report);
+			} else if (report != null) {
+				flushQuietly(report);
+			}
+			closeQuietly(indexSeriesWriter);
+			closeQuietly(barSeriesWriter);
+			closeQuietly(rollingWindowWriter);
+			if (metrics != null) {
+				metrics.close();
+				System.err.println(metrics.getSummary());
+			}
+			if (server != null) {
+				if (completed && !options.isFollow()) {
+					awaitTermination();
+				}
+				server.close();
+			}
+		}
+
+	}
+
+	/*
+	 * Waits until the program is terminated, e.g. while the aggregates of a
+	 * completed run are served.
+	 */
+	private static void awaitTermination() {
+		try {
+			new CountDownLatch(1).await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void flushQuietly(ReportSink report) {
+		try {
+			report.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		System.out.flush();
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/*
+	 * Opens the report on the console or in a file. The report of a resumed run
+	 * continues the file after the bytes written before the checkpoint.
+	 */
+	private static ReportSink openReport(ReportSink.Format format, String outputFile, Checkpoint checkpoint)
+			throws IOException {
+		if (outputFile == null) {
+			// the console is flushed but not closed, System.out may be replaced by the
+			// caller
+			return ReportSink.create(format, Channels.newChannel(System.out));
+		}
+		if (checkpoint == null) {
+			return ReportSink.create(format, FileChannel.open(Paths.get(outputFile), StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+		}
+		FileChannel channel = FileChannel.open(Paths.get(outputFile), StandardOpenOption.WRITE);
+		try {
+			if (channel.size() < checkpoint.getReportOffset()) {
+				throw new IOException("Report " + outputFile + " is shorter than at its checkpoint");
+			}
+			channel.truncate(checkpoint.getReportOffset());
+			channel.position(checkpoint.getReportOffset());
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		return ReportSink.create(format, channel, true);
+	}
+
+	private static TradeLogReader openLog(Path file, PipelineMetrics metrics) throws IOException {
+		TradeLogReader reader = TradeLogReader.open(file);
+		reader.setMetrics(metrics);
+		return reader;
+	}
+
+	/*
+	 * Opens a log that is read on the thread of the aggregator, so its tickers are
+	 * interned once in the dictionary of the aggregator.
+	 */
+	private static TradeLogReader openLog(Path file, Aggregator aggregator, PipelineMetrics metrics)
+			throws IOException {
+		TradeLogReader reader = openLog(file, metrics);
+		reader.getParser().setTickerDictionary(aggregator.getTickerDictionary());
+		return reader;
+	}
+
+	private static DayAggregates aggregateDay(Aggregator aggregator, TradeDay tradeDay, PipelineMetrics metrics) {
+		long start = metrics != null ? System.nanoTime() : 0L;
+		DayAggregates dayAggregates = aggregator.calculateAggregatesOfDay(tradeDay);
+		if (metrics != null) {
+			metrics.record(PipelineMetrics.Timer.DAY_AGGREGATES, start);
+		}
+		return dayAggregates;
+	}
+
+	private static DayAggregates aggregateDay(Aggregator aggregator, ColumnarTradeDay tradeDay,
+			PipelineMetrics metrics) {
+		long start = metrics != null ? System.nanoTime() : 0L;
+		DayAggregates dayAggregates = aggregator.calculateAggregatesOfDay(tradeDay);
+		if (metrics != null) {
+			metrics.record(PipelineMetrics.Timer.DAY_AGGREGATES, start);
+		}
+		return dayAggregates;
+	}
+
+	/*
+	 * Creates an aggregator for the market indices of the weight files, named
+	 * after the files, or for the default market index if there are none.
+	 */
+	private static Aggregator createAggregator(List<String> indexFiles) throws IOException {
+		if (indexFiles.isEmpty()) {
+			return new Aggregator();
+		}
+		List<MarketIndex> marketIndices = new ArrayList<>();
+		for (String indexFile : indexFiles) {
+			Path indexPath = Paths.get(indexFile);
+			String name = indexPath.getFileName().toString().replaceFirst("\\.[^.]*$", "").toUpperCase();
+			marketIndices.add(MarketIndex.load(name, indexPath));
+		}
+		return new Aggregator(marketIndices);
+	}
+
+	/*
+	 * Creates an engine for the index levels after every trade if they are written
+	 * to a series file or built into bars.
+	 */
+	private static IntradayIndexEngine createIndexEngine(Aggregator aggregator, IndexSeriesWriter indexSeriesWriter,
+			BarBuilder barBuilder) {
+		if (indexSeriesWriter == null && barBuilder == null) {
+			return null;
+		}
+		return new IntradayIndexEngine(aggregator.getMarketIndices(), aggregator.getTickerDictionary(),
+				(marketIndex, epochDay, secondOfDay, level) -> {
+					if (indexSeriesWriter != null) {
+						indexSeriesWriter.onIndexLevel(marketIndex, epochDay, secondOfDay, level);
+					}
+					if (barBuilder != null) {
+						barBuilder.onIndexLevel(marketIndex, epochDay, secondOfDay, level);
+					}
+				});
+	}
+
+	private static void printSequential(Path file, Aggregator aggregator, ReportSink report, PipelineMetrics metrics,
+			IntradayIndexEngine indexEngine, BarBuilder barBuilder) throws IOException {
+		try (TradeLogReader reader = openLog(file, aggregator, metrics)) {
+			TradeParser parser = reader.getParser();
 			// Initialize first trade day
 			TradeDay tradeDay = new TradeDay(null);
-			while ((currentLine = bufferedReader.readLine()) != null) {
-				String[] tradeInfo = currentLine.split(";");
-				String[] dateTime = tradeInfo[0].split(" ");
-				LocalDate date = LocalDate.parse(dateTime[0]);
-				LocalTime time = LocalTime.parse(dateTime[1]);
-				Trade trade = new Trade(tradeInfo[1], date, time, Double.parseDouble(tradeInfo[2].replace(',', '.')),
-						Integer.parseInt(tradeInfo[3]));
+			while (reader.nextTrade()) {
+				// trades of new date appear in file, so print recent daily aggregates and
+				// create new trade day
+				if (tradeDay.getDate() != null && parser.getEpochDay() != tradeDay.getDate().toEpochDay()) {
+					report.writeDay(aggregator, aggregateDay(aggregator, tradeDay, metrics));
+					tradeDay = new TradeDay(null);
+				}
 				// if trade day is empty create new trade day of last extracted date
 				if (tradeDay.getDate() == null) {
-					tradeDay = new TradeDay(date);
-					tradeDay.addTrade(trade);
-					// keep on gathering trades
-				} else if (date.equals(tradeDay.getDate())) {
-					tradeDay.addTrade(trade);
-					// trades of new date appear in file, so print recent daily aggregates and
-					// create new trade day
-				} else {
-					printTradeDayAggregates(aggregator, tradeDay);
-					tradeDay = new TradeDay(null);
+					tradeDay = new TradeDay(LocalDate.ofEpochDay(parser.getEpochDay()));
+				}
+				Trade trade = parser.toTrade(tradeDay.getDate());
+				long start = metrics != null ? System.nanoTime() : 0L;
+				tradeDay.addTrade(parser.getTickerId(), trade);
+				if (metrics != null) {
+					metrics.record(PipelineMetrics.Timer.TRADE_DAY_ADD, start);
+				}
+				if (barBuilder != null) {
+					barBuilder.addTrade(parser);
+				}
+				if (indexEngine != null) {
+					indexEngine.addTrade(parser);
 				}
 			}
 			// Print the last occurring trade day
 			if (tradeDay.getDate() != null) {
-				printTradeDayAggregates(aggregator, tradeDay);
+				report.writeDay(aggregator, aggregateDay(aggregator, tradeDay, metrics));
+			}
+			if (barBuilder != null) {
+				barBuilder.flush();
+			}
+		}
+	}
+
+	private static void printColumnar(Path file, Aggregator aggregator, ReportSink report, PipelineMetrics metrics,
+			IntradayIndexEngine indexEngine, BarBuilder barBuilder) throws IOException {
+		try (TradeLogReader reader = openLog(file, aggregator, metrics)) {
+			TradeParser parser = reader.getParser();
+			ColumnarTradeDay tradeDay = null;
+			while (reader.nextTrade()) {
+				if (tradeDay != null && parser.getEpochDay() != tradeDay.getDate().toEpochDay()) {
+					report.writeDay(aggregator, aggregateDay(aggregator, tradeDay, metrics));
+					tradeDay = null;
+				}
+				if (tradeDay == null) {
+					tradeDay = new ColumnarTradeDay(LocalDate.ofEpochDay(parser.getEpochDay()),
+							aggregator.getTickerDictionary());
+				}
+				long start = metrics != null ? System.nanoTime() : 0L;
+				tradeDay.addTrade(parser);
+				if (metrics != null) {
+					metrics.record(PipelineMetrics.Timer.TRADE_DAY_ADD, start);
+				}
+				if (barBuilder != null) {
+					barBuilder.addTrade(parser);
+				}
+				if (indexEngine != null) {
+					indexEngine.addTrade(parser);
+				}
+			}
+			if (tradeDay != null) {
+				report.writeDay(aggregator, aggregateDay(aggregator, tradeDay, metrics));
+			}
+			if (barBuilder != null) {
+				barBuilder.flush();
+			}
+		}
+	}
+
+	private static void printStreaming(Path file, Aggregator aggregator, ReportSink report, PipelineMetrics metrics,
+			IntradayIndexEngine indexEngine, BarBuilder barBuilder) throws IOException {
+		try (TradeLogReader reader = openLog(file, aggregator, metrics)) {
+			TradeParser parser = reader.getParser();
+			// every completed day is stored as last known aggregates and printed
+			StreamingDayAggregator dayAggregator = new StreamingDayAggregator(aggregator.getTickerDictionary(),
+					dayAggregates -> {
+						aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+						report.writeDay(aggregator, dayAggregates);
+					});
+			while (reader.nextTrade()) {
+				dayAggregator.addTrade(parser);
+				if (barBuilder != null) {
+					barBuilder.addTrade(parser);
+				}
+				if (indexEngine != null) {
+					indexEngine.addTrade(parser);
+				}
+			}
+			dayAggregator.finishDay();
+			if (barBuilder != null) {
+				barBuilder.flush();
 			}
-			bufferedReader.close();
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
 		}
+	}
 
+	private static void printPipeline(Path file, Aggregator aggregator, ReportSink report, PipelineMetrics metrics,
+			int batchSize) throws IOException {
+		TradePipeline tradePipeline = new TradePipeline(file, aggregator, report, metrics, batchSize);
+		tradePipeline.run();
+		if (metrics != null) {
+			System.err.println(tradePipeline.getStageSummary());
+		}
 	}
 
-	public static void printTradeDayAggregates(Aggregator aggregator, TradeDay tradeDay) {
-		System.out.println("***" + tradeDay.getDate() + "***\n");
-		for (Map.Entry<String, List<Trade>> tickerEntry : tradeDay.getTradesPerTicker().entrySet()) {
-			System.out.println("--" + tickerEntry.getKey() + "--");
-			double openPrice = aggregator.calculateOpenPriceOfTicker(tickerEntry.getValue());
-			printAggregateNameAndResult("Open price", openPrice);
-			double closePrice = aggregator.calculateClosePriceOfTicker(tickerEntry.getValue());
-			printAggregateNameAndResult("Close price", closePrice);
-			double highestPrice = aggregator.calculateHighestPriceOfTicker(tickerEntry.getValue());
-			printAggregateNameAndResult("Highest price", highestPrice);
-			double lowestPrice = aggregator.calculateLowestPriceOfTicker(tickerEntry.getValue());
-			printAggregateNameAndResult("Lowest price", lowestPrice);
-			double dailyTradedVolume = aggregator.calculateDailyTradedVolumeOfTicker(tickerEntry.getValue());
-			printAggregateNameAndResult("Daily traded volume", dailyTradedVolume);
-			System.out.println("\t");
-		}
-		System.out.println("--INDEX--");
-		printAggregateNameAndResult("Open price", aggregator.calculateOpenPriceOfMarket());
-		printAggregateNameAndResult("Close price", aggregator.calculateClosePriceOfMarket());
-		printAggregateNameAndResult("Highest price", aggregator.calculateHighestPriceOfMarket());
-		printAggregateNameAndResult("Lowest price", aggregator.calculateLowestPriceOfMarket());
-		printAggregateNameAndResult("Daily traded volume", aggregator.calculateDailyTradedVolumeOfMarket());
-		System.out.println("\n");
-	}
-
-	public static void printAggregateNameAndResult(String nameOfAggregate, double result) {
-		// Format the double values so they only have two digits after the comma
-		NumberFormat numFormat = NumberFormat.getInstance();
-		numFormat.setMaximumFractionDigits(2);
-		if (result > 0.0) {
-			System.out.println(nameOfAggregate + ": " + numFormat.format(result));
+	/*
+	 * Aggregates the log like --streaming and writes a checkpoint every number of
+	 * trades. A run with a checkpoint resumes from it, the checkpoint is deleted
+	 * once the log has been read completely.
+	 */
+	private static void printCheckpointed(Path file, Aggregator aggregator, ReportSink report,
+			PipelineMetrics metrics, Path checkpointFile, Checkpoint checkpoint, long checkpointTrades)
+			throws IOException {
+		StreamingDayAggregator dayAggregator = new StreamingDayAggregator(aggregator.getTickerDictionary(),
+				dayAggregates -> {
+					aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+					report.writeDay(aggregator, dayAggregates);
+				});
+		long logOffset = 0;
+		long reportOffset = 0;
+		if (checkpoint != null) {
+			checkpoint.restore(aggregator, dayAggregator);
+			logOffset = checkpoint.getLogOffset();
+			reportOffset = checkpoint.getReportOffset();
+		}
+		try (TradeLogReader reader = TradeLogReader.open(file, logOffset)) {
+			reader.setMetrics(metrics);
+			reader.getParser().setTickerDictionary(aggregator.getTickerDictionary());
+			TradeParser parser = reader.getParser();
+			long tradesSinceCheckpoint = 0;
+			while (reader.nextTrade()) {
+				dayAggregator.addTrade(parser);
+				if (++tradesSinceCheckpoint == checkpointTrades) {
+					// the report must contain every completed day of the checkpoint
+					report.flush();
+					Checkpoint.write(checkpointFile, reader.getNextLineOffset(),
+							reportOffset + report.getNrOfBytesWritten(), aggregator, dayAggregator);
+					tradesSinceCheckpoint = 0;
+				}
+			}
+			dayAggregator.finishDay();
+		}
+		report.flush();
+		Files.deleteIfExists(checkpointFile);
+	}
+
+	/*
+	 * Aggregates the log like --streaming and keeps reading the lines appended to
+	 * it until the program is terminated. The outputs are flushed whenever all
+	 * appended lines have been read, the current day is printed on termination.
+	 */
+	private static void printFollowing(Path file, Aggregator aggregator, ReportSink report, PipelineMetrics metrics,
+			IntradayIndexEngine indexEngine, BarBuilder barBuilder, List<Flushable> outputs,
+			SnapshotPublisher publisher, long pollMillis) throws IOException {
+		StreamingDayAggregator dayAggregator = new StreamingDayAggregator(aggregator.getTickerDictionary(),
+				dayAggregates -> {
+					aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+					report.writeDay(aggregator, dayAggregates);
+				});
+		try (TradeLogFollower follower = new TradeLogFollower(file, 0, pollMillis)) {
+			follower.getReader().setMetrics(metrics);
+			follower.getReader().getParser().setTickerDictionary(aggregator.getTickerDictionary());
+			// on termination the follower stops and the remaining output is written
+			// before the program exits
+			Thread mainThread = Thread.currentThread();
+			Thread shutdownHook = new Thread(() -> {
+				follower.stop();
+				try {
+					mainThread.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			Runtime.getRuntime().addShutdownHook(shutdownHook);
+			follower.follow(new TradeLogFollower.FollowListener() {
+
+				@Override
+				public void onTrade(TradeParser parser) {
+					dayAggregator.addTrade(parser);
+					if (barBuilder != null) {
+						barBuilder.addTrade(parser);
+					}
+					if (indexEngine != null) {
+						indexEngine.addTrade(parser);
+					}
+				}
+
+				@Override
+				public void onCaughtUp() throws IOException {
+					for (Flushable output : outputs) {
+						output.flush();
+					}
+					if (publisher != null && dayAggregator.getOpenDay() != null) {
+						publisher.publishOpenDay(dayAggregator.getOpenDay());
+					}
+				}
+
+			});
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (IllegalStateException e) {
+				// the program is terminating
+			}
+		}
+		dayAggregator.finishDay();
+		if (barBuilder != null) {
+			barBuilder.flush();
+		}
+	}
+
+	private static void printEventTime(Path file, Aggregator aggregator, ReportSink report, PipelineMetrics metrics,
+			long allowedLatenessSeconds) throws IOException {
+		try (TradeLogReader reader = openLog(file, aggregator, metrics)) {
+			TradeParser parser = reader.getParser();
+			IndexCorrector indexCorrector = new IndexCorrector(aggregator, report, RETAINED_DAYS_FOR_CORRECTIONS);
+			EventTimeDayAggregator dayAggregator = new EventTimeDayAggregator(aggregator.getTickerDictionary(),
+					allowedLatenessSeconds, RETAINED_DAYS_FOR_CORRECTIONS,
+					new EventTimeDayAggregator.EventTimeListener() {
+
+						@Override
+						public void onDay(DayAggregates dayAggregates) {
+							aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+							report.writeDay(aggregator, dayAggregates);
+							indexCorrector.addDay(dayAggregates);
+						}
+
+						@Override
+						public void onCorrection(DayAggregates dayAggregates, TickerAccumulator tickerAggregates) {
+							report.writeCorrection(dayAggregates.getDate(), tickerAggregates);
+							indexCorrector.correct(dayAggregates, tickerAggregates);
+						}
+
+					});
+			while (reader.nextTrade()) {
+				dayAggregator.addTrade(parser);
+			}
+			dayAggregator.finish();
+			if (dayAggregator.getNrOfDroppedTrades() > 0) {
+				System.err.println(dayAggregator.getNrOfDroppedTrades() + " late trades of days not retained were dropped");
+			}
+		}
+	}
+
+	private static void printQuery(Path file, boolean store, Aggregator aggregator, ReportSink report, LocalDate from,
+			LocalDate to, List<String> tickers) throws IOException {
+		List<DayAggregates> aggregatesPerDay;
+		if (store) {
+			try (TradeStore tradeStore = TradeStore.open(file)) {
+				aggregatesPerDay = tradeStore.aggregate(from, to, tickers);
+			}
 		} else {
-			System.out.println(nameOfAggregate + ": " + "N/A");
+			aggregatesPerDay = new TradeLogQuery(file).aggregate(from, to, tickers);
+		}
+		for (DayAggregates dayAggregates : aggregatesPerDay) {
+			aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+			report.writeDay(aggregator, dayAggregates);
+		}
+	}
+
+	/*
+	 * Reads every log file on its own thread into one concurrent aggregator and
+	 * prints the days in date order afterwards.
+	 */
+	private static void printConcurrent(List<String> files, Aggregator aggregator, ReportSink report,
+			PipelineMetrics metrics) throws IOException {
+		ConcurrentAggregator concurrentAggregator = new ConcurrentAggregator(aggregator.getMarketIndices());
+		ExecutorService executor = Executors.newFixedThreadPool(files.size());
+		try {
+			List<Future<Void>> readers = new ArrayList<>();
+			for (String file : files) {
+				readers.add(executor.submit(() -> {
+					try (TradeLogReader reader = openLog(Paths.get(file), metrics)) {
+						TradeParser parser = reader.getParser();
+						ConcurrentAggregator.TradeFeed feed = concurrentAggregator.newTradeFeed();
+						while (reader.nextTrade()) {
+							feed.addTrade(parser);
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<Void> reader : readers) {
+				reader.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading the logs", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException("Failed to read the logs", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		for (LocalDate date : concurrentAggregator.getDates()) {
+			DayAggregates dayAggregates = concurrentAggregator.getAggregatesOfDay(date);
+			aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+			report.writeDay(aggregator, dayAggregates);
+		}
+	}
+
+	private static void printParallelDays(Path file, Aggregator aggregator, ReportSink report, PipelineMetrics metrics)
+			throws IOException {
+		ForkJoinPool pool = new ForkJoinPool();
+		// the last known aggregates are carried forward on this thread in log order
+		ParallelDayAggregator dayAggregator = new ParallelDayAggregator(pool, 2 * pool.getParallelism(),
+				dayAggregates -> {
+					aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+					report.writeDay(aggregator, dayAggregates);
+				});
+		try (TradeLogReader reader = openLog(file, aggregator, metrics)) {
+			TradeParser parser = reader.getParser();
+			TradeDay tradeDay = null;
+			while (reader.nextTrade()) {
+				if (tradeDay != null && parser.getEpochDay() != tradeDay.getDate().toEpochDay()) {
+					dayAggregator.addTradeDay(tradeDay);
+					tradeDay = null;
+				}
+				if (tradeDay == null) {
+					tradeDay = new TradeDay(LocalDate.ofEpochDay(parser.getEpochDay()));
+				}
+				tradeDay.addTrade(parser.getTickerId(), parser.toTrade(tradeDay.getDate()));
+			}
+			if (tradeDay != null) {
+				dayAggregator.addTradeDay(tradeDay);
+			}
+			dayAggregator.finish();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void printParallel(Path file, Aggregator aggregator, ReportSink report) throws IOException {
+		// days are aggregated in parallel, the last known prices of the index are
+		// carried forward in log order
+		for (DayAggregates dayAggregates : new ParallelTradeLogIngestor().ingest(file)) {
+			aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+			report.writeDay(aggregator, dayAggregates);
 		}
 	}
 
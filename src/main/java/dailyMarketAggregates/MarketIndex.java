@@ -0,0 +1,109 @@
+package dailyMarketAggregates;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * MarketIndex is a named market index with weights that can be replaced at any
+ * time, e.g. when the index is rebalanced intraday. Replacing the weights is an
+ * atomic swap of an immutable {@link IndexWeights}, readers never wait for it
+ * and always see either the old or the new weights as a whole.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class MarketIndex {
+
+	/**
+	 * Name of the default market index.
+	 */
+	public static final String DEFAULT_NAME = "INDEX";
+
+	/**
+	 * Classpath resource of the weight file of the default market index,
+	 * relative to this class.
+	 */
+	public static final String DEFAULT_RESOURCE = "index.csv";
+
+	// weights of the default market index if its resource is missing
+	private static final IndexWeights BUILT_IN_WEIGHTS = new IndexWeights(
+			new String[] { "ABC", "MEGA", "NGL", "TRX" }, new double[] { 0.1, 0.3, 0.4, 0.2 });
+	private static final IndexWeights DEFAULT_WEIGHTS = loadDefaultWeights();
+
+	private final String name;
+	private final AtomicReference<IndexWeights> weights;
+
+	public MarketIndex(String name, IndexWeights weights) {
+		this.name = name;
+		this.weights = new AtomicReference<>(weights);
+	}
+
+	/**
+	 * Returns a new instance of the default market index with the weights of the
+	 * bundled weight file {@link #DEFAULT_RESOURCE}, which is read once per class
+	 * loader. The built-in weights of ABC, MEGA, NGL and TRX are used if the
+	 * resource is missing or cannot be read.
+	 *
+	 * @return default market index.
+	 */
+	public static MarketIndex defaultIndex() {
+		return new MarketIndex(DEFAULT_NAME, DEFAULT_WEIGHTS);
+	}
+
+	private static IndexWeights loadDefaultWeights() {
+		try (InputStream in = MarketIndex.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+			if (in != null) {
+				return IndexWeights.load(in, DEFAULT_RESOURCE);
+			}
+		} catch (IOException e) {
+			// fall back to the built-in weights
+		}
+		return BUILT_IN_WEIGHTS;
+	}
+
+	/**
+	 * Loads a market index from a weight file.
+	 *
+	 * @param name Name of the market index.
+	 * @param file Path of the weight file.
+	 * @return market index with the weights of the file.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static MarketIndex load(String name, Path file) throws IOException {
+		return new MarketIndex(name, IndexWeights.load(file));
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return current weights of the market index.
+	 */
+	public IndexWeights getWeights() {
+		return weights.get();
+	}
+
+	/**
+	 * Replaces the weights of the market index. Can be called from any thread.
+	 *
+	 * @param newWeights New weights of the market index.
+	 */
+	public void setWeights(IndexWeights newWeights) {
+		weights.set(newWeights);
+	}
+
+	/**
+	 * Replaces the weights of the market index by the weights of a weight file.
+	 * The current weights stay in place if the file cannot be loaded.
+	 *
+	 * @param file Path of the weight file.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public void reload(Path file) throws IOException {
+		setWeights(IndexWeights.load(file));
+	}
+
+}
@@ -0,0 +1,128 @@
+package dailyMarketAggregates;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ParallelDayAggregator calculates the daily aggregates of complete trade days
+ * on a fork/join pool. Every trade day is split into one task per ticker, so
+ * the tickers of a day and several days are aggregated at the same time while
+ * the log is still being read. The aggregates of the days are passed to a
+ * {@link StreamingDayAggregator.DayListener} on the thread that adds the trade
+ * days, in the order they were added, so state carried from one day to the
+ * next like the last known aggregates of an {@link Aggregator} can be updated
+ * by the listener without synchronization.
+ * <p>
+ * At most a fixed number of days is in flight. Adding a trade day waits for the
+ * oldest one when the limit is reached, which bounds the trade days kept in
+ * memory.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class ParallelDayAggregator {
+
+	private final ForkJoinPool pool;
+	private final int maxDaysInFlight;
+	private final StreamingDayAggregator.DayListener listener;
+	private final ArrayDeque<ForkJoinTask<DayAggregates>> daysInFlight = new ArrayDeque<>();
+
+	/**
+	 * @param pool            Pool the days are aggregated on.
+	 * @param maxDaysInFlight Maximum number of days aggregated at the same time.
+	 * @param listener        Listener of the daily aggregates in log order.
+	 */
+	public ParallelDayAggregator(ForkJoinPool pool, int maxDaysInFlight, StreamingDayAggregator.DayListener listener) {
+		if (maxDaysInFlight < 1) {
+			throw new IllegalArgumentException("Maximum number of days in flight must be positive: " + maxDaysInFlight);
+		}
+		this.pool = pool;
+		this.maxDaysInFlight = maxDaysInFlight;
+		this.listener = listener;
+	}
+
+	/**
+	 * Submits a complete trade day for aggregation and passes the aggregates of
+	 * all leading days that are done to the listener.
+	 *
+	 * @param tradeDay Trade day with all trades of a day.
+	 */
+	public void addTradeDay(TradeDay tradeDay) {
+		if (daysInFlight.size() == maxDaysInFlight) {
+			listener.onDay(daysInFlight.poll().join());
+		}
+		daysInFlight.add(pool.submit(new DayTask(tradeDay)));
+		while (!daysInFlight.isEmpty() && daysInFlight.peek().isDone()) {
+			listener.onDay(daysInFlight.poll().join());
+		}
+	}
+
+	/**
+	 * Waits for all submitted days and passes their aggregates to the listener.
+	 */
+	public void finish() {
+		while (!daysInFlight.isEmpty()) {
+			listener.onDay(daysInFlight.poll().join());
+		}
+	}
+
+	/*
+	 * Aggregates the tickers of a trade day in parallel.
+	 */
+	private static class DayTask extends RecursiveTask<DayAggregates> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final TradeDay tradeDay;
+
+		DayTask(TradeDay tradeDay) {
+			this.tradeDay = tradeDay;
+		}
+
+		@Override
+		protected DayAggregates compute() {
+			// the slots of the tickers are created on this thread, every task only
+			// fills its own slot
+			DayAggregates dayAggregates = new DayAggregates(tradeDay.getDate());
+			List<TickerTask> tickerTasks = new ArrayList<>();
+			for (Map.Entry<String, List<Trade>> tickerEntry : tradeDay.getTradesPerTicker().entrySet()) {
+				tickerTasks.add(new TickerTask(dayAggregates.getAggregatesOfTicker(tickerEntry.getKey()),
+						tickerEntry.getValue()));
+			}
+			invokeAll(tickerTasks);
+			return dayAggregates;
+		}
+
+	}
+
+	/*
+	 * Adds the trades of a ticker of a day to the aggregates of the ticker.
+	 */
+	private static class TickerTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final TickerAccumulator tickerAggregates;
+		private final List<Trade> trades;
+
+		TickerTask(TickerAccumulator tickerAggregates, List<Trade> trades) {
+			this.tickerAggregates = tickerAggregates;
+			this.trades = trades;
+		}
+
+		@Override
+		protected void compute() {
+			for (Trade trade : trades) {
+				tickerAggregates.addTrade(trade);
+			}
+		}
+
+	}
+
+}
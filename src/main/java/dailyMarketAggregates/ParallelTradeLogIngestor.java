@@ -0,0 +1,195 @@
+package dailyMarketAggregates;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelTradeLogIngestor reads a market historical log on all cores. The
+ * file is memory-mapped and split into chunks that start and end at line
+ * boundaries. Every chunk is parsed on its own thread into the daily aggregates
+ * of the days it contains. The aggregates of a day that is cut by a chunk
+ * boundary are merged afterwards, so the result is the same as reading the log
+ * sequentially: one {@link DayAggregates} per run of consecutive trades of the
+ * same date, in log order.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class ParallelTradeLogIngestor {
+
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+	// a mapped buffer is indexed by int
+	private static final long MAX_CHUNK_SIZE = 1 << 30;
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private final int nrOfThreads;
+
+	public ParallelTradeLogIngestor() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public ParallelTradeLogIngestor(int nrOfThreads) {
+		if (nrOfThreads < 1) {
+			throw new IllegalArgumentException("Number of threads must be positive: " + nrOfThreads);
+		}
+		this.nrOfThreads = nrOfThreads;
+	}
+
+	/**
+	 * Reads the market historical log of a file and returns the daily aggregates
+	 * of every trade day in log order.
+	 *
+	 * @param file Path of the market historical log.
+	 * @return daily aggregates of the trade days of the file.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public List<DayAggregates> ingest(Path file) throws IOException {
+		return ingest(file, MIN_CHUNK_SIZE);
+	}
+
+	/**
+	 * Reads the market historical log of a file in chunks of roughly the minimum
+	 * chunk size or larger and returns the daily aggregates of every trade day in
+	 * log order.
+	 *
+	 * @param file         Path of the market historical log.
+	 * @param minChunkSize Minimum number of bytes of a chunk.
+	 * @return daily aggregates of the trade days of the file.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public List<DayAggregates> ingest(Path file, long minChunkSize) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			List<Future<List<DayAggregates>>> chunkResults = new ArrayList<>();
+			for (long[] chunk : splitIntoChunks(channel, minChunkSize)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+				chunkResults.add(executor.submit(new ChunkParser(buffer)));
+			}
+			List<DayAggregates> dayAggregates = new ArrayList<>();
+			for (Future<List<DayAggregates>> chunkResult : chunkResults) {
+				mergeChunk(dayAggregates, chunkResult.get());
+			}
+			return dayAggregates;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading " + file, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException("Failed to read " + file, e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/*
+	 * Appends the days of a chunk to the days of the previous chunks. If the
+	 * previous chunk ended inside the first day of the chunk, the two parts of the
+	 * day are merged.
+	 */
+	private static void mergeChunk(List<DayAggregates> dayAggregates, List<DayAggregates> chunkDayAggregates) {
+		int firstNewDay = 0;
+		if (!dayAggregates.isEmpty() && !chunkDayAggregates.isEmpty()) {
+			DayAggregates lastDay = dayAggregates.get(dayAggregates.size() - 1);
+			if (lastDay.getDate().equals(chunkDayAggregates.get(0).getDate())) {
+				lastDay.merge(chunkDayAggregates.get(0));
+				firstNewDay = 1;
+			}
+		}
+		dayAggregates.addAll(chunkDayAggregates.subList(firstNewDay, chunkDayAggregates.size()));
+	}
+
+	/*
+	 * Returns start (inclusive) and end (exclusive) offsets of chunks of the file.
+	 * Every chunk but the first starts directly after a line feed.
+	 */
+	private List<long[]> splitIntoChunks(FileChannel channel, long minChunkSize) throws IOException {
+		long size = channel.size();
+		long chunkSize = Math.max(minChunkSize, size / ((long) nrOfThreads * CHUNKS_PER_THREAD) + 1);
+		chunkSize = Math.min(chunkSize, MAX_CHUNK_SIZE);
+		List<long[]> chunks = new ArrayList<>();
+		long start = 0;
+		ByteBuffer scanBuffer = ByteBuffer.allocate(4096);
+		while (start < size) {
+			long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize, scanBuffer);
+			if (end - start > Integer.MAX_VALUE) {
+				throw new IOException("Line longer than " + Integer.MAX_VALUE + " bytes at offset " + start);
+			}
+			chunks.add(new long[] { start, end });
+			start = end;
+		}
+		return chunks;
+	}
+
+	private static long nextLineStart(FileChannel channel, long position, ByteBuffer scanBuffer)
+			throws IOException {
+		while (true) {
+			scanBuffer.clear();
+			int read = channel.read(scanBuffer, position);
+			if (read < 0) {
+				return channel.size();
+			}
+			for (int i = 0; i < read; i++) {
+				if (scanBuffer.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+	}
+
+	/*
+	 * Parses one chunk into the aggregates of the runs of equal dates it contains.
+	 * The parser interns the tickers of the chunk in its own dictionary, so the
+	 * aggregates of a trade are found by ticker id in constant time.
+	 */
+	private static class ChunkParser implements Callable<List<DayAggregates>> {
+
+		private final ByteBuffer buffer;
+
+		ChunkParser(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public List<DayAggregates> call() {
+			List<DayAggregates> dayAggregates = new ArrayList<>();
+			TradeParser parser = new TradeParser();
+			DayAggregates currentDay = null;
+			long currentEpochDay = Long.MIN_VALUE;
+			int lineStart = 0;
+			int limit = buffer.limit();
+			while (lineStart < limit) {
+				int lineEnd = TradeParser.indexOfLineEnd(buffer, lineStart, limit);
+				if (lineEnd < 0) {
+					lineEnd = limit;
+				}
+				if (parser.parseLine(buffer, lineStart, lineEnd)) {
+					if (parser.getEpochDay() != currentEpochDay) {
+						currentEpochDay = parser.getEpochDay();
+						currentDay = new DayAggregates(LocalDate.ofEpochDay(currentEpochDay));
+						dayAggregates.add(currentDay);
+					}
+					currentDay.addTrade(parser);
+				}
+				lineStart = lineEnd + 1;
+			}
+			return dayAggregates;
+		}
+
+	}
+
+}
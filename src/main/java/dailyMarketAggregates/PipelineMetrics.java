@@ -0,0 +1,251 @@
+package dailyMarketAggregates;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * PipelineMetrics counts the lines, trades and parse failures of a run, the
+ * bytes of the report and the durations of the hot paths of ingestion and
+ * aggregation. Counters are striped and durations are counted in
+ * {@link LatencyHistogram}s, so recording allocates nothing and never blocks,
+ * and the metrics can be recorded by several threads at once.
+ * <p>
+ * The metrics can be read through JMX after {@link #register()} and are
+ * written as one line per period after {@link #startLogging(long, PrintStream)}.
+ * Components record into metrics only if metrics have been set on them, so a
+ * run without metrics does not read the clock.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class PipelineMetrics implements PipelineMetricsMXBean, Closeable {
+
+	/**
+	 * Timed hot paths.
+	 */
+	public enum Timer {
+		TRADE_DAY_ADD("tradeDay.addTrade"),
+		DAY_AGGREGATES("aggregator.calculateAggregatesOfDay"),
+		OPEN_PRICE_OF_MARKET("aggregator.calculateOpenPriceOfMarket"),
+		CLOSE_PRICE_OF_MARKET("aggregator.calculateClosePriceOfMarket"),
+		HIGHEST_PRICE_OF_MARKET("aggregator.calculateHighestPriceOfMarket"),
+		LOWEST_PRICE_OF_MARKET("aggregator.calculateLowestPriceOfMarket"),
+		DAILY_TRADED_VOLUME_OF_MARKET("aggregator.calculateDailyTradedVolumeOfMarket"),
+		DAY_FLUSH("report.writeDay");
+
+		private final String name;
+
+		Timer(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	private static final String OBJECT_NAME = "dailyMarketAggregates:type=PipelineMetrics";
+
+	private final LongAdder linesRead = new LongAdder();
+	private final LongAdder parseFailures = new LongAdder();
+	private final LongAdder tradesRead = new LongAdder();
+	private final LongAdder outputBytes = new LongAdder();
+	private final LatencyHistogram[] histograms = new LatencyHistogram[Timer.values().length];
+	private final long startNanos = System.nanoTime();
+	private ObjectName objectName;
+	private ScheduledExecutorService logger;
+	// trades and time of the last log line, only used by the logger thread
+	private long loggedTrades;
+	private long loggedNanos = startNanos;
+
+	public PipelineMetrics() {
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	public void lineRead() {
+		linesRead.increment();
+	}
+
+	public void parseFailed() {
+		parseFailures.increment();
+	}
+
+	public void tradeRead() {
+		tradesRead.increment();
+	}
+
+	public void addOutputBytes(long nrOfBytes) {
+		outputBytes.add(nrOfBytes);
+	}
+
+	/**
+	 * Records the duration of a hot path from its start until now.
+	 *
+	 * @param timer      Timed hot path.
+	 * @param startNanos Start of the hot path as {@link System#nanoTime()}.
+	 * @return now as {@link System#nanoTime()}, so consecutive hot paths can be
+	 *         timed with one clock read each.
+	 */
+	public long record(Timer timer, long startNanos) {
+		long now = System.nanoTime();
+		histograms[timer.ordinal()].record(now - startNanos);
+		return now;
+	}
+
+	public LatencyHistogram getHistogram(Timer timer) {
+		return histograms[timer.ordinal()];
+	}
+
+	@Override
+	public long getLinesRead() {
+		return linesRead.sum();
+	}
+
+	@Override
+	public long getParseFailures() {
+		return parseFailures.sum();
+	}
+
+	@Override
+	public long getTradesRead() {
+		return tradesRead.sum();
+	}
+
+	@Override
+	public double getTradesPerSecond() {
+		return perSecond(tradesRead.sum(), System.nanoTime() - startNanos);
+	}
+
+	@Override
+	public long getOutputBytes() {
+		return outputBytes.sum();
+	}
+
+	@Override
+	public Map<String, Long> getLatencyCounts() {
+		return perTimer(LatencyHistogram::getCount);
+	}
+
+	@Override
+	public Map<String, Long> getLatencyMedianNanos() {
+		return perTimer(histogram -> histogram.getPercentileNanos(50.0));
+	}
+
+	@Override
+	public Map<String, Long> getLatencyP99Nanos() {
+		return perTimer(histogram -> histogram.getPercentileNanos(99.0));
+	}
+
+	@Override
+	public Map<String, Long> getLatencyMaxNanos() {
+		return perTimer(LatencyHistogram::getMaxNanos);
+	}
+
+	@Override
+	public String getSummary() {
+		return formatLine(getTradesPerSecond());
+	}
+
+	/**
+	 * Registers the metrics on the platform MBean server.
+	 *
+	 * @throws JMException if the metrics cannot be registered, e.g. because
+	 *                     other metrics are registered already.
+	 */
+	public void register() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(OBJECT_NAME);
+		server.registerMBean(this, name);
+		objectName = name;
+	}
+
+	/**
+	 * Writes a line with all metrics every period on a daemon thread. The trades
+	 * per second of a line are those of its period.
+	 *
+	 * @param periodSeconds Seconds between two lines.
+	 * @param out           Stream of the lines.
+	 */
+	public synchronized void startLogging(long periodSeconds, PrintStream out) {
+		if (logger != null) {
+			throw new IllegalStateException("Metrics are logged already");
+		}
+		logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "metrics-log");
+			thread.setDaemon(true);
+			return thread;
+		});
+		logger.scheduleAtFixedRate(() -> {
+			long trades = tradesRead.sum();
+			long now = System.nanoTime();
+			out.println(formatLine(perSecond(trades - loggedTrades, now - loggedNanos)));
+			loggedTrades = trades;
+			loggedNanos = now;
+		}, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Stops logging and unregisters the metrics from the MBean server.
+	 */
+	@Override
+	public synchronized void close() {
+		if (logger != null) {
+			logger.shutdownNow();
+			logger = null;
+		}
+		if (objectName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			} catch (JMException e) {
+				// already unregistered
+			}
+			objectName = null;
+		}
+	}
+
+	private String formatLine(double tradesPerSecond) {
+		StringBuilder line = new StringBuilder("metrics");
+		line.append(" lines=").append(linesRead.sum());
+		line.append(" trades=").append(tradesRead.sum());
+		line.append(" trades/s=").append(Math.round(tradesPerSecond));
+		line.append(" parseFailures=").append(parseFailures.sum());
+		line.append(" outputBytes=").append(outputBytes.sum());
+		for (Timer timer : Timer.values()) {
+			LatencyHistogram histogram = histograms[timer.ordinal()];
+			if (histogram.getCount() > 0) {
+				line.append(' ').append(timer.getName()).append("[n=").append(histogram.getCount());
+				line.append(" p50=").append(histogram.getPercentileNanos(50.0)).append("ns");
+				line.append(" p99=").append(histogram.getPercentileNanos(99.0)).append("ns");
+				line.append(" max=").append(histogram.getMaxNanos()).append("ns]");
+			}
+		}
+		return line.toString();
+	}
+
+	private Map<String, Long> perTimer(ToLongFunction<LatencyHistogram> value) {
+		Map<String, Long> values = new LinkedHashMap<>();
+		for (Timer timer : Timer.values()) {
+			values.put(timer.getName(), value.applyAsLong(histograms[timer.ordinal()]));
+		}
+		return values;
+	}
+
+	private static double perSecond(long count, long nanos) {
+		return nanos <= 0 ? 0.0 : count * 1e9 / nanos;
+	}
+
+}
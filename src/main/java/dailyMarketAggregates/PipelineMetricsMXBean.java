@@ -0,0 +1,52 @@
+package dailyMarketAggregates;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link PipelineMetrics}, registered on the platform
+ * MBean server.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public interface PipelineMetricsMXBean {
+
+	long getLinesRead();
+
+	long getParseFailures();
+
+	long getTradesRead();
+
+	/**
+	 * @return trades read per second since the metrics have been created.
+	 */
+	double getTradesPerSecond();
+
+	long getOutputBytes();
+
+	/**
+	 * @return number of recorded durations per timer.
+	 */
+	Map<String, Long> getLatencyCounts();
+
+	/**
+	 * @return median duration in nanoseconds per timer.
+	 */
+	Map<String, Long> getLatencyMedianNanos();
+
+	/**
+	 * @return 99th percentile of the durations in nanoseconds per timer.
+	 */
+	Map<String, Long> getLatencyP99Nanos();
+
+	/**
+	 * @return longest duration in nanoseconds per timer.
+	 */
+	Map<String, Long> getLatencyMaxNanos();
+
+	/**
+	 * @return all metrics in one line.
+	 */
+	String getSummary();
+
+}
@@ -0,0 +1,293 @@
+package dailyMarketAggregates;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * QuantileSketch estimates quantiles of positive values, e.g. trade prices or
+ * trade sizes, in fixed memory with a single update per value. It counts the
+ * values in logarithmic buckets like DDSketch: bucket i holds the values in
+ * (gamma^(i-1), gamma^i] with gamma = (1 + a) / (1 - a) for a relative accuracy
+ * a, and a quantile is estimated by the middle of its bucket.
+ * <p>
+ * For a quantile q of n values the estimate differs from the value of rank
+ * floor(q * (n - 1)) of the sorted values by at most a times that value. The
+ * minimum and maximum are exact. Values that are not positive are counted in
+ * a separate bucket and estimated as 0.0.
+ * <p>
+ * The buckets are kept as counts of a contiguous range that grows with the
+ * range of the values, not with the number of values: with the default
+ * accuracy of 1% prices from 0.0001 to 1,000,000 need about 1,400 buckets, the
+ * prices of a ticker within a day usually a handful. The range is limited to a
+ * maximum number of buckets; beyond it the lowest buckets are collapsed into
+ * one, so only quantiles within those lowest buckets lose their accuracy.
+ * <p>
+ * Sketches of the same accuracy can be merged in any order, e.g. across
+ * chunks of a log, threads or days. Unless buckets have been collapsed the
+ * merged sketch is the same as if all values had been added to one sketch. A
+ * sketch is not thread-safe.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class QuantileSketch {
+
+	public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+	public static final int DEFAULT_MAX_NR_OF_BUCKETS = 2048;
+	private static final int INITIAL_NR_OF_BUCKETS = 16;
+	private static final long[] NO_COUNTS = new long[0];
+
+	private final double relativeAccuracy;
+	private final int maxNrOfBuckets;
+	private final double gamma;
+	private final double logGamma;
+	// counts[i] is the count of bucket offset + i, buckets outside lowestIndex to highestIndex are empty
+	private long[] counts = NO_COUNTS;
+	private int offset;
+	private int lowestIndex = Integer.MAX_VALUE;
+	private int highestIndex = Integer.MIN_VALUE;
+	private long zeroCount;
+	private long count;
+	private double minValue;
+	private double maxValue;
+	// bucket of the last added value, values like prices and sizes often repeat
+	private double lastValue = Double.NaN;
+	private int lastIndex;
+
+	public QuantileSketch() {
+		this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_NR_OF_BUCKETS);
+	}
+
+	/**
+	 * @param relativeAccuracy Relative accuracy of the quantiles, between 0 and 1
+	 *                         exclusive.
+	 * @param maxNrOfBuckets   Maximum number of buckets, which limits the memory
+	 *                         of the sketch to 8 bytes per bucket.
+	 */
+	public QuantileSketch(double relativeAccuracy, int maxNrOfBuckets) {
+		if (!(relativeAccuracy > 0.0 && relativeAccuracy < 1.0)) {
+			throw new IllegalArgumentException("Relative accuracy must be between 0 and 1: " + relativeAccuracy);
+		}
+		if (maxNrOfBuckets <= 0) {
+			throw new IllegalArgumentException("A sketch needs at least one bucket: " + maxNrOfBuckets);
+		}
+		this.relativeAccuracy = relativeAccuracy;
+		this.maxNrOfBuckets = maxNrOfBuckets;
+		this.gamma = (1.0 + relativeAccuracy) / (1.0 - relativeAccuracy);
+		this.logGamma = Math.log(gamma);
+	}
+
+	public double getRelativeAccuracy() {
+		return relativeAccuracy;
+	}
+
+	/**
+	 * @return number of added values.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return number of buckets currently kept, at most the maximum number of
+	 *         buckets.
+	 */
+	public int getNrOfBuckets() {
+		return count > zeroCount ? highestIndex - lowestIndex + 1 : 0;
+	}
+
+	/**
+	 * Adds a value.
+	 *
+	 * @param value Value, e.g. price or size of a trade.
+	 */
+	public void add(double value) {
+		if (count == 0) {
+			minValue = value;
+			maxValue = value;
+		} else if (value < minValue) {
+			minValue = value;
+		} else if (value > maxValue) {
+			maxValue = value;
+		}
+		count++;
+		if (!(value > 0.0)) {
+			zeroCount++;
+			return;
+		}
+		if (value != lastValue) {
+			lastIndex = indexOf(value);
+			lastValue = value;
+		}
+		addToBucket(lastIndex, 1);
+	}
+
+	/**
+	 * Estimates a quantile of the added values.
+	 *
+	 * @param quantile Quantile between 0.0 and 1.0, e.g. 0.5 for the median.
+	 * @return estimated value of the quantile or 0.0 if no values have been
+	 *         added.
+	 */
+	public double getQuantile(double quantile) {
+		if (!(quantile >= 0.0 && quantile <= 1.0)) {
+			throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+		}
+		if (count == 0) {
+			return 0.0;
+		}
+		long rank = (long) (quantile * (count - 1));
+		if (rank == 0) {
+			return minValue;
+		}
+		if (rank == count - 1) {
+			return maxValue;
+		}
+		if (rank < zeroCount) {
+			return 0.0;
+		}
+		long cumulativeCount = zeroCount;
+		int index = lowestIndex;
+		while (index < highestIndex) {
+			cumulativeCount += counts[index - offset];
+			if (cumulativeCount > rank) {
+				break;
+			}
+			index++;
+		}
+		double value = 2.0 * Math.exp(index * logGamma) / (gamma + 1.0);
+		return Math.min(Math.max(value, minValue), maxValue);
+	}
+
+	/**
+	 * Adds the values of another sketch of the same accuracy.
+	 *
+	 * @param other Sketch with the same relative accuracy and maximum number of
+	 *              buckets.
+	 */
+	public void merge(QuantileSketch other) {
+		if (other.relativeAccuracy != relativeAccuracy || other.maxNrOfBuckets != maxNrOfBuckets) {
+			throw new IllegalArgumentException("Sketches of different accuracy cannot be merged");
+		}
+		if (other.count == 0) {
+			return;
+		}
+		if (count == 0) {
+			minValue = other.minValue;
+			maxValue = other.maxValue;
+		} else {
+			minValue = Math.min(minValue, other.minValue);
+			maxValue = Math.max(maxValue, other.maxValue);
+		}
+		count += other.count;
+		zeroCount += other.zeroCount;
+		// extending to the highest bucket first collapses lower buckets only once
+		for (int index = other.highestIndex; index >= other.lowestIndex; index--) {
+			long bucketCount = other.counts[index - other.offset];
+			if (bucketCount > 0) {
+				addToBucket(index, bucketCount);
+			}
+		}
+	}
+
+	/**
+	 * Writes the counts of the sketch, e.g. into a checkpoint.
+	 *
+	 * @param out Output of the sketch.
+	 * @throws IOException if the output cannot be written.
+	 */
+	public void writeStateTo(DataOutput out) throws IOException {
+		out.writeLong(count);
+		out.writeLong(zeroCount);
+		out.writeDouble(minValue);
+		out.writeDouble(maxValue);
+		int nrOfBuckets = getNrOfBuckets();
+		out.writeInt(nrOfBuckets);
+		if (nrOfBuckets > 0) {
+			out.writeInt(lowestIndex);
+			for (int index = lowestIndex; index <= highestIndex; index++) {
+				out.writeLong(counts[index - offset]);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the counts of the sketch by counts written with
+	 * {@link #writeStateTo(DataOutput)} by a sketch of the same accuracy.
+	 *
+	 * @param in Input of the sketch.
+	 * @throws IOException if the input cannot be read.
+	 */
+	public void readStateFrom(DataInput in) throws IOException {
+		count = in.readLong();
+		zeroCount = in.readLong();
+		minValue = in.readDouble();
+		maxValue = in.readDouble();
+		int nrOfBuckets = in.readInt();
+		if (nrOfBuckets < 0 || nrOfBuckets > maxNrOfBuckets) {
+			throw new IOException("Sketch has more buckets than allowed: " + nrOfBuckets);
+		}
+		lastValue = Double.NaN;
+		if (nrOfBuckets == 0) {
+			counts = NO_COUNTS;
+			lowestIndex = Integer.MAX_VALUE;
+			highestIndex = Integer.MIN_VALUE;
+			return;
+		}
+		counts = new long[nrOfBuckets];
+		offset = in.readInt();
+		lowestIndex = offset;
+		highestIndex = offset + nrOfBuckets - 1;
+		for (int i = 0; i < nrOfBuckets; i++) {
+			counts[i] = in.readLong();
+		}
+	}
+
+	private int indexOf(double value) {
+		return (int) Math.ceil(Math.log(value) / logGamma);
+	}
+
+	private void addToBucket(int index, long bucketCount) {
+		if (index < lowestIndex || index > highestIndex) {
+			index = extendRange(index);
+		}
+		counts[index - offset] += bucketCount;
+	}
+
+	/*
+	 * Extends the range of buckets to a bucket and collapses the lowest buckets
+	 * if the range exceeds the maximum number of buckets. Returns the bucket the
+	 * values of the given bucket are counted in.
+	 */
+	private int extendRange(int index) {
+		boolean empty = lowestIndex > highestIndex;
+		int newHighestIndex = empty ? index : Math.max(highestIndex, index);
+		int newLowestIndex = empty ? index : Math.min(lowestIndex, index);
+		if ((long) newHighestIndex - newLowestIndex >= maxNrOfBuckets) {
+			newLowestIndex = newHighestIndex - maxNrOfBuckets + 1;
+		}
+		long collapsedCount = 0;
+		for (int i = lowestIndex; i < newLowestIndex && i <= highestIndex; i++) {
+			collapsedCount += counts[i - offset];
+			counts[i - offset] = 0;
+		}
+		if (newLowestIndex < offset || newHighestIndex >= offset + counts.length) {
+			int nrOfBuckets = newHighestIndex - newLowestIndex + 1;
+			int capacity = Math.min(maxNrOfBuckets, Math.max(INITIAL_NR_OF_BUCKETS, 2 * nrOfBuckets));
+			// leaves room on both sides, the next values may be higher or lower
+			int newOffset = newLowestIndex - (capacity - nrOfBuckets) / 2;
+			long[] newCounts = new long[capacity];
+			for (int i = Math.max(lowestIndex, newLowestIndex); i <= highestIndex; i++) {
+				newCounts[i - newOffset] = counts[i - offset];
+			}
+			counts = newCounts;
+			offset = newOffset;
+		}
+		counts[newLowestIndex - offset] += collapsedCount;
+		lowestIndex = newLowestIndex;
+		highestIndex = newHighestIndex;
+		return Math.max(index, newLowestIndex);
+	}
+
+}
@@ -0,0 +1,314 @@
+package dailyMarketAggregates;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReportSink writes the daily aggregates of tickers and market indices to a
+ * channel. The report is built in one reusable text buffer and written in
+ * batches through one reusable byte buffer whenever the text exceeds the batch
+ * size, so writing a value costs no system call and no synchronization.
+ * Subclasses define the format of the report.
+ * <p>
+ * A sink is not thread-safe. Write errors are thrown as
+ * {@link UncheckedIOException}, so a sink can be used in listeners.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public abstract class ReportSink implements Closeable, Flushable {
+
+	/**
+	 * Formats of a report.
+	 */
+	public enum Format {
+		TEXT, CSV, JSONL
+	}
+
+	/**
+	 * DayListener receives every day written to a report, e.g. to aggregate
+	 * over several days.
+	 */
+	public interface DayListener {
+
+		/**
+		 * Called after a day has been written.
+		 *
+		 * @param aggregator    Aggregator with the last known aggregates of the
+		 *                      day.
+		 * @param dayAggregates Daily aggregates of the day.
+		 */
+		void onDay(Aggregator aggregator, DayAggregates dayAggregates);
+
+	}
+
+	/**
+	 * Quantiles of the trade prices and sizes written by the CSV and JSON Lines
+	 * formats.
+	 */
+	protected static final double[] QUANTILES = { 0.5, 0.95, 0.99 };
+	private static final int BATCH_SIZE = 1 << 16;
+
+	protected final StringBuilder text = new StringBuilder(2 * BATCH_SIZE);
+	private final WritableByteChannel channel;
+	private final ByteBuffer bytes = ByteBuffer.allocate(4 * BATCH_SIZE);
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+	private long nrOfBytesWritten;
+	private PipelineMetrics metrics;
+	private final List<DayListener> dayListeners = new ArrayList<>();
+
+	protected ReportSink(WritableByteChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Creates a sink of a format.
+	 *
+	 * @param format  Format of the report.
+	 * @param channel Channel to write the report to.
+	 * @return sink of the format.
+	 */
+	public static ReportSink create(Format format, WritableByteChannel channel) {
+		return create(format, channel, false);
+	}
+
+	/**
+	 * Creates a sink of a format that may continue a report, e.g. after a
+	 * checkpoint. A continued report does not start with a header.
+	 *
+	 * @param format    Format of the report.
+	 * @param channel   Channel to write the report to.
+	 * @param continued true if the channel already contains the start of the
+	 *                  report.
+	 * @return sink of the format.
+	 */
+	public static ReportSink create(Format format, WritableByteChannel channel, boolean continued) {
+		ReportSink sink;
+		switch (format) {
+		case CSV:
+			sink = new CsvReportSink(channel);
+			break;
+		case JSONL:
+			sink = new JsonLinesReportSink(channel);
+			break;
+		default:
+			sink = new TextReportSink(channel);
+		}
+		if (!continued) {
+			sink.writeHeader();
+		}
+		return sink;
+	}
+
+	/**
+	 * @return number of bytes written to the channel so far.
+	 */
+	public long getNrOfBytesWritten() {
+		return nrOfBytesWritten;
+	}
+
+	/**
+	 * Counts the written bytes and times the days and the aggregates of the
+	 * market indices.
+	 *
+	 * @param metrics Metrics of the run, null to count nothing.
+	 */
+	public void setMetrics(PipelineMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Passes every written day to a listener, after the listeners added before.
+	 * Corrections are not passed.
+	 *
+	 * @param dayListener Listener of the days.
+	 */
+	public void addDayListener(DayListener dayListener) {
+		dayListeners.add(dayListener);
+	}
+
+	/**
+	 * Writes the daily aggregates of every ticker of a day and of the market
+	 * indices. The aggregates must already be stored as last known aggregates of
+	 * the aggregator.
+	 *
+	 * @param aggregator    Aggregator with the last known aggregates of the
+	 *                      indices.
+	 * @param dayAggregates Daily aggregates of a day.
+	 */
+	public void writeDay(Aggregator aggregator, DayAggregates dayAggregates) {
+		long dayStart = metrics != null ? System.nanoTime() : 0L;
+		beginDay(dayAggregates.getDate(), false);
+		for (TickerAccumulator tickerAggregates : dayAggregates.getAggregatesPerTicker().values()) {
+			writeTickerAggregates(dayAggregates.getDate(), tickerAggregates, false);
+		}
+		writeMarketIndexAggregates(dayAggregates.getDate(), aggregator, false);
+		endDay(false);
+		writeBatchIfFull();
+		record(PipelineMetrics.Timer.DAY_FLUSH, dayStart);
+		for (DayListener dayListener : dayListeners) {
+			dayListener.onDay(aggregator, dayAggregates);
+		}
+	}
+
+	/**
+	 * Writes corrected aggregates of a ticker of a day that has already been
+	 * written.
+	 *
+	 * @param date             Date of the corrected day.
+	 * @param tickerAggregates Corrected aggregates of the ticker.
+	 */
+	public void writeCorrection(LocalDate date, TickerAccumulator tickerAggregates) {
+		beginDay(date, true);
+		writeTickerAggregates(date, tickerAggregates, true);
+		endDay(true);
+		writeBatchIfFull();
+	}
+
+	/**
+	 * Writes corrected aggregates of the market indices of a day that has already
+	 * been written.
+	 *
+	 * @param date       Date of the corrected day.
+	 * @param aggregator Aggregator with the corrected last known aggregates of
+	 *                   the day.
+	 */
+	public void writeIndexCorrection(LocalDate date, Aggregator aggregator) {
+		beginDay(date, true);
+		writeMarketIndexAggregates(date, aggregator, true);
+		endDay(true);
+		writeBatchIfFull();
+	}
+
+	/**
+	 * Writes the buffered report to the channel.
+	 *
+	 * @throws IOException if the channel cannot be written.
+	 */
+	@Override
+	public void flush() throws IOException {
+		CharBuffer chars = CharBuffer.wrap(text);
+		encoder.reset();
+		CoderResult result;
+		do {
+			result = encoder.encode(chars, bytes, true);
+			writeBytes();
+		} while (result.isOverflow());
+		while (encoder.flush(bytes).isOverflow()) {
+			writeBytes();
+		}
+		writeBytes();
+		text.setLength(0);
+	}
+
+	/**
+	 * Writes the buffered report and closes the channel.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Starts the report, the default report has no header.
+	 */
+	protected void writeHeader() {
+	}
+
+	/**
+	 * Starts the aggregates of a day or of a correction of a day.
+	 */
+	protected abstract void beginDay(LocalDate date, boolean correction);
+
+	/**
+	 * Appends the aggregates and trade statistics of a ticker or market index to
+	 * the text buffer. Values that are not positive are not available, except for
+	 * the price variance which is not available if it is NaN. The quantile
+	 * sketches of the trade prices and sizes are null for a market index.
+	 */
+	protected abstract void writeAggregates(LocalDate date, String name, boolean marketIndex, boolean correction,
+			double openPrice, double closePrice, double highestPrice, double lowestPrice, double dailyTradedVolume,
+			double volumeWeightedAveragePrice, double timeWeightedAveragePrice, long tradeCount,
+			long nrOfSecuritiesTraded, double priceVariance, QuantileSketch priceSketch, QuantileSketch sizeSketch);
+
+	/**
+	 * Ends the aggregates of a day or of a correction of a day.
+	 */
+	protected abstract void endDay(boolean correction);
+
+	private void writeMarketIndexAggregates(LocalDate date, Aggregator aggregator, boolean correction) {
+		for (MarketIndex marketIndex : aggregator.getMarketIndices()) {
+			long start = metrics != null ? System.nanoTime() : 0L;
+			double openPrice = aggregator.calculateOpenPriceOfMarket(marketIndex);
+			start = record(PipelineMetrics.Timer.OPEN_PRICE_OF_MARKET, start);
+			double closePrice = aggregator.calculateClosePriceOfMarket(marketIndex);
+			start = record(PipelineMetrics.Timer.CLOSE_PRICE_OF_MARKET, start);
+			double highestPrice = aggregator.calculateHighestPriceOfMarket(marketIndex);
+			start = record(PipelineMetrics.Timer.HIGHEST_PRICE_OF_MARKET, start);
+			double lowestPrice = aggregator.calculateLowestPriceOfMarket(marketIndex);
+			start = record(PipelineMetrics.Timer.LOWEST_PRICE_OF_MARKET, start);
+			double dailyTradedVolume = aggregator.calculateDailyTradedVolumeOfMarket(marketIndex);
+			record(PipelineMetrics.Timer.DAILY_TRADED_VOLUME_OF_MARKET, start);
+			// the price variance of an index is not derived from the variances of its constituents
+			writeAggregates(date, marketIndex.getName(), true, correction, openPrice, closePrice,
+					highestPrice, lowestPrice, dailyTradedVolume,
+					aggregator.calculateVolumeWeightedAveragePriceOfMarket(marketIndex),
+					aggregator.calculateTimeWeightedAveragePriceOfMarket(marketIndex),
+					aggregator.calculateTradeCountOfMarket(marketIndex),
+					aggregator.calculateNrOfSecuritiesTradedOfMarket(marketIndex), Double.NaN, null, null);
+		}
+	}
+
+	private void writeTickerAggregates(LocalDate date, TickerAccumulator tickerAggregates, boolean correction) {
+		writeAggregates(date, tickerAggregates.getTicker(), false, correction, tickerAggregates.getOpenPrice(),
+				tickerAggregates.getClosePrice(), tickerAggregates.getHighestPrice(),
+				tickerAggregates.getLowestPrice(), tickerAggregates.getDailyTradedVolume(),
+				tickerAggregates.getVolumeWeightedAveragePrice(), tickerAggregates.getTimeWeightedAveragePrice(),
+				tickerAggregates.getTradeCount(), tickerAggregates.getNrOfSecuritiesTraded(),
+				tickerAggregates.getPriceVariance(), tickerAggregates.getPriceSketch(),
+				tickerAggregates.getSizeSketch());
+	}
+
+	private void writeBatchIfFull() {
+		if (text.length() >= BATCH_SIZE) {
+			try {
+				flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	private void writeBytes() throws IOException {
+		bytes.flip();
+		int nrOfBytes = bytes.remaining();
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+		bytes.clear();
+		nrOfBytesWritten += nrOfBytes;
+		if (metrics != null) {
+			metrics.addOutputBytes(nrOfBytes);
+		}
+	}
+
+	private long record(PipelineMetrics.Timer timer, long start) {
+		return metrics != null ? metrics.record(timer, start) : 0L;
+	}
+
+}
@@ -0,0 +1,213 @@
+package dailyMarketAggregates;
+
+/**
+ * RollingWindow contains the aggregates of a ticker or market index over the
+ * last N days: highest and lowest price, traded volume and the average close
+ * price. Every day is kept as a compact summary in a ring buffer of N days. The
+ * sums of the volumes and close prices are fixed-point longs scaled by
+ * {@link TradeParser#PRICE_SCALE}, so the day leaving the window is subtracted
+ * exactly. Highest and lowest price are kept in monotonic deques of the days
+ * that can still become the extreme of the window, so sliding the window by a
+ * day takes amortized constant time however long the window is.
+ * <p>
+ * A day without trades still slides the window, it only counts for none of the
+ * aggregates.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class RollingWindow {
+
+	private final int nrOfDays;
+	// summaries of the last days, the summary of day d is at index d % nrOfDays
+	private final boolean[] traded;
+	private final double[] highestPrices;
+	private final double[] lowestPrices;
+	private final long[] closePrices;
+	private final long[] tradedVolumes;
+	// days of decreasing highest and increasing lowest prices, oldest day first
+	private final long[] highestPriceDays;
+	private final long[] lowestPriceDays;
+	private int highestPriceHead;
+	private int highestPriceSize;
+	private int lowestPriceHead;
+	private int lowestPriceSize;
+	private long nrOfDaysAdded;
+	private int nrOfTradedDays;
+	private long closePriceSum;
+	private long tradedVolumeSum;
+
+	/**
+	 * @param nrOfDays Number of days of the window.
+	 */
+	public RollingWindow(int nrOfDays) {
+		if (nrOfDays <= 0) {
+			throw new IllegalArgumentException("A window needs at least one day: " + nrOfDays);
+		}
+		this.nrOfDays = nrOfDays;
+		this.traded = new boolean[nrOfDays];
+		this.highestPrices = new double[nrOfDays];
+		this.lowestPrices = new double[nrOfDays];
+		this.closePrices = new long[nrOfDays];
+		this.tradedVolumes = new long[nrOfDays];
+		this.highestPriceDays = new long[nrOfDays];
+		this.lowestPriceDays = new long[nrOfDays];
+	}
+
+	/**
+	 * @return number of days of the window.
+	 */
+	public int getNrOfDays() {
+		return nrOfDays;
+	}
+
+	/**
+	 * @return number of days in the window with trades.
+	 */
+	public int getNrOfTradedDays() {
+		return nrOfTradedDays;
+	}
+
+	/**
+	 * @return highest price of the days in the window or 0.0 if none of them has
+	 *         trades.
+	 */
+	public double getHighestPrice() {
+		return highestPriceSize > 0 ? highestPrices[slotOf(highestPriceDays[highestPriceHead])] : 0.0;
+	}
+
+	/**
+	 * @return lowest price of the days in the window or 0.0 if none of them has
+	 *         trades.
+	 */
+	public double getLowestPrice() {
+		return lowestPriceSize > 0 ? lowestPrices[slotOf(lowestPriceDays[lowestPriceHead])] : 0.0;
+	}
+
+	/**
+	 * @return traded volume of the days in the window or 0.0 if none of them has
+	 *         trades.
+	 */
+	public double getTradedVolume() {
+		return tradedVolumeSum / (double) TradeParser.PRICE_SCALE;
+	}
+
+	/**
+	 * @return exact traded volume of the days in the window as fixed-point long
+	 *         scaled by {@link TradeParser#PRICE_SCALE}.
+	 */
+	public long getFixedPointTradedVolume() {
+		return tradedVolumeSum;
+	}
+
+	/**
+	 * @return average close price of the days in the window with trades or 0.0 if
+	 *         none of them has trades.
+	 */
+	public double getAverageClosePrice() {
+		return nrOfTradedDays > 0 ? closePriceSum / (double) TradeParser.PRICE_SCALE / nrOfTradedDays : 0.0;
+	}
+
+	/**
+	 * Slides the window by a day with the daily aggregates of a ticker. Aggregates
+	 * without trades are added as a day without trades.
+	 *
+	 * @param tickerAggregates Daily aggregates of the ticker.
+	 */
+	public void addDay(TickerAccumulator tickerAggregates) {
+		if (tickerAggregates.getTradeCount() == 0) {
+			addEmptyDay();
+		} else {
+			addDay(tickerAggregates.getHighestPrice(), tickerAggregates.getLowestPrice(),
+					TradeParser.toFixedPoint(tickerAggregates.getClosePrice()),
+					tickerAggregates.getFixedPointDailyTradedVolume());
+		}
+	}
+
+	/**
+	 * Slides the window by a day with aggregates, e.g. of a market index. Close
+	 * price and traded volume are rounded to {@link TradeParser#PRICE_DECIMALS}
+	 * decimal places.
+	 *
+	 * @param highestPrice      Highest price of the day.
+	 * @param lowestPrice       Lowest price of the day.
+	 * @param closePrice        Close price of the day.
+	 * @param dailyTradedVolume Traded volume of the day.
+	 */
+	public void addDay(double highestPrice, double lowestPrice, double closePrice, double dailyTradedVolume) {
+		addDay(highestPrice, lowestPrice, TradeParser.toFixedPoint(closePrice),
+				TradeParser.toFixedPoint(dailyTradedVolume));
+	}
+
+	/**
+	 * Slides the window by a day without trades.
+	 */
+	public void addEmptyDay() {
+		removeExpiredDay();
+		traded[slotOf(nrOfDaysAdded)] = false;
+		nrOfDaysAdded++;
+	}
+
+	private void addDay(double highestPrice, double lowestPrice, long closePrice, long tradedVolume) {
+		removeExpiredDay();
+		long day = nrOfDaysAdded;
+		int slot = slotOf(day);
+		traded[slot] = true;
+		highestPrices[slot] = highestPrice;
+		lowestPrices[slot] = lowestPrice;
+		closePrices[slot] = closePrice;
+		tradedVolumes[slot] = tradedVolume;
+		nrOfTradedDays++;
+		closePriceSum = Math.addExact(closePriceSum, closePrice);
+		tradedVolumeSum = Math.addExact(tradedVolumeSum, tradedVolume);
+		// earlier days that are not higher can never be the highest day again
+		while (highestPriceSize > 0
+				&& highestPrices[slotOf(highestPriceDays[indexOf(highestPriceHead, highestPriceSize - 1)])]
+						<= highestPrice) {
+			highestPriceSize--;
+		}
+		highestPriceDays[indexOf(highestPriceHead, highestPriceSize++)] = day;
+		while (lowestPriceSize > 0
+				&& lowestPrices[slotOf(lowestPriceDays[indexOf(lowestPriceHead, lowestPriceSize - 1)])]
+						>= lowestPrice) {
+			lowestPriceSize--;
+		}
+		lowestPriceDays[indexOf(lowestPriceHead, lowestPriceSize++)] = day;
+		nrOfDaysAdded++;
+	}
+
+	/*
+	 * Removes the day that leaves the window when the next day is added.
+	 */
+	private void removeExpiredDay() {
+		long expiredDay = nrOfDaysAdded - nrOfDays;
+		if (expiredDay < 0) {
+			return;
+		}
+		int slot = slotOf(expiredDay);
+		if (traded[slot]) {
+			nrOfTradedDays--;
+			closePriceSum -= closePrices[slot];
+			tradedVolumeSum -= tradedVolumes[slot];
+			traded[slot] = false;
+		}
+		if (highestPriceSize > 0 && highestPriceDays[highestPriceHead] == expiredDay) {
+			highestPriceHead = indexOf(highestPriceHead, 1);
+			highestPriceSize--;
+		}
+		if (lowestPriceSize > 0 && lowestPriceDays[lowestPriceHead] == expiredDay) {
+			lowestPriceHead = indexOf(lowestPriceHead, 1);
+			lowestPriceSize--;
+		}
+	}
+
+	private int slotOf(long day) {
+		return (int) (day % nrOfDays);
+	}
+
+	private int indexOf(int head, int offset) {
+		int index = head + offset;
+		return index >= nrOfDays ? index - nrOfDays : index;
+	}
+
+}
@@ -0,0 +1,153 @@
+package dailyMarketAggregates;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RollingWindowAggregator keeps a {@link RollingWindow} of the last N days for
+ * every ticker and market index of an {@link Aggregator}. It is passed every
+ * completed day in date order, after the day has been stored as last known
+ * aggregates of the aggregator, e.g. as {@link ReportSink.DayListener}. Every
+ * completed day slides all windows by one day, so a day counts as one of the N
+ * days for every ticker, whether the ticker has been traded on it or not, and
+ * a window starts with the first day its ticker has been traded on. The
+ * windows of the market indices slide with the daily aggregates of the indices.
+ * <p>
+ * After every day the windows of the tickers of the day and of the market
+ * indices are passed to a {@link WindowListener}. Corrections of days are not
+ * added to the windows.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class RollingWindowAggregator implements ReportSink.DayListener {
+
+	/**
+	 * WindowListener receives the windows of a {@link RollingWindowAggregator}
+	 * after every day.
+	 */
+	public interface WindowListener {
+
+		/**
+		 * Called for every ticker of a day and every market index.
+		 *
+		 * @param date        Last day of the window.
+		 * @param name        Ticker or market index name.
+		 * @param marketIndex true if the window is of a market index.
+		 * @param window      Window of the ticker or market index, changed by the
+		 *                    next day.
+		 */
+		void onWindow(LocalDate date, String name, boolean marketIndex, RollingWindow window);
+
+	}
+
+	private final int nrOfDays;
+	private final Aggregator aggregator;
+	private final TickerDictionary tickerDictionary;
+	private final WindowListener listener;
+	private RollingWindow[] tickerWindows = new RollingWindow[0];
+	// number of days added to the window of a ticker
+	private long[] nrsOfDaysOfTickers = new long[0];
+	private final RollingWindow[] indexWindows;
+	private long nrOfDaysAdded;
+
+	/**
+	 * @param nrOfDays   Number of days of the windows.
+	 * @param aggregator Aggregator the days are stored in, its ticker dictionary
+	 *                   and market indices are used for the windows.
+	 * @param listener   Listener of the windows.
+	 */
+	public RollingWindowAggregator(int nrOfDays, Aggregator aggregator, WindowListener listener) {
+		this.nrOfDays = nrOfDays;
+		this.aggregator = aggregator;
+		this.tickerDictionary = aggregator.getTickerDictionary();
+		this.listener = listener;
+		this.indexWindows = new RollingWindow[aggregator.getMarketIndices().size()];
+		for (int i = 0; i < indexWindows.length; i++) {
+			indexWindows[i] = new RollingWindow(nrOfDays);
+		}
+	}
+
+	/**
+	 * @param ticker Ticker of the window.
+	 * @return window of the ticker or null if the ticker has not been traded.
+	 */
+	public RollingWindow getTickerWindow(String ticker) {
+		int tickerId = tickerDictionary.find(ticker);
+		return tickerId >= 0 && tickerId < tickerWindows.length ? tickerWindows[tickerId] : null;
+	}
+
+	/**
+	 * @param marketIndex Market index of the aggregator.
+	 * @return window of the market index.
+	 */
+	public RollingWindow getIndexWindow(MarketIndex marketIndex) {
+		List<MarketIndex> marketIndices = aggregator.getMarketIndices();
+		for (int i = 0; i < indexWindows.length; i++) {
+			if (marketIndices.get(i) == marketIndex) {
+				return indexWindows[i];
+			}
+		}
+		throw new IllegalArgumentException("Unknown market index: " + marketIndex.getName());
+	}
+
+	/**
+	 * Slides all windows by a completed day.
+	 *
+	 * @param aggregator    Aggregator of this window aggregator.
+	 * @param dayAggregates Daily aggregates of the day.
+	 */
+	@Override
+	public void onDay(Aggregator aggregator, DayAggregates dayAggregates) {
+		long day = nrOfDaysAdded;
+		for (TickerAccumulator tickerAggregates : dayAggregates.getAggregatesPerTicker().values()) {
+			int tickerId = tickerDictionary.idOf(tickerAggregates.getTicker());
+			windowOf(tickerId).addDay(tickerAggregates);
+			nrsOfDaysOfTickers[tickerId] = day + 1;
+		}
+		for (int tickerId = 0; tickerId < tickerWindows.length; tickerId++) {
+			if (tickerWindows[tickerId] != null && nrsOfDaysOfTickers[tickerId] <= day) {
+				tickerWindows[tickerId].addEmptyDay();
+				nrsOfDaysOfTickers[tickerId] = day + 1;
+			}
+		}
+		List<MarketIndex> marketIndices = this.aggregator.getMarketIndices();
+		for (int i = 0; i < indexWindows.length; i++) {
+			MarketIndex marketIndex = marketIndices.get(i);
+			double closePrice = this.aggregator.calculateClosePriceOfMarket(marketIndex);
+			if (closePrice > 0.0) {
+				indexWindows[i].addDay(this.aggregator.calculateHighestPriceOfMarket(marketIndex),
+						this.aggregator.calculateLowestPriceOfMarket(marketIndex), closePrice,
+						this.aggregator.calculateDailyTradedVolumeOfMarket(marketIndex));
+			} else {
+				indexWindows[i].addEmptyDay();
+			}
+		}
+		nrOfDaysAdded++;
+
+		LocalDate date = dayAggregates.getDate();
+		for (TickerAccumulator tickerAggregates : dayAggregates.getAggregatesPerTicker().values()) {
+			String ticker = tickerAggregates.getTicker();
+			listener.onWindow(date, ticker, false, tickerWindows[tickerDictionary.idOf(ticker)]);
+		}
+		for (int i = 0; i < indexWindows.length; i++) {
+			listener.onWindow(date, marketIndices.get(i).getName(), true, indexWindows[i]);
+		}
+	}
+
+	private RollingWindow windowOf(int tickerId) {
+		if (tickerId >= tickerWindows.length) {
+			int length = Math.max(tickerId + 1, tickerDictionary.size());
+			tickerWindows = Arrays.copyOf(tickerWindows, length);
+			nrsOfDaysOfTickers = Arrays.copyOf(nrsOfDaysOfTickers, length);
+		}
+		RollingWindow window = tickerWindows[tickerId];
+		if (window == null) {
+			window = new RollingWindow(nrOfDays);
+			tickerWindows[tickerId] = window;
+		}
+		return window;
+	}
+
+}
@@ -0,0 +1,83 @@
+package dailyMarketAggregates;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * RollingWindowWriter writes the windows of a {@link RollingWindowAggregator}
+ * as one line per ticker or market index and day:
+ * {@code yyyy-MM-dd;SYMBOL;days;tradedDays;high;low;volume;averageClose}, where
+ * the date is the last day of the window, days is the length of the window and
+ * tradedDays the number of days in the window with trades. Lines are buffered
+ * and written when the buffer is full, after every day or when the writer is
+ * flushed.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class RollingWindowWriter implements RollingWindowAggregator.WindowListener, Closeable, Flushable {
+
+	private final Writer writer;
+	private final StringBuilder line = new StringBuilder(128);
+	private LocalDate lastDate;
+
+	public RollingWindowWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Opens a file for the windows, replacing an existing file.
+	 *
+	 * @param file Path of the window file.
+	 * @return writer of the file.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public static RollingWindowWriter open(Path file) throws IOException {
+		return new RollingWindowWriter(Files.newBufferedWriter(file, StandardCharsets.US_ASCII));
+	}
+
+	@Override
+	public void onWindow(LocalDate date, String name, boolean marketIndex, RollingWindow window) {
+		try {
+			if (!date.equals(lastDate)) {
+				writer.flush();
+				lastDate = date;
+			}
+			line.setLength(0);
+			line.append(date).append(';');
+			line.append(name).append(';');
+			line.append(window.getNrOfDays()).append(';');
+			line.append(window.getNrOfTradedDays()).append(';');
+			line.append(window.getHighestPrice()).append(';');
+			line.append(window.getLowestPrice()).append(';');
+			line.append(window.getTradedVolume()).append(';');
+			line.append(window.getAverageClosePrice()).append('\n');
+			writer.append(line);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the buffered lines to the file.
+	 *
+	 * @throws IOException if the file cannot be written.
+	 */
+	@Override
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+}
@@ -0,0 +1,352 @@
+package dailyMarketAggregates;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RunOptions holds the command line options of {@link Main}. Every option
+ * without value only selects the way the log is read, see {@link #getMode()};
+ * the options with a value take the next argument. Any other argument names a
+ * log file. Options that cannot be combined are reported by
+ * {@link #findConflict()}.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class RunOptions {
+
+	/**
+	 * Way the log is read, in the order of precedence if several are selected.
+	 */
+	public enum Mode {
+		QUERY, PARALLEL, CONCURRENT, PARALLEL_DAYS, EVENT_TIME, FOLLOW, CHECKPOINT, PIPELINE, STREAMING, COLUMNAR,
+		SEQUENTIAL
+	}
+
+	private static final String DEFAULT_FILE = "src/main/data/test-market.csv";
+	private static final String DEFAULT_BAR_INTERVALS = "1s,1m,5m,1h";
+	private static final long DEFAULT_CHECKPOINT_TRADES = 1_000_000;
+	private static final long DEFAULT_FOLLOW_POLL_MILLIS = 10;
+	private static final int DEFAULT_WINDOW_DAYS = 20;
+
+	// options that read the log out of order or only in parts
+	private static final List<String> UNORDERED_OPTIONS = Arrays.asList("--parallel", "--parallel-days",
+			"--concurrent", "--store", "--from", "--to", "--tickers", "--lateness");
+	// options per option they cannot be combined with, in the order they are
+	// checked
+	private static final Map<String, List<String>> EXCLUDED_OPTIONS = new LinkedHashMap<>();
+
+	static {
+		exclude("--live-index", UNORDERED_OPTIONS);
+		exclude("--bars", UNORDERED_OPTIONS);
+		exclude("--checkpoint", UNORDERED_OPTIONS, "--columnar", "--live-index", "--bars", "--window");
+		exclude("--follow", UNORDERED_OPTIONS, "--columnar", "--checkpoint");
+		exclude("--pipeline", UNORDERED_OPTIONS, "--columnar", "--checkpoint", "--follow", "--live-index",
+				"--bars");
+	}
+
+	private final Set<String> givenOptions = new HashSet<>();
+	private String file = DEFAULT_FILE;
+	private final List<String> logFiles = new ArrayList<>();
+	private String convertFile;
+	private LocalDate from;
+	private LocalDate to;
+	private List<String> tickers;
+	private final List<String> indexFiles = new ArrayList<>();
+	private String liveIndexFile;
+	private String barFile;
+	private String barIntervals = DEFAULT_BAR_INTERVALS;
+	private long allowedLatenessSeconds = -1;
+	private ReportSink.Format format = ReportSink.Format.TEXT;
+	private String outputFile;
+	private long metricsPeriodSeconds = -1;
+	private String checkpointFile;
+	private long checkpointTrades = DEFAULT_CHECKPOINT_TRADES;
+	private long followPollMillis = DEFAULT_FOLLOW_POLL_MILLIS;
+	private String windowFile;
+	private int windowDays = DEFAULT_WINDOW_DAYS;
+	private int servePort = -1;
+	private int pipelineBatchSize = TradePipeline.DEFAULT_BATCH_SIZE;
+
+	private static void exclude(String option, List<String> excludedOptions, String... moreExcludedOptions) {
+		List<String> allExcludedOptions = new ArrayList<>(excludedOptions);
+		allExcludedOptions.addAll(Arrays.asList(moreExcludedOptions));
+		EXCLUDED_OPTIONS.put(option, allExcludedOptions);
+	}
+
+	/**
+	 * Parses the command line arguments. An option with a value that is the last
+	 * argument is taken as log file.
+	 *
+	 * @param args Command line arguments.
+	 * @return options of the arguments.
+	 * @throws IllegalArgumentException if a value is not a number or format.
+	 * @throws java.time.format.DateTimeParseException if a value is not a date.
+	 */
+	public static RunOptions parse(String[] args) {
+		RunOptions options = new RunOptions();
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			boolean hasValue = i + 1 < args.length;
+			switch (option) {
+			case "--parallel":
+			case "--parallel-days":
+			case "--concurrent":
+			case "--columnar":
+			case "--streaming":
+			case "--store":
+			case "--follow":
+			case "--pipeline":
+				break;
+			default:
+				if (!hasValue || !options.parseValue(option, args[i + 1])) {
+					options.file = option;
+					options.logFiles.add(option);
+					continue;
+				}
+				i++;
+			}
+			options.givenOptions.add(option);
+		}
+		return options;
+	}
+
+	/*
+	 * Stores the value of an option, returns false if the argument is no option
+	 * with a value.
+	 */
+	private boolean parseValue(String option, String value) {
+		switch (option) {
+		case "--convert":
+			convertFile = value;
+			break;
+		case "--from":
+			from = LocalDate.parse(value);
+			break;
+		case "--to":
+			to = LocalDate.parse(value);
+			break;
+		case "--tickers":
+			tickers = Arrays.asList(value.split(","));
+			break;
+		case "--index":
+			indexFiles.add(value);
+			break;
+		case "--live-index":
+			liveIndexFile = value;
+			break;
+		case "--lateness":
+			allowedLatenessSeconds = Long.parseLong(value);
+			break;
+		case "--bars":
+			barFile = value;
+			break;
+		case "--bar-intervals":
+			barIntervals = value;
+			break;
+		case "--format":
+			format = ReportSink.Format.valueOf(value.toUpperCase());
+			break;
+		case "--output":
+			outputFile = value;
+			break;
+		case "--metrics":
+			metricsPeriodSeconds = Long.parseLong(value);
+			break;
+		case "--checkpoint":
+			checkpointFile = value;
+			break;
+		case "--checkpoint-every":
+			checkpointTrades = Long.parseLong(value);
+			break;
+		case "--follow-poll":
+			followPollMillis = Long.parseLong(value);
+			break;
+		case "--window":
+			windowFile = value;
+			break;
+		case "--window-days":
+			windowDays = Integer.parseInt(value);
+			break;
+		case "--serve":
+			servePort = Integer.parseInt(value);
+			break;
+		case "--pipeline-batch":
+			pipelineBatchSize = Integer.parseInt(value);
+			break;
+		default:
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a message naming two given options that cannot be combined, or an
+	 * option that is missing, e.g. --output for --checkpoint.
+	 *
+	 * @return message of the first conflict or null if the options can be
+	 *         combined.
+	 */
+	public String findConflict() {
+		if (checkpointFile != null && outputFile == null) {
+			return "--checkpoint needs --output";
+		}
+		for (Map.Entry<String, List<String>> excludedOptions : EXCLUDED_OPTIONS.entrySet()) {
+			if (givenOptions.contains(excludedOptions.getKey())) {
+				for (String excludedOption : excludedOptions.getValue()) {
+					if (givenOptions.contains(excludedOption)) {
+						return excludedOptions.getKey() + " cannot be used with " + excludedOption;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return way the log is read.
+	 */
+	public Mode getMode() {
+		if (isQuery()) {
+			return Mode.QUERY;
+		} else if (givenOptions.contains("--parallel")) {
+			return Mode.PARALLEL;
+		} else if (givenOptions.contains("--concurrent")) {
+			return Mode.CONCURRENT;
+		} else if (givenOptions.contains("--parallel-days")) {
+			return Mode.PARALLEL_DAYS;
+		} else if (allowedLatenessSeconds >= 0) {
+			return Mode.EVENT_TIME;
+		} else if (givenOptions.contains("--follow")) {
+			return Mode.FOLLOW;
+		} else if (checkpointFile != null) {
+			return Mode.CHECKPOINT;
+		} else if (givenOptions.contains("--pipeline")) {
+			return Mode.PIPELINE;
+		} else if (givenOptions.contains("--streaming")) {
+			return Mode.STREAMING;
+		} else if (givenOptions.contains("--columnar")) {
+			return Mode.COLUMNAR;
+		}
+		return Mode.SEQUENTIAL;
+	}
+
+	private boolean isQuery() {
+		return isStore() || from != null || to != null || tickers != null;
+	}
+
+	/**
+	 * @return path of the last log file argument or of the exemplary log.
+	 */
+	public String getFile() {
+		return file;
+	}
+
+	/**
+	 * @return paths of the log file arguments or of the exemplary log.
+	 */
+	public List<String> getLogFiles() {
+		return logFiles.isEmpty() ? Collections.singletonList(file) : logFiles;
+	}
+
+	public boolean isStore() {
+		return givenOptions.contains("--store");
+	}
+
+	public boolean isFollow() {
+		return givenOptions.contains("--follow");
+	}
+
+	public String getConvertFile() {
+		return convertFile;
+	}
+
+	public LocalDate getFrom() {
+		return from;
+	}
+
+	public LocalDate getTo() {
+		return to;
+	}
+
+	public List<String> getTickers() {
+		return tickers;
+	}
+
+	public List<String> getIndexFiles() {
+		return indexFiles;
+	}
+
+	public String getLiveIndexFile() {
+		return liveIndexFile;
+	}
+
+	public String getBarFile() {
+		return barFile;
+	}
+
+	public String getBarIntervals() {
+		return barIntervals;
+	}
+
+	/**
+	 * @return allowed lateness of --lateness, negative if the log is in order.
+	 */
+	public long getAllowedLatenessSeconds() {
+		return allowedLatenessSeconds;
+	}
+
+	public ReportSink.Format getFormat() {
+		return format;
+	}
+
+	public String getOutputFile() {
+		return outputFile;
+	}
+
+	/**
+	 * @return logging period of --metrics, negative if no metrics are recorded.
+	 */
+	public long getMetricsPeriodSeconds() {
+		return metricsPeriodSeconds;
+	}
+
+	public String getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	public long getCheckpointTrades() {
+		return checkpointTrades;
+	}
+
+	public long getFollowPollMillis() {
+		return followPollMillis;
+	}
+
+	public String getWindowFile() {
+		return windowFile;
+	}
+
+	public int getWindowDays() {
+		return windowDays;
+	}
+
+	/**
+	 * @return port of --serve, negative if the aggregates are not served.
+	 */
+	public int getServePort() {
+		return servePort;
+	}
+
+	public int getPipelineBatchSize() {
+		return pipelineBatchSize;
+	}
+
+}
@@ -0,0 +1,219 @@
+package dailyMarketAggregates;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * SlotRingBuffer passes mutable slots from one producer thread to one consumer
+ * thread without locks. All slots are allocated once when the buffer is
+ * created and reused: the producer claims a free slot and writes into it, the
+ * consumer takes the slot once it has been published and gives it back with
+ * its next take, so passing an event allocates nothing.
+ * <p>
+ * The producer and the consumer only share two sequence counters, which are
+ * written with release semantics and read with acquire semantics, so every
+ * write into a slot before it is published is visible to the consumer. Slots
+ * are published and given back in batches, which saves writes of the shared
+ * counters and cache line transfers between the threads. A full buffer makes
+ * the producer wait for the consumer and an empty buffer the consumer for the
+ * producer; both spin briefly, then yield and then park, and the waits are
+ * counted.
+ * <p>
+ * A buffer can be aborted from any thread, e.g. when a stage of a pipeline has
+ * failed, which makes the waiting thread on the other side fail as well.
+ *
+ * @author sara.derakhshani
+ *
+ * @param <T> Type of the slots.
+ */
+public class SlotRingBuffer<T> {
+
+	private static final int SPINS = 100;
+	private static final int YIELDS = 100;
+	private static final long PARK_NANOS = 50_000;
+
+	private final Object[] slots;
+	private final int mask;
+	private final int batchSize;
+	// sequence of the next slot the consumer may take, written by the producer
+	private final AtomicLong publishedSequence = new AtomicLong();
+	// sequence of the first slot the consumer may still use, written by the consumer
+	private final AtomicLong releasedSequence = new AtomicLong();
+	private volatile boolean closed;
+	private volatile boolean aborted;
+	// producer side
+	private long claimSequence;
+	private long lastPublishedSequence;
+	private long cachedReleasedSequence;
+	private long nrOfFullWaits;
+	// consumer side
+	private long takeSequence;
+	private long lastReleasedSequence;
+	private long cachedPublishedSequence;
+	private long nrOfEmptyWaits;
+
+	/**
+	 * @param capacity    Number of slots, a power of two.
+	 * @param slotFactory Factory of the slots.
+	 * @param batchSize   Number of slots that are published or given back at
+	 *                    once, at most the capacity.
+	 */
+	public SlotRingBuffer(int capacity, Supplier<T> slotFactory, int batchSize) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+		}
+		if (batchSize <= 0 || batchSize > capacity) {
+			throw new IllegalArgumentException("Batch size must be between 1 and the capacity: " + batchSize);
+		}
+		this.slots = new Object[capacity];
+		for (int i = 0; i < capacity; i++) {
+			slots[i] = slotFactory.get();
+		}
+		this.mask = capacity - 1;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Claims the next slot for the producer, waiting while all slots are in use.
+	 * The slot is published by {@link #publish()}.
+	 *
+	 * @return slot to write the next event into.
+	 * @throws IllegalStateException if the buffer has been aborted.
+	 */
+	@SuppressWarnings("unchecked")
+	public T claim() {
+		if (claimSequence - cachedReleasedSequence >= slots.length) {
+			waitForFreeSlot();
+		}
+		return (T) slots[(int) claimSequence & mask];
+	}
+
+	/**
+	 * Publishes the last claimed slot, together with the slots claimed before
+	 * once a batch is complete.
+	 */
+	public void publish() {
+		claimSequence++;
+		if (claimSequence - lastPublishedSequence >= batchSize) {
+			flush();
+		}
+	}
+
+	/**
+	 * Publishes all claimed slots, e.g. when no further event is expected soon.
+	 */
+	public void flush() {
+		publishedSequence.lazySet(claimSequence);
+		lastPublishedSequence = claimSequence;
+	}
+
+	/**
+	 * Publishes all claimed slots and ends the events of the producer.
+	 */
+	public void close() {
+		flush();
+		closed = true;
+	}
+
+	/**
+	 * Gives the slot taken before back to the producer and takes the next
+	 * published slot, waiting while no slot has been published.
+	 *
+	 * @return next slot or null if the producer has closed the buffer and all
+	 *         slots have been taken.
+	 * @throws IllegalStateException if the buffer has been aborted.
+	 */
+	@SuppressWarnings("unchecked")
+	public T take() {
+		// the slots before the next one are no longer used
+		if (takeSequence - lastReleasedSequence >= batchSize) {
+			release();
+		}
+		if (takeSequence == cachedPublishedSequence && !waitForPublishedSlot()) {
+			release();
+			return null;
+		}
+		return (T) slots[(int) takeSequence++ & mask];
+	}
+
+	/**
+	 * Makes the threads waiting on either side fail, e.g. because the other side
+	 * has failed.
+	 */
+	public void abort() {
+		aborted = true;
+	}
+
+	/**
+	 * @return number of times the producer has waited for a free slot.
+	 */
+	public long getNrOfFullWaits() {
+		return nrOfFullWaits;
+	}
+
+	/**
+	 * @return number of times the consumer has waited for a published slot.
+	 */
+	public long getNrOfEmptyWaits() {
+		return nrOfEmptyWaits;
+	}
+
+	private void waitForFreeSlot() {
+		cachedReleasedSequence = releasedSequence.get();
+		if (claimSequence - cachedReleasedSequence < slots.length) {
+			return;
+		}
+		// the consumer may wait for the slots of an unfinished batch
+		flush();
+		nrOfFullWaits++;
+		for (int i = 0; claimSequence - cachedReleasedSequence >= slots.length; i++) {
+			pause(i);
+			cachedReleasedSequence = releasedSequence.get();
+		}
+	}
+
+	/*
+	 * Waits until a slot has been published or the buffer has been closed.
+	 * Returns false if the buffer has been closed and all slots have been taken.
+	 */
+	private boolean waitForPublishedSlot() {
+		cachedPublishedSequence = publishedSequence.get();
+		if (takeSequence < cachedPublishedSequence) {
+			return true;
+		}
+		// the producer may wait for the slots of an unfinished batch
+		release();
+		nrOfEmptyWaits++;
+		for (int i = 0; takeSequence == cachedPublishedSequence; i++) {
+			if (closed) {
+				// slots published before closing are visible after reading closed
+				cachedPublishedSequence = publishedSequence.get();
+				return takeSequence < cachedPublishedSequence;
+			}
+			pause(i);
+			cachedPublishedSequence = publishedSequence.get();
+		}
+		return true;
+	}
+
+	private void release() {
+		releasedSequence.lazySet(takeSequence);
+		lastReleasedSequence = takeSequence;
+	}
+
+	private void pause(int nrOfPauses) {
+		if (aborted) {
+			throw new IllegalStateException("Ring buffer has been aborted");
+		}
+		if (nrOfPauses < SPINS) {
+			return;
+		}
+		if (nrOfPauses < SPINS + YIELDS) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package dailyMarketAggregates;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * SnapshotPublisher publishes an {@link AggregateSnapshot} of every completed
+ * day of a run, e.g. as {@link ReportSink.DayListener}, and optionally of the
+ * day that is still open. The snapshots of the last retained days are kept by
+ * date.
+ * <p>
+ * Snapshots are published by a single ingest thread and can be read by any
+ * number of other threads at the same time. Publishing and reading only swap
+ * and read references to immutable snapshots in a non-blocking map, so readers
+ * never block the ingest thread and the ingest thread never waits for readers.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class SnapshotPublisher implements ReportSink.DayListener {
+
+	private final int nrOfRetainedDays;
+	private final ConcurrentSkipListMap<LocalDate, AggregateSnapshot> snapshotsPerDate = new ConcurrentSkipListMap<>();
+	private volatile AggregateSnapshot latestSnapshot;
+
+	/**
+	 * @param nrOfRetainedDays Number of completed days whose snapshots are kept.
+	 */
+	public SnapshotPublisher(int nrOfRetainedDays) {
+		if (nrOfRetainedDays <= 0) {
+			throw new IllegalArgumentException("At least one day must be retained: " + nrOfRetainedDays);
+		}
+		this.nrOfRetainedDays = nrOfRetainedDays;
+	}
+
+	/**
+	 * Publishes the snapshot of a completed day.
+	 *
+	 * @param aggregator    Aggregator with the last known aggregates of the day.
+	 * @param dayAggregates Daily aggregates of the day.
+	 */
+	@Override
+	public void onDay(Aggregator aggregator, DayAggregates dayAggregates) {
+		publish(AggregateSnapshot.ofCompletedDay(aggregator, dayAggregates));
+		while (snapshotsPerDate.size() > nrOfRetainedDays) {
+			snapshotsPerDate.pollFirstEntry();
+		}
+	}
+
+	/**
+	 * Publishes the snapshot of the tickers traded so far on a day that is still
+	 * open. It is replaced by the snapshot of the completed day.
+	 *
+	 * @param dayAggregates Running aggregates of the open day.
+	 */
+	public void publishOpenDay(DayAggregates dayAggregates) {
+		publish(AggregateSnapshot.ofOpenDay(dayAggregates));
+	}
+
+	/**
+	 * @return snapshot of the latest day or null if no day has been published.
+	 */
+	public AggregateSnapshot getLatestSnapshot() {
+		return latestSnapshot;
+	}
+
+	/**
+	 * @param date Date of a day.
+	 * @return snapshot of the day or null if it has not been published or is no
+	 *         longer retained.
+	 */
+	public AggregateSnapshot getSnapshot(LocalDate date) {
+		return snapshotsPerDate.get(date);
+	}
+
+	/**
+	 * @return dates of the published snapshots in ascending order.
+	 */
+	public List<LocalDate> getDates() {
+		return new ArrayList<>(snapshotsPerDate.keySet());
+	}
+
+	private void publish(AggregateSnapshot snapshot) {
+		snapshotsPerDate.put(snapshot.getDate(), snapshot);
+		latestSnapshot = snapshot;
+	}
+
+}
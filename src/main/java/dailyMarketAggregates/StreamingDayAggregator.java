@@ -0,0 +1,166 @@
+package dailyMarketAggregates;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * StreamingDayAggregator calculates the daily aggregates of a market log while
+ * it is read. Every trade only updates the {@link TickerAccumulator} of its
+ * ticker and is not kept, so memory depends on the number of tickers of a day
+ * but not on the number of trades. When the first trade of a new date is added,
+ * the aggregates of the previous day are passed to a {@link DayListener} at a
+ * cost of O(tickers).
+ * <p>
+ * The log is expected to be sorted by date. An aggregator is meant to be fed by
+ * a single thread.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class StreamingDayAggregator {
+
+	/**
+	 * DayListener receives the aggregates of every completed day of a
+	 * {@link StreamingDayAggregator}.
+	 */
+	public interface DayListener {
+
+		/**
+		 * Called when all trades of a day have been added.
+		 *
+		 * @param dayAggregates Daily aggregates of the day.
+		 */
+		void onDay(DayAggregates dayAggregates);
+
+	}
+
+	private final TickerDictionary tickerDictionary;
+	private final DayListener listener;
+	private DayAggregates dayAggregates;
+	private int epochDay;
+
+	/**
+	 * @param tickerDictionary Dictionary of the ticker ids of the trades.
+	 * @param listener         Listener of the completed days.
+	 */
+	public StreamingDayAggregator(TickerDictionary tickerDictionary, DayListener listener) {
+		this.tickerDictionary = tickerDictionary;
+		this.listener = listener;
+	}
+
+	/**
+	 * Adds the trade of the last line parsed by a parser.
+	 *
+	 * @param parser Parser of the current trade line.
+	 */
+	public void addTrade(TradeParser parser) {
+		aggregatesOf(tickerDictionary.idOf(parser), parser.getEpochDay()).addFixedPointTrade(parser.getSecondOfDay(),
+				parser.getPrice(), parser.getNrOfSecuritiesTraded());
+	}
+
+	/**
+	 * Adds the values of a trade.
+	 *
+	 * @param tickerId             Id of the ticker in the ticker dictionary.
+	 * @param epochDay             Date of the trade as epoch day.
+	 * @param secondOfDay          Time of the trade as seconds of the day.
+	 * @param price                Price of the trade.
+	 * @param nrOfSecuritiesTraded Number of securities traded.
+	 */
+	public void addTrade(int tickerId, int epochDay, int secondOfDay, double price, int nrOfSecuritiesTraded) {
+		aggregatesOf(tickerId, epochDay).addTrade(secondOfDay, price, nrOfSecuritiesTraded);
+	}
+
+	/**
+	 * Adds the values of a trade with a fixed-point price.
+	 *
+	 * @param tickerId             Id of the ticker in the ticker dictionary.
+	 * @param epochDay             Date of the trade as epoch day.
+	 * @param secondOfDay          Time of the trade as seconds of the day.
+	 * @param price                Price of the trade as fixed-point long scaled
+	 *                             by {@link TradeParser#PRICE_SCALE}.
+	 * @param nrOfSecuritiesTraded Number of securities traded.
+	 */
+	public void addFixedPointTrade(int tickerId, int epochDay, int secondOfDay, long price,
+			int nrOfSecuritiesTraded) {
+		aggregatesOf(tickerId, epochDay).addFixedPointTrade(secondOfDay, price, nrOfSecuritiesTraded);
+	}
+
+	/*
+	 * Returns the running aggregates of a ticker of a day and finishes the current
+	 * day first if the trade is of another day.
+	 */
+	private TickerAccumulator aggregatesOf(int tickerId, int epochDay) {
+		if (dayAggregates == null || epochDay != this.epochDay) {
+			finishDay();
+			this.epochDay = epochDay;
+			dayAggregates = new DayAggregates(LocalDate.ofEpochDay(epochDay));
+		}
+		return dayAggregates.getAggregatesOfTicker(tickerId, tickerDictionary);
+	}
+
+	/**
+	 * @return running aggregates of the current day or null if no trade has been
+	 *         added since the last day was finished.
+	 */
+	public DayAggregates getOpenDay() {
+		return dayAggregates;
+	}
+
+	/**
+	 * Writes the running aggregates of the current day, e.g. into a checkpoint.
+	 *
+	 * @param out Output of the aggregates.
+	 * @throws IOException if the output cannot be written.
+	 */
+	public void writeOpenDayTo(DataOutput out) throws IOException {
+		out.writeBoolean(dayAggregates != null);
+		if (dayAggregates == null) {
+			return;
+		}
+		out.writeInt(epochDay);
+		out.writeInt(dayAggregates.getAggregatesPerTicker().size());
+		for (TickerAccumulator tickerAggregates : dayAggregates.getAggregatesPerTicker().values()) {
+			out.writeUTF(tickerAggregates.getTicker());
+			tickerAggregates.writeStateTo(out);
+		}
+	}
+
+	/**
+	 * Replaces the current day by a day written with
+	 * {@link #writeOpenDayTo(DataOutput)}. The tickers are added in the order
+	 * they have been written, so the completed day lists them in the same order.
+	 *
+	 * @param in Input of the aggregates.
+	 * @throws IOException if the input cannot be read.
+	 */
+	public void readOpenDayFrom(DataInput in) throws IOException {
+		dayAggregates = null;
+		if (!in.readBoolean()) {
+			return;
+		}
+		epochDay = in.readInt();
+		dayAggregates = new DayAggregates(LocalDate.ofEpochDay(epochDay));
+		int nrOfTickers = in.readInt();
+		for (int i = 0; i < nrOfTickers; i++) {
+			dayAggregates.getAggregatesOfTicker(in.readUTF()).readStateFrom(in);
+		}
+	}
+
+	/**
+	 * Passes the aggregates of the current day to the listener, e.g. at the end
+	 * of the log. Does nothing if no trade has been added since the last day was
+	 * finished.
+	 */
+	public void finishDay() {
+		if (dayAggregates == null) {
+			return;
+		}
+		DayAggregates completedDay = dayAggregates;
+		dayAggregates = null;
+		listener.onDay(completedDay);
+	}
+
+}
@@ -0,0 +1,71 @@
+package dailyMarketAggregates;
+
+import java.nio.channels.WritableByteChannel;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+
+/**
+ * TextReportSink writes the daily aggregates in the console format of
+ * {@link Main}: a block per day with a block per ticker and market index and
+ * the values formatted with at most two decimals in the default locale, or
+ * {@code N/A} if they are not positive. The trade statistics are not part of
+ * the console format. The number format is created once per sink.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class TextReportSink extends ReportSink {
+
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	private final NumberFormat numFormat = NumberFormat.getInstance();
+
+	public TextReportSink(WritableByteChannel channel) {
+		super(channel);
+		// Format the double values so they only have two digits after the comma
+		numFormat.setMaximumFractionDigits(2);
+	}
+
+	@Override
+	protected void beginDay(LocalDate date, boolean correction) {
+		text.append("***").append(date).append(correction ? " correction***" : "***").append('\n')
+				.append(LINE_SEPARATOR);
+	}
+
+	@Override
+	protected void writeAggregates(LocalDate date, String name, boolean marketIndex, boolean correction,
+			double openPrice, double closePrice, double highestPrice, double lowestPrice, double dailyTradedVolume,
+			double volumeWeightedAveragePrice, double timeWeightedAveragePrice, long tradeCount,
+			long nrOfSecuritiesTraded, double priceVariance, QuantileSketch priceSketch, QuantileSketch sizeSketch) {
+		text.append("--").append(name).append("--").append(LINE_SEPARATOR);
+		appendAggregateNameAndResult("Open price", openPrice);
+		appendAggregateNameAndResult("Close price", closePrice);
+		appendAggregateNameAndResult("Highest price", highestPrice);
+		appendAggregateNameAndResult("Lowest price", lowestPrice);
+		appendAggregateNameAndResult("Daily traded volume", dailyTradedVolume);
+		if (!marketIndex) {
+			text.append('\t').append(LINE_SEPARATOR);
+		}
+	}
+
+	@Override
+	protected void endDay(boolean correction) {
+		text.append('\n').append(LINE_SEPARATOR);
+	}
+
+	/**
+	 * Formats a value like the console report, with at most two decimals or
+	 * {@code N/A} if the value is not positive.
+	 *
+	 * @param result Value of an aggregate.
+	 * @return formatted value.
+	 */
+	public String format(double result) {
+		return result > 0.0 ? numFormat.format(result) : "N/A";
+	}
+
+	private void appendAggregateNameAndResult(String nameOfAggregate, double result) {
+		text.append(nameOfAggregate).append(": ").append(format(result)).append(LINE_SEPARATOR);
+	}
+
+}
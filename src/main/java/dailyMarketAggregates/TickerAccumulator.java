@@ -0,0 +1,490 @@
+package dailyMarketAggregates;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * TickerAccumulator contains the running daily aggregates of a market ticker.
+ * Open, close, highest and lowest price as well as the daily traded volume are
+ * updated with every added trade, so all aggregates of a ticker are available
+ * after a single pass over its trades.
+ * <p>
+ * The daily traded volume is summed as fixed-point long scaled by
+ * {@link TradeParser#PRICE_SCALE}, so it is the exact sum of the products of
+ * the decimal prices and numbers of securities traded, independent of the
+ * number and order of the trades. A volume that exceeds the range of a long
+ * throws an {@link ArithmeticException} instead of wrapping around.
+ * <p>
+ * The same pass keeps the running sums of the trade statistics: the number of
+ * securities traded, the volume weighted average price, the time weighted
+ * average price and the variance of the trade prices. The time weighted
+ * average price weights every price with the seconds until the next trade in
+ * time. By default trades added out of time order only count for the other
+ * statistics. An accumulator created for out-of-order trades also keeps the
+ * price at the end of every traded second in time order, at most 12 bytes per
+ * second of the day, and adjusts the time weighted sums when a trade is
+ * inserted between earlier ones, so its time weighted average price does not
+ * depend on the order the trades are added in. The variance is updated with
+ * Welford's method, so it stays accurate however close the prices are.
+ * <p>
+ * Unless it is created without them, an accumulator also keeps a
+ * {@link QuantileSketch} of the trade prices with a relative accuracy of 0.1%
+ * and one of the numbers of securities traded per trade with 1%, so quantiles
+ * like the median or the 99th percentile are estimated in fixed memory without
+ * keeping the trades.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class TickerAccumulator {
+
+	// the prices of a ticker within a day usually differ by a few percent only
+	private static final double PRICE_RELATIVE_ACCURACY = 0.001;
+
+	private String ticker;
+	private int tradeCount;
+	private int openTime;
+	private int closeTime;
+	private double openPrice;
+	private double closePrice;
+	private double highestPrice;
+	private double lowestPrice;
+	// fixed-point, scaled by TradeParser.PRICE_SCALE
+	private long dailyTradedVolume;
+	private long nrOfSecuritiesTraded;
+	// time of the first added trade, where the time weighted prices start
+	private int firstTime;
+	// fixed-point prices multiplied by the seconds they held and the sum of those seconds
+	private long timeWeightedPrices;
+	private long timeWeightedSeconds;
+	// traded seconds in ascending order and the fixed-point price of the last
+	// trade added per second, null unless trades may be added out of order
+	private int[] tradedSeconds;
+	private long[] pricesPerTradedSecond;
+	private int nrOfTradedSeconds;
+	// running mean and sum of squared differences from the mean of the prices
+	private double priceMean;
+	private double priceSquaredDeviations;
+	private final QuantileSketch priceSketch;
+	private final QuantileSketch sizeSketch;
+
+	public TickerAccumulator(String ticker) {
+		this(ticker, true);
+	}
+
+	/**
+	 * @param ticker    Ticker of the trades.
+	 * @param quantiles true to keep quantile sketches of prices and trade sizes,
+	 *                  false e.g. for short-lived bars that need none.
+	 */
+	public TickerAccumulator(String ticker, boolean quantiles) {
+		this(ticker, quantiles, false);
+	}
+
+	/**
+	 * @param ticker     Ticker of the trades.
+	 * @param quantiles  true to keep quantile sketches of prices and trade sizes.
+	 * @param outOfOrder true if trades may be added out of time order, e.g. from
+	 *                   several venues, so the prices of the traded seconds are
+	 *                   kept for the time weighted average price.
+	 */
+	public TickerAccumulator(String ticker, boolean quantiles, boolean outOfOrder) {
+		this.ticker = ticker;
+		this.priceSketch = quantiles
+				? new QuantileSketch(PRICE_RELATIVE_ACCURACY, QuantileSketch.DEFAULT_MAX_NR_OF_BUCKETS)
+				: null;
+		this.sizeSketch = quantiles ? new QuantileSketch() : null;
+		if (outOfOrder) {
+			this.tradedSeconds = new int[16];
+			this.pricesPerTradedSecond = new long[16];
+		}
+	}
+
+	public String getTicker() {
+		return ticker;
+	}
+
+	public int getTradeCount() {
+		return tradeCount;
+	}
+
+	/**
+	 * @return open price of the ticker or 0.0 if no trades have been added.
+	 */
+	public double getOpenPrice() {
+		return openPrice;
+	}
+
+	/**
+	 * @return close price of the ticker or 0.0 if no trades have been added.
+	 */
+	public double getClosePrice() {
+		return closePrice;
+	}
+
+	/**
+	 * @return highest price of the ticker or 0.0 if no trades have been added.
+	 */
+	public double getHighestPrice() {
+		return highestPrice;
+	}
+
+	/**
+	 * @return lowest price of the ticker or 0.0 if no trades have been added.
+	 */
+	public double getLowestPrice() {
+		return lowestPrice;
+	}
+
+	/**
+	 * @return daily traded volume of the ticker or 0.0 if no trades have been
+	 *         added.
+	 */
+	public double getDailyTradedVolume() {
+		return dailyTradedVolume / (double) TradeParser.PRICE_SCALE;
+	}
+
+	/**
+	 * @return exact daily traded volume of the ticker as fixed-point long scaled
+	 *         by {@link TradeParser#PRICE_SCALE} or 0 if no trades have been
+	 *         added.
+	 */
+	public long getFixedPointDailyTradedVolume() {
+		return dailyTradedVolume;
+	}
+
+	/**
+	 * @return number of securities traded or 0 if no trades have been added.
+	 */
+	public long getNrOfSecuritiesTraded() {
+		return nrOfSecuritiesTraded;
+	}
+
+	/**
+	 * @return volume weighted average price of the ticker, the daily traded
+	 *         volume divided by the number of securities traded, or 0.0 if no
+	 *         securities have been traded.
+	 */
+	public double getVolumeWeightedAveragePrice() {
+		return nrOfSecuritiesTraded > 0
+				? dailyTradedVolume / (double) TradeParser.PRICE_SCALE / nrOfSecuritiesTraded
+				: 0.0;
+	}
+
+	/**
+	 * @return time weighted average price of the ticker from its first to its
+	 *         last trade, the close price if all trades share the same time or
+	 *         0.0 if no trades have been added.
+	 */
+	public double getTimeWeightedAveragePrice() {
+		return timeWeightedSeconds > 0
+				? timeWeightedPrices / (double) TradeParser.PRICE_SCALE / timeWeightedSeconds
+				: closePrice;
+	}
+
+	/**
+	 * @return population variance of the trade prices of the ticker or 0.0 if no
+	 *         trades have been added.
+	 */
+	public double getPriceVariance() {
+		return tradeCount > 0 ? priceSquaredDeviations / tradeCount : 0.0;
+	}
+
+	/**
+	 * @return sketch of the trade prices or null if the accumulator keeps no
+	 *         quantile sketches.
+	 */
+	public QuantileSketch getPriceSketch() {
+		return priceSketch;
+	}
+
+	/**
+	 * @return sketch of the numbers of securities traded per trade or null if the
+	 *         accumulator keeps no quantile sketches.
+	 */
+	public QuantileSketch getSizeSketch() {
+		return sizeSketch;
+	}
+
+	/**
+	 * Updates the aggregates with a trade.
+	 *
+	 * @param trade Trade object of the ticker.
+	 */
+	public void addTrade(Trade trade) {
+		this.addTrade(trade.getTime().toSecondOfDay(), trade.getPrice(), trade.getNrOfSecuritiesTraded());
+	}
+
+	/**
+	 * Updates the aggregates with the values of a trade. If several trades share
+	 * the earliest time the first added one sets the open price, if several trades
+	 * share the latest time the last added one sets the close price. This is the
+	 * same trade a stable sort by time would put first or last. The price is
+	 * rounded to {@link TradeParser#PRICE_DECIMALS} decimal places for the daily
+	 * traded volume.
+	 *
+	 * @param secondOfDay          Time of the trade as seconds of the day.
+	 * @param price                Price of the trade.
+	 * @param nrOfSecuritiesTraded Number of securities traded.
+	 */
+	public void addTrade(int secondOfDay, double price, int nrOfSecuritiesTraded) {
+		addTrade(secondOfDay, price, TradeParser.toFixedPoint(price), nrOfSecuritiesTraded);
+	}
+
+	/**
+	 * Updates the aggregates with the values of a trade with a fixed-point price
+	 * like {@link #addTrade(int, double, int)}.
+	 *
+	 * @param secondOfDay          Time of the trade as seconds of the day.
+	 * @param price                Price of the trade as fixed-point long scaled
+	 *                             by {@link TradeParser#PRICE_SCALE}.
+	 * @param nrOfSecuritiesTraded Number of securities traded.
+	 */
+	public void addFixedPointTrade(int secondOfDay, long price, int nrOfSecuritiesTraded) {
+		addTrade(secondOfDay, price / (double) TradeParser.PRICE_SCALE, price, nrOfSecuritiesTraded);
+	}
+
+	private void addTrade(int secondOfDay, double price, long fixedPointPrice, int nrOfSecuritiesTraded) {
+		if (tradeCount == 0) {
+			firstTime = secondOfDay;
+			openTime = secondOfDay;
+			closeTime = secondOfDay;
+			openPrice = price;
+			closePrice = price;
+			highestPrice = price;
+			lowestPrice = price;
+		} else {
+			if (secondOfDay < openTime) {
+				openTime = secondOfDay;
+				openPrice = price;
+			}
+			if (secondOfDay >= closeTime) {
+				if (tradedSeconds == null) {
+					addTimeWeightedClosePrice(secondOfDay);
+				}
+				closeTime = secondOfDay;
+				closePrice = price;
+			}
+			if (price > highestPrice) {
+				highestPrice = price;
+			}
+			if (price < lowestPrice) {
+				lowestPrice = price;
+			}
+		}
+		if (tradedSeconds != null) {
+			addTimeWeightedPrice(secondOfDay, fixedPointPrice);
+		}
+		dailyTradedVolume = Math.addExact(dailyTradedVolume, Math.multiplyExact(fixedPointPrice, nrOfSecuritiesTraded));
+		this.nrOfSecuritiesTraded += nrOfSecuritiesTraded;
+		tradeCount++;
+		double deviation = price - priceMean;
+		priceMean += deviation / tradeCount;
+		priceSquaredDeviations += deviation * (price - priceMean);
+		if (priceSketch != null) {
+			priceSketch.add(price);
+			sizeSketch.add(nrOfSecuritiesTraded);
+		}
+	}
+
+	/**
+	 * Adds the aggregates of trades that follow the trades of this accumulator in
+	 * the market log, e.g. of the next chunk of the log. Time ties are resolved as
+	 * if all trades had been added to this accumulator in log order. The time
+	 * weighted average price is the same as well if the later trades do not start
+	 * before the close of this accumulator, or if both accumulators have been
+	 * created for out-of-order trades.
+	 *
+	 * @param laterAggregates Aggregates of later trades of the same ticker.
+	 */
+	public void merge(TickerAccumulator laterAggregates) {
+		if (laterAggregates.tradeCount == 0) {
+			return;
+		}
+		boolean mergeTradedSeconds = tradedSeconds != null && laterAggregates.tradedSeconds != null;
+		if (tradeCount == 0) {
+			firstTime = laterAggregates.firstTime;
+			openTime = laterAggregates.openTime;
+			closeTime = laterAggregates.closeTime;
+			openPrice = laterAggregates.openPrice;
+			closePrice = laterAggregates.closePrice;
+			highestPrice = laterAggregates.highestPrice;
+			lowestPrice = laterAggregates.lowestPrice;
+		} else {
+			if (laterAggregates.openTime < openTime) {
+				openTime = laterAggregates.openTime;
+				openPrice = laterAggregates.openPrice;
+			}
+			if (laterAggregates.firstTime > closeTime && !mergeTradedSeconds) {
+				// the close price holds until the first later trade
+				addTimeWeightedClosePrice(laterAggregates.firstTime);
+			}
+			if (laterAggregates.closeTime >= closeTime) {
+				closeTime = laterAggregates.closeTime;
+				closePrice = laterAggregates.closePrice;
+			}
+			highestPrice = Math.max(highestPrice, laterAggregates.highestPrice);
+			lowestPrice = Math.min(lowestPrice, laterAggregates.lowestPrice);
+		}
+		dailyTradedVolume = Math.addExact(dailyTradedVolume, laterAggregates.dailyTradedVolume);
+		nrOfSecuritiesTraded += laterAggregates.nrOfSecuritiesTraded;
+		if (mergeTradedSeconds) {
+			for (int i = 0; i < laterAggregates.nrOfTradedSeconds; i++) {
+				addTimeWeightedPrice(laterAggregates.tradedSeconds[i], laterAggregates.pricesPerTradedSecond[i]);
+			}
+		} else {
+			timeWeightedPrices = Math.addExact(timeWeightedPrices, laterAggregates.timeWeightedPrices);
+			timeWeightedSeconds += laterAggregates.timeWeightedSeconds;
+		}
+		// combines mean and squared deviations of both parts like Chan et al.
+		int mergedTradeCount = tradeCount + laterAggregates.tradeCount;
+		double deviation = laterAggregates.priceMean - priceMean;
+		priceMean += deviation * laterAggregates.tradeCount / mergedTradeCount;
+		priceSquaredDeviations += laterAggregates.priceSquaredDeviations
+				+ deviation * deviation * tradeCount * laterAggregates.tradeCount / mergedTradeCount;
+		tradeCount = mergedTradeCount;
+		if (priceSketch != null && laterAggregates.priceSketch != null) {
+			priceSketch.merge(laterAggregates.priceSketch);
+			sizeSketch.merge(laterAggregates.sizeSketch);
+		}
+	}
+
+	/**
+	 * Writes the running aggregates without the ticker, e.g. into a checkpoint.
+	 *
+	 * @param out Output of the aggregates.
+	 * @throws IOException if the output cannot be written.
+	 */
+	public void writeStateTo(DataOutput out) throws IOException {
+		out.writeInt(tradeCount);
+		out.writeInt(openTime);
+		out.writeInt(closeTime);
+		out.writeDouble(openPrice);
+		out.writeDouble(closePrice);
+		out.writeDouble(highestPrice);
+		out.writeDouble(lowestPrice);
+		out.writeLong(dailyTradedVolume);
+		out.writeLong(nrOfSecuritiesTraded);
+		out.writeInt(firstTime);
+		out.writeLong(timeWeightedPrices);
+		out.writeLong(timeWeightedSeconds);
+		out.writeDouble(priceMean);
+		out.writeDouble(priceSquaredDeviations);
+		out.writeBoolean(priceSketch != null);
+		if (priceSketch != null) {
+			priceSketch.writeStateTo(out);
+			sizeSketch.writeStateTo(out);
+		}
+		out.writeBoolean(tradedSeconds != null);
+		if (tradedSeconds != null) {
+			out.writeInt(nrOfTradedSeconds);
+			for (int i = 0; i < nrOfTradedSeconds; i++) {
+				out.writeInt(tradedSeconds[i]);
+				out.writeLong(pricesPerTradedSecond[i]);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the running aggregates by aggregates written with
+	 * {@link #writeStateTo(DataOutput)}, so adding further trades gives the same
+	 * results as before they were written.
+	 *
+	 * @param in Input of the aggregates.
+	 * @throws IOException if the input cannot be read.
+	 */
+	public void readStateFrom(DataInput in) throws IOException {
+		tradeCount = in.readInt();
+		openTime = in.readInt();
+		closeTime = in.readInt();
+		openPrice = in.readDouble();
+		closePrice = in.readDouble();
+		highestPrice = in.readDouble();
+		lowestPrice = in.readDouble();
+		dailyTradedVolume = in.readLong();
+		nrOfSecuritiesTraded = in.readLong();
+		firstTime = in.readInt();
+		timeWeightedPrices = in.readLong();
+		timeWeightedSeconds = in.readLong();
+		priceMean = in.readDouble();
+		priceSquaredDeviations = in.readDouble();
+		if (in.readBoolean() != (priceSketch != null)) {
+			throw new IOException("Aggregates of " + ticker + " were written with different quantile sketches");
+		}
+		if (priceSketch != null) {
+			priceSketch.readStateFrom(in);
+			sizeSketch.readStateFrom(in);
+		}
+		if (in.readBoolean() != (tradedSeconds != null)) {
+			throw new IOException("Aggregates of " + ticker + " were written for trades in another order");
+		}
+		if (tradedSeconds != null) {
+			nrOfTradedSeconds = in.readInt();
+			tradedSeconds = new int[Math.max(16, nrOfTradedSeconds)];
+			pricesPerTradedSecond = new long[tradedSeconds.length];
+			for (int i = 0; i < nrOfTradedSeconds; i++) {
+				tradedSeconds[i] = in.readInt();
+				pricesPerTradedSecond[i] = in.readLong();
+			}
+		}
+	}
+
+	/*
+	 * Weights the close price with the seconds from the close until a later time.
+	 */
+	private void addTimeWeightedClosePrice(int laterTime) {
+		int seconds = laterTime - closeTime;
+		timeWeightedPrices = Math.addExact(timeWeightedPrices,
+				Math.multiplyExact(TradeParser.toFixedPoint(closePrice), seconds));
+		timeWeightedSeconds += seconds;
+	}
+
+	/*
+	 * Stores the price of a trade as price at the end of its second, as if the
+	 * trade had been added after all trades of that second, and adjusts the time
+	 * weighted sums: the price holds from its second until the next traded second,
+	 * the price of the previous traded second now only until this second.
+	 */
+	private void addTimeWeightedPrice(int secondOfDay, long fixedPointPrice) {
+		int index = Arrays.binarySearch(tradedSeconds, 0, nrOfTradedSeconds, secondOfDay);
+		if (index >= 0) {
+			if (index + 1 < nrOfTradedSeconds) {
+				addTimeWeightedPrice(fixedPointPrice - pricesPerTradedSecond[index],
+						tradedSeconds[index + 1] - secondOfDay);
+			}
+			pricesPerTradedSecond[index] = fixedPointPrice;
+			return;
+		}
+		index = -index - 1;
+		if (nrOfTradedSeconds > 0) {
+			if (index == 0) {
+				int seconds = tradedSeconds[0] - secondOfDay;
+				addTimeWeightedPrice(fixedPointPrice, seconds);
+				timeWeightedSeconds += seconds;
+			} else if (index == nrOfTradedSeconds) {
+				int seconds = secondOfDay - tradedSeconds[index - 1];
+				addTimeWeightedPrice(pricesPerTradedSecond[index - 1], seconds);
+				timeWeightedSeconds += seconds;
+			} else {
+				addTimeWeightedPrice(fixedPointPrice - pricesPerTradedSecond[index - 1],
+						tradedSeconds[index] - secondOfDay);
+			}
+		}
+		if (nrOfTradedSeconds == tradedSeconds.length) {
+			tradedSeconds = Arrays.copyOf(tradedSeconds, nrOfTradedSeconds * 2);
+			pricesPerTradedSecond = Arrays.copyOf(pricesPerTradedSecond, nrOfTradedSeconds * 2);
+		}
+		System.arraycopy(tradedSeconds, index, tradedSeconds, index + 1, nrOfTradedSeconds - index);
+		System.arraycopy(pricesPerTradedSecond, index, pricesPerTradedSecond, index + 1, nrOfTradedSeconds - index);
+		tradedSeconds[index] = secondOfDay;
+		pricesPerTradedSecond[index] = fixedPointPrice;
+		nrOfTradedSeconds++;
+	}
+
+	private void addTimeWeightedPrice(long fixedPointPrice, int seconds) {
+		timeWeightedPrices = Math.addExact(timeWeightedPrices, Math.multiplyExact(fixedPointPrice, seconds));
+	}
+
+}
@@ -0,0 +1,180 @@
+package dailyMarketAggregates;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * TickerDictionary interns market tickers as dense int ids, starting at 0 in
+ * order of first appearance. Tickers of parsed lines are looked up by their
+ * bytes, so a String is only created for a ticker the first time it is seen.
+ * Tickers are expected to be ASCII.
+ * <p>
+ * A dictionary is not thread-safe.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class TickerDictionary {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private String[] tickers = new String[INITIAL_CAPACITY];
+	private byte[][] tickerBytes = new byte[INITIAL_CAPACITY][];
+	private int[] tickerHashes = new int[INITIAL_CAPACITY];
+	// open addressing table of id + 1, 0 marks a free slot
+	private int[] table = new int[INITIAL_CAPACITY * 2];
+	private int size;
+
+	public TickerDictionary() {
+	}
+
+	/**
+	 * @return number of tickers in the dictionary.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param id Id of a ticker of the dictionary.
+	 * @return ticker of the id.
+	 */
+	public String getTicker(int id) {
+		if (id < 0 || id >= size) {
+			throw new IndexOutOfBoundsException("Unknown ticker id: " + id);
+		}
+		return tickers[id];
+	}
+
+	/**
+	 * Returns the id of a ticker, which is added to the dictionary if it is not
+	 * known yet.
+	 *
+	 * @param ticker Ticker of the market.
+	 * @return id of the ticker.
+	 */
+	public int idOf(String ticker) {
+		int hash = hash(ticker);
+		int slot = findSlot(ticker, hash);
+		if (table[slot] != 0) {
+			return table[slot] - 1;
+		}
+		return add(ticker, hash, slot);
+	}
+
+	/**
+	 * Returns the id of the ticker of the last line parsed by a parser, which is
+	 * added to the dictionary if it is not known yet. If the parser interns its
+	 * tickers in this dictionary, the id it has looked up for the line is reused.
+	 *
+	 * @param parser Parser of the current trade line.
+	 * @return id of the ticker.
+	 */
+	public int idOf(TradeParser parser) {
+		return parser.getTickerDictionary() == this ? parser.getTickerId() : lookUp(parser);
+	}
+
+	/*
+	 * Looks up the ticker bytes of the last parsed line.
+	 */
+	int lookUp(TradeParser parser) {
+		int offset = parser.getTickerOffset();
+		int length = parser.getTickerLength();
+		int hash = 1;
+		for (int i = offset; i < offset + length; i++) {
+			hash = 31 * hash + parser.getBuffer().get(i);
+		}
+		int mask = table.length - 1;
+		int slot = mix(hash) & mask;
+		while (table[slot] != 0) {
+			int id = table[slot] - 1;
+			if (tickerHashes[id] == hash && tickerEquals(tickerBytes[id], parser)) {
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return add(parser.copyTicker(), hash, slot);
+	}
+
+	/**
+	 * Returns the id of a ticker without adding it to the dictionary.
+	 *
+	 * @param ticker Ticker of the market.
+	 * @return id of the ticker or -1 if the ticker is not known.
+	 */
+	public int find(String ticker) {
+		int slot = findSlot(ticker, hash(ticker));
+		return table[slot] - 1;
+	}
+
+	private int add(String ticker, int hash, int slot) {
+		byte[] bytes = ticker.getBytes(StandardCharsets.US_ASCII);
+		if (size == tickers.length) {
+			tickers = Arrays.copyOf(tickers, size * 2);
+			tickerBytes = Arrays.copyOf(tickerBytes, size * 2);
+			tickerHashes = Arrays.copyOf(tickerHashes, size * 2);
+		}
+		int id = size++;
+		tickers[id] = ticker;
+		tickerBytes[id] = bytes;
+		tickerHashes[id] = hash;
+		table[slot] = id + 1;
+		// keep the table at most half full
+		if (size * 2 > table.length) {
+			rehash();
+		}
+		return id;
+	}
+
+	private void rehash() {
+		table = new int[table.length * 2];
+		int mask = table.length - 1;
+		for (int id = 0; id < size; id++) {
+			int slot = mix(tickerHashes[id]) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = id + 1;
+		}
+	}
+
+	private int findSlot(String ticker, int hash) {
+		int mask = table.length - 1;
+		int slot = mix(hash) & mask;
+		while (table[slot] != 0) {
+			int id = table[slot] - 1;
+			if (tickerHashes[id] == hash && tickers[id].equals(ticker)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private static boolean tickerEquals(byte[] bytes, TradeParser parser) {
+		if (bytes.length != parser.getTickerLength()) {
+			return false;
+		}
+		int offset = parser.getTickerOffset();
+		for (int i = 0; i < bytes.length; i++) {
+			if (bytes[i] != parser.getBuffer().get(offset + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// same hash as over the ASCII bytes of the ticker
+	private static int hash(String ticker) {
+		int hash = 1;
+		for (int i = 0; i < ticker.length(); i++) {
+			hash = 31 * hash + (byte) ticker.charAt(i);
+		}
+		return hash;
+	}
+
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+}
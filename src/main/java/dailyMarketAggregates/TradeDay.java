@@ -2,12 +2,15 @@ package dailyMarketAggregates;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * TradeDay contains methods to handle the market trades of a day.
+ * TradeDay contains methods to handle the market trades of a day. Trades added
+ * with the ids of their tickers are looked up in an array indexed by the ids,
+ * the map by ticker keeps the order of the tickers in the report.
  * 
  * @author sara.derakhshani
  *
@@ -16,6 +19,9 @@ public class TradeDay {
 
 	private LocalDate date;
 	private Map<String, List<Trade>> tradesPerTicker = new HashMap<>();
+	// trades per ticker id, null if the ticker has not been traded
+	@SuppressWarnings("unchecked")
+	private List<Trade>[] tradesPerTickerId = (List<Trade>[]) new List<?>[0];
 
 	public TradeDay(LocalDate date) {
 		this.date = date;
@@ -39,13 +45,36 @@ public class TradeDay {
 	 * @param trade Trade object.
 	 */
 	public void addTrade(Trade trade) {
-		if (tradesPerTicker.containsKey(trade.getTicker())) {
-			tradesPerTicker.get(trade.getTicker()).add(trade);
-		} else {
-			List<Trade> trades = new ArrayList<>();
-			trades.add(trade);
+		// one lookup for known tickers
+		List<Trade> trades = tradesPerTicker.get(trade.getTicker());
+		if (trades == null) {
+			trades = new ArrayList<>();
 			tradesPerTicker.put(trade.getTicker(), trades);
 		}
+		trades.add(trade);
+	}
+
+	/**
+	 * Adds trade to the list of trades of its ticker, which is looked up by the id
+	 * of the ticker. All ids of a trade day must belong to the same dictionary.
+	 * 
+	 * @param tickerId Id of the ticker of the trade in a ticker dictionary.
+	 * @param trade    Trade object.
+	 */
+	public void addTrade(int tickerId, Trade trade) {
+		if (tickerId >= tradesPerTickerId.length) {
+			tradesPerTickerId = Arrays.copyOf(tradesPerTickerId, Math.max(2 * tradesPerTickerId.length, tickerId + 1));
+		}
+		List<Trade> trades = tradesPerTickerId[tickerId];
+		if (trades == null) {
+			trades = tradesPerTicker.get(trade.getTicker());
+			if (trades == null) {
+				trades = new ArrayList<>();
+				tradesPerTicker.put(trade.getTicker(), trades);
+			}
+			tradesPerTickerId[tickerId] = trades;
+		}
+		trades.add(trade);
 	}
 
 }
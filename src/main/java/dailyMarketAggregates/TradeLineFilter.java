@@ -0,0 +1,93 @@
+package dailyMarketAggregates;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * TradeLineFilter selects the lines of a market historical log by a date range
+ * and a set of tickers on their raw bytes, before the line is parsed. The date
+ * prefix {@code yyyy-MM-dd} of a line is compared byte by byte with the bounds
+ * of the range, which works because ISO dates sort like their text. Only lines
+ * within the range have their ticker field compared with the selected tickers.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class TradeLineFilter implements TradeLogReader.LineFilter {
+
+	private static final int DATE_LENGTH = 10;
+	// date, space, time and semicolon in front of the ticker
+	private static final int TICKER_OFFSET = 20;
+
+	private final byte[] from;
+	private final byte[] to;
+	private final byte[][] tickers;
+
+	/**
+	 * @param from    First date, null for no lower bound.
+	 * @param to      Last date, null for no upper bound.
+	 * @param tickers Selected tickers, null for all tickers.
+	 */
+	public TradeLineFilter(LocalDate from, LocalDate to, Collection<String> tickers) {
+		this.from = from == null ? null : from.toString().getBytes(StandardCharsets.US_ASCII);
+		this.to = to == null ? null : to.toString().getBytes(StandardCharsets.US_ASCII);
+		if (tickers == null) {
+			this.tickers = null;
+		} else {
+			this.tickers = new byte[tickers.size()][];
+			int i = 0;
+			for (String ticker : tickers) {
+				this.tickers[i++] = ticker.getBytes(StandardCharsets.US_ASCII);
+			}
+		}
+	}
+
+	@Override
+	public boolean accept(ByteBuffer buffer, int start, int end) {
+		if (end - start <= TICKER_OFFSET) {
+			// blank or invalid line, left to the parser
+			return true;
+		}
+		if (from != null && compareDate(buffer, start, from) < 0) {
+			return false;
+		}
+		if (to != null && compareDate(buffer, start, to) > 0) {
+			return false;
+		}
+		if (tickers == null) {
+			return true;
+		}
+		for (byte[] ticker : tickers) {
+			if (tickerEquals(buffer, start + TICKER_OFFSET, end, ticker)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int compareDate(ByteBuffer buffer, int start, byte[] date) {
+		for (int i = 0; i < DATE_LENGTH; i++) {
+			int difference = buffer.get(start + i) - date[i];
+			if (difference != 0) {
+				return difference;
+			}
+		}
+		return 0;
+	}
+
+	private static boolean tickerEquals(ByteBuffer buffer, int tickerStart, int end, byte[] ticker) {
+		int tickerEnd = tickerStart + ticker.length;
+		if (tickerEnd >= end || buffer.get(tickerEnd) != ';') {
+			return false;
+		}
+		for (int i = 0; i < ticker.length; i++) {
+			if (buffer.get(tickerStart + i) != ticker[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
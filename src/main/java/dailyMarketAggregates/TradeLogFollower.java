@@ -0,0 +1,155 @@
+package dailyMarketAggregates;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TradeLogFollower reads a market historical log that is appended while it is
+ * read, like {@code tail -f}. Only the bytes appended since the last read are
+ * read, through the reusable buffer of a {@link TradeLogReader}, and a partial
+ * last line is kept until its line feed has been written. Every trade is passed
+ * to a {@link FollowListener} as soon as its line is complete.
+ * <p>
+ * The follower waits for changes of the directory of the log with a
+ * {@link WatchService}, which reports them within milliseconds on most
+ * platforms, and polls the log after a timeout anyway on platforms where it is
+ * slower. A follower is meant to be run on a single thread and can be stopped
+ * from any thread.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class TradeLogFollower implements Closeable {
+
+	/**
+	 * FollowListener receives the trades of a followed log.
+	 */
+	public interface FollowListener {
+
+		/**
+		 * Called for every trade appended to the log.
+		 *
+		 * @param parser Parser of the trade line.
+		 */
+		void onTrade(TradeParser parser);
+
+		/**
+		 * Called after all complete lines appended so far have been read and at
+		 * least one of them was a trade, e.g. to flush outputs.
+		 *
+		 * @throws IOException if an output cannot be written.
+		 */
+		void onCaughtUp() throws IOException;
+
+	}
+
+	private final Path file;
+	private final long pollMillis;
+	private final TradeLogReader reader;
+	private final WatchService watchService;
+	private volatile boolean stopped;
+
+	/**
+	 * @param file       Path of the log.
+	 * @param offset     Byte offset of the first line to read.
+	 * @param pollMillis Milliseconds after which the log is read again if no
+	 *                   change has been reported.
+	 * @throws IOException if the log cannot be opened.
+	 */
+	public TradeLogFollower(Path file, long offset, long pollMillis) throws IOException {
+		this.file = file;
+		this.pollMillis = pollMillis;
+		this.reader = TradeLogReader.open(file, offset);
+		this.reader.setFollowing(true);
+		Path directory = file.toAbsolutePath().getParent();
+		WatchService service = directory.getFileSystem().newWatchService();
+		try {
+			directory.register(service, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+		} catch (IOException e) {
+			service.close();
+			reader.close();
+			throw e;
+		}
+		this.watchService = service;
+	}
+
+	/**
+	 * @return reader of the log, e.g. to set metrics.
+	 */
+	public TradeLogReader getReader() {
+		return reader;
+	}
+
+	/**
+	 * Passes the trades of all complete lines appended since the last call to a
+	 * listener.
+	 *
+	 * @param listener Listener of the trades.
+	 * @return number of trades read.
+	 * @throws IOException if the log cannot be read or has been truncated.
+	 */
+	public long readAppendedTrades(FollowListener listener) throws IOException {
+		TradeParser parser = reader.getParser();
+		long nrOfTrades = 0;
+		while (reader.nextTrade()) {
+			listener.onTrade(parser);
+			nrOfTrades++;
+		}
+		if (nrOfTrades > 0) {
+			listener.onCaughtUp();
+		} else if (Files.size(file) < reader.getNextLineOffset()) {
+			throw new IOException("Log has been truncated while it was followed: " + file);
+		}
+		return nrOfTrades;
+	}
+
+	/**
+	 * Passes every trade appended to the log to a listener until the follower is
+	 * stopped or the thread is interrupted.
+	 *
+	 * @param listener Listener of the trades.
+	 * @throws IOException if the log cannot be read or has been truncated.
+	 */
+	public void follow(FollowListener listener) throws IOException {
+		while (!stopped) {
+			readAppendedTrades(listener);
+			WatchKey key;
+			try {
+				key = watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if (key != null) {
+				// any change of the directory triggers a read, the log is only read once
+				key.pollEvents();
+				key.reset();
+			}
+		}
+		readAppendedTrades(listener);
+	}
+
+	/**
+	 * Stops {@link #follow(FollowListener)} after the trades appended so far
+	 * have been read.
+	 */
+	public void stop() {
+		stopped = true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			watchService.close();
+		} finally {
+			reader.close();
+		}
+	}
+
+}
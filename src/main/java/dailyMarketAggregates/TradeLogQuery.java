@@ -0,0 +1,56 @@
+package dailyMarketAggregates;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * TradeLogQuery calculates the daily aggregates of a date range and a set of
+ * tickers of a market historical log. The selection is pushed down into the
+ * {@link TradeLogReader} as {@link TradeLineFilter}, so lines of other dates and
+ * tickers are skipped on their raw bytes and never parsed, and the trades of
+ * the selected lines only update running aggregates.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class TradeLogQuery {
+
+	private final Path file;
+
+	/**
+	 * @param file Path of the market historical log.
+	 */
+	public TradeLogQuery(Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * Calculates the daily aggregates of a date range and a set of tickers.
+	 *
+	 * @param from    First date, null for no lower bound.
+	 * @param to      Last date, null for no upper bound.
+	 * @param tickers Tickers to aggregate, null for all tickers.
+	 * @return daily aggregates of every day of the range with a selected ticker,
+	 *         in log order.
+	 * @throws IOException if the log cannot be read.
+	 */
+	public List<DayAggregates> aggregate(LocalDate from, LocalDate to, Collection<String> tickers)
+			throws IOException {
+		List<DayAggregates> aggregatesPerDay = new ArrayList<>();
+		StreamingDayAggregator dayAggregator = new StreamingDayAggregator(new TickerDictionary(),
+				aggregatesPerDay::add);
+		try (TradeLogReader reader = TradeLogReader.open(file)) {
+			reader.setLineFilter(new TradeLineFilter(from, to, tickers));
+			while (reader.nextTrade()) {
+				dayAggregator.addTrade(reader.getParser());
+			}
+		}
+		dayAggregator.finishDay();
+		return aggregatesPerDay;
+	}
+
+}
@@ -0,0 +1,233 @@
+package dailyMarketAggregates;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * TradeLogReader reads the market historical log from a channel into one
+ * reusable buffer and parses it line by line with a {@link TradeParser}. No
+ * objects are created per line, the values of the current trade are read from
+ * the parser.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class TradeLogReader implements Closeable {
+
+	/**
+	 * LineFilter decides on the raw bytes of a line whether it is parsed, so lines
+	 * that are not needed are skipped before any field is decoded.
+	 */
+	public interface LineFilter {
+
+		/**
+		 * @param buffer Buffer of the market historical log.
+		 * @param start  Absolute index of the first byte of the line.
+		 * @param end    Absolute index after the last byte of the line, without
+		 *               the line feed.
+		 * @return true if the line is parsed, false if it is skipped.
+		 */
+		boolean accept(ByteBuffer buffer, int start, int end);
+
+	}
+
+	private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+	private final ReadableByteChannel channel;
+	private final TradeParser parser = new TradeParser();
+	private ByteBuffer buffer;
+	// absolute index of the next unparsed byte in the buffer
+	private int lineStart;
+	// file offset of the first byte in the buffer
+	private long bufferOffset;
+	private long lineOffset;
+	private boolean endOfInput;
+	private LineFilter lineFilter;
+	private PipelineMetrics metrics;
+	private boolean following;
+
+	public TradeLogReader(ReadableByteChannel channel) {
+		this(channel, DEFAULT_BUFFER_SIZE);
+	}
+
+	public TradeLogReader(ReadableByteChannel channel, int bufferSize) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(bufferSize);
+		this.buffer.limit(0);
+	}
+
+	/**
+	 * Opens the market historical log of a file for reading.
+	 *
+	 * @param file Path of the market historical log.
+	 * @return reader of the file.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public static TradeLogReader open(Path file) throws IOException {
+		return new TradeLogReader(FileChannel.open(file, StandardOpenOption.READ));
+	}
+
+	/**
+	 * Opens the market historical log of a file for reading from a line offset,
+	 * e.g. saved by a checkpoint. The offsets of the reader are offsets in the
+	 * file.
+	 *
+	 * @param file   Path of the market historical log.
+	 * @param offset Byte offset of the first line to read.
+	 * @return reader of the file.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public static TradeLogReader open(Path file, long offset) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			if (offset > channel.size()) {
+				throw new IOException("Offset " + offset + " is behind the end of " + file);
+			}
+			channel.position(offset);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		TradeLogReader reader = new TradeLogReader(channel);
+		reader.bufferOffset = offset;
+		return reader;
+	}
+
+	/**
+	 * @return parser holding the values of the current trade.
+	 */
+	public TradeParser getParser() {
+		return parser;
+	}
+
+	/**
+	 * Sets a filter of the lines to parse. Lines that are skipped by the filter
+	 * are not validated.
+	 *
+	 * @param lineFilter Filter of the lines, null to parse every line.
+	 */
+	public void setLineFilter(LineFilter lineFilter) {
+		this.lineFilter = lineFilter;
+	}
+
+	/**
+	 * Counts the lines, trades and parse failures of this reader.
+	 *
+	 * @param metrics Metrics of the run, null to count nothing.
+	 */
+	public void setMetrics(PipelineMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Sets whether the input may still grow, e.g. a log that is appended while
+	 * it is read. When following, the end of the input is not final:
+	 * {@link #nextTrade()} returns false as long as no complete line is
+	 * available, keeps a partial last line in the buffer and reads the bytes
+	 * appended to the input on the next call.
+	 *
+	 * @param following true to follow a growing input.
+	 */
+	public void setFollowing(boolean following) {
+		this.following = following;
+	}
+
+	/**
+	 * @return byte offset of the current trade line in the input.
+	 */
+	public long getLineOffset() {
+		return lineOffset;
+	}
+
+	/**
+	 * @return byte offset of the first line that has not been read yet.
+	 */
+	public long getNextLineOffset() {
+		return bufferOffset + lineStart;
+	}
+
+	/**
+	 * Reads the next trade of the input. Blank lines and lines rejected by the
+	 * line filter are skipped and a last line without line feed is read as well,
+	 * unless the input is followed.
+	 *
+	 * @return true if a trade has been parsed, false at the end of the input.
+	 * @throws IOException if the input cannot be read.
+	 */
+	public boolean nextTrade() throws IOException {
+		while (true) {
+			int lineEnd = TradeParser.indexOfLineEnd(buffer, lineStart, buffer.limit());
+			if (lineEnd < 0) {
+				if (!endOfInput) {
+					fill();
+					continue;
+				}
+				if (following) {
+					// the rest of the line may still be appended
+					endOfInput = false;
+					return false;
+				}
+				if (lineStart == buffer.limit()) {
+					return false;
+				}
+				lineEnd = buffer.limit();
+			}
+			int start = lineStart;
+			lineStart = lineEnd < buffer.limit() ? lineEnd + 1 : lineEnd;
+			if (metrics != null) {
+				metrics.lineRead();
+			}
+			if (lineFilter != null && !lineFilter.accept(buffer, start, lineEnd)) {
+				continue;
+			}
+			if (metrics == null ? parser.parseLine(buffer, start, lineEnd) : parseCounted(start, lineEnd)) {
+				lineOffset = bufferOffset + start;
+				return true;
+			}
+		}
+	}
+
+	private boolean parseCounted(int start, int end) {
+		boolean parsed;
+		try {
+			parsed = parser.parseLine(buffer, start, end);
+		} catch (IllegalArgumentException e) {
+			metrics.parseFailed();
+			throw e;
+		}
+		if (parsed) {
+			metrics.tradeRead();
+		}
+		return parsed;
+	}
+
+	private void fill() throws IOException {
+		// keep the unparsed bytes and append new input behind them
+		buffer.position(lineStart);
+		if (lineStart == 0 && buffer.limit() == buffer.capacity()) {
+			// a single line is longer than the buffer
+			ByteBuffer grownBuffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+			grownBuffer.put(buffer);
+			buffer = grownBuffer;
+		} else {
+			buffer.compact();
+		}
+		bufferOffset += lineStart;
+		lineStart = 0;
+		if (channel.read(buffer) < 0) {
+			endOfInput = true;
+		}
+		buffer.flip();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
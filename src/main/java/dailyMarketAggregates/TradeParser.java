@@ -0,0 +1,359 @@
+package dailyMarketAggregates;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * TradeParser decodes lines of the market historical log directly from bytes.
+ * A line has the format {@code yyyy-MM-dd HH:mm:ss;TICKER;price;quantity} with
+ * a decimal comma in the price. The fields are decoded into primitives without
+ * creating intermediate objects: the date as epoch day, the time as seconds of
+ * the day and the price as fixed-point long scaled by {@link #PRICE_SCALE}. The
+ * ticker is not copied, its position in the parsed buffer is kept instead. It
+ * is interned in a {@link TickerDictionary} on demand, so a String is only
+ * created for a ticker the first time it is seen, and components that share
+ * the dictionary of the parser reuse the ticker id of a line without hashing
+ * the ticker again.
+ * <p>
+ * A parser is reused for every line, the values of the last parsed line are
+ * overwritten by the next one.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class TradeParser {
+
+	/**
+	 * Number of decimal places of fixed-point prices.
+	 */
+	public static final int PRICE_DECIMALS = 4;
+
+	/**
+	 * Factor between a fixed-point price and its decimal value.
+	 */
+	public static final long PRICE_SCALE = 10_000L;
+
+	private static final int DATE_TIME_LENGTH = 19;
+
+	private ByteBuffer buffer;
+	private int epochDay;
+	private int secondOfDay;
+	private int tickerOffset;
+	private int tickerLength;
+	private long price;
+	private int nrOfSecuritiesTraded;
+	private TickerDictionary tickerDictionary = new TickerDictionary();
+	// id of the ticker of the last parsed line, -1 until it has been looked up
+	private int tickerId = -1;
+
+	public TradeParser() {
+	}
+
+	/**
+	 * @return dictionary the tickers of the parsed lines are interned in.
+	 */
+	public TickerDictionary getTickerDictionary() {
+		return tickerDictionary;
+	}
+
+	/**
+	 * Sets the dictionary to intern the tickers of the parsed lines in, e.g. the
+	 * dictionary of the components the trades are passed to.
+	 *
+	 * @param tickerDictionary Dictionary of the ticker ids.
+	 */
+	public void setTickerDictionary(TickerDictionary tickerDictionary) {
+		this.tickerDictionary = tickerDictionary;
+		this.tickerId = -1;
+	}
+
+	public int getEpochDay() {
+		return epochDay;
+	}
+
+	public int getSecondOfDay() {
+		return secondOfDay;
+	}
+
+	/**
+	 * @return absolute index of the first ticker byte in the parsed buffer.
+	 */
+	public int getTickerOffset() {
+		return tickerOffset;
+	}
+
+	public int getTickerLength() {
+		return tickerLength;
+	}
+
+	/**
+	 * @return price as fixed-point long scaled by {@link #PRICE_SCALE}.
+	 */
+	public long getPrice() {
+		return price;
+	}
+
+	/**
+	 * @return price as double, equal to the value of the decimal text.
+	 */
+	public double getPriceAsDouble() {
+		return price / (double) PRICE_SCALE;
+	}
+
+	public int getNrOfSecuritiesTraded() {
+		return nrOfSecuritiesTraded;
+	}
+
+	/**
+	 * @return buffer of the last parsed line, holding the bytes of the ticker.
+	 */
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Returns the id of the ticker of the last parsed line in the dictionary of
+	 * this parser. The ticker is looked up once per line.
+	 *
+	 * @return id of the ticker of the last parsed line.
+	 */
+	public int getTickerId() {
+		if (tickerId < 0) {
+			tickerId = tickerDictionary.lookUp(this);
+		}
+		return tickerId;
+	}
+
+	/**
+	 * Returns the ticker of the last parsed line as interned String of the
+	 * dictionary of this parser, so no String is allocated for known tickers.
+	 *
+	 * @return ticker of the last parsed line.
+	 */
+	public String getTicker() {
+		return tickerDictionary.getTicker(getTickerId());
+	}
+
+	/*
+	 * Copies the ticker of the last parsed line into a new String, e.g. to add it
+	 * to a dictionary.
+	 */
+	String copyTicker() {
+		byte[] tickerBytes = new byte[tickerLength];
+		for (int i = 0; i < tickerLength; i++) {
+			tickerBytes[i] = buffer.get(tickerOffset + i);
+		}
+		return new String(tickerBytes, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Compares the ticker of the last parsed line with a String without
+	 * allocating.
+	 *
+	 * @param ticker Ticker to compare with.
+	 * @return true if the ticker of the last parsed line equals the ticker.
+	 */
+	public boolean tickerEquals(String ticker) {
+		if (ticker.length() != tickerLength) {
+			return false;
+		}
+		for (int i = 0; i < tickerLength; i++) {
+			if (buffer.get(tickerOffset + i) != ticker.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Creates a Trade object of the last parsed line.
+	 *
+	 * @param date Date of the last parsed line, passed in so callers can reuse
+	 *             one LocalDate for all trades of a day.
+	 * @return Trade object of the last parsed line.
+	 */
+	public Trade toTrade(LocalDate date) {
+		return new Trade(getTicker(), date, LocalTime.ofSecondOfDay(secondOfDay), getPriceAsDouble(),
+				nrOfSecuritiesTraded);
+	}
+
+	/**
+	 * Returns the index of the next line feed in the buffer, searching from start
+	 * (inclusive) to end (exclusive), or -1 if there is none.
+	 *
+	 * @param buffer Buffer of the market historical log.
+	 * @param start  Absolute index to start the search at.
+	 * @param end    Absolute index to end the search at.
+	 * @return index of the next line feed or -1.
+	 */
+	public static int indexOfLineEnd(ByteBuffer buffer, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (buffer.get(i) == '\n') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Parses the line between start (inclusive) and end (exclusive) of the buffer,
+	 * without the line feed. A trailing carriage return is ignored. The position
+	 * and limit of the buffer are not changed.
+	 *
+	 * @param buffer Buffer of the market historical log.
+	 * @param start  Absolute index of the first byte of the line.
+	 * @param end    Absolute index after the last byte of the line.
+	 * @return false if the line is blank, true if a trade has been parsed.
+	 * @throws IllegalArgumentException if the line is not a valid trade.
+	 */
+	public boolean parseLine(ByteBuffer buffer, int start, int end) {
+		if (end > start && buffer.get(end - 1) == '\r') {
+			end--;
+		}
+		if (end == start) {
+			return false;
+		}
+		this.buffer = buffer;
+		if (end - start < DATE_TIME_LENGTH + 1 || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-'
+				|| buffer.get(start + 10) != ' ' || buffer.get(start + 13) != ':' || buffer.get(start + 16) != ':'
+				|| buffer.get(start + DATE_TIME_LENGTH) != ';') {
+			throw invalidLine(buffer, start, end, "date and time");
+		}
+		int year = parseDigits(buffer, start, 4);
+		int month = parseDigits(buffer, start + 5, 2);
+		int day = parseDigits(buffer, start + 8, 2);
+		int hour = parseDigits(buffer, start + 11, 2);
+		int minute = parseDigits(buffer, start + 14, 2);
+		int second = parseDigits(buffer, start + 17, 2);
+		if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) || hour < 0
+				|| hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+			throw invalidLine(buffer, start, end, "date and time");
+		}
+		epochDay = toEpochDay(year, month, day);
+		secondOfDay = hour * 3600 + minute * 60 + second;
+
+		int position = start + DATE_TIME_LENGTH + 1;
+		tickerOffset = position;
+		tickerId = -1;
+		while (position < end && buffer.get(position) != ';') {
+			position++;
+		}
+		tickerLength = position - tickerOffset;
+		if (tickerLength == 0 || position == end) {
+			throw invalidLine(buffer, start, end, "ticker");
+		}
+
+		position++;
+		long integerPart = 0;
+		int integerDigits = 0;
+		byte b;
+		while (position < end && (b = buffer.get(position)) >= '0' && b <= '9') {
+			integerPart = integerPart * 10 + (b - '0');
+			integerDigits++;
+			position++;
+		}
+		long fraction = 0;
+		int fractionDigits = 0;
+		if (position < end && (buffer.get(position) == ',' || buffer.get(position) == '.')) {
+			position++;
+			while (position < end && (b = buffer.get(position)) >= '0' && b <= '9') {
+				fraction = fraction * 10 + (b - '0');
+				fractionDigits++;
+				position++;
+			}
+		}
+		if (integerDigits + fractionDigits == 0 || integerDigits > 14 || fractionDigits > PRICE_DECIMALS
+				|| position == end || buffer.get(position) != ';') {
+			throw invalidLine(buffer, start, end, "price");
+		}
+		for (int i = fractionDigits; i < PRICE_DECIMALS; i++) {
+			fraction *= 10;
+		}
+		price = integerPart * PRICE_SCALE + fraction;
+
+		position++;
+		long quantity = 0;
+		int quantityDigits = 0;
+		while (position < end && (b = buffer.get(position)) >= '0' && b <= '9') {
+			quantity = quantity * 10 + (b - '0');
+			quantityDigits++;
+			position++;
+			if (quantity > Integer.MAX_VALUE) {
+				throw invalidLine(buffer, start, end, "number of securities traded");
+			}
+		}
+		if (quantityDigits == 0 || position != end) {
+			throw invalidLine(buffer, start, end, "number of securities traded");
+		}
+		nrOfSecuritiesTraded = (int) quantity;
+		return true;
+	}
+
+	/**
+	 * Returns the fixed-point value of a price, e.g. of a {@link Trade}. Prices
+	 * with more than {@link #PRICE_DECIMALS} decimals are rounded to the nearest
+	 * fixed-point value.
+	 *
+	 * @param price Price as double.
+	 * @return price as fixed-point long scaled by {@link #PRICE_SCALE}.
+	 */
+	public static long toFixedPoint(double price) {
+		return Math.round(price * PRICE_SCALE);
+	}
+
+	/**
+	 * Returns the epoch day of a date, the number of days since 1970-01-01.
+	 *
+	 * @param year  Year of the date.
+	 * @param month Month of the date from 1 to 12.
+	 * @param day   Day of the month.
+	 * @return epoch day of the date.
+	 */
+	public static int toEpochDay(int year, int month, int day) {
+		// days of the civil calendar, counting years from March so the leap day is
+		// the last day of a year
+		int y = month <= 2 ? year - 1 : year;
+		int era = (y >= 0 ? y : y - 399) / 400;
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+	private static int lengthOfMonth(int year, int month) {
+		switch (month) {
+		case 2:
+			return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		}
+		return 31;
+	}
+
+	private static int parseDigits(ByteBuffer buffer, int start, int length) {
+		int value = 0;
+		for (int i = start; i < start + length; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	private static IllegalArgumentException invalidLine(ByteBuffer buffer, int start, int end, String field) {
+		byte[] line = new byte[end - start];
+		for (int i = 0; i < line.length; i++) {
+			line[i] = buffer.get(start + i);
+		}
+		return new IllegalArgumentException(
+				"Invalid " + field + " in trade line: " + new String(line, StandardCharsets.US_ASCII));
+	}
+
+}
@@ -0,0 +1,370 @@
+package dailyMarketAggregates;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * TradePipeline aggregates a market historical log in four stages that run on
+ * threads of their own, so reading, parsing, aggregating and writing the
+ * report overlap instead of running one after the other:
+ * <ol>
+ * <li>The reader reads the log into chunks of complete lines.</li>
+ * <li>The parser parses the lines of the chunks into trade slots.</li>
+ * <li>The aggregator adds the trades to a {@link StreamingDayAggregator}.</li>
+ * <li>The output stage stores every completed day as last known aggregates and
+ * writes it to the report, on the thread that runs the pipeline.</li>
+ * </ol>
+ * The stages are linked by {@link SlotRingBuffer}s whose chunks and trade
+ * slots are allocated once and reused, so no object is created per trade. The
+ * trade slots are published in batches of a configurable size and a full ring
+ * buffer makes the stage before it wait, so a slow stage slows the stages
+ * before it down instead of filling the memory. The report is the same as the
+ * one of a {@link StreamingDayAggregator} on a single thread.
+ * <p>
+ * If a stage fails, the ring buffers are aborted instead of closed, so the
+ * other stages stop as soon as they wait for it, and the first failure is
+ * thrown by {@link #run()}.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class TradePipeline {
+
+	public static final int DEFAULT_BATCH_SIZE = 256;
+	private static final int CHUNK_SIZE = 1 << 16;
+	private static final int NR_OF_CHUNKS = 8;
+	private static final int NR_OF_TRADE_SLOTS = 1 << 14;
+	private static final int NR_OF_DAY_SLOTS = 16;
+
+	/*
+	 * Chunk of complete lines of the log, the buffer of a chunk grows for lines
+	 * longer than the chunk size.
+	 */
+	private static final class Chunk {
+		ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+		int length;
+	}
+
+	/*
+	 * Values of a trade, the ticker is the interned String of the ticker id.
+	 */
+	private static final class TradeSlot {
+		int tickerId;
+		String ticker;
+		int epochDay;
+		int secondOfDay;
+		long price;
+		int nrOfSecuritiesTraded;
+	}
+
+	private static final class DaySlot {
+		DayAggregates dayAggregates;
+	}
+
+	/*
+	 * Number of items a stage has processed and the nanoseconds it has run.
+	 */
+	private static final class StageStatistics {
+		final String name;
+		final String unit;
+		long nrOfItems;
+		long nanos;
+
+		StageStatistics(String name, String unit) {
+			this.name = name;
+			this.unit = unit;
+		}
+	}
+
+	private final Path file;
+	private final Aggregator aggregator;
+	private final ReportSink report;
+	private final PipelineMetrics metrics;
+	private final SlotRingBuffer<Chunk> chunks;
+	private final SlotRingBuffer<TradeSlot> trades;
+	private final SlotRingBuffer<DaySlot> days;
+	private final StageStatistics readerStatistics = new StageStatistics("reader", "bytes");
+	private final StageStatistics parserStatistics = new StageStatistics("parser", "trades");
+	private final StageStatistics aggregatorStatistics = new StageStatistics("aggregator", "trades");
+	private final StageStatistics outputStatistics = new StageStatistics("output", "days");
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+	/**
+	 * @param file       Path of the log.
+	 * @param aggregator Aggregator the completed days are stored in.
+	 * @param report     Report the completed days are written to.
+	 * @param metrics    Metrics of the run, null to count nothing.
+	 * @param batchSize  Number of trades published to the next stage at once.
+	 */
+	public TradePipeline(Path file, Aggregator aggregator, ReportSink report, PipelineMetrics metrics,
+			int batchSize) {
+		this.file = file;
+		this.aggregator = aggregator;
+		this.report = report;
+		this.metrics = metrics;
+		this.chunks = new SlotRingBuffer<>(NR_OF_CHUNKS, Chunk::new, 1);
+		this.trades = new SlotRingBuffer<>(NR_OF_TRADE_SLOTS, TradeSlot::new, batchSize);
+		this.days = new SlotRingBuffer<>(NR_OF_DAY_SLOTS, DaySlot::new, 1);
+	}
+
+	/**
+	 * Runs all stages until the log has been aggregated and every day has been
+	 * written to the report.
+	 *
+	 * @throws IOException if the log cannot be read or the report cannot be
+	 *                     written.
+	 */
+	public void run() throws IOException {
+		Thread[] threads = { startStage("pipeline-reader", this::read),
+				startStage("pipeline-parser", this::parse),
+				startStage("pipeline-aggregator", this::aggregate) };
+		try {
+			write();
+		} catch (RuntimeException | Error e) {
+			fail(e);
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				fail(e);
+				break;
+			}
+		}
+		Throwable firstFailure = failure.get();
+		if (firstFailure instanceof UncheckedIOException) {
+			throw ((UncheckedIOException) firstFailure).getCause();
+		} else if (firstFailure instanceof RuntimeException) {
+			throw (RuntimeException) firstFailure;
+		} else if (firstFailure instanceof Error) {
+			throw (Error) firstFailure;
+		} else if (firstFailure != null) {
+			throw new IOException("Pipeline has been interrupted", firstFailure);
+		}
+	}
+
+	/**
+	 * @return one line per stage with the number of processed items, the items
+	 *         per second and the number of times the stage has waited for the
+	 *         stages before and after it.
+	 */
+	public String getStageSummary() {
+		return formatStage(readerStatistics, 0, chunks.getNrOfFullWaits()) + System.lineSeparator()
+				+ formatStage(parserStatistics, chunks.getNrOfEmptyWaits(), trades.getNrOfFullWaits())
+				+ System.lineSeparator()
+				+ formatStage(aggregatorStatistics, trades.getNrOfEmptyWaits(), days.getNrOfFullWaits())
+				+ System.lineSeparator() + formatStage(outputStatistics, days.getNrOfEmptyWaits(), 0);
+	}
+
+	private static String formatStage(StageStatistics statistics, long inputWaits, long outputWaits) {
+		long itemsPerSecond = statistics.nanos > 0 ? statistics.nrOfItems * 1_000_000_000L / statistics.nanos : 0;
+		return String.format("Stage %s: %d %s in %d ms, %d %s/s, %d waits for input, %d waits for output",
+				statistics.name, statistics.nrOfItems, statistics.unit, statistics.nanos / 1_000_000,
+				itemsPerSecond, statistics.unit, inputWaits, outputWaits);
+	}
+
+	/**
+	 * A stage of the pipeline.
+	 */
+	private interface Stage {
+
+		void run() throws IOException;
+
+	}
+
+	private Thread startStage(String name, Stage stage) {
+		Thread thread = new Thread(() -> {
+			try {
+				stage.run();
+			} catch (IOException e) {
+				fail(new UncheckedIOException(e));
+			} catch (RuntimeException | Error e) {
+				fail(e);
+			}
+		}, name);
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	private void fail(Throwable e) {
+		failure.compareAndSet(null, e);
+		chunks.abort();
+		trades.abort();
+		days.abort();
+	}
+
+	/*
+	 * Reads the log into chunks that end with a complete line, the bytes of a
+	 * partial last line are moved to the next chunk.
+	 */
+	private void read() throws IOException {
+		long start = System.nanoTime();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			Chunk previousChunk = null;
+			boolean endOfInput = false;
+			while (!endOfInput) {
+				Chunk chunk = chunks.claim();
+				ByteBuffer buffer = chunk.buffer;
+				buffer.clear();
+				if (previousChunk != null) {
+					ByteBuffer previousBuffer = previousChunk.buffer;
+					int tailLength = previousBuffer.position() - previousChunk.length;
+					if (tailLength >= buffer.capacity()) {
+						buffer = ByteBuffer.allocate(2 * tailLength);
+						chunk.buffer = buffer;
+					}
+					buffer.put(previousBuffer.array(), previousChunk.length, tailLength);
+				}
+				int lastLineEnd = -1;
+				while (lastLineEnd < 0) {
+					if (!buffer.hasRemaining()) {
+						// a single line is longer than the chunk
+						ByteBuffer grownBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
+						buffer.flip();
+						buffer = grownBuffer.put(buffer);
+						chunk.buffer = buffer;
+					}
+					int readStart = buffer.position();
+					int nrOfBytes = channel.read(buffer);
+					if (nrOfBytes < 0) {
+						endOfInput = true;
+						break;
+					}
+					readerStatistics.nrOfItems += nrOfBytes;
+					lastLineEnd = lastIndexOfLineEnd(buffer, readStart, buffer.position());
+				}
+				chunk.length = endOfInput ? buffer.position() : lastLineEnd + 1;
+				chunks.publish();
+				previousChunk = chunk;
+			}
+			chunks.close();
+		} finally {
+			readerStatistics.nanos = System.nanoTime() - start;
+		}
+	}
+
+	/*
+	 * Parses the lines of the chunks into trade slots. The parser interns the
+	 * tickers in a dictionary of its own, so the ticker ids are numbered in the
+	 * order of the first trades of the tickers.
+	 */
+	private void parse() {
+		long start = System.nanoTime();
+		try {
+			TradeParser parser = new TradeParser();
+			TickerDictionary tickerDictionary = parser.getTickerDictionary();
+			for (Chunk chunk = chunks.take(); chunk != null; chunk = chunks.take()) {
+				ByteBuffer buffer = chunk.buffer;
+				int end = chunk.length;
+				int lineStart = 0;
+				while (lineStart < end) {
+					int lineEnd = TradeParser.indexOfLineEnd(buffer, lineStart, end);
+					if (lineEnd < 0) {
+						lineEnd = end;
+					}
+					if (metrics != null) {
+						metrics.lineRead();
+					}
+					if (parseCounted(parser, buffer, lineStart, lineEnd)) {
+						TradeSlot trade = trades.claim();
+						trade.tickerId = parser.getTickerId();
+						trade.ticker = tickerDictionary.getTicker(trade.tickerId);
+						trade.epochDay = parser.getEpochDay();
+						trade.secondOfDay = parser.getSecondOfDay();
+						trade.price = parser.getPrice();
+						trade.nrOfSecuritiesTraded = parser.getNrOfSecuritiesTraded();
+						trades.publish();
+						parserStatistics.nrOfItems++;
+					}
+					lineStart = lineEnd + 1;
+				}
+				// the next chunk may not have been read yet
+				trades.flush();
+			}
+			trades.close();
+		} finally {
+			parserStatistics.nanos = System.nanoTime() - start;
+		}
+	}
+
+	private boolean parseCounted(TradeParser parser, ByteBuffer buffer, int start, int end) {
+		if (metrics == null) {
+			return parser.parseLine(buffer, start, end);
+		}
+		boolean parsed;
+		try {
+			parsed = parser.parseLine(buffer, start, end);
+		} catch (IllegalArgumentException e) {
+			metrics.parseFailed();
+			throw e;
+		}
+		if (parsed) {
+			metrics.tradeRead();
+		}
+		return parsed;
+	}
+
+	/*
+	 * Adds the trades to the running aggregates of their day and passes every
+	 * completed day to the output stage.
+	 */
+	private void aggregate() {
+		long start = System.nanoTime();
+		try {
+			// gets the ids of the parser, its tickers are added in the same order
+			TickerDictionary tickerDictionary = new TickerDictionary();
+			StreamingDayAggregator dayAggregator = new StreamingDayAggregator(tickerDictionary, dayAggregates -> {
+				DaySlot day = days.claim();
+				day.dayAggregates = dayAggregates;
+				days.publish();
+			});
+			for (TradeSlot trade = trades.take(); trade != null; trade = trades.take()) {
+				if (trade.tickerId >= tickerDictionary.size()) {
+					tickerDictionary.idOf(trade.ticker);
+				}
+				dayAggregator.addFixedPointTrade(trade.tickerId, trade.epochDay, trade.secondOfDay, trade.price,
+						trade.nrOfSecuritiesTraded);
+				aggregatorStatistics.nrOfItems++;
+			}
+			dayAggregator.finishDay();
+			days.close();
+		} finally {
+			aggregatorStatistics.nanos = System.nanoTime() - start;
+		}
+	}
+
+	/*
+	 * Stores every completed day as last known aggregates and writes it to the
+	 * report.
+	 */
+	private void write() {
+		long start = System.nanoTime();
+		try {
+			for (DaySlot day = days.take(); day != null; day = days.take()) {
+				aggregator.addLastKnownAggregatesOfDay(day.dayAggregates);
+				report.writeDay(aggregator, day.dayAggregates);
+				day.dayAggregates = null;
+				outputStatistics.nrOfItems++;
+			}
+		} finally {
+			outputStatistics.nanos = System.nanoTime() - start;
+		}
+	}
+
+	private static int lastIndexOfLineEnd(ByteBuffer buffer, int start, int end) {
+		for (int i = end - 1; i >= start; i--) {
+			if (buffer.get(i) == '\n') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,261 @@
+package dailyMarketAggregates;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * TradeStore reads a binary trade store written by {@link TradeStoreWriter}.
+ * Only the directory is read on opening. The columns of a day are memory-mapped
+ * when the day is replayed, and the directory entries of the day and ticker
+ * lead straight to the trades of the requested tickers, so no text is parsed
+ * and other days and tickers are not touched.
+ * <p>
+ * The trades of a day are replayed grouped by ticker in order of first
+ * appearance in the log, the trades of a ticker in log order.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class TradeStore implements Closeable {
+
+	/**
+	 * TradeVisitor receives the trades replayed by a {@link TradeStore}.
+	 */
+	public interface TradeVisitor {
+
+		/**
+		 * Called for every replayed trade.
+		 *
+		 * @param tickerId             Id of the ticker in the dictionary of the
+		 *                             store.
+		 * @param epochDay             Date of the trade as epoch day.
+		 * @param secondOfDay          Time of the trade as seconds of the day.
+		 * @param price                Price as fixed-point long scaled by
+		 *                             {@link TradeParser#PRICE_SCALE}.
+		 * @param nrOfSecuritiesTraded Number of securities traded.
+		 */
+		void onTrade(int tickerId, int epochDay, int secondOfDay, long price, int nrOfSecuritiesTraded);
+
+	}
+
+	private final FileChannel channel;
+	private final TickerDictionary tickerDictionary = new TickerDictionary();
+	private final int[] epochDays;
+	private final int[] nrsOfTrades;
+	private final long[] dataOffsets;
+	// index of the first ticker entry per day, one more than days
+	private final int[] firstTickerEntries;
+	private final int[] entryTickerIds;
+	private final int[] entryStarts;
+	private final int[] entryCounts;
+
+	/**
+	 * Reads the directory of a trade store.
+	 *
+	 * @param channel Channel of the trade store file.
+	 * @throws IOException if the file cannot be read or is no trade store.
+	 */
+	public TradeStore(FileChannel channel) throws IOException {
+		this.channel = channel;
+		ByteBuffer header = readFully(0, TradeStoreWriter.HEADER_SIZE);
+		if (header.getInt() != TradeStoreWriter.MAGIC || header.getInt() != TradeStoreWriter.VERSION) {
+			throw new IOException("No trade store of version " + TradeStoreWriter.VERSION);
+		}
+		long directoryOffset = header.getLong();
+		ByteBuffer directory = readFully(directoryOffset, (int) (channel.size() - directoryOffset));
+		int nrOfTickers = directory.getInt();
+		for (int id = 0; id < nrOfTickers; id++) {
+			byte[] ticker = new byte[directory.getShort()];
+			directory.get(ticker);
+			tickerDictionary.idOf(new String(ticker, StandardCharsets.US_ASCII));
+		}
+		int nrOfDays = directory.getInt();
+		epochDays = new int[nrOfDays];
+		nrsOfTrades = new int[nrOfDays];
+		dataOffsets = new long[nrOfDays];
+		firstTickerEntries = new int[nrOfDays + 1];
+		for (int day = 0; day < nrOfDays; day++) {
+			epochDays[day] = directory.getInt();
+			nrsOfTrades[day] = directory.getInt();
+			firstTickerEntries[day + 1] = firstTickerEntries[day] + directory.getInt();
+			directory.getInt();
+			dataOffsets[day] = directory.getLong();
+		}
+		int nrOfTickerEntries = directory.getInt();
+		entryTickerIds = new int[nrOfTickerEntries];
+		entryStarts = new int[nrOfTickerEntries];
+		entryCounts = new int[nrOfTickerEntries];
+		for (int entry = 0; entry < nrOfTickerEntries; entry++) {
+			entryTickerIds[entry] = directory.getInt();
+			entryStarts[entry] = directory.getInt();
+			entryCounts[entry] = directory.getInt();
+		}
+	}
+
+	/**
+	 * Opens a trade store file.
+	 *
+	 * @param file Path of the trade store.
+	 * @return store of the file.
+	 * @throws IOException if the file cannot be read or is no trade store.
+	 */
+	public static TradeStore open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			return new TradeStore(channel);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return dictionary of the ticker ids of the store.
+	 */
+	public TickerDictionary getTickerDictionary() {
+		return tickerDictionary;
+	}
+
+	/**
+	 * @return number of days of the store.
+	 */
+	public int getNrOfDays() {
+		return epochDays.length;
+	}
+
+	/**
+	 * @return date of a day of the store, days are in log order.
+	 */
+	public LocalDate getDate(int dayIndex) {
+		return LocalDate.ofEpochDay(epochDays[dayIndex]);
+	}
+
+	/**
+	 * @return number of trades of a day of the store.
+	 */
+	public int getNrOfTrades(int dayIndex) {
+		return nrsOfTrades[dayIndex];
+	}
+
+	/**
+	 * Replays the trades of a date range and a set of tickers.
+	 *
+	 * @param from    First date, null for the first day of the store.
+	 * @param to      Last date, null for the last day of the store.
+	 * @param tickers Tickers to replay, null for all tickers.
+	 * @param visitor Visitor of the trades.
+	 * @throws IOException if the store cannot be read.
+	 */
+	public void replay(LocalDate from, LocalDate to, Collection<String> tickers, TradeVisitor visitor)
+			throws IOException {
+		boolean[] selectedTickers = selectTickers(tickers);
+		for (int day = 0; day < epochDays.length; day++) {
+			if (isInRange(epochDays[day], from, to)) {
+				replayDay(day, selectedTickers, visitor);
+			}
+		}
+	}
+
+	/**
+	 * Calculates the daily aggregates of a date range and a set of tickers
+	 * directly from the columns of the store.
+	 *
+	 * @param from    First date, null for the first day of the store.
+	 * @param to      Last date, null for the last day of the store.
+	 * @param tickers Tickers to aggregate, null for all tickers.
+	 * @return daily aggregates of every day of the range with a selected ticker,
+	 *         in log order.
+	 * @throws IOException if the store cannot be read.
+	 */
+	public List<DayAggregates> aggregate(LocalDate from, LocalDate to, Collection<String> tickers)
+			throws IOException {
+		boolean[] selectedTickers = selectTickers(tickers);
+		List<DayAggregates> aggregatesPerDay = new ArrayList<>();
+		for (int day = 0; day < epochDays.length; day++) {
+			if (!isInRange(epochDays[day], from, to)) {
+				continue;
+			}
+			DayAggregates dayAggregates = new DayAggregates(getDate(day));
+			replayDay(day, selectedTickers, (tickerId, epochDay, secondOfDay, price, nrOfSecuritiesTraded) -> {
+				dayAggregates.getAggregatesOfTicker(tickerId, tickerDictionary).addFixedPointTrade(secondOfDay, price,
+						nrOfSecuritiesTraded);
+			});
+			if (!dayAggregates.getAggregatesPerTicker().isEmpty()) {
+				aggregatesPerDay.add(dayAggregates);
+			}
+		}
+		return aggregatesPerDay;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void replayDay(int day, boolean[] selectedTickers, TradeVisitor visitor) throws IOException {
+		int size = nrsOfTrades[day];
+		if (size == 0) {
+			return;
+		}
+		ByteBuffer columns = channel
+				.map(FileChannel.MapMode.READ_ONLY, dataOffsets[day], size * (long) TradeStoreWriter.TRADE_SIZE)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		int pricesOffset = size * 4;
+		int nrsOfSecuritiesTradedOffset = size * 12;
+		for (int entry = firstTickerEntries[day]; entry < firstTickerEntries[day + 1]; entry++) {
+			int tickerId = entryTickerIds[entry];
+			if (selectedTickers != null && !selectedTickers[tickerId]) {
+				continue;
+			}
+			int end = entryStarts[entry] + entryCounts[entry];
+			for (int i = entryStarts[entry]; i < end; i++) {
+				visitor.onTrade(tickerId, epochDays[day], columns.getInt(i * 4), columns.getLong(pricesOffset + i * 8),
+						columns.getInt(nrsOfSecuritiesTradedOffset + i * 4));
+			}
+		}
+	}
+
+	/*
+	 * Returns the selected tickers per id, null if all tickers are selected.
+	 * Tickers that are not in the store are ignored.
+	 */
+	private boolean[] selectTickers(Collection<String> tickers) {
+		if (tickers == null) {
+			return null;
+		}
+		boolean[] selectedTickers = new boolean[tickerDictionary.size()];
+		for (String ticker : tickers) {
+			int tickerId = tickerDictionary.find(ticker);
+			if (tickerId >= 0) {
+				selectedTickers[tickerId] = true;
+			}
+		}
+		return selectedTickers;
+	}
+
+	private static boolean isInRange(int epochDay, LocalDate from, LocalDate to) {
+		return (from == null || epochDay >= from.toEpochDay()) && (to == null || epochDay <= to.toEpochDay());
+	}
+
+	private ByteBuffer readFully(long offset, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position()) < 0) {
+				throw new IOException("Trade store is truncated");
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+}
@@ -0,0 +1,219 @@
+package dailyMarketAggregates;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * TradeStoreWriter converts a market historical log into the binary format read
+ * by {@link TradeStore}. The trades of a day are buffered in a
+ * {@link ColumnarTradeDay}, grouped by ticker in order of first appearance and
+ * written as three fixed-width columns: times as int seconds of the day, prices
+ * as fixed-point longs scaled by {@link TradeParser#PRICE_SCALE} and numbers of
+ * securities traded as ints. The trades of a ticker keep their log order.
+ * <p>
+ * The file starts with a header of the magic number, the format version and the
+ * offset of the directory, which is written after the last day: the tickers,
+ * one entry per day with its date, number of trades and offset of its columns,
+ * and one entry per day and ticker with the range of its trades. All numbers
+ * are little-endian.
+ *
+ * @author sara.derakhshani
+ *
+ */
+public class TradeStoreWriter implements Closeable {
+
+	static final int MAGIC = 0x53544244;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	// bytes of a time, a price and a number of securities traded
+	static final int TRADE_SIZE = 16;
+
+	private final FileChannel channel;
+	private final TickerDictionary tickerDictionary = new TickerDictionary();
+	private ColumnarTradeDay tradeDay;
+	private long position = HEADER_SIZE;
+	private int nrOfDays;
+	private int[] epochDays = new int[16];
+	private int[] nrsOfTrades = new int[16];
+	private long[] dataOffsets = new long[16];
+	private int[] nrsOfTickersOfDay = new int[16];
+	private int nrOfTickerEntries;
+	private int[] entryTickerIds = new int[64];
+	private int[] entryStarts = new int[64];
+	private int[] entryCounts = new int[64];
+
+	public TradeStoreWriter(FileChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Opens a file for a trade store, replacing an existing file.
+	 *
+	 * @param file Path of the trade store.
+	 * @return writer of the file.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public static TradeStoreWriter open(Path file) throws IOException {
+		return new TradeStoreWriter(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING));
+	}
+
+	/**
+	 * Converts a market historical log into a trade store.
+	 *
+	 * @param logFile   Path of the market historical log.
+	 * @param storeFile Path of the trade store.
+	 * @throws IOException if the log cannot be read or the store not written.
+	 */
+	public static void convert(Path logFile, Path storeFile) throws IOException {
+		try (TradeLogReader reader = TradeLogReader.open(logFile);
+				TradeStoreWriter writer = TradeStoreWriter.open(storeFile)) {
+			while (reader.nextTrade()) {
+				writer.addTrade(reader.getParser());
+			}
+		}
+	}
+
+	/**
+	 * Adds the trade of the last line parsed by a parser. The trades of a day
+	 * are written when the first trade of another date is added.
+	 *
+	 * @param parser Parser of the current trade line.
+	 * @throws IOException if the store cannot be written.
+	 */
+	public void addTrade(TradeParser parser) throws IOException {
+		if (tradeDay != null && parser.getEpochDay() != tradeDay.getDate().toEpochDay()) {
+			writeDay();
+		}
+		if (tradeDay == null) {
+			tradeDay = new ColumnarTradeDay(LocalDate.ofEpochDay(parser.getEpochDay()), tickerDictionary);
+		}
+		tradeDay.addTrade(parser);
+	}
+
+	/**
+	 * Writes the last day and the directory.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (tradeDay != null) {
+				writeDay();
+			}
+			long directoryOffset = position;
+			writeDirectory();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putLong(directoryOffset).flip();
+			writeFully(header, 0);
+		} finally {
+			channel.close();
+		}
+	}
+
+	private void writeDay() throws IOException {
+		int size = tradeDay.size();
+		// counting sort of the trades by ticker in order of first appearance
+		int[] localIndexOfTicker = new int[tickerDictionary.size()];
+		Arrays.fill(localIndexOfTicker, -1);
+		int[] tickersOfDay = new int[tickerDictionary.size()];
+		int[] counts = new int[tickerDictionary.size()];
+		int nrOfTickersOfDay = 0;
+		for (int i = 0; i < size; i++) {
+			int tickerId = tradeDay.getTickerId(i);
+			if (localIndexOfTicker[tickerId] < 0) {
+				localIndexOfTicker[tickerId] = nrOfTickersOfDay;
+				tickersOfDay[nrOfTickersOfDay++] = tickerId;
+			}
+			counts[localIndexOfTicker[tickerId]]++;
+		}
+		int[] nextPositions = new int[nrOfTickersOfDay];
+		for (int local = 0, start = 0; local < nrOfTickersOfDay; local++) {
+			addTickerEntry(tickersOfDay[local], start, counts[local]);
+			nextPositions[local] = start;
+			start += counts[local];
+		}
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[nextPositions[localIndexOfTicker[tradeDay.getTickerId(i)]]++] = i;
+		}
+
+		ByteBuffer columns = ByteBuffer.allocate(size * TRADE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i : order) {
+			columns.putInt(tradeDay.getTime(i));
+		}
+		for (int i : order) {
+			columns.putLong(tradeDay.getPrice(i));
+		}
+		for (int i : order) {
+			columns.putInt(tradeDay.getNrOfSecuritiesTraded(i));
+		}
+		columns.flip();
+
+		if (nrOfDays == epochDays.length) {
+			epochDays = Arrays.copyOf(epochDays, nrOfDays * 2);
+			nrsOfTrades = Arrays.copyOf(nrsOfTrades, nrOfDays * 2);
+			dataOffsets = Arrays.copyOf(dataOffsets, nrOfDays * 2);
+			nrsOfTickersOfDay = Arrays.copyOf(nrsOfTickersOfDay, nrOfDays * 2);
+		}
+		epochDays[nrOfDays] = (int) tradeDay.getDate().toEpochDay();
+		nrsOfTrades[nrOfDays] = size;
+		dataOffsets[nrOfDays] = position;
+		nrsOfTickersOfDay[nrOfDays] = nrOfTickersOfDay;
+		nrOfDays++;
+		writeFully(columns, position);
+		position += size * (long) TRADE_SIZE;
+		tradeDay = null;
+	}
+
+	private void addTickerEntry(int tickerId, int start, int count) {
+		if (nrOfTickerEntries == entryTickerIds.length) {
+			entryTickerIds = Arrays.copyOf(entryTickerIds, nrOfTickerEntries * 2);
+			entryStarts = Arrays.copyOf(entryStarts, nrOfTickerEntries * 2);
+			entryCounts = Arrays.copyOf(entryCounts, nrOfTickerEntries * 2);
+		}
+		entryTickerIds[nrOfTickerEntries] = tickerId;
+		entryStarts[nrOfTickerEntries] = start;
+		entryCounts[nrOfTickerEntries] = count;
+		nrOfTickerEntries++;
+	}
+
+	private void writeDirectory() throws IOException {
+		int tickersSize = 4;
+		for (int id = 0; id < tickerDictionary.size(); id++) {
+			tickersSize += 2 + tickerDictionary.getTicker(id).length();
+		}
+		ByteBuffer directory = ByteBuffer.allocate(tickersSize + 4 + nrOfDays * 24 + 4 + nrOfTickerEntries * 12)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		directory.putInt(tickerDictionary.size());
+		for (int id = 0; id < tickerDictionary.size(); id++) {
+			byte[] ticker = tickerDictionary.getTicker(id).getBytes(StandardCharsets.US_ASCII);
+			directory.putShort((short) ticker.length).put(ticker);
+		}
+		directory.putInt(nrOfDays);
+		for (int day = 0; day < nrOfDays; day++) {
+			directory.putInt(epochDays[day]).putInt(nrsOfTrades[day]).putInt(nrsOfTickersOfDay[day]).putInt(0)
+					.putLong(dataOffsets[day]);
+		}
+		directory.putInt(nrOfTickerEntries);
+		for (int entry = 0; entry < nrOfTickerEntries; entry++) {
+			directory.putInt(entryTickerIds[entry]).putInt(entryStarts[entry]).putInt(entryCounts[entry]);
+		}
+		directory.flip();
+		writeFully(directory, position);
+	}
+
+	private void writeFully(ByteBuffer buffer, long offset) throws IOException {
+		while (buffer.hasRemaining()) {
+			offset += channel.write(buffer, offset);
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AggregateServerTest {
+
+	Aggregator aggregator;
+	SnapshotPublisher publisher;
+	AggregateServer server;
+	LocalDate firstDate = LocalDate.of(2023, 6, 1);
+	LocalDate secondDate = LocalDate.of(2023, 6, 2);
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		aggregator = new Aggregator();
+		publisher = new SnapshotPublisher(10);
+		server = new AggregateServer(publisher, 0);
+		publishDay(firstDate, 10.0);
+		publishDay(secondDate, 20.0);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		server.close();
+	}
+
+	private void publishDay(LocalDate date, double price) {
+		DayAggregates dayAggregates = new DayAggregates(date);
+		dayAggregates.getAggregatesOfTicker("TT1").addTrade(1, price, 2);
+		aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+		publisher.onDay(aggregator, dayAggregates);
+	}
+
+	/*
+	 * Returns the status and body of a GET request.
+	 */
+	private String get(String path) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(
+				"http://localhost:" + server.getPort() + path).openConnection();
+		int status = connection.getResponseCode();
+		try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+				body.write(buffer, 0, n);
+			}
+			return status + " " + new String(body.toByteArray(), StandardCharsets.UTF_8);
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	@Test
+	public void test_get_returnsLatestSnapshot_whenAggregatesAreRequested() throws IOException {
+		String response = get("/aggregates");
+		assertTrue(response.startsWith("200 {\"date\":\"2023-06-02\",\"complete\":true,\"tickers\":[{\"name\":\"TT1\","
+				+ "\"open\":20.0"), response);
+		assertTrue(response.contains("\"indices\":[{\"name\":\"INDEX\""), response);
+	}
+
+	@Test
+	public void test_get_returnsAggregatesOfTickerOfDate_whenDateIsRequested() throws IOException {
+		assertTrue(get("/tickers/TT1?date=2023-06-01").startsWith(
+				"200 {\"date\":\"2023-06-01\",\"complete\":true,\"aggregates\":{\"name\":\"TT1\",\"open\":10.0"));
+		assertEquals("200 [\"2023-06-01\",\"2023-06-02\"]", get("/dates"));
+	}
+
+	@Test
+	public void test_get_returnsNotFound_whenTickerOrDateIsUnknown() throws IOException {
+		assertTrue(get("/tickers/XYZ").startsWith("404 {\"error\":"));
+		assertTrue(get("/aggregates?date=2023-07-01").startsWith("404 {\"error\":"));
+		assertTrue(get("/aggregates?date=tomorrow").startsWith("400 {\"error\":"));
+	}
+
+	@Test
+	public void test_publishOpenDay_replacesLatestSnapshot_untilDayIsCompleted() throws IOException {
+		DayAggregates openDay = new DayAggregates(LocalDate.of(2023, 6, 5));
+		openDay.getAggregatesOfTicker("TT1").addTrade(1, 30.0, 2);
+		publisher.publishOpenDay(openDay);
+		openDay.getAggregatesOfTicker("TT1").addTrade(2, 40.0, 2);
+		assertTrue(get("/aggregates").startsWith("200 {\"date\":\"2023-06-05\",\"complete\":false"));
+		assertTrue(get("/tickers/TT1").contains("\"close\":30.0"));
+		assertTrue(get("/indices/INDEX").startsWith("404"));
+	}
+
+}
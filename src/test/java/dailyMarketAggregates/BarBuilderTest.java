@@ -0,0 +1,71 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BarBuilderTest {
+
+	BarBuilder barBuilder;
+	TickerDictionary tickerDictionary;
+	List<String> closedBars;
+	int testEpochDay = 19509;
+
+	@BeforeEach
+	public void setUp() {
+		tickerDictionary = new TickerDictionary();
+		closedBars = new ArrayList<>();
+		barBuilder = new BarBuilder(new int[] { 60, 3600 }, tickerDictionary,
+				(symbol, intervalSeconds, epochDay, startSecond, bar) -> closedBars.add(symbol + ";" + intervalSeconds
+						+ ";" + startSecond + ";" + bar.getOpenPrice() + ";" + bar.getHighestPrice() + ";"
+						+ bar.getLowestPrice() + ";" + bar.getClosePrice() + ";" + bar.getDailyTradedVolume()));
+	}
+
+	@Test
+	public void test_parseIntervals_returnsSeconds_whenIntervalsHaveUnits() {
+		assertArrayEquals(new int[] { 1, 60, 300, 3600, 15 }, BarBuilder.parseIntervals("1s,1m,5m,1h,15"));
+	}
+
+	@Test
+	public void test_constructor_throwsException_ifIntervalDoesNotDivideDay() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new BarBuilder(new int[] { 7 }, tickerDictionary, (symbol, interval, day, start, bar) -> {
+				}));
+	}
+
+	@Test
+	public void test_addTrade_closesBarsOfAllTickers_whenLaterBarStarts() {
+		barBuilder.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 36000, 10.0, 2);
+		barBuilder.addTrade(tickerDictionary.idOf("TT2"), testEpochDay, 36010, 5.0, 1);
+		barBuilder.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 36059, 12.0, 1);
+		assertEquals(0, closedBars.size());
+		barBuilder.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 36060, 11.0, 1);
+		assertEquals(Arrays.asList("TT1;60;36000;10.0;12.0;10.0;12.0;32.0", "TT2;60;36000;5.0;5.0;5.0;5.0;5.0"),
+				closedBars);
+	}
+
+	@Test
+	public void test_flush_closesOpenBarsOfAllIntervals() {
+		barBuilder.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 36000, 10.0, 2);
+		barBuilder.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 36060, 11.0, 1);
+		barBuilder.flush();
+		assertEquals(Arrays.asList("TT1;60;36000;10.0;10.0;10.0;10.0;20.0", "TT1;60;36060;11.0;11.0;11.0;11.0;11.0",
+				"TT1;3600;36000;10.0;11.0;10.0;11.0;31.0"), closedBars);
+	}
+
+	@Test
+	public void test_addTrade_closesOpenBars_whenNewDayStarts() {
+		barBuilder.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 36000, 10.0, 2);
+		barBuilder.addTrade(tickerDictionary.idOf("TT1"), testEpochDay + 1, 100, 11.0, 1);
+		assertEquals(Arrays.asList("TT1;60;36000;10.0;10.0;10.0;10.0;20.0", "TT1;3600;36000;10.0;10.0;10.0;10.0;20.0"),
+				closedBars);
+	}
+
+}
@@ -0,0 +1,104 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CheckpointTest {
+
+	Path testFile = Paths.get("src/main/data/test-market.csv");
+	Path checkpointFile;
+	Aggregator aggregator;
+	List<String> completedDays;
+	StreamingDayAggregator dayAggregator;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		checkpointFile = Files.createTempFile("test-market", ".checkpoint");
+		startRun();
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(checkpointFile);
+	}
+
+	/*
+	 * Starts a new run that lists every completed day with its ticker and market
+	 * aggregates.
+	 */
+	private void startRun() {
+		aggregator = new Aggregator();
+		dayAggregator = new StreamingDayAggregator(new TickerDictionary(), dayAggregates -> {
+			aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+			StringBuilder day = new StringBuilder().append(dayAggregates.getDate());
+			for (TickerAccumulator tickerAggregates : dayAggregates.getAggregatesPerTicker().values()) {
+				day.append(';').append(tickerAggregates.getTicker()).append(';').append(tickerAggregates.getOpenPrice())
+						.append(';').append(tickerAggregates.getClosePrice()).append(';')
+						.append(tickerAggregates.getDailyTradedVolume());
+			}
+			day.append(';').append(aggregator.calculateOpenPriceOfMarket()).append(';')
+					.append(aggregator.calculateDailyTradedVolumeOfMarket());
+			completedDays.add(day.toString());
+		});
+		completedDays = new ArrayList<>();
+	}
+
+	@Test
+	public void test_restore_continuesWithSameAggregates_whenCheckpointIsTakenWithinDay() throws IOException {
+		try (TradeLogReader reader = TradeLogReader.open(testFile)) {
+			while (reader.nextTrade()) {
+				dayAggregator.addTrade(reader.getParser());
+			}
+		}
+		dayAggregator.finishDay();
+		List<String> expectedDays = completedDays;
+
+		startRun();
+		List<String> daysBeforeCheckpoint = completedDays;
+		try (TradeLogReader reader = TradeLogReader.open(testFile)) {
+			for (int i = 0; i < 40000 && reader.nextTrade(); i++) {
+				dayAggregator.addTrade(reader.getParser());
+			}
+			Checkpoint.write(checkpointFile, reader.getNextLineOffset(), 0, aggregator, dayAggregator);
+		}
+
+		startRun();
+		Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+		checkpoint.restore(aggregator, dayAggregator);
+		try (TradeLogReader reader = TradeLogReader.open(testFile, checkpoint.getLogOffset())) {
+			while (reader.nextTrade()) {
+				dayAggregator.addTrade(reader.getParser());
+			}
+		}
+		dayAggregator.finishDay();
+		List<String> resumedDays = new ArrayList<>(daysBeforeCheckpoint);
+		resumedDays.addAll(completedDays);
+		assertEquals(expectedDays, resumedDays);
+	}
+
+	@Test
+	public void test_read_returnsOffsetsOfCheckpoint_whenCheckpointHasBeenWritten() throws IOException {
+		Checkpoint.write(checkpointFile, 1234, 56, aggregator, dayAggregator);
+		Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+		assertEquals(1234, checkpoint.getLogOffset());
+		assertEquals(56, checkpoint.getReportOffset());
+	}
+
+	@Test
+	public void test_read_throwsIOException_whenFileIsNotACheckpoint() throws IOException {
+		Files.write(checkpointFile, "2023-06-01 09:00:01;TRX;3997,90;879\n".getBytes("UTF-8"));
+		assertThrows(IOException.class, () -> Checkpoint.read(checkpointFile));
+	}
+
+}
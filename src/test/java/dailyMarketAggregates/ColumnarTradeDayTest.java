@@ -0,0 +1,74 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ColumnarTradeDayTest {
+
+	ColumnarTradeDay columnarTradeDay;
+	TickerDictionary tickerDictionary;
+	LocalDate testDate = LocalDate.parse("2023-06-01");
+	LocalTime earlierTestTime = LocalTime.parse("09:00:01");
+	LocalTime laterTestTime = LocalTime.parse("09:00:02");
+	String testTicker1 = "TT1";
+	String testTicker2 = "TT2";
+
+	@BeforeEach
+	public void setUp() {
+		tickerDictionary = new TickerDictionary();
+		columnarTradeDay = new ColumnarTradeDay(testDate, tickerDictionary);
+	}
+
+	@Test
+	public void test_size_returnsZero_ifNoTradesHaveBeenAdded() {
+		assertEquals(0, columnarTradeDay.size());
+	}
+
+	@Test
+	public void test_addTrade_storesTradeInColumns_afterOneTradeHasBeenAdded() {
+		columnarTradeDay.addTrade(new Trade(testTicker1, testDate, earlierTestTime, 3997.9, 879));
+		assertEquals(1, columnarTradeDay.size());
+		assertEquals(testTicker1, tickerDictionary.getTicker(columnarTradeDay.getTickerId(0)));
+		assertEquals(earlierTestTime.toSecondOfDay(), columnarTradeDay.getTime(0));
+		assertEquals(39_979_000L, columnarTradeDay.getPrice(0));
+		assertEquals(879, columnarTradeDay.getNrOfSecuritiesTraded(0));
+	}
+
+	@Test
+	public void test_addTrade_keepsAllTrades_whenMoreTradesThanInitialCapacityHaveBeenAdded() {
+		for (int i = 0; i < 5000; i++) {
+			columnarTradeDay.addTrade(new Trade(i % 2 == 0 ? testTicker1 : testTicker2, testDate, earlierTestTime,
+					100.0, i));
+		}
+		assertEquals(5000, columnarTradeDay.size());
+		assertEquals(4999, columnarTradeDay.getNrOfSecuritiesTraded(4999));
+		assertEquals(2, tickerDictionary.size());
+	}
+
+	@Test
+	public void test_calculateAggregatesOfDay_returnsSameAggregatesAsForTradeDay_whenSameTradesHaveBeenAdded() {
+		TradeDay tradeDay = new TradeDay(testDate);
+		Trade[] trades = { new Trade(testTicker1, testDate, laterTestTime, 100.0, 2),
+				new Trade(testTicker2, testDate, laterTestTime, 300.0, 1),
+				new Trade(testTicker1, testDate, earlierTestTime, 200.0, 1) };
+		for (Trade trade : trades) {
+			tradeDay.addTrade(trade);
+			columnarTradeDay.addTrade(trade);
+		}
+		DayAggregates expected = new Aggregator().calculateAggregatesOfDay(tradeDay);
+		DayAggregates actual = new Aggregator().calculateAggregatesOfDay(columnarTradeDay);
+		assertEquals(expected.getAggregatesPerTicker().keySet(), actual.getAggregatesPerTicker().keySet());
+		TickerAccumulator tickerAggregates = actual.getAggregatesPerTicker().get(testTicker1);
+		assertEquals(200.0, tickerAggregates.getOpenPrice());
+		assertEquals(100.0, tickerAggregates.getClosePrice());
+		assertEquals(400.0, tickerAggregates.getDailyTradedVolume());
+		assertEquals(expected.getAggregatesPerTicker().get(testTicker2).getDailyTradedVolume(),
+				actual.getAggregatesPerTicker().get(testTicker2).getDailyTradedVolume());
+	}
+
+}
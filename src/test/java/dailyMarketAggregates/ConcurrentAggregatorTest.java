@@ -0,0 +1,126 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentAggregatorTest {
+
+	ConcurrentAggregator concurrentAggregator;
+	MarketIndex marketIndex;
+	int testEpochDay = 19509;
+
+	@BeforeEach
+	public void setUp() {
+		marketIndex = new MarketIndex("TEST", new IndexWeights(new String[] { "TT1", "TT2" }, new double[] { 0.5, 2.0 }));
+		concurrentAggregator = new ConcurrentAggregator(Collections.singletonList(marketIndex));
+	}
+
+	@Test
+	public void test_addTrade_countsEveryTrade_whenThreadsAddTradesAtSameTime() throws InterruptedException {
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < 10000; i++) {
+					concurrentAggregator.addTrade("TT" + (i % 3), testEpochDay, i % 86400, 10.0, 1);
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		DayAggregates dayAggregates = concurrentAggregator.getAggregatesOfDay(LocalDate.ofEpochDay(testEpochDay));
+		int tradeCount = 0;
+		for (TickerAccumulator tickerAggregates : dayAggregates.getAggregatesPerTicker().values()) {
+			tradeCount += tickerAggregates.getTradeCount();
+		}
+		assertEquals(40000, tradeCount);
+		assertEquals(4 * 3333 * 10.0, dayAggregates.getAggregatesOfTicker("TT1").getDailyTradedVolume());
+	}
+
+	@Test
+	public void test_addTrade_addsTradesOfParsersToSameTickers_whenFeedsOfThreadsAreUsed()
+			throws InterruptedException {
+		String[] lines = { "2023-06-01 09:00:01;TT1;10,00;1", "2023-06-01 09:00:02;TT2;20,00;2",
+				"2023-06-02 09:00:01;TT1;30,00;3" };
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			threads.add(new Thread(() -> {
+				ConcurrentAggregator.TradeFeed feed = concurrentAggregator.newTradeFeed();
+				TradeParser parser = new TradeParser();
+				for (int i = 0; i < 1000; i++) {
+					ByteBuffer buffer = ByteBuffer.wrap(lines[i % lines.length].getBytes(StandardCharsets.US_ASCII));
+					parser.parseLine(buffer, 0, buffer.limit());
+					feed.addTrade(parser);
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(Arrays.asList(LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 2)),
+				concurrentAggregator.getDates());
+		DayAggregates firstDay = concurrentAggregator.getAggregatesOfDay(LocalDate.of(2023, 6, 1));
+		assertEquals(4 * 334, firstDay.getAggregatesOfTicker("TT1").getTradeCount());
+		assertEquals(4 * 333 * 40.0, firstDay.getAggregatesOfTicker("TT2").getDailyTradedVolume());
+		assertEquals(55.0, concurrentAggregator.getIndexSnapshot(marketIndex).getClosePrice());
+	}
+
+	@Test
+	public void test_getIndexSnapshot_usesAggregatesOfLatestDayOfEachConstituent() {
+		concurrentAggregator.addTrade("TT1", testEpochDay + 1, 10, 100.0, 1);
+		concurrentAggregator.addTrade("TT1", testEpochDay, 10, 50.0, 1);
+		concurrentAggregator.addTrade("TT2", testEpochDay, 10, 10.0, 1);
+		concurrentAggregator.addTrade("TT2", testEpochDay, 20, 20.0, 1);
+		ConcurrentAggregator.IndexSnapshot snapshot = concurrentAggregator.getIndexSnapshot(marketIndex);
+		assertEquals(70.0, snapshot.getOpenPrice());
+		assertEquals(90.0, snapshot.getClosePrice());
+		assertEquals(Arrays.asList(LocalDate.ofEpochDay(testEpochDay), LocalDate.ofEpochDay(testEpochDay + 1)),
+				concurrentAggregator.getDates());
+	}
+
+	@Test
+	public void test_getIndexSnapshot_recalculatesSnapshot_afterWeightsHaveBeenReplaced() {
+		concurrentAggregator.addTrade("TT1", testEpochDay, 10, 100.0, 1);
+		concurrentAggregator.addTrade("TT3", testEpochDay, 10, 10.0, 1);
+		marketIndex.setWeights(new IndexWeights(new String[] { "TT1", "TT3" }, new double[] { 1.0, 1.0 }));
+		assertEquals(110.0, concurrentAggregator.getIndexSnapshot(marketIndex).getClosePrice());
+	}
+
+	@Test
+	public void test_getIndexSnapshot_returnsConstituentsOfOneInstant_whileTradesAreAdded()
+			throws InterruptedException {
+		// the close of the index is 0 or 1 at every instant
+		marketIndex.setWeights(new IndexWeights(new String[] { "TT1", "TT2" }, new double[] { 1.0, -1.0 }));
+		Thread writer = new Thread(() -> {
+			for (int i = 1; i < 86400; i++) {
+				concurrentAggregator.addTrade("TT1", testEpochDay, i, i, 1);
+				concurrentAggregator.addTrade("TT2", testEpochDay, i, i, 1);
+			}
+		});
+		writer.start();
+		while (writer.isAlive()) {
+			double closePrice = concurrentAggregator.getIndexSnapshot(marketIndex).getClosePrice();
+			assertTrue(closePrice == 0.0 || closePrice == 1.0, "close " + closePrice);
+		}
+		writer.join();
+		assertEquals(0.0, concurrentAggregator.getIndexSnapshot(marketIndex).getClosePrice());
+	}
+
+}
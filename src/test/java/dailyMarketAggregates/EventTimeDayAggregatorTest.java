@@ -0,0 +1,108 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EventTimeDayAggregatorTest {
+
+	EventTimeDayAggregator dayAggregator;
+	TickerDictionary tickerDictionary;
+	List<DayAggregates> publishedDays;
+	List<TickerAccumulator> corrections;
+	int testEpochDay = 19509;
+
+	@BeforeEach
+	public void setUp() {
+		tickerDictionary = new TickerDictionary();
+		publishedDays = new ArrayList<>();
+		corrections = new ArrayList<>();
+		dayAggregator = new EventTimeDayAggregator(tickerDictionary, 3600, 1,
+				new EventTimeDayAggregator.EventTimeListener() {
+
+					@Override
+					public void onDay(DayAggregates dayAggregates) {
+						publishedDays.add(dayAggregates);
+					}
+
+					@Override
+					public void onCorrection(DayAggregates dayAggregates, TickerAccumulator tickerAggregates) {
+						corrections.add(tickerAggregates);
+					}
+
+				});
+	}
+
+	@Test
+	public void test_addTrade_publishesDay_whenWatermarkPassesEndOfDay() {
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 80000, 10.0, 1);
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay + 1, 3000, 11.0, 1);
+		assertEquals(0, publishedDays.size());
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay + 1, 3600, 12.0, 1);
+		assertEquals(1, publishedDays.size());
+		assertEquals(LocalDate.ofEpochDay(testEpochDay), publishedDays.get(0).getDate());
+	}
+
+	@Test
+	public void test_addTrade_returnsAggregatesOfOrderedLog_whenTradesAreAddedByParser() {
+		String[] lines = { "2023-06-01 09:00:01;TT1;3997,93;879", "2023-06-01 09:00:02;TT1;0,07;3",
+				"2023-06-01 09:00:03;TT1;1234,11;17" };
+		TradeParser parser = new TradeParser();
+		DayAggregates orderedDay = new DayAggregates(LocalDate.of(2023, 6, 1));
+		for (String line : lines) {
+			ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII));
+			parser.parseLine(buffer, 0, buffer.limit());
+			orderedDay.addTrade(parser);
+			dayAggregator.addTrade(parser);
+		}
+		dayAggregator.finish();
+		TickerAccumulator expected = orderedDay.getAggregatesOfTicker("TT1");
+		TickerAccumulator actual = publishedDays.get(0).getAggregatesOfTicker("TT1");
+		assertEquals(expected.getFixedPointDailyTradedVolume(), actual.getFixedPointDailyTradedVolume());
+		assertEquals(expected.getVolumeWeightedAveragePrice(), actual.getVolumeWeightedAveragePrice());
+		assertEquals(expected.getTimeWeightedAveragePrice(), actual.getTimeWeightedAveragePrice());
+		assertEquals(expected.getPriceVariance(), actual.getPriceVariance());
+	}
+
+	@Test
+	public void test_addTrade_aggregatesTradesByTime_whenTradesArriveOutOfOrder() {
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay + 1, 100, 11.0, 1);
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 80000, 10.0, 1);
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 50000, 9.0, 1);
+		dayAggregator.finish();
+		assertEquals(2, publishedDays.size());
+		TickerAccumulator tickerAggregates = publishedDays.get(0).getAggregatesOfTicker("TT1");
+		assertEquals(LocalDate.ofEpochDay(testEpochDay), publishedDays.get(0).getDate());
+		assertEquals(9.0, tickerAggregates.getOpenPrice());
+		assertEquals(10.0, tickerAggregates.getClosePrice());
+		assertEquals(0, corrections.size());
+	}
+
+	@Test
+	public void test_addTrade_passesCorrection_whenTradeOfPublishedDayArrives() {
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 80000, 10.0, 1);
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay + 1, 7200, 11.0, 1);
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 85000, 8.0, 2);
+		assertEquals(1, corrections.size());
+		assertEquals(8.0, corrections.get(0).getClosePrice());
+		assertEquals(26.0, corrections.get(0).getDailyTradedVolume());
+	}
+
+	@Test
+	public void test_addTrade_dropsTrade_whenDayIsNotRetained() {
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 80000, 10.0, 1);
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay + 1, 80000, 11.0, 1);
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay + 2, 7200, 12.0, 1);
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 85000, 8.0, 2);
+		assertEquals(0, corrections.size());
+		assertEquals(1, dayAggregator.getNrOfDroppedTrades());
+	}
+
+}
@@ -0,0 +1,51 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class FixedPointSumTest {
+
+	@Test
+	public void test_addProduct_sumsExactly_whenProductsPassRangeOfLong() {
+		FixedPointSum sum = new FixedPointSum();
+		BigInteger expectedSum = BigInteger.ZERO;
+		Random random = new Random(42);
+		for (int i = 0; i < 10_000; i++) {
+			long factor = random.nextLong() >> random.nextInt(64);
+			long otherFactor = random.nextLong() >> random.nextInt(64);
+			sum.addProduct(factor, otherFactor);
+			expectedSum = expectedSum.add(BigInteger.valueOf(factor).multiply(BigInteger.valueOf(otherFactor)));
+		}
+		assertEquals(expectedSum, sum.toBigInteger());
+	}
+
+	@Test
+	public void test_addProduct_sumsExactly_whenSumPassesRangeOf128Bits() {
+		FixedPointSum sum = new FixedPointSum();
+		for (int i = 0; i < 4; i++) {
+			sum.addProduct(Long.MIN_VALUE, Long.MIN_VALUE);
+		}
+		sum.addProduct(Long.MAX_VALUE, -3);
+		assertEquals(BigInteger.ONE.shiftLeft(128).subtract(BigInteger.valueOf(Long.MAX_VALUE).multiply(
+				BigInteger.valueOf(3))), sum.toBigInteger());
+	}
+
+	@Test
+	public void test_toDouble_returnsNearestDouble_whenSumIsScaled() {
+		FixedPointSum sum = new FixedPointSum();
+		// prices with 4 and weights with 6 decimal places
+		sum.addProduct(39_979_000L, 700_000L);
+		sum.addProduct(-11_107L, 20_000_000L);
+		assertEquals(2776.316, sum.toDouble(10));
+		// the sum passes the range of a long
+		sum.addProduct(90_000_000_000L, 1_000_000_000L);
+		assertEquals(new BigDecimal(sum.toBigInteger(), 10).doubleValue(), sum.toDouble(10));
+		assertEquals(9_000_002_776.316, sum.toDouble(10));
+	}
+
+}
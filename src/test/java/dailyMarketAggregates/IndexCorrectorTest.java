@@ -0,0 +1,97 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class IndexCorrectorTest {
+
+	ByteArrayOutputStream out;
+	Aggregator aggregator;
+	ReportSink report;
+	IndexCorrector indexCorrector;
+	LocalDate testDate = LocalDate.of(2023, 6, 1);
+
+	@BeforeEach
+	public void setUp() {
+		out = new ByteArrayOutputStream();
+		aggregator = new Aggregator(Collections.singletonList(
+				new MarketIndex("IX", new IndexWeights(new String[] { "TT1", "TT2" }, new double[] { 1.0, 1.0 }))));
+		report = ReportSink.create(ReportSink.Format.CSV, Channels.newChannel(out));
+		indexCorrector = new IndexCorrector(aggregator, report, 7);
+	}
+
+	private DayAggregates reportDay(LocalDate date, String ticker, double price) {
+		DayAggregates dayAggregates = new DayAggregates(date);
+		dayAggregates.getAggregatesOfTicker(ticker).addTrade(1, price, 1);
+		reportDay(dayAggregates);
+		return dayAggregates;
+	}
+
+	private void reportDay(DayAggregates dayAggregates) {
+		aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+		indexCorrector.addDay(dayAggregates);
+	}
+
+	private TickerAccumulator addLateTrade(DayAggregates dayAggregates, String ticker, double price) {
+		TickerAccumulator tickerAggregates = dayAggregates.getAggregatesOfTicker(ticker);
+		tickerAggregates.addTrade(2, price, 1);
+		return tickerAggregates;
+	}
+
+	private String[] readReportLines() throws IOException {
+		report.flush();
+		return new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+	}
+
+	@Test
+	public void test_correct_writesIndexOfDayAndOfDaysCarryingTickerForward_whenLaterDayTradesTicker()
+			throws IOException {
+		DayAggregates firstDay = new DayAggregates(testDate);
+		firstDay.getAggregatesOfTicker("TT1").addTrade(1, 10.0, 1);
+		firstDay.getAggregatesOfTicker("TT2").addTrade(1, 20.0, 1);
+		reportDay(firstDay);
+		reportDay(testDate.plusDays(1), "TT2", 30.0);
+		reportDay(testDate.plusDays(2), "TT1", 11.0);
+		indexCorrector.correct(firstDay, addLateTrade(firstDay, "TT1", 12.0));
+		String[] lines = readReportLines();
+		assertEquals(3, lines.length);
+		assertEquals("2023-06-01,IX,correction,30.0,32.0", lines[1].substring(0, 34));
+		assertEquals("2023-06-02,IX,correction,40.0,42.0", lines[2].substring(0, 34));
+		assertEquals(41.0, aggregator.calculateClosePriceOfMarket());
+	}
+
+	@Test
+	public void test_correct_correctsAggregator_whenNoLaterDayTradesTicker() throws IOException {
+		reportDay(testDate, "TT1", 10.0);
+		DayAggregates secondDay = reportDay(testDate.plusDays(1), "TT2", 30.0);
+		indexCorrector.correct(secondDay, addLateTrade(secondDay, "TT1", 12.0));
+		String[] lines = readReportLines();
+		assertEquals(2, lines.length);
+		assertEquals("2023-06-02,IX,correction,42.0,42.0", lines[1].substring(0, 34));
+		assertEquals(42.0, aggregator.calculateClosePriceOfMarket());
+	}
+
+	@Test
+	public void test_correct_startsFromDayBefore_whenCorrectedDayWasNotReported() throws IOException {
+		reportDay(testDate, "TT1", 10.0);
+		reportDay(testDate.plusDays(2), "TT2", 30.0);
+		DayAggregates unreportedDay = new DayAggregates(testDate.plusDays(1));
+		TickerAccumulator tickerAggregates = unreportedDay.getAggregatesOfTicker("TT1");
+		tickerAggregates.addTrade(1, 12.0, 1);
+		indexCorrector.correct(unreportedDay, tickerAggregates);
+		String[] lines = readReportLines();
+		assertEquals(3, lines.length);
+		assertEquals("2023-06-02,IX,correction,12.0,12.0", lines[1].substring(0, 34));
+		assertEquals("2023-06-03,IX,correction,42.0,42.0", lines[2].substring(0, 34));
+	}
+
+}
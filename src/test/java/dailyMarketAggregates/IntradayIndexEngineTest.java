@@ -0,0 +1,61 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class IntradayIndexEngineTest {
+
+	IntradayIndexEngine indexEngine;
+	MarketIndex marketIndex;
+	TickerDictionary tickerDictionary;
+	List<Double> publishedLevels;
+	int testEpochDay = 19509;
+
+	@BeforeEach
+	public void setUp() {
+		marketIndex = new MarketIndex("TEST", new IndexWeights(new String[] { "TT1", "TT2" }, new double[] { 0.5, 2.0 }));
+		tickerDictionary = new TickerDictionary();
+		publishedLevels = new ArrayList<>();
+		indexEngine = new IntradayIndexEngine(Collections.singletonList(marketIndex), tickerDictionary,
+				(index, epochDay, secondOfDay, level) -> publishedLevels.add(level));
+	}
+
+	@Test
+	public void test_getLevel_returnsZero_ifNoTradesHaveBeenAdded() {
+		assertEquals(0.0, indexEngine.getLevel(marketIndex));
+	}
+
+	@Test
+	public void test_addTrade_replacesOldPriceOfTicker_whenTickerIsTradedAgain() {
+		indexEngine.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 1, 100.0);
+		indexEngine.addTrade(tickerDictionary.idOf("TT2"), testEpochDay, 2, 10.0);
+		indexEngine.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 3, 200.0);
+		assertEquals(120.0, indexEngine.getLevel(marketIndex));
+		assertEquals(Arrays.asList(50.0, 70.0, 120.0), publishedLevels);
+	}
+
+	@Test
+	public void test_addTrade_publishesNoLevel_whenTickerIsNoConstituent() {
+		indexEngine.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 1, 100.0);
+		indexEngine.addTrade(tickerDictionary.idOf("TT3"), testEpochDay, 2, 10.0);
+		assertEquals(Arrays.asList(50.0), publishedLevels);
+	}
+
+	@Test
+	public void test_addTrade_recalculatesLevelWithNewWeights_afterWeightsHaveBeenReplaced() {
+		indexEngine.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 1, 100.0);
+		indexEngine.addTrade(tickerDictionary.idOf("TT3"), testEpochDay, 2, 10.0);
+		marketIndex.setWeights(new IndexWeights(new String[] { "TT1", "TT3" }, new double[] { 1.0, 1.0 }));
+		assertEquals(110.0, indexEngine.getLevel(marketIndex));
+		indexEngine.addTrade(tickerDictionary.idOf("TT3"), testEpochDay, 3, 20.0);
+		assertEquals(Arrays.asList(50.0, 120.0), publishedLevels);
+	}
+
+}
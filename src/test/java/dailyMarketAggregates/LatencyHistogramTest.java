@@ -0,0 +1,47 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+	LatencyHistogram histogram;
+
+	@BeforeEach
+	public void setUp() {
+		histogram = new LatencyHistogram();
+	}
+
+	@Test
+	public void test_getPercentileNanos_returnsZero_whenNothingHasBeenRecorded() {
+		assertEquals(0, histogram.getPercentileNanos(50.0));
+		assertEquals(0.0, histogram.getMeanNanos());
+	}
+
+	@Test
+	public void test_getPercentileNanos_returnsBoundAtMost25PercentAbovePercentile_whenDurationsAreRecorded() {
+		for (long nanos = 1; nanos <= 1000; nanos++) {
+			histogram.record(nanos);
+		}
+		long median = histogram.getPercentileNanos(50.0);
+		assertTrue(median >= 500 && median <= 625, "median " + median);
+		assertEquals(1000, histogram.getPercentileNanos(100.0));
+		assertEquals(1000, histogram.getMaxNanos());
+		assertEquals(500.5, histogram.getMeanNanos());
+	}
+
+	@Test
+	public void test_bucketOf_returnsBucketWithinBounds_forEveryPowerOfTwo() {
+		for (int exponent = 0; exponent < 41; exponent++) {
+			long nanos = 1L << exponent;
+			int bucket = LatencyHistogram.bucketOf(nanos);
+			assertTrue(LatencyHistogram.upperBoundOf(bucket) >= nanos);
+			assertTrue(bucket == 0 || LatencyHistogram.upperBoundOf(bucket - 1) < nanos);
+		}
+		assertEquals(LatencyHistogram.NR_OF_BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+	}
+
+}
@@ -0,0 +1,108 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MarketIndexTest {
+
+	MarketIndex firstIndex;
+	MarketIndex secondIndex;
+	Aggregator aggregator;
+	LocalDate testDate = LocalDate.parse("2023-06-01");
+	LocalTime testTime = LocalTime.parse("09:00:01");
+
+	@BeforeEach
+	public void setUp() {
+		firstIndex = new MarketIndex("FIRST", new IndexWeights(new String[] { "TT1" }, new double[] { 0.5 }));
+		secondIndex = new MarketIndex("SECOND",
+				new IndexWeights(new String[] { "TT1", "TT2" }, new double[] { 1.0, 2.0 }));
+		aggregator = new Aggregator(Arrays.asList(firstIndex, secondIndex));
+	}
+
+	private void addTrade(String ticker, double price) {
+		List<Trade> trades = new ArrayList<>();
+		trades.add(new Trade(ticker, testDate, testTime, price, 1));
+		aggregator.calculateAggregatesOfTicker(trades);
+	}
+
+	@Test
+	public void test_defaultIndex_returnsWeightsOfBundledIndexFile() {
+		IndexWeights weights = new IndexWeights(new String[] { "ABC", "MEGA", "NGL", "TRX" },
+				new double[] { 0.1, 0.3, 0.4, 0.2 });
+		assertEquals(MarketIndex.DEFAULT_NAME, MarketIndex.defaultIndex().getName());
+		assertEquals(weights, MarketIndex.defaultIndex().getWeights());
+	}
+
+	@Test
+	public void test_load_returnsDefaultWeights_forBundledIndexResource() throws IOException {
+		try (InputStream in = MarketIndex.class.getResourceAsStream(MarketIndex.DEFAULT_RESOURCE)) {
+			assertEquals(MarketIndex.defaultIndex().getWeights(), IndexWeights.load(in, MarketIndex.DEFAULT_RESOURCE));
+		}
+	}
+
+	@Test
+	public void test_calculateOpenPriceOfMarket_returnsWeightedSumPerIndex_whenAggregatorHasTwoIndices() {
+		addTrade("TT1", 100.0);
+		addTrade("TT2", 10.0);
+		addTrade("TT3", 1000.0);
+		assertEquals(50.0, aggregator.calculateOpenPriceOfMarket());
+		assertEquals(50.0, aggregator.calculateOpenPriceOfMarket(firstIndex));
+		assertEquals(120.0, aggregator.calculateOpenPriceOfMarket(secondIndex));
+	}
+
+	@Test
+	public void test_calculateClosePriceOfMarket_usesNewWeights_afterWeightsHaveBeenReplaced() {
+		addTrade("TT1", 100.0);
+		addTrade("TT2", 10.0);
+		assertEquals(50.0, aggregator.calculateClosePriceOfMarket(firstIndex));
+		firstIndex.setWeights(new IndexWeights(new String[] { "TT2", "TT3" }, new double[] { 3.0, 1.0 }));
+		assertEquals(30.0, aggregator.calculateClosePriceOfMarket(firstIndex));
+		addTrade("TT3", 5.0);
+		assertEquals(35.0, aggregator.calculateClosePriceOfMarket(firstIndex));
+	}
+
+	@Test
+	public void test_calculateOpenPriceOfMarket_returnsExactWeightedSum_whenPricesAndWeightsHaveNoExactBinaryValue() {
+		MarketIndex decimalIndex = new MarketIndex("DECIMAL",
+				new IndexWeights(new String[] { "TT1", "TT2" }, new double[] { 0.1, 0.2 }));
+		aggregator = new Aggregator(Arrays.asList(decimalIndex));
+		addTrade("TT1", 0.1);
+		addTrade("TT2", 0.2);
+		assertEquals(0.05, aggregator.calculateOpenPriceOfMarket());
+	}
+
+	@Test
+	public void test_calculateTradeCountOfMarket_countsTradesOfConstituents_whenTradesOfOtherTickersExist() {
+		addTrade("TT1", 100.0);
+		addTrade("TT2", 10.0);
+		addTrade("TT3", 1000.0);
+		assertEquals(2, aggregator.calculateTradeCountOfMarket(secondIndex));
+		assertEquals(2, aggregator.calculateNrOfSecuritiesTradedOfMarket(secondIndex));
+		assertEquals(120.0, aggregator.calculateVolumeWeightedAveragePriceOfMarket(secondIndex));
+		assertEquals(120.0, aggregator.calculateTimeWeightedAveragePriceOfMarket(secondIndex));
+	}
+
+	@Test
+	public void test_calculateOpenPriceOfMarket_throwsIllegalArgumentException_forIndexOfOtherAggregator() {
+		assertThrows(IllegalArgumentException.class,
+				() -> aggregator.calculateOpenPriceOfMarket(MarketIndex.defaultIndex()));
+	}
+
+	@Test
+	public void test_constructor_throwsIllegalArgumentException_whenTickerIsTwiceInWeights() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new IndexWeights(new String[] { "TT1", "TT1" }, new double[] { 1.0, 2.0 }));
+	}
+
+}
@@ -0,0 +1,73 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ParallelDayAggregatorTest {
+
+	ForkJoinPool pool;
+	List<DayAggregates> aggregatesPerDay;
+	LocalDate testDate = LocalDate.parse("2023-06-01");
+
+	@BeforeEach
+	public void setUp() {
+		pool = new ForkJoinPool(4);
+		aggregatesPerDay = new ArrayList<>();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	private TradeDay createTradeDay(LocalDate date, int nrOfTickers) {
+		TradeDay tradeDay = new TradeDay(date);
+		for (int i = 0; i < 100; i++) {
+			tradeDay.addTrade(new Trade("TT" + (i % nrOfTickers), date, LocalTime.ofSecondOfDay(36000 + i),
+					10.0 + i, i + 1));
+		}
+		return tradeDay;
+	}
+
+	@Test
+	public void test_finish_passesDaysInOrderTheyWereAdded() {
+		ParallelDayAggregator dayAggregator = new ParallelDayAggregator(pool, 3, aggregatesPerDay::add);
+		for (int day = 0; day < 10; day++) {
+			dayAggregator.addTradeDay(createTradeDay(testDate.plusDays(day), 1 + day));
+		}
+		dayAggregator.finish();
+		assertEquals(10, aggregatesPerDay.size());
+		for (int day = 0; day < 10; day++) {
+			assertEquals(testDate.plusDays(day), aggregatesPerDay.get(day).getDate());
+			assertEquals(1 + day, aggregatesPerDay.get(day).getAggregatesPerTicker().size());
+		}
+	}
+
+	@Test
+	public void test_addTradeDay_calculatesSameAggregatesAsAggregator() {
+		ParallelDayAggregator dayAggregator = new ParallelDayAggregator(pool, 1, aggregatesPerDay::add);
+		TradeDay tradeDay = createTradeDay(testDate, 7);
+		dayAggregator.addTradeDay(tradeDay);
+		dayAggregator.finish();
+		DayAggregates expectedDay = new Aggregator().calculateAggregatesOfDay(tradeDay);
+		for (TickerAccumulator expected : expectedDay.getAggregatesPerTicker().values()) {
+			TickerAccumulator actual = aggregatesPerDay.get(0).getAggregatesOfTicker(expected.getTicker());
+			assertEquals(expected.getTradeCount(), actual.getTradeCount());
+			assertEquals(expected.getOpenPrice(), actual.getOpenPrice());
+			assertEquals(expected.getClosePrice(), actual.getClosePrice());
+			assertEquals(expected.getHighestPrice(), actual.getHighestPrice());
+			assertEquals(expected.getLowestPrice(), actual.getLowestPrice());
+			assertEquals(expected.getDailyTradedVolume(), actual.getDailyTradedVolume());
+		}
+	}
+
+}
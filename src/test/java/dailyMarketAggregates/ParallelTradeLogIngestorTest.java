@@ -0,0 +1,72 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ParallelTradeLogIngestorTest {
+
+	Path testFile = Paths.get("src/main/data/test-market.csv");
+	List<DayAggregates> sequentialDayAggregates;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		sequentialDayAggregates = new ArrayList<>();
+		Aggregator aggregator = new Aggregator();
+		try (TradeLogReader reader = TradeLogReader.open(testFile)) {
+			TradeDay tradeDay = null;
+			while (reader.nextTrade()) {
+				LocalDate date = LocalDate.ofEpochDay(reader.getParser().getEpochDay());
+				if (tradeDay == null || !date.equals(tradeDay.getDate())) {
+					if (tradeDay != null) {
+						sequentialDayAggregates.add(aggregator.calculateAggregatesOfDay(tradeDay));
+					}
+					tradeDay = new TradeDay(date);
+				}
+				tradeDay.addTrade(reader.getParser().toTrade(date));
+			}
+			sequentialDayAggregates.add(aggregator.calculateAggregatesOfDay(tradeDay));
+		}
+	}
+
+	private void assertSameAsSequential(List<DayAggregates> dayAggregates) {
+		assertEquals(sequentialDayAggregates.size(), dayAggregates.size());
+		for (int i = 0; i < dayAggregates.size(); i++) {
+			DayAggregates expectedDay = sequentialDayAggregates.get(i);
+			DayAggregates day = dayAggregates.get(i);
+			assertEquals(expectedDay.getDate(), day.getDate());
+			assertEquals(new ArrayList<>(expectedDay.getAggregatesPerTicker().keySet()),
+					new ArrayList<>(day.getAggregatesPerTicker().keySet()));
+			for (Map.Entry<String, TickerAccumulator> tickerEntry : expectedDay.getAggregatesPerTicker().entrySet()) {
+				TickerAccumulator expected = tickerEntry.getValue();
+				TickerAccumulator actual = day.getAggregatesPerTicker().get(tickerEntry.getKey());
+				assertEquals(expected.getTradeCount(), actual.getTradeCount());
+				assertEquals(expected.getOpenPrice(), actual.getOpenPrice());
+				assertEquals(expected.getClosePrice(), actual.getClosePrice());
+				assertEquals(expected.getHighestPrice(), actual.getHighestPrice());
+				assertEquals(expected.getLowestPrice(), actual.getLowestPrice());
+				assertEquals(expected.getDailyTradedVolume(), actual.getDailyTradedVolume(), 1e-3);
+			}
+		}
+	}
+
+	@Test
+	public void test_ingest_returnsSameDaysAsSequentialReading_whenFileIsReadInOneChunk() throws IOException {
+		assertSameAsSequential(new ParallelTradeLogIngestor(1).ingest(testFile, Long.MAX_VALUE));
+	}
+
+	@Test
+	public void test_ingest_returnsSameDaysAsSequentialReading_whenChunksCutDaysInTheMiddle() throws IOException {
+		assertSameAsSequential(new ParallelTradeLogIngestor(4).ingest(testFile, 4096));
+	}
+
+}
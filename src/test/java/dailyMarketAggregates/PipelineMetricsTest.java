@@ -0,0 +1,59 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PipelineMetricsTest {
+
+	PipelineMetrics metrics;
+
+	@BeforeEach
+	public void setUp() {
+		metrics = new PipelineMetrics();
+	}
+
+	private TradeLogReader readerOf(String log) {
+		TradeLogReader reader = new TradeLogReader(
+				Channels.newChannel(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8))));
+		reader.setMetrics(metrics);
+		return reader;
+	}
+
+	@Test
+	public void test_nextTrade_countsLinesAndTrades_whenMetricsAreSet() throws IOException {
+		TradeLogReader reader = readerOf("2023-06-01 09:00:01;TRX;3997,90;879\n\n2023-06-01 09:00:02;NGL;5000,83;510\n");
+		while (reader.nextTrade()) {
+		}
+		assertEquals(3, metrics.getLinesRead());
+		assertEquals(2, metrics.getTradesRead());
+		assertEquals(0, metrics.getParseFailures());
+	}
+
+	@Test
+	public void test_nextTrade_countsParseFailure_whenLineIsInvalid() throws IOException {
+		TradeLogReader reader = readerOf("2023-06-01 09:00:01;TRX;price;879\n");
+		assertThrows(IllegalArgumentException.class, () -> reader.nextTrade());
+		assertEquals(1, metrics.getParseFailures());
+		assertEquals(0, metrics.getTradesRead());
+	}
+
+	@Test
+	public void test_record_addsDurationToHistogramOfTimer() {
+		long start = System.nanoTime();
+		long end = metrics.record(PipelineMetrics.Timer.DAY_FLUSH, start);
+		assertTrue(end >= start);
+		assertEquals(1, metrics.getHistogram(PipelineMetrics.Timer.DAY_FLUSH).getCount());
+		assertEquals(1L, (long) metrics.getLatencyCounts().get("report.writeDay"));
+		assertTrue(metrics.getSummary().contains("report.writeDay[n=1"));
+	}
+
+}
@@ -0,0 +1,103 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class QuantileSketchTest {
+
+	QuantileSketch quantileSketch;
+	double[] quantiles = { 0.01, 0.25, 0.5, 0.75, 0.95, 0.99 };
+
+	@BeforeEach
+	public void setUp() {
+		quantileSketch = new QuantileSketch();
+	}
+
+	@Test
+	public void test_getQuantile_returnsZero_whenNoValuesHaveBeenAdded() {
+		assertEquals(0.0, quantileSketch.getQuantile(0.5));
+	}
+
+	@Test
+	public void test_getQuantile_returnsValueWithinRelativeAccuracy_whenManyValuesHaveBeenAdded() {
+		Random random = new Random(42);
+		double[] values = new double[100_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Math.exp(random.nextGaussian() * 2.0 + 5.0);
+			quantileSketch.add(values[i]);
+		}
+		Arrays.sort(values);
+		for (double quantile : quantiles) {
+			double exactValue = values[(int) (quantile * (values.length - 1))];
+			double estimatedValue = quantileSketch.getQuantile(quantile);
+			assertTrue(Math.abs(estimatedValue - exactValue) <= QuantileSketch.DEFAULT_RELATIVE_ACCURACY * exactValue,
+					quantile + ": " + estimatedValue + " instead of " + exactValue);
+		}
+		assertEquals(values[0], quantileSketch.getQuantile(0.0));
+		assertEquals(values[values.length - 1], quantileSketch.getQuantile(1.0));
+		assertTrue(quantileSketch.getNrOfBuckets() < 2048);
+	}
+
+	@Test
+	public void test_merge_returnsSameQuantilesAsOneSketch_whenValuesAreSplitAcrossSketches() {
+		QuantileSketch firstSketch = new QuantileSketch();
+		QuantileSketch secondSketch = new QuantileSketch();
+		Random random = new Random(7);
+		for (int i = 0; i < 10_000; i++) {
+			double value = 1.0 + random.nextInt(100_000) / 100.0;
+			quantileSketch.add(value);
+			(i % 3 == 0 ? firstSketch : secondSketch).add(value);
+		}
+		secondSketch.merge(firstSketch);
+		assertEquals(quantileSketch.getCount(), secondSketch.getCount());
+		for (double quantile : quantiles) {
+			assertEquals(quantileSketch.getQuantile(quantile), secondSketch.getQuantile(quantile));
+		}
+	}
+
+	@Test
+	public void test_add_keepsNrOfBucketsAtMaximum_whenValuesSpanMoreBuckets() {
+		QuantileSketch smallSketch = new QuantileSketch(0.01, 100);
+		for (int i = 0; i < 1000; i++) {
+			smallSketch.add(Math.pow(1.1, i - 500));
+		}
+		assertEquals(100, smallSketch.getNrOfBuckets());
+		assertEquals(1000, smallSketch.getCount());
+		// rank 989 of the values is 1.1^489, far above the collapsed buckets
+		double value = Math.pow(1.1, 489);
+		assertEquals(value, smallSketch.getQuantile(0.99), value * 0.01);
+	}
+
+	@Test
+	public void test_readStateFrom_restoresQuantiles_whenStateHasBeenWritten() throws IOException {
+		for (int i = 1; i <= 1000; i++) {
+			quantileSketch.add(i);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		quantileSketch.writeStateTo(new DataOutputStream(bytes));
+		QuantileSketch restoredSketch = new QuantileSketch();
+		restoredSketch.readStateFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		for (double quantile : quantiles) {
+			assertEquals(quantileSketch.getQuantile(quantile), restoredSketch.getQuantile(quantile));
+		}
+	}
+
+	@Test
+	public void test_merge_throwsIllegalArgumentException_whenAccuraciesDiffer() {
+		assertThrows(IllegalArgumentException.class,
+				() -> quantileSketch.merge(new QuantileSketch(0.02, QuantileSketch.DEFAULT_MAX_NR_OF_BUCKETS)));
+	}
+
+}
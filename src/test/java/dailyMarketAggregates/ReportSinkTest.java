@@ -0,0 +1,70 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ReportSinkTest {
+
+	ByteArrayOutputStream out;
+	Aggregator aggregator;
+	DayAggregates dayAggregates;
+	LocalDate testDate = LocalDate.of(2023, 6, 1);
+
+	@BeforeEach
+	public void setUp() {
+		out = new ByteArrayOutputStream();
+		aggregator = new Aggregator();
+		dayAggregates = new DayAggregates(testDate);
+		dayAggregates.getAggregatesOfTicker("TT1").addTrade(1, 10.0, 2);
+		dayAggregates.getAggregatesOfTicker("TT1").addTrade(2, 12.5, 1);
+		aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+	}
+
+	@Test
+	public void test_writeCorrection_writesCorrectionRowInCsv_whenFormatIsCsv() throws IOException {
+		ReportSink report = ReportSink.create(ReportSink.Format.CSV, Channels.newChannel(out));
+		report.writeCorrection(testDate, dayAggregates.getAggregatesOfTicker("TT1"));
+		report.flush();
+		String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+		assertEquals("date,name,type,open,close,highest,lowest,volume,vwap,twap,trades,shares,variance,"
+				+ "price_p50,price_p95,price_p99,size_p50,size_p95,size_p99", lines[0]);
+		assertEquals("2023-06-01,TT1,correction,10.0,12.5,12.5,10.0,32.5,10.833333333333334,10.0,2,3,1.5625,"
+				+ "10.0,10.0,10.0,1.0,1.0,1.0", lines[1]);
+	}
+
+	@Test
+	public void test_writeDay_writesOneJsonObjectPerTickerAndIndex_whenFormatIsJsonLines() throws IOException {
+		ReportSink report = ReportSink.create(ReportSink.Format.JSONL, Channels.newChannel(out));
+		report.writeDay(aggregator, dayAggregates);
+		report.flush();
+		String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+		assertEquals(2, lines.length);
+		assertEquals("{\"date\":\"2023-06-01\",\"name\":\"TT1\",\"type\":\"ticker\",\"open\":10.0,\"close\":12.5,"
+				+ "\"highest\":12.5,\"lowest\":10.0,\"volume\":32.5,\"vwap\":10.833333333333334,\"twap\":10.0,"
+				+ "\"trades\":2,\"shares\":3,\"variance\":1.5625,\"price_p50\":10.0,\"price_p95\":10.0,"
+				+ "\"price_p99\":10.0,\"size_p50\":1.0,\"size_p95\":1.0,\"size_p99\":1.0}", lines[0]);
+		assertTrue(lines[1].contains("\"type\":\"index\",\"open\":null"));
+		assertTrue(lines[1].endsWith("\"price_p50\":null,\"price_p95\":null,\"price_p99\":null,\"size_p50\":null,"
+				+ "\"size_p95\":null,\"size_p99\":null}"));
+	}
+
+	@Test
+	public void test_flush_writesNothing_untilCalled() throws IOException {
+		ReportSink report = ReportSink.create(ReportSink.Format.TEXT, Channels.newChannel(out));
+		report.writeDay(aggregator, dayAggregates);
+		assertEquals(0, out.size());
+		report.flush();
+		assertEquals(out.size(), report.getNrOfBytesWritten());
+		assertTrue(new String(out.toByteArray(), StandardCharsets.UTF_8).startsWith("***2023-06-01***"));
+	}
+
+}
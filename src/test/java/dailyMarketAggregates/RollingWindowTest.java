@@ -0,0 +1,86 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RollingWindowTest {
+
+	RollingWindow rollingWindow;
+
+	@BeforeEach
+	public void setUp() {
+		rollingWindow = new RollingWindow(3);
+	}
+
+	@Test
+	public void test_getters_returnZero_whenNoDaysHaveBeenAdded() {
+		assertEquals(0, rollingWindow.getNrOfTradedDays());
+		assertEquals(0.0, rollingWindow.getHighestPrice());
+		assertEquals(0.0, rollingWindow.getLowestPrice());
+		assertEquals(0.0, rollingWindow.getTradedVolume());
+		assertEquals(0.0, rollingWindow.getAverageClosePrice());
+	}
+
+	@Test
+	public void test_getHighestPrice_returnsHighestPriceOfLastDays_whenHighestDayHasLeftWindow() {
+		rollingWindow.addDay(50.0, 40.0, 45.0, 100.0);
+		rollingWindow.addDay(30.0, 20.0, 25.0, 100.0);
+		rollingWindow.addDay(40.0, 10.0, 35.0, 100.0);
+		assertEquals(50.0, rollingWindow.getHighestPrice());
+		rollingWindow.addDay(35.0, 30.0, 32.0, 100.0);
+		assertEquals(40.0, rollingWindow.getHighestPrice());
+		rollingWindow.addDay(20.0, 15.0, 18.0, 100.0);
+		assertEquals(40.0, rollingWindow.getHighestPrice());
+		rollingWindow.addDay(10.0, 5.0, 8.0, 100.0);
+		assertEquals(35.0, rollingWindow.getHighestPrice());
+	}
+
+	@Test
+	public void test_getLowestPrice_returnsLowestPriceOfLastDays_whenLowestDayHasLeftWindow() {
+		rollingWindow.addDay(50.0, 10.0, 45.0, 100.0);
+		rollingWindow.addDay(30.0, 20.0, 25.0, 100.0);
+		rollingWindow.addDay(40.0, 30.0, 35.0, 100.0);
+		assertEquals(10.0, rollingWindow.getLowestPrice());
+		rollingWindow.addDay(45.0, 25.0, 32.0, 100.0);
+		assertEquals(20.0, rollingWindow.getLowestPrice());
+		rollingWindow.addDay(60.0, 40.0, 50.0, 100.0);
+		assertEquals(25.0, rollingWindow.getLowestPrice());
+	}
+
+	@Test
+	public void test_getTradedVolume_returnsExactSumOfLastDays_whenDaysHaveLeftWindow() {
+		for (int i = 0; i < 1000; i++) {
+			rollingWindow.addDay(1.0, 1.0, 1.0, 0.1);
+		}
+		rollingWindow.addDay(1.0, 1.0, 1.0, 0.2);
+		assertEquals(0.4, rollingWindow.getTradedVolume());
+		assertEquals(4000, rollingWindow.getFixedPointTradedVolume());
+	}
+
+	@Test
+	public void test_getAverageClosePrice_ignoresDaysWithoutTrades_whenEmptyDaysHaveBeenAdded() {
+		rollingWindow.addDay(20.0, 10.0, 10.0, 100.0);
+		rollingWindow.addEmptyDay();
+		rollingWindow.addDay(40.0, 30.0, 30.0, 100.0);
+		assertEquals(2, rollingWindow.getNrOfTradedDays());
+		assertEquals(20.0, rollingWindow.getAverageClosePrice());
+		rollingWindow.addEmptyDay();
+		rollingWindow.addEmptyDay();
+		assertEquals(1, rollingWindow.getNrOfTradedDays());
+		assertEquals(30.0, rollingWindow.getAverageClosePrice());
+		assertEquals(40.0, rollingWindow.getHighestPrice());
+		rollingWindow.addEmptyDay();
+		assertEquals(0, rollingWindow.getNrOfTradedDays());
+		assertEquals(0.0, rollingWindow.getHighestPrice());
+		assertEquals(0.0, rollingWindow.getTradedVolume());
+	}
+
+	@Test
+	public void test_constructor_throwsIllegalArgumentException_whenWindowHasNoDays() {
+		assertThrows(IllegalArgumentException.class, () -> new RollingWindow(0));
+	}
+
+}
@@ -0,0 +1,59 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class RunOptionsTest {
+
+	@Test
+	public void test_parse_returnsSequentialModeAndExemplaryLog_whenNoArgumentsAreGiven() {
+		RunOptions options = RunOptions.parse(new String[0]);
+		assertEquals(RunOptions.Mode.SEQUENTIAL, options.getMode());
+		assertEquals("src/main/data/test-market.csv", options.getFile());
+		assertEquals(ReportSink.Format.TEXT, options.getFormat());
+		assertNull(options.findConflict());
+	}
+
+	@Test
+	public void test_parse_returnsValuesAndLogFiles_whenOptionsHaveValues() {
+		RunOptions options = RunOptions.parse(new String[] { "a.csv", "--from", "2023-06-01", "--tickers", "TT1,TT2",
+				"--format", "csv", "b.csv" });
+		assertEquals(RunOptions.Mode.QUERY, options.getMode());
+		assertEquals(LocalDate.of(2023, 6, 1), options.getFrom());
+		assertEquals(Arrays.asList("TT1", "TT2"), options.getTickers());
+		assertEquals(ReportSink.Format.CSV, options.getFormat());
+		assertEquals("b.csv", options.getFile());
+		assertEquals(Arrays.asList("a.csv", "b.csv"), options.getLogFiles());
+	}
+
+	@Test
+	public void test_parse_takesOptionAsLogFile_whenValueIsMissing() {
+		RunOptions options = RunOptions.parse(new String[] { "--streaming", "--output" });
+		assertEquals(RunOptions.Mode.STREAMING, options.getMode());
+		assertEquals("--output", options.getFile());
+		assertNull(options.getOutputFile());
+	}
+
+	@Test
+	public void test_getMode_returnsModeOfHighestPrecedence_whenSeveralModesAreSelected() {
+		RunOptions options = RunOptions.parse(new String[] { "--columnar", "--parallel-days", "--concurrent" });
+		assertEquals(RunOptions.Mode.CONCURRENT, options.getMode());
+	}
+
+	@Test
+	public void test_findConflict_returnsMessage_whenOptionsCannotBeCombined() {
+		assertEquals("--bars cannot be used with --lateness",
+				RunOptions.parse(new String[] { "--bars", "bars.csv", "--lateness", "60" }).findConflict());
+		assertEquals("--checkpoint needs --output",
+				RunOptions.parse(new String[] { "--checkpoint", "run.checkpoint" }).findConflict());
+		assertEquals("--pipeline cannot be used with --follow",
+				RunOptions.parse(new String[] { "--follow", "--pipeline" }).findConflict());
+		assertNull(RunOptions.parse(new String[] { "--pipeline", "--metrics", "0" }).findConflict());
+	}
+
+}
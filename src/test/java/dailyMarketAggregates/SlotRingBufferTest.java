@@ -0,0 +1,77 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class SlotRingBufferTest {
+
+	private static final class LongSlot {
+		long value;
+	}
+
+	@Test
+	public void test_take_returnsSlotsInOrderOfPublishing_whenProducerRunsOnOtherThread()
+			throws InterruptedException {
+		SlotRingBuffer<LongSlot> ringBuffer = new SlotRingBuffer<>(8, LongSlot::new, 3);
+		long nrOfEvents = 100_000;
+		Thread producer = new Thread(() -> {
+			for (long i = 0; i < nrOfEvents; i++) {
+				ringBuffer.claim().value = i;
+				ringBuffer.publish();
+			}
+			ringBuffer.close();
+		});
+		producer.start();
+		long expectedValue = 0;
+		for (LongSlot slot = ringBuffer.take(); slot != null; slot = ringBuffer.take()) {
+			assertEquals(expectedValue++, slot.value);
+		}
+		producer.join();
+		assertEquals(nrOfEvents, expectedValue);
+	}
+
+	@Test
+	public void test_claim_waitsForConsumer_whenAllSlotsAreInUse() throws InterruptedException {
+		SlotRingBuffer<LongSlot> ringBuffer = new SlotRingBuffer<>(2, LongSlot::new, 1);
+		AtomicLong nrOfClaims = new AtomicLong();
+		Thread producer = new Thread(() -> {
+			for (int i = 0; i < 3; i++) {
+				ringBuffer.claim();
+				nrOfClaims.incrementAndGet();
+				ringBuffer.publish();
+			}
+			ringBuffer.close();
+		});
+		producer.start();
+		Thread.sleep(100);
+		assertEquals(2, nrOfClaims.get());
+		// the first slot is given back with the next take
+		ringBuffer.take();
+		ringBuffer.take();
+		producer.join();
+		assertEquals(3, nrOfClaims.get());
+		assertTrue(ringBuffer.getNrOfFullWaits() > 0);
+		ringBuffer.take();
+		assertNull(ringBuffer.take());
+	}
+
+	@Test
+	public void test_take_throwsIllegalStateException_whenBufferIsAbortedWhileWaiting() {
+		SlotRingBuffer<LongSlot> ringBuffer = new SlotRingBuffer<>(4, LongSlot::new, 1);
+		ringBuffer.abort();
+		assertThrows(IllegalStateException.class, () -> ringBuffer.take());
+	}
+
+	@Test
+	public void test_constructor_throwsIllegalArgumentException_whenCapacityIsNoPowerOfTwo() {
+		assertThrows(IllegalArgumentException.class, () -> new SlotRingBuffer<>(6, LongSlot::new, 1));
+		assertThrows(IllegalArgumentException.class, () -> new SlotRingBuffer<>(4, LongSlot::new, 8));
+	}
+
+}
@@ -0,0 +1,54 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class StreamingDayAggregatorTest {
+
+	StreamingDayAggregator dayAggregator;
+	TickerDictionary tickerDictionary;
+	List<DayAggregates> completedDays;
+	int testEpochDay = 19509;
+
+	@BeforeEach
+	public void setUp() {
+		tickerDictionary = new TickerDictionary();
+		completedDays = new ArrayList<>();
+		dayAggregator = new StreamingDayAggregator(tickerDictionary, completedDays::add);
+	}
+
+	@Test
+	public void test_addTrade_passesCompletedDayToListener_whenTradeOfNewDateIsAdded() {
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 1, 10.0, 2);
+		dayAggregator.addTrade(tickerDictionary.idOf("TT2"), testEpochDay, 2, 5.0, 1);
+		assertEquals(0, completedDays.size());
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay + 1, 1, 11.0, 1);
+		assertEquals(1, completedDays.size());
+		assertEquals(LocalDate.ofEpochDay(testEpochDay), completedDays.get(0).getDate());
+		assertEquals(2, completedDays.get(0).getAggregatesPerTicker().size());
+	}
+
+	@Test
+	public void test_addTrade_updatesAggregatesOfTicker_whenTickerIsTradedAgain() {
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 5, 10.0, 2);
+		dayAggregator.addTrade(tickerDictionary.idOf("TT1"), testEpochDay, 1, 12.0, 1);
+		dayAggregator.finishDay();
+		TickerAccumulator tickerAggregates = completedDays.get(0).getAggregatesOfTicker("TT1");
+		assertEquals(12.0, tickerAggregates.getOpenPrice());
+		assertEquals(10.0, tickerAggregates.getClosePrice());
+		assertEquals(32.0, tickerAggregates.getDailyTradedVolume());
+	}
+
+	@Test
+	public void test_finishDay_passesNoDay_ifNoTradeHasBeenAdded() {
+		dayAggregator.finishDay();
+		assertEquals(0, completedDays.size());
+	}
+
+}
@@ -0,0 +1,138 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TickerAccumulatorTest {
+
+	TickerAccumulator tickerAccumulator;
+	LocalDate testDate = LocalDate.parse("2023-06-01");
+	LocalTime earlierTestTime = LocalTime.parse("09:00:01");
+	LocalTime laterTestTime = LocalTime.parse("09:00:02");
+	double lowerPrice = 100.0;
+	double higherPrice = 200.0;
+	String testTicker = "TT";
+
+	@BeforeEach
+	public void setUp() {
+		tickerAccumulator = new TickerAccumulator(testTicker);
+	}
+
+	@Test
+	public void test_getters_returnZero_whenNoTradesHaveBeenAdded() {
+		assertEquals(0, tickerAccumulator.getTradeCount());
+		assertEquals(0.0, tickerAccumulator.getOpenPrice());
+		assertEquals(0.0, tickerAccumulator.getClosePrice());
+		assertEquals(0.0, tickerAccumulator.getHighestPrice());
+		assertEquals(0.0, tickerAccumulator.getLowestPrice());
+		assertEquals(0.0, tickerAccumulator.getDailyTradedVolume());
+	}
+
+	@Test
+	public void test_addTrade_setsAllPricesToPriceOfTrade_whenOneTradeHasBeenAdded() {
+		tickerAccumulator.addTrade(new Trade(testTicker, testDate, earlierTestTime, lowerPrice, 4));
+		assertEquals(1, tickerAccumulator.getTradeCount());
+		assertEquals(lowerPrice, tickerAccumulator.getOpenPrice());
+		assertEquals(lowerPrice, tickerAccumulator.getClosePrice());
+		assertEquals(lowerPrice, tickerAccumulator.getHighestPrice());
+		assertEquals(lowerPrice, tickerAccumulator.getLowestPrice());
+		assertEquals(400.0, tickerAccumulator.getDailyTradedVolume());
+	}
+
+	@Test
+	public void test_addTrade_ordersTradesByTime_whenTradesAreAddedOutOfOrder() {
+		tickerAccumulator.addTrade(new Trade(testTicker, testDate, laterTestTime, lowerPrice, 1));
+		tickerAccumulator.addTrade(new Trade(testTicker, testDate, earlierTestTime, higherPrice, 1));
+		assertEquals(higherPrice, tickerAccumulator.getOpenPrice());
+		assertEquals(lowerPrice, tickerAccumulator.getClosePrice());
+		assertEquals(higherPrice, tickerAccumulator.getHighestPrice());
+		assertEquals(lowerPrice, tickerAccumulator.getLowestPrice());
+		assertEquals(300.0, tickerAccumulator.getDailyTradedVolume());
+	}
+
+	@Test
+	public void test_getDailyTradedVolume_returnsExactSum_whenPricesHaveNoExactBinaryValue() {
+		for (int i = 0; i < 1000; i++) {
+			tickerAccumulator.addTrade(new Trade(testTicker, testDate, earlierTestTime, 0.1, 3));
+		}
+		assertEquals(3_000_000L, tickerAccumulator.getFixedPointDailyTradedVolume());
+		assertEquals(300.0, tickerAccumulator.getDailyTradedVolume());
+	}
+
+	@Test
+	public void test_addTrade_updatesTradeStatistics_whenTradesAreAdded() {
+		tickerAccumulator.addTrade(0, 10.0, 1);
+		tickerAccumulator.addTrade(30, 20.0, 3);
+		tickerAccumulator.addTrade(40, 40.0, 1);
+		assertEquals(3, tickerAccumulator.getTradeCount());
+		assertEquals(5, tickerAccumulator.getNrOfSecuritiesTraded());
+		assertEquals(22.0, tickerAccumulator.getVolumeWeightedAveragePrice());
+		assertEquals(12.5, tickerAccumulator.getTimeWeightedAveragePrice());
+		assertEquals(1400.0 / 9.0, tickerAccumulator.getPriceVariance(), 1e-9);
+	}
+
+	@Test
+	public void test_merge_returnsSameTradeStatisticsAsOneAccumulator_whenLaterTradesAreMerged() {
+		TickerAccumulator laterAggregates = new TickerAccumulator(testTicker);
+		tickerAccumulator.addTrade(0, 10.0, 1);
+		laterAggregates.addTrade(30, 20.0, 3);
+		laterAggregates.addTrade(40, 40.0, 1);
+		tickerAccumulator.merge(laterAggregates);
+		assertEquals(5, tickerAccumulator.getNrOfSecuritiesTraded());
+		assertEquals(22.0, tickerAccumulator.getVolumeWeightedAveragePrice());
+		assertEquals(12.5, tickerAccumulator.getTimeWeightedAveragePrice());
+		assertEquals(1400.0 / 9.0, tickerAccumulator.getPriceVariance(), 1e-9);
+	}
+
+	@Test
+	public void test_getTimeWeightedAveragePrice_returnsSameValue_whenTradesAreAddedInShuffledOrder() {
+		// trades at distinct seconds in time order
+		List<int[]> trades = new ArrayList<>();
+		Random random = new Random(42);
+		for (int secondOfDay = 0; secondOfDay < 86400; secondOfDay += 1 + random.nextInt(600)) {
+			trades.add(new int[] { secondOfDay, 1 + random.nextInt(10_000_000) });
+		}
+		TickerAccumulator orderedAggregates = new TickerAccumulator(testTicker);
+		for (int[] trade : trades) {
+			orderedAggregates.addFixedPointTrade(trade[0], trade[1], 1);
+		}
+		for (int round = 0; round < 10; round++) {
+			List<int[]> shuffledTrades = new ArrayList<>(trades);
+			Collections.shuffle(shuffledTrades, random);
+			TickerAccumulator shuffledAggregates = new TickerAccumulator(testTicker, true, true);
+			for (int[] trade : shuffledTrades) {
+				shuffledAggregates.addFixedPointTrade(trade[0], trade[1], 1);
+			}
+			assertEquals(orderedAggregates.getTimeWeightedAveragePrice(),
+					shuffledAggregates.getTimeWeightedAveragePrice());
+			assertEquals(orderedAggregates.getClosePrice(), shuffledAggregates.getClosePrice());
+		}
+	}
+
+	@Test
+	public void test_addTrade_returnsSameOpenAndClosePriceAsAggregator_whenTradesShareTheSameTime() {
+		List<Trade> trades = new ArrayList<>();
+		trades.add(new Trade(testTicker, testDate, earlierTestTime, lowerPrice, 1));
+		trades.add(new Trade(testTicker, testDate, earlierTestTime, higherPrice, 1));
+		trades.add(new Trade(testTicker, testDate, laterTestTime, lowerPrice, 1));
+		trades.add(new Trade(testTicker, testDate, laterTestTime, higherPrice, 1));
+		for (Trade trade : trades) {
+			tickerAccumulator.addTrade(trade);
+		}
+		Aggregator aggregator = new Aggregator();
+		assertEquals(aggregator.calculateOpenPriceOfTicker(trades), tickerAccumulator.getOpenPrice());
+		assertEquals(aggregator.calculateClosePriceOfTicker(trades), tickerAccumulator.getClosePrice());
+		assertEquals(lowerPrice, tickerAccumulator.getOpenPrice());
+		assertEquals(higherPrice, tickerAccumulator.getClosePrice());
+	}
+
+}
@@ -57,4 +57,14 @@ public class TradeDayTest {
 		assertEquals(2, tradesPerTicker.size());
 	}
 
+	@Test
+	public void test_addTrade_addsTradesToListOfTicker_whenTradesAreAddedByTickerId() {
+		when(mockTrade1.getTicker()).thenReturn(testTicker1);
+		tradeDay.addTrade(3, mockTrade1);
+		tradeDay.addTrade(3, mockTrade2);
+		Map<String, List<Trade>> tradesPerTicker = tradeDay.getTradesPerTicker();
+		assertEquals(1, tradesPerTicker.size());
+		assertEquals(2, tradesPerTicker.get(testTicker1).size());
+	}
+
 }
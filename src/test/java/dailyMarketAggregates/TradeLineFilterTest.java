@@ -0,0 +1,54 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class TradeLineFilterTest {
+
+	private static boolean accepts(TradeLineFilter filter, String line) {
+		ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII));
+		return filter.accept(buffer, 0, buffer.limit());
+	}
+
+	@Test
+	public void test_accept_returnsFalse_whenDateIsOutsideRange() {
+		TradeLineFilter filter = new TradeLineFilter(LocalDate.parse("2023-06-02"), LocalDate.parse("2023-06-05"),
+				null);
+		assertFalse(accepts(filter, "2023-06-01 09:00:00;ABC;10,5;100"));
+		assertTrue(accepts(filter, "2023-06-02 09:00:00;ABC;10,5;100"));
+		assertTrue(accepts(filter, "2023-06-05 17:00:00;ABC;10,5;100"));
+		assertFalse(accepts(filter, "2023-06-06 09:00:00;ABC;10,5;100"));
+	}
+
+	@Test
+	public void test_accept_returnsTrue_onlyWhenTickerIsSelected() {
+		TradeLineFilter filter = new TradeLineFilter(null, null, Arrays.asList("ABC", "MEGA"));
+		assertTrue(accepts(filter, "2023-06-01 09:00:00;ABC;10,5;100"));
+		assertTrue(accepts(filter, "2023-06-01 09:00:00;MEGA;10,5;100"));
+		assertFalse(accepts(filter, "2023-06-01 09:00:00;AB;10,5;100"));
+		assertFalse(accepts(filter, "2023-06-01 09:00:00;ABCD;10,5;100"));
+	}
+
+	@Test
+	public void test_nextTrade_skipsLinesRejectedByFilter() throws IOException {
+		byte[] log = ("2023-06-01 09:00:00;ABC;10,5;100\n2023-06-01 09:00:01;NGL;11;5\n"
+				+ "2023-06-02 09:00:00;ABC;12;1\n").getBytes(StandardCharsets.US_ASCII);
+		try (TradeLogReader reader = new TradeLogReader(Channels.newChannel(new ByteArrayInputStream(log)))) {
+			reader.setLineFilter(new TradeLineFilter(null, LocalDate.parse("2023-06-01"), Arrays.asList("NGL")));
+			assertTrue(reader.nextTrade());
+			assertTrue(reader.getParser().tickerEquals("NGL"));
+			assertFalse(reader.nextTrade());
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TradeLogFollowerTest {
+
+	Path logFile;
+	TradeLogFollower follower;
+	List<String> tickers;
+	int nrOfCatchUps;
+	TradeLogFollower.FollowListener listener;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		logFile = Files.createTempFile("live-market", ".csv");
+		follower = new TradeLogFollower(logFile, 0, 10);
+		tickers = new ArrayList<>();
+		listener = new TradeLogFollower.FollowListener() {
+
+			@Override
+			public void onTrade(TradeParser parser) {
+				tickers.add(parser.getTicker());
+			}
+
+			@Override
+			public void onCaughtUp() {
+				nrOfCatchUps++;
+			}
+
+		};
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		follower.close();
+		Files.deleteIfExists(logFile);
+	}
+
+	private void append(String lines) throws IOException {
+		Files.write(logFile, lines.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+	}
+
+	@Test
+	public void test_readAppendedTrades_readsOnlyNewLines_whenLogIsAppended() throws IOException {
+		append("2023-06-01 09:00:01;TRX;3997,90;879\n");
+		assertEquals(1, follower.readAppendedTrades(listener));
+		assertEquals(0, follower.readAppendedTrades(listener));
+		append("2023-06-01 09:00:02;NGL;5000,83;510\n2023-06-01 09:00:03;ABC;999,99;10\n");
+		assertEquals(2, follower.readAppendedTrades(listener));
+		assertEquals(3, tickers.size());
+		assertEquals("ABC", tickers.get(2));
+		assertEquals(2, nrOfCatchUps);
+	}
+
+	@Test
+	public void test_readAppendedTrades_waitsForLineFeed_whenLastLineIsPartial() throws IOException {
+		append("2023-06-01 09:00:01;TRX;3997,90;879\n2023-06-01 09:00:02;NG");
+		assertEquals(1, follower.readAppendedTrades(listener));
+		append("L;5000,83;510");
+		assertEquals(0, follower.readAppendedTrades(listener));
+		append("\n");
+		assertEquals(1, follower.readAppendedTrades(listener));
+		assertEquals("NGL", tickers.get(1));
+	}
+
+	@Test
+	public void test_readAppendedTrades_throwsIOException_whenLogIsTruncated() throws IOException {
+		append("2023-06-01 09:00:01;TRX;3997,90;879\n");
+		follower.readAppendedTrades(listener);
+		Files.write(logFile, new byte[0]);
+		assertThrows(IOException.class, () -> follower.readAppendedTrades(listener));
+	}
+
+}
@@ -0,0 +1,139 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TradeParserTest {
+
+	TradeParser parser;
+	String testLine = "2023-06-01 09:00:01;TRX;3997,90;879";
+	String testFile = "src/main/data/test-market.csv";
+
+	@BeforeEach
+	public void setUp() {
+		parser = new TradeParser();
+	}
+
+	private boolean parse(String line) {
+		ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII));
+		return parser.parseLine(buffer, 0, buffer.limit());
+	}
+
+	@Test
+	public void test_parseLine_decodesAllFieldsIntoPrimitives_whenLineIsValid() {
+		assertTrue(parse(testLine));
+		assertEquals(LocalDate.parse("2023-06-01").toEpochDay(), parser.getEpochDay());
+		assertEquals(LocalTime.parse("09:00:01").toSecondOfDay(), parser.getSecondOfDay());
+		assertEquals("TRX", parser.getTicker());
+		assertEquals(39_979_000L, parser.getPrice());
+		assertEquals(3997.90, parser.getPriceAsDouble());
+		assertEquals(879, parser.getNrOfSecuritiesTraded());
+	}
+
+	@Test
+	public void test_getTicker_returnsInternedTicker_whenTickerHasBeenParsedBefore() {
+		parse(testLine);
+		String ticker = parser.getTicker();
+		parse("2023-06-01 09:00:05;NGL;5000,83;510");
+		parse("2023-06-01 09:00:09;TRX;3998,10;12");
+		assertTrue(ticker == parser.getTicker());
+		assertEquals(0, parser.getTickerId());
+		// the ticker of the second line has not been asked for
+		assertEquals(1, parser.getTickerDictionary().size());
+	}
+
+	@Test
+	public void test_getTickerId_returnsIdOfSharedDictionary_whenDictionaryIsSet() {
+		TickerDictionary tickerDictionary = new TickerDictionary();
+		tickerDictionary.idOf("ABC");
+		parser.setTickerDictionary(tickerDictionary);
+		parse(testLine);
+		assertEquals(1, parser.getTickerId());
+		assertEquals(1, tickerDictionary.idOf(parser));
+		assertEquals(1, tickerDictionary.find("TRX"));
+	}
+
+	@Test
+	public void test_parseLine_ignoresCarriageReturn_whenLineEndsWithCarriageReturn() {
+		assertTrue(parse(testLine + "\r"));
+		assertEquals(879, parser.getNrOfSecuritiesTraded());
+	}
+
+	@Test
+	public void test_parseLine_returnsFalse_whenLineIsBlank() {
+		assertFalse(parse(""));
+		assertFalse(parse("\r"));
+	}
+
+	@Test
+	public void test_parseLine_throwsIllegalArgumentException_whenLineIsNotATrade() {
+		assertThrows(IllegalArgumentException.class, () -> parse("2023-06-31 09:00:01;TRX;3997,90;879"));
+		assertThrows(IllegalArgumentException.class, () -> parse("2023-06-01 09:00:01;TRX;3997,90"));
+		assertThrows(IllegalArgumentException.class, () -> parse("2023-06-01 09:00:01;;3997,90;879"));
+		assertThrows(IllegalArgumentException.class, () -> parse("2023-06-01 09:00:01;TRX;3997,90;87x"));
+	}
+
+	@Test
+	public void test_toEpochDay_returnsSameEpochDayAsLocalDate_forDatesAroundLeapYears() {
+		LocalDate date = LocalDate.parse("1899-12-25");
+		while (date.isBefore(LocalDate.parse("2101-01-05"))) {
+			assertEquals(date.toEpochDay(),
+					TradeParser.toEpochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+			date = date.plusDays(1);
+		}
+	}
+
+	@Test
+	public void test_parseLine_returnsSameTradesAsStringParsing_forEveryLineOfMarketLog() throws IOException {
+		try (BufferedReader bufferedReader = new BufferedReader(new FileReader(testFile));
+				TradeLogReader reader = TradeLogReader.open(Paths.get(testFile))) {
+			String currentLine;
+			int lineNumber = 0;
+			while ((currentLine = bufferedReader.readLine()) != null) {
+				lineNumber++;
+				String[] tradeInfo = currentLine.split(";");
+				String[] dateTime = tradeInfo[0].split(" ");
+				LocalDate date = LocalDate.parse(dateTime[0]);
+				LocalTime time = LocalTime.parse(dateTime[1]);
+				double price = Double.parseDouble(tradeInfo[2].replace(',', '.'));
+				int nrOfSecuritiesTraded = Integer.parseInt(tradeInfo[3]);
+
+				assertTrue(reader.nextTrade(), "line " + lineNumber);
+				TradeParser tradeParser = reader.getParser();
+				assertEquals(date.toEpochDay(), tradeParser.getEpochDay(), "line " + lineNumber);
+				assertEquals(time.toSecondOfDay(), tradeParser.getSecondOfDay(), "line " + lineNumber);
+				assertEquals(tradeInfo[1], tradeParser.getTicker(), "line " + lineNumber);
+				assertEquals(price, tradeParser.getPriceAsDouble(), "line " + lineNumber);
+				assertEquals(nrOfSecuritiesTraded, tradeParser.getNrOfSecuritiesTraded(), "line " + lineNumber);
+			}
+			assertFalse(reader.nextTrade());
+		}
+	}
+
+	@Test
+	public void test_nextTrade_readsEveryLine_whenLinesAreLongerThanTheBuffer() throws IOException {
+		int nrOfTrades = 0;
+		try (TradeLogReader reader = new TradeLogReader(FileChannel.open(Paths.get(testFile)), 16)) {
+			while (reader.nextTrade()) {
+				nrOfTrades++;
+			}
+		}
+		assertEquals(104465, nrOfTrades);
+	}
+
+}
@@ -0,0 +1,89 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TradePipelineTest {
+
+	Path logFile;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		logFile = Files.createTempFile("market", ".csv");
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(logFile);
+	}
+
+	/*
+	 * Returns the text report of the log aggregated by a pipeline.
+	 */
+	private String runPipeline(int batchSize) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ReportSink report = ReportSink.create(ReportSink.Format.TEXT, Channels.newChannel(out));
+		new TradePipeline(logFile, new Aggregator(), report, null, batchSize).run();
+		report.flush();
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/*
+	 * Returns the text report of the log aggregated on a single thread.
+	 */
+	private String runStreaming() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ReportSink report = ReportSink.create(ReportSink.Format.TEXT, Channels.newChannel(out));
+		Aggregator aggregator = new Aggregator();
+		StreamingDayAggregator dayAggregator = new StreamingDayAggregator(aggregator.getTickerDictionary(),
+				dayAggregates -> {
+					aggregator.addLastKnownAggregatesOfDay(dayAggregates);
+					report.writeDay(aggregator, dayAggregates);
+				});
+		try (TradeLogReader reader = TradeLogReader.open(logFile)) {
+			reader.getParser().setTickerDictionary(aggregator.getTickerDictionary());
+			while (reader.nextTrade()) {
+				dayAggregator.addTrade(reader.getParser());
+			}
+		}
+		dayAggregator.finishDay();
+		report.flush();
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void test_run_writesSameReportAsStreaming_whenLogSpansSeveralChunksAndDays() throws IOException {
+		StringBuilder log = new StringBuilder();
+		String[] tickers = { "ABC", "MEGA", "NGL", "TRX" };
+		for (int day = 1; day <= 3; day++) {
+			for (int i = 0; i < 5000; i++) {
+				log.append(String.format("2023-06-%02d %02d:%02d:%02d;%s;%d,%02d;%d%n", day, 9 + i / 3600,
+						i / 60 % 60, i % 60, tickers[i % tickers.length], 100 + i % 37, i % 100, 1 + i % 500));
+			}
+		}
+		// the last line has no line end
+		log.append("2023-06-04 09:00:00;ABC;101,50;7");
+		Files.write(logFile, log.toString().getBytes(StandardCharsets.UTF_8));
+		String expectedReport = runStreaming();
+		assertEquals(expectedReport, runPipeline(1));
+		assertEquals(expectedReport, runPipeline(TradePipeline.DEFAULT_BATCH_SIZE));
+	}
+
+	@Test
+	public void test_run_throwsIllegalArgumentException_whenLineCannotBeParsed() throws IOException {
+		Files.write(logFile, "2023-06-01 09:00:01;TRX;3997,90;879\nnot a trade\n".getBytes(StandardCharsets.UTF_8));
+		assertThrows(IllegalArgumentException.class, () -> runPipeline(TradePipeline.DEFAULT_BATCH_SIZE));
+	}
+
+}
@@ -0,0 +1,91 @@
+package dailyMarketAggregates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TradeStoreTest {
+
+	Path testFile = Paths.get("src/main/data/test-market.csv");
+	Path storeFile;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		storeFile = Files.createTempFile("test-market", ".dbts");
+		TradeStoreWriter.convert(testFile, storeFile);
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(storeFile);
+	}
+
+	@Test
+	public void test_aggregate_returnsSameAggregatesAsLog_whenAllDaysAndTickersAreSelected() throws IOException {
+		List<DayAggregates> expectedDays = new ArrayList<>();
+		StreamingDayAggregator dayAggregator = new StreamingDayAggregator(new TickerDictionary(), expectedDays::add);
+		try (TradeLogReader reader = TradeLogReader.open(testFile)) {
+			while (reader.nextTrade()) {
+				dayAggregator.addTrade(reader.getParser());
+			}
+			dayAggregator.finishDay();
+		}
+		try (TradeStore tradeStore = TradeStore.open(storeFile)) {
+			List<DayAggregates> days = tradeStore.aggregate(null, null, null);
+			assertEquals(expectedDays.size(), days.size());
+			for (int i = 0; i < days.size(); i++) {
+				assertEquals(expectedDays.get(i).getDate(), days.get(i).getDate());
+				assertEquals(new ArrayList<>(expectedDays.get(i).getAggregatesPerTicker().keySet()),
+						new ArrayList<>(days.get(i).getAggregatesPerTicker().keySet()));
+				for (Map.Entry<String, TickerAccumulator> tickerEntry : expectedDays.get(i).getAggregatesPerTicker()
+						.entrySet()) {
+					TickerAccumulator expected = tickerEntry.getValue();
+					TickerAccumulator actual = days.get(i).getAggregatesOfTicker(tickerEntry.getKey());
+					assertEquals(expected.getTradeCount(), actual.getTradeCount());
+					assertEquals(expected.getOpenPrice(), actual.getOpenPrice());
+					assertEquals(expected.getClosePrice(), actual.getClosePrice());
+					assertEquals(expected.getHighestPrice(), actual.getHighestPrice());
+					assertEquals(expected.getLowestPrice(), actual.getLowestPrice());
+					assertEquals(expected.getDailyTradedVolume(), actual.getDailyTradedVolume());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void test_replay_visitsOnlyTradesOfSelectedDaysAndTickers() throws IOException {
+		LocalDate date = LocalDate.parse("2023-06-02");
+		int expectedTrades = 0;
+		try (TradeLogReader reader = TradeLogReader.open(testFile)) {
+			while (reader.nextTrade()) {
+				if (reader.getParser().getEpochDay() == date.toEpochDay() && reader.getParser().tickerEquals("MEGA")) {
+					expectedTrades++;
+				}
+			}
+		}
+		try (TradeStore tradeStore = TradeStore.open(storeFile)) {
+			int megaId = tradeStore.getTickerDictionary().find("MEGA");
+			int[] replayedTrades = new int[1];
+			tradeStore.replay(date, date, Arrays.asList("MEGA", "UNKNOWN"),
+					(tickerId, epochDay, secondOfDay, price, nrOfSecuritiesTraded) -> {
+						assertEquals(megaId, tickerId);
+						assertEquals(date.toEpochDay(), epochDay);
+						replayedTrades[0]++;
+					});
+			assertEquals(expectedTrades, replayedTrades[0]);
+		}
+	}
+
+}